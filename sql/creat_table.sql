@@ -56,3 +56,17 @@ create table chat_history
     INDEX idx_createTime (createTime),             -- 提升基于时间的查询性能
     INDEX idx_appId_createTime (appId, createTime) -- 游标查询核心索引
 ) comment '对话历史' collate = utf8mb4_unicode_ci;
+
+-- 对话历史摘要表
+create table chat_history_summary
+(
+    id            bigint auto_increment comment 'id' primary key,
+    appId         bigint                             not null comment '应用id',
+    summary       text                               not null comment '摘要内容',
+    lastHistoryId bigint                             not null comment '摘要覆盖到的最后一条对话历史id',
+    messageCount  int      default 0                 not null comment '本次摘要压缩的消息条数',
+    createTime    datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime    datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    isDelete      tinyint  default 0                 not null comment '是否删除',
+    INDEX idx_appId_createTime (appId, createTime) -- 查询应用最新摘要
+) comment '对话历史摘要' collate = utf8mb4_unicode_ci;
@@ -54,6 +54,19 @@ public interface AiCodeGeneratorService {
     @SystemMessage(fromResource = "prompt/codegen-multi-file-system-prompt.txt")
     Flux<String> generateMultiFileCodeStream(String userMessage);
 
+    /**
+     * 流式生成增量修改（HTML / MULTI_FILE 已有代码时使用）
+     * <p>
+     * 模型只输出 SEARCH / REPLACE 修改块，由 {@link com.ye.yeaicodemother.core.parser.CodePatchParser}
+     * 解析后应用到已保存的文件上。
+     * </p>
+     *
+     * @param userMessage 用户修改要求
+     * @return 字符串片段的响应式流
+     */
+    @SystemMessage(fromResource = "prompt/codegen-code-edit-system-prompt.txt")
+    Flux<String> generateCodeEditStream(String userMessage);
+
     /**
      * 流式生成 Vue 项目（支持工具调用）
      * <p>
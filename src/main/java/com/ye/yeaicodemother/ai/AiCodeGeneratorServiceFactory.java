@@ -3,20 +3,28 @@ package com.ye.yeaicodemother.ai;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ye.yeaicodemother.ai.guardrail.PromptSafetyInputGuardrail;
+import com.ye.yeaicodemother.ai.tools.ToolLoopSupervisor;
 import com.ye.yeaicodemother.ai.tools.ToolManager;
+import com.ye.yeaicodemother.ai.tools.ToolMetricsRecorder;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
 import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
 import com.ye.yeaicodemother.service.ChatHistoryService;
+import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolExecutor;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.ye.yeaicodemother.utils.CacheKeyUtils.buildAiServiceCacheKey;
 
@@ -31,6 +39,13 @@ import static com.ye.yeaicodemother.utils.CacheKeyUtils.buildAiServiceCacheKey;
 @Slf4j
 public class AiCodeGeneratorServiceFactory {
 
+    /**
+     * 单轮对话中最多连续调用工具的次数
+     * 批量写入 / 批量修改工具一次调用处理多个文件，只计一次。
+     * 流式对话的工具循环不读取该配置，由 {@link ToolLoopSupervisor} 按相同的上限拒绝多余的调用
+     */
+    private static final int MAX_SEQUENTIAL_TOOLS_INVOCATIONS = ToolLoopSupervisor.MAX_TOOL_CALLS_PER_TURN;
+
     /**
      * 全局共享的非流式聊天模型
      */
@@ -61,9 +76,24 @@ public class AiCodeGeneratorServiceFactory {
     @Resource
     private ToolManager toolManager;
 
+    /**
+     * 工具调用循环监督器，拦截重复调用和无进展的工具调用循环
+     */
+    @Resource
+    private ToolLoopSupervisor toolLoopSupervisor;
+
+    /**
+     * 工具调用指标记录器
+     */
+    @Resource
+    private ToolMetricsRecorder toolMetricsRecorder;
+
     @Resource
     private PromptSafetyInputGuardrail promptSafetyInputGuardrail;
 
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
     /**
      * AI 服务实例缓存
      * 缓存策略：
@@ -78,6 +108,14 @@ public class AiCodeGeneratorServiceFactory {
             .removalListener((key, value, cause) -> log.debug("AI 服务实例被移除，缓存键: {}, 原因: {}", key, cause))
             .build();
 
+    /**
+     * 注册到集群失效总线，其他节点变更应用状态时驱逐本节点的服务实例
+     */
+    @PostConstruct
+    public void registerInvalidationListener() {
+        appCacheInvalidationManager.registerListener(this::invalidateAppCache);
+    }
+
     /**
      * 根据 appId 和代码生成类型获取 AI 服务实例（带缓存）
      * <p>
@@ -99,11 +137,27 @@ public class AiCodeGeneratorServiceFactory {
         return serviceCache.get(cacheKey, key -> createAiCodeGeneratorService(appId, codeGenType));
     }
 
+    /**
+     * 使指定应用的全部 AI 服务实例缓存失效
+     * <p>
+     * 应用的对话记忆需要重建时调用（如对话历史被压缩为摘要），
+     * 下次获取服务时会重新从数据库加载历史到记忆中。
+     * 跨节点失效请使用 {@link AppCacheInvalidationManager#invalidate(Long, String)}。
+     * </p>
+     *
+     * @param appId 应用 ID
+     */
+    public void invalidateAppCache(long appId) {
+        String keyPrefix = appId + "_";
+        serviceCache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+        log.info("AI 服务实例缓存已失效，appId: {}", appId);
+    }
+
     /**
      * 创建新的 AI 代码生成服务实例
      * <p>
      * - 为每个 appId 初始化独立的 {@link MessageWindowChatMemory}
-     * - 从数据库加载最近 20 条历史消息到记忆中
+     * - VUE_PROJECT 从数据库加载最近 20 条历史消息到记忆中（HTML / MULTI_FILE 使用快照式上下文）
      * - 根据 codeGenType 选择不同的模型和功能配置：
      * • VUE_PROJECT：启用推理模型 + 工具调用 + 幻觉防护
      * • HTML / MULTI_FILE：使用默认流式模型，无工具调用
@@ -122,8 +176,11 @@ public class AiCodeGeneratorServiceFactory {
                 .maxMessages(20)
                 .build();
         // 从数据库加载历史对话到记忆中
-        int loadedCount = chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, 20);
-        log.info("为 appId {} 加载 {} 条历史对话到记忆中", appId, loadedCount);
+        // HTML / MULTI_FILE 每轮对话前都会由 SnapshotChatContextBuilder 重建记忆，无需加载
+        if (codeGenType == CodeGenTypeEnum.VUE_PROJECT) {
+            int loadedCount = chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, 20);
+            log.info("为 appId {} 加载 {} 条历史对话到记忆中", appId, loadedCount);
+        }
 
         // 根据代码生成类型选择不同的模型配置
         return switch (codeGenType) {
@@ -132,14 +189,14 @@ public class AiCodeGeneratorServiceFactory {
                     .chatModel(chatModel)
                     .streamingChatModel(openAiStreamingChatModel)
                     .chatMemoryProvider(memoryId -> chatMemory)
-                    .tools(toolManager.getAllTools())
+                    .tools(buildSupervisedTools())
                     // 处理工具调用幻觉问题
                     .hallucinatedToolNameStrategy(toolExecutionRequest ->
                             ToolExecutionResultMessage.from(toolExecutionRequest,
                                     "Error: there is no tool called " + toolExecutionRequest.name())
                     )
                     .inputGuardrails(promptSafetyInputGuardrail) // 添加输入护轨
-                    .maxSequentialToolsInvocations(20)
+                    .maxSequentialToolsInvocations(MAX_SEQUENTIAL_TOOLS_INVOCATIONS)
                     .build();
             // HTML 和多文件生成使用默认模型
             case HTML, MULTI_FILE -> AiServices.builder(AiCodeGeneratorService.class)
@@ -147,10 +204,21 @@ public class AiCodeGeneratorServiceFactory {
                     .streamingChatModel(openAiStreamingChatModel)
                     .chatMemory(chatMemory)
                     .inputGuardrails(promptSafetyInputGuardrail) // 添加输入护轨
-                    .maxSequentialToolsInvocations(20)
+                    .maxSequentialToolsInvocations(MAX_SEQUENTIAL_TOOLS_INVOCATIONS)
                     .build();
         };
     }
 
+    /**
+     * 为所有工具方法构建执行器：内层记录调用指标，外层进行循环监督
+     *
+     * @return 工具定义 -> 工具执行器
+     */
+    private Map<ToolSpecification, ToolExecutor> buildSupervisedTools() {
+        Map<ToolSpecification, ToolExecutor> tools = new LinkedHashMap<>();
+        toolMetricsRecorder.instrumentTools((Object[]) toolManager.getAllTools())
+                .forEach((toolSpecification, toolExecutor) ->
+                        tools.put(toolSpecification, toolLoopSupervisor.supervise(toolExecutor)));
+        return tools;
+    }
 }
-
@@ -0,0 +1,29 @@
+package com.ye.yeaicodemother.ai.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 增量修改块（SEARCH / REPLACE）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodePatch {
+
+    /**
+     * 目标文件名（如 index.html / style.css / script.js）
+     */
+    private String fileName;
+
+    /**
+     * 要查找的原始内容，为空表示追加到文件末尾
+     */
+    private String searchContent;
+
+    /**
+     * 替换后的内容
+     */
+    private String replaceContent;
+}
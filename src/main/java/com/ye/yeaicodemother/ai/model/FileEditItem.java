@@ -0,0 +1,25 @@
+package com.ye.yeaicodemother.ai.model;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量修改文件中的单处修改
+ */
+@Description("对单个文件的一处修改，用新内容替换指定的旧内容")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileEditItem {
+
+    @Description("文件的相对路径")
+    private String relativeFilePath;
+
+    @Description("要替换的旧内容")
+    private String oldContent;
+
+    @Description("替换后的新内容")
+    private String newContent;
+}
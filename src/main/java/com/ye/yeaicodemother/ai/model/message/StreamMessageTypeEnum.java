@@ -10,6 +10,7 @@ public enum StreamMessageTypeEnum {
 
     AI_RESPONSE("ai_response", "AI响应"),
     TOOL_REQUEST("tool_request", "工具请求"),
+    TOOL_STREAMING("tool_streaming", "工具参数流式输出"),
     TOOL_EXECUTED("tool_executed", "工具执行结果");
 
     private final String value;
@@ -0,0 +1,30 @@
+package com.ye.yeaicodemother.ai.model.message;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 工具参数流式输出消息（工具调用尚未完成时，实时推送正在写入的文件内容）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class ToolStreamingMessage extends StreamMessage {
+
+    private String id;
+
+    private String name;
+
+    private String filePath;
+
+    private String delta;
+
+    public ToolStreamingMessage(String id, String name, String filePath, String delta) {
+        super(StreamMessageTypeEnum.TOOL_STREAMING.getValue());
+        this.id = id;
+        this.name = name;
+        this.filePath = filePath;
+        this.delta = delta;
+    }
+}
@@ -22,6 +22,15 @@ public abstract class BaseTool {
      */
     public abstract String getDisplayName();
 
+    /**
+     * 是否为只读工具（不会修改项目文件）
+     *
+     * @return 只读工具返回 true
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
     /**
      * 生成工具请求时的返回值（显示给用户）
      *
@@ -38,4 +47,18 @@ public abstract class BaseTool {
      * @return 格式化的工具执行结果
      */
     public abstract String generateToolExecutedResult(JSONObject arguments);
+
+    /**
+     * 生成持久化到对话历史中的工具执行记录
+     * <p>
+     * 默认与前端展示内容一致；涉及大段文件内容的工具应覆盖此方法，
+     * 只记录文件引用（路径 + 内容哈希 + 大小），文件内容本身以项目目录为准。
+     * </p>
+     *
+     * @param arguments 工具执行参数
+     * @return 持久化的工具执行记录
+     */
+    public String generateToolHistoryResult(JSONObject arguments) {
+        return generateToolExecutedResult(arguments);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import com.ye.yeaicodemother.ai.model.FileEditItem;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量文件修改工具
+ * 一次工具调用对多个文件做多处替换，同一文件的多处修改按顺序叠加；任一修改失败则全部不生效
+ */
+@Slf4j
+@Component
+public class FileBatchModifyTool extends BaseTool {
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Tool("批量修改多个文件，每项修改用新内容替换指定文件中的旧内容，同一文件的多处修改按顺序生效，任一修改失败则所有修改均不生效")
+    public String modifyFiles(
+            @P("修改列表，每项包含文件的相对路径、要替换的旧内容和替换后的新内容")
+            List<FileEditItem> edits,
+            @ToolMemoryId Long appId
+    ) {
+        if (CollUtil.isEmpty(edits)) {
+            return "错误：修改列表不能为空";
+        }
+        try {
+            return projectWorkspaceManager.execute(appId, workspace -> {
+                // 1. 在内存中依次应用全部修改，记录每项结果
+                Map<String, String> modifiedFiles = new LinkedHashMap<>();
+                List<String> results = new ArrayList<>();
+                boolean allApplied = true;
+                for (FileEditItem edit : edits) {
+                    String relativeFilePath = edit.getRelativeFilePath();
+                    String filePath = projectWorkspaceManager.normalizePath(appId, relativeFilePath);
+                    if (StrUtil.isEmpty(filePath)) {
+                        results.add("错误：文件路径不合法 - " + relativeFilePath);
+                        allApplied = false;
+                        continue;
+                    }
+                    String content = modifiedFiles.containsKey(filePath) ? modifiedFiles.get(filePath) : workspace.read(filePath);
+                    if (content == null) {
+                        results.add("错误：文件不存在或不是文件 - " + relativeFilePath);
+                        allApplied = false;
+                    } else if (StrUtil.isEmpty(edit.getOldContent()) || !content.contains(edit.getOldContent())) {
+                        results.add("警告：文件中未找到要替换的内容 - " + relativeFilePath);
+                        allApplied = false;
+                    } else {
+                        modifiedFiles.put(filePath, content.replace(edit.getOldContent(), StrUtil.nullToEmpty(edit.getNewContent())));
+                        results.add("修改成功: " + relativeFilePath);
+                    }
+                }
+                if (!allApplied) {
+                    return buildReport("存在无法应用的修改，所有修改均未生效", results);
+                }
+                // 2. 全部修改成功后统一写入内存，大文件也不会中途写回磁盘
+                workspace.writeAll(modifiedFiles);
+                log.info("成功批量修改 {} 个文件（{} 处修改）, appId: {}", modifiedFiles.size(), edits.size(), appId);
+                return buildReport("成功应用 " + edits.size() + " 处修改，涉及 " + modifiedFiles.size() + " 个文件", results);
+            });
+        } catch (IOException e) {
+            String errorMessage = "批量修改文件失败, 错误: " + e.getMessage();
+            log.error(errorMessage, e);
+            return errorMessage;
+        }
+    }
+
+    private String buildReport(String summary, List<String> results) {
+        StringBuilder report = new StringBuilder(summary).append("\n");
+        for (int i = 0; i < results.size(); i++) {
+            report.append(i + 1).append(". ").append(results.get(i)).append("\n");
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String getToolName() {
+        return "modifyFiles";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "批量修改文件";
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments) {
+        JSONArray edits = arguments.getJSONArray("edits");
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; edits != null && i < edits.size(); i++) {
+            JSONObject edit = edits.getJSONObject(i);
+            result.append(String.format("""
+                    [工具调用] %s %s
+
+                    替换前：
+                    ```
+                    %s
+                    ```
+
+                    替换后：
+                    ```
+                    %s
+                    ```
+                    """, getDisplayName(), edit.getStr("relativeFilePath"),
+                    edit.getStr("oldContent"), edit.getStr("newContent")));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String generateToolHistoryResult(JSONObject arguments) {
+        JSONArray edits = arguments.getJSONArray("edits");
+        List<String> references = new ArrayList<>();
+        for (int i = 0; edits != null && i < edits.size(); i++) {
+            JSONObject edit = edits.getJSONObject(i);
+            references.add(String.format("[工具调用] %s %s（替换前 %s；替换后 %s）", getDisplayName(),
+                    edit.getStr("relativeFilePath"),
+                    ToolTranscriptUtils.buildContentReference(edit.getStr("oldContent")),
+                    ToolTranscriptUtils.buildContentReference(edit.getStr("newContent"))));
+        }
+        return String.join("\n", references);
+    }
+}
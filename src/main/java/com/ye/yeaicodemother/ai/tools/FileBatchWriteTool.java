@@ -0,0 +1,133 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import com.ye.yeaicodemother.ai.model.FileWriteItem;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量文件写入工具
+ * 一次工具调用写入多个文件，减少模型往返次数；所有文件全部写入或全部不写入
+ */
+@Slf4j
+@Component
+public class FileBatchWriteTool extends BaseTool {
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Tool("批量写入多个文件到指定路径，一次调用创建或重写多个文件，所有文件全部写入成功或全部不写入")
+    public String writeFiles(
+            @P("要写入的文件列表，每项包含文件的相对路径和文件内容")
+            List<FileWriteItem> files,
+            @ToolMemoryId Long appId
+    ) {
+        if (CollUtil.isEmpty(files)) {
+            return "错误：文件列表不能为空";
+        }
+        // 1. 先校验全部文件，任一文件不合法则全部不写入
+        List<String> filePaths = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+        boolean valid = true;
+        for (FileWriteItem file : files) {
+            String filePath = projectWorkspaceManager.normalizePath(appId, file.getRelativeFilePath());
+            filePaths.add(filePath);
+            if (StrUtil.isEmpty(filePath)) {
+                results.add("错误：文件路径不合法 - " + file.getRelativeFilePath());
+                valid = false;
+            } else if (file.getContent() == null) {
+                results.add("错误：文件内容不能为空 - " + file.getRelativeFilePath());
+                valid = false;
+            } else {
+                results.add("待写入: " + file.getRelativeFilePath());
+            }
+        }
+        if (!valid) {
+            return buildReport("存在不合法的文件，所有文件均未写入", results);
+        }
+        // 2. 在同一次工作区操作中写入全部文件（同一路径出现多次时以最后一次为准）
+        //    批量写入只修改内存，大文件也不会中途写回磁盘，任一文件写入失败时全部不生效
+        Map<String, String> contents = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            contents.put(filePaths.get(i), files.get(i).getContent());
+        }
+        try {
+            projectWorkspaceManager.execute(appId, workspace -> {
+                workspace.writeAll(contents);
+                return null;
+            });
+        } catch (IOException e) {
+            String errorMessage = "批量写入文件失败, 错误: " + e.getMessage();
+            log.error(errorMessage, e);
+            return errorMessage;
+        }
+        log.info("成功批量写入 {} 个文件, appId: {}", files.size(), appId);
+        results.clear();
+        files.forEach(file -> results.add("文件写入成功: " + file.getRelativeFilePath()));
+        return buildReport("成功写入 " + files.size() + " 个文件", results);
+    }
+
+    private String buildReport(String summary, List<String> results) {
+        StringBuilder report = new StringBuilder(summary).append("\n");
+        for (int i = 0; i < results.size(); i++) {
+            report.append(i + 1).append(". ").append(results.get(i)).append("\n");
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String getToolName() {
+        return "writeFiles";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "批量写入文件";
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments) {
+        JSONArray files = arguments.getJSONArray("files");
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; files != null && i < files.size(); i++) {
+            JSONObject file = files.getJSONObject(i);
+            String relativeFilePath = file.getStr("relativeFilePath");
+            result.append(String.format("""
+                            [工具调用] %s %s
+                            ```%s
+                            %s
+                            ```
+                            """, getDisplayName(), relativeFilePath,
+                    FileUtil.getSuffix(relativeFilePath), file.getStr("content")));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String generateToolHistoryResult(JSONObject arguments) {
+        JSONArray files = arguments.getJSONArray("files");
+        List<String> references = new ArrayList<>();
+        for (int i = 0; files != null && i < files.size(); i++) {
+            JSONObject file = files.getJSONObject(i);
+            references.add(String.format("[工具调用] %s %s（%s）", getDisplayName(),
+                    file.getStr("relativeFilePath"), ToolTranscriptUtils.buildContentReference(file.getStr("content"))));
+        }
+        return String.join("\n", references);
+    }
+}
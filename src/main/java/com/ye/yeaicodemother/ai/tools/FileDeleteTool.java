@@ -1,17 +1,17 @@
 package com.ye.yeaicodemother.ai.tools;
 
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 /**
  * 文件删除工具
@@ -21,33 +21,35 @@ import java.nio.file.Paths;
 @Component
 public class FileDeleteTool extends BaseTool {
 
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     @Tool("删除指定路径的文件")
     public String deleteFile(
             @P("文件的相对路径")
             String relativeFilePath,
             @ToolMemoryId Long appId
     ) {
+        String filePath = projectWorkspaceManager.normalizePath(appId, relativeFilePath);
+        if (StrUtil.isEmpty(filePath)) {
+            return "错误：文件路径不合法 - " + relativeFilePath;
+        }
+        // 安全检查：避免删除重要文件
+        String fileName = FileUtil.getName(filePath);
+        if (isImportantFile(fileName)) {
+            return "错误：不允许删除重要文件 - " + fileName;
+        }
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            if (!Files.exists(path)) {
-                return "警告：文件不存在，无需删除 - " + relativeFilePath;
-            }
-            if (!Files.isRegularFile(path)) {
-                return "错误：指定路径不是文件，无法删除 - " + relativeFilePath;
-            }
-            // 安全检查：避免删除重要文件
-            String fileName = path.getFileName().toString();
-            if (isImportantFile(fileName)) {
-                return "错误：不允许删除重要文件 - " + fileName;
-            }
-            Files.delete(path);
-            log.info("成功删除文件: {}", path.toAbsolutePath());
-            return "文件删除成功: " + relativeFilePath;
+            return projectWorkspaceManager.execute(appId, workspace -> {
+                if (workspace.isDirectory(filePath)) {
+                    return "错误：指定路径不是文件，无法删除 - " + relativeFilePath;
+                }
+                if (!workspace.delete(filePath)) {
+                    return "警告：文件不存在，无需删除 - " + relativeFilePath;
+                }
+                log.info("成功删除文件: {}, appId: {}", filePath, appId);
+                return "文件删除成功: " + relativeFilePath;
+            });
         } catch (IOException e) {
             String errorMessage = "删除文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
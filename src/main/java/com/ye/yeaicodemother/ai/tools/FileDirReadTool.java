@@ -1,43 +1,25 @@
 package com.ye.yeaicodemother.ai.tools;
 
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.List;
-import java.util.Set;
-
 /**
  * 文件目录读取工具
- * 使用 Hutool 简化文件操作
+ * 基于项目工作区的目录索引渲染目录结构
  */
 @Slf4j
 @Component
 public class FileDirReadTool extends BaseTool {
 
-    /**
-     * 需要忽略的文件和目录
-     */
-    private static final Set<String> IGNORED_NAMES = Set.of(
-            "node_modules", ".git", "dist", "build", ".DS_Store",
-            ".env", "target", ".mvn", ".idea", ".vscode", "coverage"
-    );
-
-    /**
-     * 需要忽略的文件扩展名
-     */
-    private static final Set<String> IGNORED_EXTENSIONS = Set.of(
-            ".log", ".tmp", ".cache", ".lock"
-    );
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
 
     @Tool("读取目录结构，获取指定目录下的所有文件和子目录信息")
     public String readDir(
@@ -45,37 +27,17 @@ public class FileDirReadTool extends BaseTool {
             String relativeDirPath,
             @ToolMemoryId Long appId
     ) {
+        String dirPath = projectWorkspaceManager.normalizePath(appId, relativeDirPath);
+        if (dirPath == null) {
+            return "错误：目录路径不合法 - " + relativeDirPath;
+        }
         try {
-            Path path = Paths.get(relativeDirPath == null ? "" : relativeDirPath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeDirPath == null ? "" : relativeDirPath);
-            }
-            File targetDir = path.toFile();
-            if (!targetDir.exists() || !targetDir.isDirectory()) {
+            // 从项目工作区的目录索引渲染，包含本轮尚未写回磁盘的文件，且不会进入 node_modules 等目录
+            String structure = projectWorkspaceManager.execute(appId, workspace -> workspace.renderDir(dirPath));
+            if (structure == null) {
                 return "错误：目录不存在或不是目录 - " + relativeDirPath;
             }
-            StringBuilder structure = new StringBuilder();
-            structure.append("项目目录结构:\n");
-            // 使用 Hutool 递归获取所有文件
-            List<File> allFiles = FileUtil.loopFiles(targetDir, file -> !shouldIgnore(file.getName()));
-            // 按路径深度和名称排序显示
-            allFiles.stream()
-                    .sorted((f1, f2) -> {
-                        int depth1 = getRelativeDepth(targetDir, f1);
-                        int depth2 = getRelativeDepth(targetDir, f2);
-                        if (depth1 != depth2) {
-                            return Integer.compare(depth1, depth2);
-                        }
-                        return f1.getPath().compareTo(f2.getPath());
-                    })
-                    .forEach(file -> {
-                        int depth = getRelativeDepth(targetDir, file);
-                        String indent = "  ".repeat(depth);
-                        structure.append(indent).append(file.getName());
-                    });
-            return structure.toString();
+            return "项目目录结构:\n" + structure;
         } catch (Exception e) {
             String errorMessage = "读取目录结构失败: " + relativeDirPath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
@@ -83,28 +45,6 @@ public class FileDirReadTool extends BaseTool {
         }
     }
 
-    /**
-     * 计算文件相对于根目录的深度
-     */
-    private int getRelativeDepth(File root, File file) {
-        Path rootPath = root.toPath();
-        Path filePath = file.toPath();
-        return rootPath.relativize(filePath).getNameCount() - 1;
-    }
-
-    /**
-     * 判断是否应该忽略该文件或目录
-     */
-    private boolean shouldIgnore(String fileName) {
-        // 检查是否在忽略名称列表中
-        if (IGNORED_NAMES.contains(fileName)) {
-            return true;
-        }
-
-        // 检查文件扩展名
-        return IGNORED_EXTENSIONS.stream().anyMatch(fileName::endsWith);
-    }
-
     @Override
     public String getToolName() {
         return "readDir";
@@ -115,6 +55,11 @@ public class FileDirReadTool extends BaseTool {
         return "读取目录";
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
         String relativeDirPath = arguments.getStr("relativeDirPath");
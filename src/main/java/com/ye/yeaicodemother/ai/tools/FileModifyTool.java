@@ -1,18 +1,17 @@
 package com.ye.yeaicodemother.ai.tools;
 
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 
 /**
  * 文件修改工具
@@ -22,6 +21,9 @@ import java.nio.file.StandardOpenOption;
 @Component
 public class FileModifyTool extends BaseTool {
 
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     @Tool("修改文件内容，用新内容替换指定的旧内容")
     public String modifyFile(
             @P("文件的相对路径")
@@ -32,27 +34,27 @@ public class FileModifyTool extends BaseTool {
             String newContent,
             @ToolMemoryId Long appId
     ) {
+        String filePath = projectWorkspaceManager.normalizePath(appId, relativeFilePath);
+        if (StrUtil.isEmpty(filePath)) {
+            return "错误：文件路径不合法 - " + relativeFilePath;
+        }
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            if (!Files.exists(path) || !Files.isRegularFile(path)) {
-                return "错误：文件不存在或不是文件 - " + relativeFilePath;
-            }
-            String originalContent = Files.readString(path);
-            if (!originalContent.contains(oldContent)) {
-                return "警告：文件中未找到要替换的内容，文件未修改 - " + relativeFilePath;
-            }
-            String modifiedContent = originalContent.replace(oldContent, newContent);
-            if (originalContent.equals(modifiedContent)) {
-                return "信息：替换后文件内容未发生变化 - " + relativeFilePath;
-            }
-            Files.writeString(path, modifiedContent, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            log.info("成功修改文件: {}", path.toAbsolutePath());
-            return "文件修改成功: " + relativeFilePath;
+            return projectWorkspaceManager.execute(appId, workspace -> {
+                String originalContent = workspace.read(filePath);
+                if (originalContent == null) {
+                    return "错误：文件不存在或不是文件 - " + relativeFilePath;
+                }
+                if (!originalContent.contains(oldContent)) {
+                    return "警告：文件中未找到要替换的内容，文件未修改 - " + relativeFilePath;
+                }
+                String modifiedContent = originalContent.replace(oldContent, newContent);
+                if (originalContent.equals(modifiedContent)) {
+                    return "信息：替换后文件内容未发生变化 - " + relativeFilePath;
+                }
+                workspace.write(filePath, modifiedContent);
+                log.info("成功修改文件: {}, appId: {}", filePath, appId);
+                return "文件修改成功: " + relativeFilePath;
+            });
         } catch (IOException e) {
             String errorMessage = "修改文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
@@ -90,4 +92,16 @@ public class FileModifyTool extends BaseTool {
                 ```
                 """, getDisplayName(), relativeFilePath, oldContent, newContent);
     }
+
+    @Override
+    public String generateToolHistoryResult(JSONObject arguments) {
+        String relativeFilePath = arguments.getStr("relativeFilePath");
+        String oldContent = arguments.getStr("oldContent");
+        String newContent = arguments.getStr("newContent");
+        // 历史中只记录替换前后内容的引用，最新内容以项目目录为准
+        return String.format("[工具调用] %s %s（替换前 %s；替换后 %s）",
+                getDisplayName(), relativeFilePath,
+                ToolTranscriptUtils.buildContentReference(oldContent),
+                ToolTranscriptUtils.buildContentReference(newContent));
+    }
 }
\ No newline at end of file
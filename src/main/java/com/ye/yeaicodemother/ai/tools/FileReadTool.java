@@ -1,43 +1,79 @@
 package com.ye.yeaicodemother.ai.tools;
 
+import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import com.ye.yeaicodemother.utils.CodeOutlineUtils;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 文件读取工具
- * 支持 AI 通过工具调用的方式读取文件内容
+ * 支持 AI 通过工具调用的方式读取文件内容，支持按行号范围读取、大纲模式和输出大小上限
  */
 @Slf4j
 @Component
 public class FileReadTool extends BaseTool {
 
-    @Tool("读取指定路径的文件内容")
+    /**
+     * 默认最大返回字节数，超出部分截断
+     */
+    private static final int DEFAULT_MAX_BYTES = 32 * 1024;
+
+    /**
+     * 本轮已读取过且内容未变化时返回结果的前缀
+     */
+    public static final String UNCHANGED_MARKER = "[文件未变化]";
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Tool("读取指定路径的文件内容；可按行号范围读取，或使用大纲模式只查看 .vue/.js 文件的区块行号和导出声明")
     public String readFile(
             @P("文件的相对路径")
             String relativeFilePath,
+            @P(value = "起始行号（从 1 开始，包含），不填则从第一行开始", required = false)
+            Integer startLine,
+            @P(value = "结束行号（包含），不填则读到最后一行", required = false)
+            Integer endLine,
+            @P(value = "最大返回字节数，超出部分截断，不填默认 32768", required = false)
+            Integer maxBytes,
+            @P(value = "是否使用大纲模式，只返回区块起止行号和导出声明，适合先了解大文件结构", required = false)
+            Boolean outline,
             @ToolMemoryId Long appId
     ) {
+        String filePath = projectWorkspaceManager.normalizePath(appId, relativeFilePath);
+        if (StrUtil.isEmpty(filePath)) {
+            return "错误：文件路径不合法 - " + relativeFilePath;
+        }
+        boolean outlineMode = BooleanUtil.isTrue(outline);
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            if (!Files.exists(path) || !Files.isRegularFile(path)) {
-                return "错误：文件不存在或不是文件 - " + relativeFilePath;
-            }
-            return Files.readString(path);
+            // 优先读取项目工作区，包含本轮尚未写回磁盘的修改
+            return projectWorkspaceManager.execute(appId, workspace -> {
+                String content = workspace.read(filePath);
+                if (content == null) {
+                    return "错误：文件不存在或不是文件 - " + relativeFilePath;
+                }
+                String result = outlineMode
+                        ? buildOutline(filePath, content)
+                        : buildContent(content, startLine, endLine, maxBytes);
+                // 本轮已用相同方式读取过且内容未变化，不再重复返回，避免工具输出撑大上下文
+                String readKey = String.format("%s#%s#%s-%s#%s", filePath, outlineMode, startLine, endLine, maxBytes);
+                if (workspace.recordRead(readKey, ToolTranscriptUtils.shortHash(result))) {
+                    return String.format(UNCHANGED_MARKER + " %s 自本轮上次读取后内容没有变化，请直接使用之前读取到的内容"
+                            + "（如之前的内容已不在上下文中，请指定 startLine / endLine 读取）", relativeFilePath);
+                }
+                return result;
+            });
         } catch (IOException e) {
             String errorMessage = "读取文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
@@ -45,6 +81,57 @@ public class FileReadTool extends BaseTool {
         }
     }
 
+    /**
+     * 生成文件大纲，不支持的文件类型只返回行数
+     */
+    private String buildOutline(String filePath, String content) {
+        if (!CodeOutlineUtils.isSupported(filePath)) {
+            int lineCount = content.split("\n", -1).length;
+            return String.format("该文件类型不支持大纲模式，共 %d 行，请按行号范围读取", lineCount);
+        }
+        return CodeOutlineUtils.outline(filePath, content);
+    }
+
+    /**
+     * 按行号范围截取文件内容，并按字节上限截断
+     * 未指定范围且未截断时原样返回文件内容，与修改工具的替换内容保持一致
+     */
+    private String buildContent(String content, Integer startLine, Integer endLine, Integer maxBytes) {
+        String[] lines = content.split("\n", -1);
+        int totalLines = lines.length;
+        int start = startLine == null ? 1 : Math.max(1, startLine);
+        int end = endLine == null ? totalLines : Math.min(totalLines, endLine);
+        if (start > end) {
+            return String.format("错误：行号范围无效（%d-%d），文件共 %d 行", start, end, totalLines);
+        }
+        int byteLimit = maxBytes == null || maxBytes <= 0 ? DEFAULT_MAX_BYTES : maxBytes;
+        StringBuilder builder = new StringBuilder();
+        int usedBytes = 0;
+        int lastLine = start - 1;
+        for (int i = start; i <= end; i++) {
+            String line = lines[i - 1];
+            int lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (usedBytes + lineBytes > byteLimit && i > start) {
+                break;
+            }
+            if (i > start) {
+                builder.append('\n');
+            }
+            builder.append(line);
+            usedBytes += lineBytes;
+            lastLine = i;
+        }
+        boolean ranged = start != 1 || lastLine != totalLines;
+        if (!ranged) {
+            return content;
+        }
+        String header = String.format("[第 %d-%d 行，共 %d 行]\n", start, lastLine, totalLines);
+        if (lastLine < end) {
+            builder.append(String.format("\n...[内容已截断，超过 %d 字节上限，可从第 %d 行继续读取]", byteLimit, lastLine + 1));
+        }
+        return header + builder;
+    }
+
     @Override
     public String getToolName() {
         return "readFile";
@@ -55,9 +142,23 @@ public class FileReadTool extends BaseTool {
         return "读取文件";
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
         String relativeFilePath = arguments.getStr("relativeFilePath");
+        if (BooleanUtil.isTrue(arguments.getBool("outline"))) {
+            return String.format("[工具调用] %s %s（大纲）", getDisplayName(), relativeFilePath);
+        }
+        Integer startLine = arguments.getInt("startLine");
+        Integer endLine = arguments.getInt("endLine");
+        if (startLine != null || endLine != null) {
+            return String.format("[工具调用] %s %s（第 %s-%s 行）", getDisplayName(), relativeFilePath,
+                    startLine == null ? 1 : startLine, endLine == null ? "末尾" : endLine);
+        }
         return String.format("[工具调用] %s %s", getDisplayName(), relativeFilePath);
     }
-} 
\ No newline at end of file
+}
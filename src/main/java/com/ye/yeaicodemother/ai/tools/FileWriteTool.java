@@ -1,19 +1,18 @@
 package com.ye.yeaicodemother.ai.tools;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 
 /**
  * 文件写入工具
@@ -23,6 +22,9 @@ import java.nio.file.StandardOpenOption;
 @Component
 public class FileWriteTool extends BaseTool {
 
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     @Tool("写入文件到指定路径")
     public String writeFile(
             @P("文件的相对路径")
@@ -31,24 +33,17 @@ public class FileWriteTool extends BaseTool {
             String content,
             @ToolMemoryId Long appId
     ) {
+        String filePath = projectWorkspaceManager.normalizePath(appId, relativeFilePath);
+        if (StrUtil.isEmpty(filePath)) {
+            return "错误：文件路径不合法 - " + relativeFilePath;
+        }
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                // 相对路径处理，创建基于 appId 的项目目录
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            // 创建父目录（如果不存在）
-            Path parentDir = path.getParent();
-            if (parentDir != null) {
-                Files.createDirectories(parentDir);
-            }
-            // 写入文件内容
-            Files.write(path, content.getBytes(),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
-            log.info("成功写入文件: {}", path.toAbsolutePath());
+            // 写入项目工作区，对话结束或构建前统一写回磁盘
+            projectWorkspaceManager.execute(appId, workspace -> {
+                workspace.write(filePath, content);
+                return null;
+            });
+            log.info("成功写入文件: {}, appId: {}", filePath, appId);
             // 注意要返回相对路径，不能让 AI 把文件绝对路径返回给用户
             return "文件写入成功: " + relativeFilePath;
         } catch (IOException e) {
@@ -80,4 +75,13 @@ public class FileWriteTool extends BaseTool {
                         ```
                         """, getDisplayName(), relativeFilePath, suffix, content);
     }
+
+    @Override
+    public String generateToolHistoryResult(JSONObject arguments) {
+        String relativeFilePath = arguments.getStr("relativeFilePath");
+        String content = arguments.getStr("content");
+        // 文件内容已保存在项目目录中，历史中只记录引用
+        return String.format("[工具调用] %s %s（%s）",
+                getDisplayName(), relativeFilePath, ToolTranscriptUtils.buildContentReference(content));
+    }
 }
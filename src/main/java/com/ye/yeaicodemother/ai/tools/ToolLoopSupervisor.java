@@ -0,0 +1,299 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 工具调用循环监督器
+ * <p>
+ * 模型有时会反复调用 readDir、反复读取或写入相同内容，每次调用都是一次完整的模型往返。
+ * 本类包装所有工具的执行，以 工具名 + 规范化参数 + 工作区版本号 作为调用指纹：
+ * 1. 完全相同的调用（工作区未变化）直接返回缓存结果并提示模型不要重复调用；
+ * 2. 修改类工具出现 A-B-A 往复（重新应用两步之前的修改，撤销上一步的修改）时追加提示；
+ * 3. 连续多次调用没有进展，或本轮调用次数达到上限时，强制结束工具调用，引导模型调用退出工具并输出最终结果。
+ * 强制结束是强制性的：之后本轮的所有工具调用（退出工具除外）都不再执行，直接返回提示，不会再修改项目文件；
+ * 但本类无法中止模型的回复循环，模型仍可能再发起调用，每次只会得到同样的提示。
+ * 状态按应用隔离，每轮对话开始时重置。
+ * </p>
+ */
+@Slf4j
+@Component
+public class ToolLoopSupervisor {
+
+    /**
+     * 单轮对话中最多执行的工具调用次数（不含退出工具），达到后强制结束工具调用
+     * <p>
+     * 流式对话的工具循环不受 AI 服务的 maxSequentialToolsInvocations 限制，由本类统一限制；
+     * 批量写入 / 批量修改工具一次调用处理多个文件，只计一次。
+     * </p>
+     */
+    public static final int MAX_TOOL_CALLS_PER_TURN = 20;
+
+    /**
+     * 连续没有进展的工具调用次数上限，超过后强制结束工具调用
+     */
+    private static final int MAX_NO_PROGRESS_CALLS = 4;
+
+    /**
+     * 参数中表示路径的字段，规范化后再计算指纹（./src/App.vue 与 src/App.vue 视为相同）
+     */
+    private static final Set<String> PATH_ARGUMENT_KEYS = Set.of("relativeFilePath", "relativeDirPath");
+
+    /**
+     * 重复调用返回结果的前缀，提示之后是之前的执行结果
+     */
+    private static final String DUPLICATE_MARKER = "[重复调用]";
+
+    /**
+     * 强制结束后跳过执行的调用返回结果的前缀
+     */
+    private static final String REFUSED_MARKER = "[已停止执行工具]";
+
+    private static final String FORCED_EXIT_MESSAGE = REFUSED_MARKER
+            + " 检测到工具调用连续多次没有进展，已停止执行工具。不要继续调用工具，请调用退出工具或直接输出最终结果";
+
+    private static final String CALL_LIMIT_MESSAGE = REFUSED_MARKER
+            + " 本轮对话的工具调用次数已达上限（" + MAX_TOOL_CALLS_PER_TURN + " 次），已停止执行工具。"
+            + "不要继续调用工具，请调用退出工具或直接输出最终结果";
+
+    @Resource
+    private ToolManager toolManager;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    /**
+     * appId -> 本轮对话的工具调用状态
+     */
+    private final Map<Long, TurnState> turnStates = new ConcurrentHashMap<>();
+
+    /**
+     * 新一轮对话开始，重置应用的工具调用状态
+     *
+     * @param appId 应用 ID
+     */
+    public void beginTurn(Long appId) {
+        turnStates.put(appId, new TurnState());
+    }
+
+    /**
+     * 本轮对话结束，释放应用的工具调用状态
+     *
+     * @param appId 应用 ID
+     */
+    public void endTurn(Long appId) {
+        turnStates.remove(appId);
+    }
+
+    /**
+     * 包装工具执行器，在执行前后进行重复调用和循环检测
+     *
+     * @param delegate 原始工具执行器
+     * @return 带监督的工具执行器
+     */
+    public ToolExecutor supervise(ToolExecutor delegate) {
+        return (request, memoryId) -> execute(request, memoryId, delegate);
+    }
+
+    private String execute(ToolExecutionRequest request, Object memoryId, ToolExecutor delegate) {
+        BaseTool tool = toolManager.getTool(request.name());
+        TurnState state = memoryId instanceof Long appId ? turnStates.get(appId) : null;
+        // 未开启监督的调用（如非流式对话）和退出工具直接执行
+        if (state == null || tool == null || tool instanceof ExitTool) {
+            return delegate.execute(request, memoryId);
+        }
+        Long appId = (Long) memoryId;
+        state.lock.lock();
+        try {
+            if (state.forcedExit) {
+                log.warn("工具调用已被强制结束，跳过执行: {}, appId: {}", request.name(), appId);
+                return FORCED_EXIT_MESSAGE;
+            }
+            if (state.executedCalls >= MAX_TOOL_CALLS_PER_TURN) {
+                log.warn("本轮工具调用次数达到上限 {}，跳过执行: {}, appId: {}", MAX_TOOL_CALLS_PER_TURN, request.name(), appId);
+                state.forcedExit = true;
+                return CALL_LIMIT_MESSAGE;
+            }
+            String callKey = buildCallKey(appId, request);
+            long versionBefore = currentVersion(appId);
+            String fingerprint = callKey + "@" + versionBefore;
+            // 1. 完全相同的调用，直接返回缓存结果
+            String cachedResult = state.results.get(fingerprint);
+            if (cachedResult != null) {
+                log.info("检测到重复的工具调用，返回缓存结果: {}, appId: {}", request.name(), appId);
+                String hint = String.format(DUPLICATE_MARKER + " 该调用（%s）与本轮之前的调用完全相同，且项目文件没有变化，"
+                        + "以下是之前的结果，请不要重复调用：\n", tool.getDisplayName());
+                return withProgressCheck(state, appId, false, hint + cachedResult);
+            }
+            // 2. 修改类工具的 A-B-A 往复
+            boolean oscillating = !tool.isReadOnly() && state.isOscillating(callKey);
+            state.executedCalls++;
+            String result = delegate.execute(request, memoryId);
+            long versionAfter = currentVersion(appId);
+            state.results.put(fingerprint, result);
+            if (!tool.isReadOnly()) {
+                state.recordModification(callKey);
+            }
+            // 有进展：修改了项目文件，或者只读工具读取到了新的内容
+            boolean progressed = !oscillating && (versionAfter != versionBefore
+                    || tool.isReadOnly() && !result.startsWith(FileReadTool.UNCHANGED_MARKER));
+            if (oscillating) {
+                log.info("检测到修改类工具的往复调用: {}, appId: {}", request.name(), appId);
+                result += "\n[往复修改] 该调用与两步之前的修改相同，撤销了上一步的修改。请先确定最终方案，不要来回修改同一处内容";
+            }
+            return withProgressCheck(state, appId, progressed, result);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * 从监督器返回给模型的结果中还原工具本身的执行结果
+     * <p>
+     * 重复调用返回的是带提示的缓存结果，工具实际执行的结果以缓存的原始结果为准；
+     * 强制结束后跳过执行的调用没有执行结果。
+     * </p>
+     *
+     * @param result 监督器返回的结果
+     * @return 工具的原始执行结果，工具未执行时返回 null
+     */
+    public static String originalResult(String result) {
+        if (result == null || result.startsWith(REFUSED_MARKER)) {
+            return null;
+        }
+        if (result.startsWith(DUPLICATE_MARKER)) {
+            int hintEnd = result.indexOf('\n');
+            return hintEnd < 0 ? null : result.substring(hintEnd + 1);
+        }
+        return result;
+    }
+
+    /**
+     * 更新连续无进展次数，达到上限时强制结束工具调用
+     */
+    private String withProgressCheck(TurnState state, Long appId, boolean progressed, String result) {
+        if (progressed) {
+            state.noProgressCalls = 0;
+            return result;
+        }
+        state.noProgressCalls++;
+        if (state.noProgressCalls < MAX_NO_PROGRESS_CALLS) {
+            return result;
+        }
+        log.warn("工具调用连续 {} 次没有进展，强制结束工具调用, appId: {}", state.noProgressCalls, appId);
+        state.forcedExit = true;
+        return result + "\n\n" + FORCED_EXIT_MESSAGE;
+    }
+
+    /**
+     * 工具名 + 规范化参数（键排序、路径规范化）的哈希
+     */
+    private String buildCallKey(Long appId, ToolExecutionRequest request) {
+        Object arguments;
+        try {
+            arguments = normalize(appId, null, JSONUtil.parse(request.arguments()));
+        } catch (Exception e) {
+            // 参数不是合法 JSON，按原文计算
+            arguments = request.arguments();
+        }
+        return DigestUtil.sha256Hex(request.name() + ":" + arguments);
+    }
+
+    private Object normalize(Long appId, String key, Object value) {
+        if (value instanceof JSONObject jsonObject) {
+            Map<String, Object> sorted = new TreeMap<>();
+            jsonObject.forEach((childKey, childValue) -> sorted.put(childKey, normalize(appId, childKey, childValue)));
+            return sorted;
+        }
+        if (value instanceof JSONArray jsonArray) {
+            List<Object> list = new ArrayList<>();
+            jsonArray.forEach(item -> list.add(normalize(appId, null, item)));
+            return list;
+        }
+        if (key != null && PATH_ARGUMENT_KEYS.contains(key) && value instanceof String path) {
+            String normalizedPath = projectWorkspaceManager.normalizePath(appId, path);
+            return normalizedPath == null ? path : normalizedPath;
+        }
+        return value;
+    }
+
+    private long currentVersion(Long appId) {
+        try {
+            return projectWorkspaceManager.getVersion(appId);
+        } catch (IOException e) {
+            log.warn("获取工作区版本失败, appId: {}", appId, e);
+            return -1;
+        }
+    }
+
+    /**
+     * 单个应用在一轮对话中的工具调用状态
+     */
+    private static class TurnState {
+
+        /**
+         * 同一应用的工具调用串行执行
+         * 使用 ReentrantLock 而不是 synchronized：工具在锁内读写文件，synchronized 会钉住虚拟线程的载体线程
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 调用指纹 -> 执行结果
+         */
+        private final Map<String, String> results = new HashMap<>();
+
+        /**
+         * 最近两次修改类调用（不含工作区版本），用于检测往复
+         */
+        private final List<String> recentCalls = new ArrayList<>();
+
+        /**
+         * 连续没有进展的调用次数
+         */
+        private int noProgressCalls;
+
+        /**
+         * 本轮实际执行的调用次数（不含返回缓存结果的重复调用）
+         */
+        private int executedCalls;
+
+        /**
+         * 是否已强制结束工具调用
+         */
+        private boolean forcedExit;
+
+        private void recordModification(String callKey) {
+            recentCalls.add(callKey);
+            if (recentCalls.size() > 2) {
+                recentCalls.remove(0);
+            }
+        }
+
+        /**
+         * 当前调用与两步之前的修改相同、与上一步修改不同（A-B-A）
+         */
+        private boolean isOscillating(String callKey) {
+            return recentCalls.size() == 2
+                    && callKey.equals(recentCalls.get(0))
+                    && !callKey.equals(recentCalls.get(1));
+        }
+    }
+}
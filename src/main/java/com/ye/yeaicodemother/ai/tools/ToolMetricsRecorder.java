@@ -0,0 +1,138 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import com.ye.yeaicodemother.config.ToolMetricsProperties;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 工具调用指标记录器
+ * <p>
+ * 为工具对象上所有 @Tool 方法构建带监控的执行器，按工具记录调用次数、耗时分布、参数与结果字节数和失败率，
+ * 耗时超过阈值时输出结构化的慢调用日志，用于判断哪些工具值得缓存或合并调用。
+ * 指标：
+ * - ai.tool.execution：耗时（tool、outcome 标签，outcome 为 success / failure / exception）
+ * - ai.tool.argument.bytes / ai.tool.result.bytes：参数和结果的字节数
+ * </p>
+ */
+@Slf4j
+@Component
+public class ToolMetricsRecorder {
+
+    private static final String OUTCOME_SUCCESS = "success";
+
+    private static final String OUTCOME_FAILURE = "failure";
+
+    private static final String OUTCOME_EXCEPTION = "exception";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private ToolMetricsProperties toolMetricsProperties;
+
+    /**
+     * 为工具对象上的所有 @Tool 方法构建带监控的执行器
+     *
+     * @param tools 工具对象
+     * @return 工具定义 -> 工具执行器
+     */
+    public Map<ToolSpecification, ToolExecutor> instrumentTools(Object... tools) {
+        Map<ToolSpecification, ToolExecutor> toolExecutors = new LinkedHashMap<>();
+        for (Object tool : tools) {
+            for (Method method : ClassUtils.getUserClass(tool).getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    ToolSpecification toolSpecification = ToolSpecifications.toolSpecificationFrom(method);
+                    toolExecutors.put(toolSpecification,
+                            instrument(toolSpecification.name(), new DefaultToolExecutor(tool, method)));
+                }
+            }
+        }
+        return toolExecutors;
+    }
+
+    /**
+     * 包装工具执行器，记录调用指标
+     *
+     * @param toolName 工具名称
+     * @param delegate 原始工具执行器
+     * @return 带监控的工具执行器
+     */
+    public ToolExecutor instrument(String toolName, ToolExecutor delegate) {
+        return (request, memoryId) -> {
+            long start = System.nanoTime();
+            String result = null;
+            String outcome = OUTCOME_EXCEPTION;
+            try {
+                result = delegate.execute(request, memoryId);
+                outcome = isFailure(result) ? OUTCOME_FAILURE : OUTCOME_SUCCESS;
+                return result;
+            } finally {
+                record(toolName, memoryId, outcome, System.nanoTime() - start,
+                        ToolTranscriptUtils.byteSize(request.arguments()), ToolTranscriptUtils.byteSize(result));
+            }
+        };
+    }
+
+    private void record(String toolName, Object memoryId, String outcome, long costNanos, int argumentBytes, int resultBytes) {
+        Tags tags = Tags.of("tool", toolName);
+        if (toolMetricsProperties.isAppTagEnabled()) {
+            tags = tags.and("appId", String.valueOf(memoryId));
+        }
+        Timer.builder("ai.tool.execution")
+                .description("AI 工具调用耗时")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(costNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("ai.tool.argument.bytes")
+                .description("AI 工具调用参数字节数")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(argumentBytes);
+        DistributionSummary.builder("ai.tool.result.bytes")
+                .description("AI 工具调用结果字节数")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(resultBytes);
+        long costMs = TimeUnit.NANOSECONDS.toMillis(costNanos);
+        if (costMs >= toolMetricsProperties.getSlowCallThresholdMs()) {
+            log.warn("工具慢调用 tool={} appId={} outcome={} costMs={} argumentBytes={} resultBytes={}",
+                    toolName, memoryId, outcome, costMs, argumentBytes, resultBytes);
+        }
+    }
+
+    /**
+     * 工具以返回错误信息而不是抛出异常的方式报告失败，按返回内容判断
+     */
+    private boolean isFailure(String result) {
+        if (result == null) {
+            return false;
+        }
+        if (result.startsWith("错误") || result.startsWith("警告")) {
+            return true;
+        }
+        int lineEnd = result.indexOf('\n');
+        String firstLine = lineEnd < 0 ? result : result.substring(0, lineEnd);
+        return firstLine.contains("失败") || firstLine.contains("均未");
+    }
+}
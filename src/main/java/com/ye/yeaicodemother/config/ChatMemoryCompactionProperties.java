@@ -0,0 +1,43 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对话记忆滚动压缩配置
+ * <p>
+ * 当某个应用未被摘要覆盖的对话历史估算 token 数超过阈值时，
+ * 后台使用路由模型（低成本模型）将较早的对话压缩为摘要，保证提示词规模不随对话轮数增长。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "chat-memory.compaction")
+@Data
+public class ChatMemoryCompactionProperties {
+
+    /**
+     * 是否开启压缩
+     */
+    private boolean enabled = true;
+
+    /**
+     * 触发压缩的 token 阈值（摘要 + 未压缩消息的估算值）
+     */
+    private int tokenThreshold = 12000;
+
+    /**
+     * 压缩时保留的最近消息条数（原样保留，不进入摘要）
+     */
+    private int keepRecentMessages = 6;
+
+    /**
+     * 单条消息送入摘要模型时的最大字符数，超出部分截断（AI 回复中往往包含大段代码）
+     */
+    private int maxMessageChars = 2000;
+
+    /**
+     * 单次压缩最多处理的消息条数
+     */
+    private int maxCompactMessages = 100;
+}
@@ -0,0 +1,38 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目共享依赖配置
+ * <p>
+ * 按 package.json（及锁文件）的哈希在共享目录中为每组依赖保留一份安装好的 node_modules，
+ * 项目的 node_modules 直接链接过去；只有未命中时才安装，且优先使用本地 npm 缓存离线安装。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "dependency-store")
+@Data
+public class DependencyStoreProperties {
+
+    /**
+     * 是否启用共享依赖（关闭后每个项目单独执行 npm install）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 共享依赖目录，每组依赖一个子目录
+     */
+    private String storeDir = System.getProperty("user.dir") + "/tmp/dependency_store";
+
+    /**
+     * npm 本地缓存目录，离线安装时从这里读取依赖包
+     */
+    private String npmCacheDir = System.getProperty("user.dir") + "/tmp/npm_cache";
+
+    /**
+     * 安装依赖的超时时间（秒）
+     */
+    private int installTimeoutSeconds = 300;
+}
@@ -0,0 +1,24 @@
+package com.ye.yeaicodemother.config;
+
+import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import com.ye.yeaicodemother.core.version.DeployVersionStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 部署目录版本存储配置类
+ */
+@Configuration
+public class DeployVersionStoreConfig {
+
+    /**
+     * 部署目录的版本存储（位于 {@link AppConstant#CODE_DEPLOY_ROOT_DIR}）
+     */
+    @Bean
+    public DeployVersionStore deployVersionStore() {
+        return new DeployVersionStore(Paths.get(AppConstant.CODE_DEPLOY_ROOT_DIR), ContentBlobStore.getDefault());
+    }
+}
@@ -0,0 +1,23 @@
+package com.ye.yeaicodemother.config;
+
+import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 生成目录版本存储配置类
+ */
+@Configuration
+public class OutputVersionStoreConfig {
+
+    /**
+     * 生成目录的版本存储（位于 {@link AppConstant#CODE_OUTPUT_ROOT_DIR}）
+     */
+    @Bean
+    public OutputVersionStore outputVersionStore() {
+        return new OutputVersionStore(Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR));
+    }
+}
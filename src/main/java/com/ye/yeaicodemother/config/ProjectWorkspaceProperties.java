@@ -0,0 +1,33 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目内存工作区配置
+ * <p>
+ * 工具调用期间的文件读写先作用于内存中的项目工作区，
+ * 在对话结束或构建前统一写回磁盘；工作区按内容字节数做 LRU 淘汰，淘汰前会先写回未落盘的修改。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "code-workspace")
+@Data
+public class ProjectWorkspaceProperties {
+
+    /**
+     * 所有工作区缓存的文件内容总字节上限
+     */
+    private long maxTotalBytes = 128L * 1024 * 1024;
+
+    /**
+     * 工作区空闲多久后过期（分钟）
+     */
+    private int expireAfterAccessMinutes = 30;
+
+    /**
+     * 单个文件缓存到内存的最大字节数，超出的文件每次直接读写磁盘
+     */
+    private int maxCachedFileBytes = 1024 * 1024;
+}
@@ -0,0 +1,53 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 静态资源内存缓存配置
+ * <p>
+ * 访问量集中在少数站点上，把它们的文件内容、预压缩版本和 ETag 放在内存中，命中时不再访问磁盘。
+ * 缓存按字节计重，访问最多的站点单独占用一块不参与普通淘汰的空间。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "static-file-cache")
+@Data
+public class StaticFileCacheProperties {
+
+    /**
+     * 是否启用静态资源内存缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 普通缓存的内存预算（MB）
+     */
+    private long maxSizeMb = 256;
+
+    /**
+     * 热点站点缓存的内存预算（MB）
+     */
+    private long hotSiteMaxSizeMb = 64;
+
+    /**
+     * 缓存内容的单个文件大小上限（KB），更大的文件只缓存元数据，内容仍由磁盘发送
+     */
+    private int maxFileSizeKb = 512;
+
+    /**
+     * 缓存条目写入后的最长存活时间（分钟），作为失效通知之外的兜底
+     */
+    private int expireAfterWriteMinutes = 30;
+
+    /**
+     * 热点站点数量上限
+     */
+    private int hotSiteCount = 20;
+
+    /**
+     * 统计周期内至少达到的访问次数，达到后才可能成为热点站点
+     */
+    private long hotSiteMinHits = 100;
+}
@@ -0,0 +1,28 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 工具调用监控配置
+ * <p>
+ * 每次工具调用的耗时、参数和结果大小、失败情况都会记录到 Micrometer，
+ * 耗时超过阈值的调用额外输出一条结构化的慢调用日志。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "tool-metrics")
+@Data
+public class ToolMetricsProperties {
+
+    /**
+     * 慢调用阈值（毫秒）
+     */
+    private long slowCallThresholdMs = 3000;
+
+    /**
+     * 是否为指标添加 appId 标签（应用数量多时会产生大量时间序列，默认关闭，按应用排查时可临时开启）
+     */
+    private boolean appTagEnabled = false;
+}
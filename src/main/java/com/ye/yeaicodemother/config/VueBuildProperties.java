@@ -0,0 +1,80 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目构建调度配置
+ * <p>
+ * 所有构建都经过同一个有界队列，全局并发数按 CPU 核数和内存估算；
+ * 同一项目已在排队或构建中时，新的构建请求直接复用该次构建的结果。
+ * 构建脚本为 vite build 的项目交给常驻的 Node 构建进程执行，省去每次启动 npm、Node 和加载 Vite 的开销。
+ * 源码完全相同的项目（跨应用）直接复用缓存的构建产物。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vue-build")
+@Data
+public class VueBuildProperties {
+
+    /**
+     * 最大并发构建数，0 表示按 CPU 核数和内存自动计算
+     */
+    private int maxConcurrentBuilds = 0;
+
+    /**
+     * 自动计算并发数时，每个构建预留的内存（MB）
+     */
+    private int memoryPerBuildMb = 1024;
+
+    /**
+     * 等待中的构建数量上限，超过后拒绝新的构建
+     */
+    private int queueCapacity = 32;
+
+    /**
+     * 等待其他节点释放同一应用构建锁的最长时间（秒）
+     */
+    private int lockWaitSeconds = 600;
+
+    /**
+     * 是否启用常驻 Vite 构建进程，关闭或不可用时每次构建启动 npm run build
+     */
+    private boolean workerPoolEnabled = true;
+
+    /**
+     * 常驻构建进程数量上限，进程都在构建时新的构建改为启动 npm run build
+     */
+    private int workerPoolSize = 2;
+
+    /**
+     * 每个构建进程最多执行的构建次数，达到后回收重建，避免内存持续增长
+     */
+    private int maxBuildsPerWorker = 50;
+
+    /**
+     * Node 可执行文件
+     */
+    private String nodeCommand = "node";
+
+    /**
+     * 构建进程脚本的释放目录
+     */
+    private String workerDir = System.getProperty("user.dir") + "/tmp/vite_worker";
+
+    /**
+     * 是否启用跨应用的构建产物缓存
+     */
+    private boolean artifactCacheEnabled = true;
+
+    /**
+     * 构建产物缓存目录
+     */
+    private String artifactCacheDir = System.getProperty("user.dir") + "/tmp/build_cache";
+
+    /**
+     * 构建产物缓存的磁盘预算（MB），超过后淘汰最久未使用的条目
+     */
+    private long artifactCacheMaxSizeMb = 2048;
+}
@@ -0,0 +1,46 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vue 项目免构建预览配置
+ * <p>
+ * 依赖都在白名单内的简单项目，对话结束后不等待 npm 构建：
+ * 直接把源码放进 dist，入口页面改为通过 import map 从 CDN 加载依赖、在浏览器中编译 .vue 文件，预览可以立即打开；
+ * 正式构建在后台排队，供部署使用。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vue-no-build")
+@Data
+public class VueNoBuildProperties {
+
+    /**
+     * 是否启用免构建预览
+     */
+    private boolean enabled = true;
+
+    /**
+     * vue3-sfc-loader 的 ESM 地址
+     */
+    private String sfcLoaderUrl = "https://cdn.jsdelivr.net/npm/vue3-sfc-loader@0.9.5/dist/vue3-sfc-loader.esm.js";
+
+    /**
+     * 依赖白名单：包名 -> 浏览器可直接加载的 ESM 地址（写入 import map）
+     */
+    private Map<String, String> imports = new LinkedHashMap<>(Map.of(
+            "vue", "https://cdn.jsdelivr.net/npm/vue@3.4.38/dist/vue.esm-browser.prod.js",
+            "vue-router", "https://cdn.jsdelivr.net/npm/vue-router@4.4.3/dist/vue-router.esm-browser.js"
+    ));
+
+    /**
+     * 允许出现的开发依赖（只在构建时使用，免构建时忽略）
+     */
+    private List<String> allowedDevDependencies = List.of("vite", "@vitejs/plugin-vue");
+}
@@ -0,0 +1,28 @@
+package com.ye.yeaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目脚手架配置
+ * <p>
+ * 新建的 Vue 项目在第一轮对话前由预置脚手架初始化（package.json、vite.config.js、入口文件、路由等），
+ * 模型无需再逐个生成这些样板文件；脚手架依赖预先安装到共享依赖中，新项目的 node_modules 直接链接过去。
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vue-template")
+@Data
+public class VueProjectTemplateProperties {
+
+    /**
+     * 是否启用脚手架初始化
+     */
+    private boolean enabled = true;
+
+    /**
+     * 脚手架版本，对应 classpath:vue-template/{version} 目录
+     */
+    private String version = "v1";
+}
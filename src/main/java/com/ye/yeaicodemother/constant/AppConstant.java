@@ -17,6 +17,11 @@ public interface AppConstant {
      */
     String CODE_OUTPUT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_output";
 
+    /**
+     * 生成文件的内容寻址存储目录（须与生成目录、部署目录位于同一文件系统，才能使用硬链接去重）
+     */
+    String CODE_BLOB_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_blob_store";
+
     /**
      * 应用部署目录
      */
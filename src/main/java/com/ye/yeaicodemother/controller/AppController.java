@@ -11,11 +11,15 @@ import com.ye.yeaicodemother.common.DeleteRequest;
 import com.ye.yeaicodemother.common.ResultUtils;
 import com.ye.yeaicodemother.constant.AppConstant;
 import com.ye.yeaicodemother.constant.UserConstant;
+import com.ye.yeaicodemother.core.builder.BuildLog;
+import com.ye.yeaicodemother.core.builder.VueBuildScheduler;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.exception.ThrowUtils;
 import com.ye.yeaicodemother.model.dto.app.*;
 import com.ye.yeaicodemother.model.entity.User;
+import com.ye.yeaicodemother.model.vo.AppBuildStatusVO;
 import com.ye.yeaicodemother.model.vo.AppVO;
 import com.ye.yeaicodemother.ratelimter.annotation.RateLimit;
 import com.ye.yeaicodemother.ratelimter.enums.RateLimitType;
@@ -56,6 +60,12 @@ public class AppController {
     @Resource
     private ProjectDownloadService projectDownloadService;
 
+    @Resource
+    private VueBuildScheduler vueBuildScheduler;
+
+    @Resource
+    private OutputVersionStore outputVersionStore;
+
     /**
      * 通过聊天方式生成代码的 API 端点
      * 该接口采用 Server-Sent Events (SSE) 技术，允许服务器向客户端持续推送数据，
@@ -124,6 +134,77 @@ public class AppController {
         return ResultUtils.success(deployUrl);
     }
 
+    /**
+     * 回滚应用部署到上一个版本
+     *
+     * @param appDeployRequest 部署请求
+     * @param request          请求
+     * @return 部署 URL
+     */
+    @PostMapping("/deploy/rollback")
+    public BaseResponse<String> rollbackDeploy(@RequestBody AppDeployRequest appDeployRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(appDeployRequest == null, ErrorCode.PARAMS_ERROR);
+        Long appId = appDeployRequest.getAppId();
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        User loginUser = userService.getLoginUser(request);
+        String deployUrl = appService.rollbackDeploy(appId, loginUser);
+        return ResultUtils.success(deployUrl);
+    }
+
+    /**
+     * 查询应用最近一次构建的状态和耗时
+     *
+     * @param appId   应用ID
+     * @param request 请求
+     * @return 构建状态，本节点没有构建记录时为空
+     */
+    @GetMapping("/build/status")
+    public BaseResponse<AppBuildStatusVO> getBuildStatus(@RequestParam Long appId, HttpServletRequest request) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        App app = appService.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        // 只有应用创建者可以查看构建状态
+        User loginUser = userService.getLoginUser(request);
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限查看该应用的构建状态");
+        }
+        return ResultUtils.success(vueBuildScheduler.getBuildStatus(appId));
+    }
+
+    /**
+     * 实时订阅应用最近一次构建的输出日志（SSE）
+     * <p>
+     * 先回放已有的输出，构建结束后发送 done 事件。
+     * </p>
+     *
+     * @param appId   应用ID
+     * @param request 请求
+     * @return 构建日志流
+     */
+    @GetMapping(value = "/build/log", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamBuildLog(@RequestParam Long appId, HttpServletRequest request) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        App app = appService.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        // 只有应用创建者可以查看构建日志
+        User loginUser = userService.getLoginUser(request);
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限查看该应用的构建日志");
+        }
+        BuildLog buildLog = vueBuildScheduler.getBuildLog(appId);
+        ThrowUtils.throwIf(buildLog == null, ErrorCode.NOT_FOUND_ERROR, "暂无构建记录");
+        return buildLog.stream()
+                .map(line -> ServerSentEvent.<String>builder()
+                        .data(JSONUtil.toJsonStr(Map.of("d", line)))
+                        .build())
+                .concatWith(Mono.just(
+                        ServerSentEvent.<String>builder()
+                                .event("done")
+                                .data("")
+                                .build()
+                ));
+    }
+
     /**
      * 下载应用代码
      *
@@ -148,7 +229,7 @@ public class AppController {
         // 4. 构建应用代码目录路径（生成目录，非部署目录）
         String codeGenType = app.getCodeGenType();
         String sourceDirName = codeGenType + "_" + appId;
-        String sourceDirPath = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator + sourceDirName;
+        String sourceDirPath = outputVersionStore.resolveCurrent(sourceDirName).toString();
         // 5. 检查代码目录是否存在
         File sourceDir = new File(sourceDirPath);
         ThrowUtils.throwIf(!sourceDir.exists() || !sourceDir.isDirectory(),
@@ -1,9 +1,14 @@
 package com.ye.yeaicodemother.controller;
 
-import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.staticfile.StaticContent;
+import com.ye.yeaicodemother.core.staticfile.StaticFile;
+import com.ye.yeaicodemother.core.staticfile.StaticFileCache;
+import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,28 +16,49 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.HandlerMapping;
 
-import java.io.File;
+import java.util.List;
 
 /**
  * 静态资源访问
+ * <p>
+ * 支持 ETag / Last-Modified 条件请求（304）、Range 请求（206，由 Spring MVC 对 Resource 响应体处理）、
+ * 预压缩的 .br / .gz 文件和缓存头；热点文件由 {@link StaticFileCache} 直接从内存返回，
+ * 未缓存内容的较大文件在 Tomcat 支持 sendfile 时由容器零拷贝发送。
+ * </p>
  */
+@Slf4j
 @RestController
 @RequestMapping("/static")
 public class StaticResourceController {
 
-    // 应用生成根目录（用于浏览）
-    private static final String PREVIEW_ROOT_DIR = AppConstant.CODE_OUTPUT_ROOT_DIR;
+    /**
+     * 超过该大小的完整响应使用 sendfile 发送（与 Tomcat 的默认阈值一致）
+     */
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Resource
+    private StaticFileCache staticFileCache;
 
     /**
      * 提供静态资源访问，支持目录重定向
      * 访问格式：http://localhost:8123/api/static/{deployKey}[/{fileName}]
      */
     @GetMapping("/{deployKey}/**")
-    public ResponseEntity<Resource> serveStaticResource(
+    public ResponseEntity<org.springframework.core.io.Resource> serveStaticResource(
             @PathVariable String deployKey,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             // 获取资源路径
             String resourcePath = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -44,35 +70,56 @@ public class StaticResourceController {
                 return new ResponseEntity<>(headers, HttpStatus.MOVED_PERMANENTLY);
             }
             // 默认返回 index.html
-            if (resourcePath.equals("/")) {
-                resourcePath = "/index.html";
+            if (resourcePath.endsWith("/")) {
+                resourcePath = resourcePath + "index.html";
             }
-            // 构建文件路径
-            String filePath = PREVIEW_ROOT_DIR + "/" + deployKey + resourcePath;
-            File file = new File(filePath);
-            // 检查文件是否存在
-            if (!file.exists()) {
+            StaticContent content = staticFileCache.get(deployKey, resourcePath, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (content == null) {
                 return ResponseEntity.notFound().build();
             }
-            // 返回文件资源
-            Resource resource = new FileSystemResource(file);
+            StaticFile file = content.file();
+            HttpHeaders headers = new HttpHeaders();
+            headers.setCacheControl(file.cacheControl());
+            if (file.varyByEncoding()) {
+                headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            }
+            // 条件请求：If-None-Match / If-Modified-Since 命中时返回 304（ETag、Last-Modified 由其写入响应）
+            if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+            headers.setContentType(file.mediaType());
+            if (file.contentEncoding() != null) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, file.contentEncoding());
+            }
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            // 内容已在内存中时直接返回，不访问磁盘
+            if (content.content() != null) {
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(new ByteArrayResource(content.content()));
+            }
+            // 完整的 GET 响应交给 Tomcat sendfile 零拷贝发送
+            if (canSendfile(request, file)) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, file.path().toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, file.size());
+                headers.setContentLength(file.size());
+                return ResponseEntity.ok().headers(headers).build();
+            }
+            // Range 请求由 Spring MVC 转换为 206 分段响应
             return ResponseEntity.ok()
-                    .header("Content-Type", getContentTypeWithCharset(filePath))
-                    .body(resource);
+                    .headers(headers)
+                    .body(new FileSystemResource(file.path()));
         } catch (Exception e) {
+            log.error("访问静态资源失败: {}", request.getRequestURI(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    /**
-     * 根据文件扩展名返回带字符编码的 Content-Type
-     */
-    private String getContentTypeWithCharset(String filePath) {
-        if (filePath.endsWith(".html")) return "text/html; charset=UTF-8";
-        if (filePath.endsWith(".css")) return "text/css; charset=UTF-8";
-        if (filePath.endsWith(".js")) return "application/javascript; charset=UTF-8";
-        if (filePath.endsWith(".png")) return "image/png";
-        if (filePath.endsWith(".jpg")) return "image/jpeg";
-        return "application/octet-stream";
+    private boolean canSendfile(HttpServletRequest request, StaticFile file) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && file.size() >= SENDFILE_MIN_BYTES
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR));
     }
-}
\ No newline at end of file
+}
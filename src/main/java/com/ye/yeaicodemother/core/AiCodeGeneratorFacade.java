@@ -3,18 +3,27 @@ package com.ye.yeaicodemother.core;
 import cn.hutool.json.JSONUtil;
 import com.ye.yeaicodemother.ai.AiCodeGeneratorService;
 import com.ye.yeaicodemother.ai.AiCodeGeneratorServiceFactory;
+import com.ye.yeaicodemother.ai.model.CodePatch;
 import com.ye.yeaicodemother.ai.model.HtmlCodeResult;
 import com.ye.yeaicodemother.ai.model.MultiFileCodeResult;
 import com.ye.yeaicodemother.ai.model.message.AiResponseMessage;
 import com.ye.yeaicodemother.ai.model.message.ToolExecutedMessage;
 import com.ye.yeaicodemother.ai.model.message.ToolRequestMessage;
-import com.ye.yeaicodemother.constant.AppConstant;
-import com.ye.yeaicodemother.core.builder.VueProjectBuilder;
+import com.ye.yeaicodemother.ai.model.message.ToolStreamingMessage;
+import com.ye.yeaicodemother.ai.tools.ToolLoopSupervisor;
+import com.ye.yeaicodemother.core.builder.VueBuildScheduler;
+import com.ye.yeaicodemother.core.builder.VueNoBuildPackager;
+import com.ye.yeaicodemother.core.context.SnapshotChatContextBuilder;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import com.ye.yeaicodemother.core.workspace.StreamingFileWriter;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
 import com.ye.yeaicodemother.core.parser.CodeParserExecutor;
+import com.ye.yeaicodemother.core.parser.CodePatchParser;
+import com.ye.yeaicodemother.core.template.VueProjectTemplateManager;
 import com.ye.yeaicodemother.core.saver.CodeFileSaverExecutor;
+import com.ye.yeaicodemother.core.saver.CodePatchApplier;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.tool.ToolExecution;
@@ -24,6 +33,9 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * AI 代码生成外观类，组合生成和保存功能
@@ -32,11 +44,28 @@ import java.io.File;
 @Slf4j
 public class AiCodeGeneratorFacade {
 
+    private static final CodePatchParser CODE_PATCH_PARSER = new CodePatchParser();
+
     @Resource
     private AiCodeGeneratorServiceFactory aiCodeGeneratorServiceFactory;
 
     @Resource
-    private VueProjectBuilder vueProjectBuilder;
+    private VueBuildScheduler vueBuildScheduler;
+
+    @Resource
+    private VueNoBuildPackager vueNoBuildPackager;
+
+    @Resource
+    private SnapshotChatContextBuilder snapshotChatContextBuilder;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Resource
+    private ToolLoopSupervisor toolLoopSupervisor;
+
+    @Resource
+    private VueProjectTemplateManager vueProjectTemplateManager;
 
     /**
      * 统一入口：根据类型生成并保存代码（同步，已放弃使用）
@@ -54,10 +83,12 @@ public class AiCodeGeneratorFacade {
         AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
         return switch (codeGenTypeEnum) {
             case HTML -> {
+                snapshotChatContextBuilder.rebuildMemory(appId, CodeGenTypeEnum.HTML);
                 HtmlCodeResult result = aiCodeGeneratorService.generateHtmlCode(userMessage);
                 yield CodeFileSaverExecutor.executeSaver(result, CodeGenTypeEnum.HTML, appId);
             }
             case MULTI_FILE -> {
+                snapshotChatContextBuilder.rebuildMemory(appId, CodeGenTypeEnum.MULTI_FILE);
                 MultiFileCodeResult result = aiCodeGeneratorService.generateMultiFileCode(userMessage);
                 yield CodeFileSaverExecutor.executeSaver(result, CodeGenTypeEnum.MULTI_FILE, appId);
             }
@@ -72,8 +103,8 @@ public class AiCodeGeneratorFacade {
      * 统一入口：根据类型生成并保存代码（流式）
      * <p>
      * 支持三种生成模式：
-     * - HTML：纯文本流，生成完成后解析保存
-     * - MULTI_FILE：多文件文本流，生成完成后解析保存
+     * - HTML：纯文本流，生成完成后解析保存（已有代码时输出增量修改块）
+     * - MULTI_FILE：多文件文本流，生成完成后解析保存（已有代码时输出增量修改块）
      * - VUE_PROJECT：支持工具调用的 Token 流，实时推送 AI 响应、工具请求、执行结果等事件
      * </p>
      *
@@ -94,15 +125,35 @@ public class AiCodeGeneratorFacade {
 
         // 根据不同类型执行
         return switch (codeGenTypeEnum) {
+            // HTML / MULTI_FILE：每轮对话前将记忆重建为 当前文件快照 + 历史用户要求，丢弃过往的完整代码回复
+            // 已有代码时优先使用增量修改模式，失败再回退到完整重新生成
             case HTML -> {
+                snapshotChatContextBuilder.rebuildMemory(appId, CodeGenTypeEnum.HTML);
+                if (hasSavedCode(CodeGenTypeEnum.HTML, appId)) {
+                    yield processCodeEditStream(aiCodeGeneratorService, userMessage, CodeGenTypeEnum.HTML, appId);
+                }
                 Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
                 yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId);
             }
             case MULTI_FILE -> {
+                snapshotChatContextBuilder.rebuildMemory(appId, CodeGenTypeEnum.MULTI_FILE);
+                if (hasSavedCode(CodeGenTypeEnum.MULTI_FILE, appId)) {
+                    yield processCodeEditStream(aiCodeGeneratorService, userMessage, CodeGenTypeEnum.MULTI_FILE, appId);
+                }
                 Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
                 yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId);
             }
             case VUE_PROJECT -> {
+                // 本轮写入新的版本目录，预览和构建继续读取当前版本
+                try {
+                    projectWorkspaceManager.beginVersion(appId);
+                } catch (IOException e) {
+                    throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建项目版本失败: " + e.getMessage());
+                }
+                // 新项目先写入预置脚手架，模型无需再生成样板文件
+                vueProjectTemplateManager.seedIfAbsent(appId);
+                projectWorkspaceManager.beginTurn(appId);
+                toolLoopSupervisor.beginTurn(appId);
                 TokenStream tokenStream = aiCodeGeneratorService.generateVueProjectCodeStream(appId, userMessage);
                 yield processTokenStream(tokenStream, appId);
             }
@@ -141,13 +192,89 @@ public class AiCodeGeneratorFacade {
         });
     }
 
+    /**
+     * 增量修改流处理方法（HTML / MULTI_FILE 已有代码时使用）
+     * <p>
+     * 模型只输出 SEARCH / REPLACE 修改块，边生成边推送；流结束后解析并原子地应用到已保存的文件上，
+     * 并在末尾追加应用结果。若修改块无法应用，则提示后重建上下文并回退到完整重新生成。
+     * </p>
+     *
+     * @param aiCodeGeneratorService AI 服务实例
+     * @param userMessage            用户修改要求
+     * @param codeGenType            代码生成类型
+     * @param appId                  应用 ID
+     * @return 增量修改内容 + 应用结果，失败时再拼接完整重新生成流
+     */
+    private Flux<String> processCodeEditStream(AiCodeGeneratorService aiCodeGeneratorService, String userMessage,
+                                               CodeGenTypeEnum codeGenType, Long appId) {
+        return Flux.defer(() -> {
+            StringBuilder editBuilder = new StringBuilder();
+            Flux<String> editStream = aiCodeGeneratorService.generateCodeEditStream(userMessage)
+                    .doOnNext(editBuilder::append);
+            return editStream.concatWith(Flux.defer(() -> {
+                if (applyCodeEdit(editBuilder.toString(), codeGenType, appId)) {
+                    return Flux.just("\n\n> 增量修改已应用\n");
+                }
+                // 回退：只有在增量修改失败时才会再次调用模型
+                log.warn("增量修改应用失败，回退到完整重新生成，appId: {}", appId);
+                snapshotChatContextBuilder.rebuildMemory(appId, codeGenType);
+                Flux<String> codeStream = codeGenType == CodeGenTypeEnum.HTML
+                        ? aiCodeGeneratorService.generateHtmlCodeStream(userMessage)
+                        : aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
+                return Flux.just("\n\n> 增量修改未能应用，正在重新生成完整代码...\n\n")
+                        .concatWith(processCodeStream(codeStream, codeGenType, appId));
+            }));
+        });
+    }
+
+    /**
+     * 解析并应用增量修改
+     * <p>
+     * 若模型没有输出修改块而是直接输出了完整代码，则按完整代码解析保存。
+     * </p>
+     *
+     * @return 是否成功保存
+     */
+    private boolean applyCodeEdit(String editContent, CodeGenTypeEnum codeGenType, Long appId) {
+        try {
+            List<CodePatch> patches = CODE_PATCH_PARSER.parseCode(editContent);
+            if (patches.isEmpty()) {
+                if (!editContent.contains("```html")) {
+                    log.warn("模型未输出任何修改块，appId: {}", appId);
+                    return false;
+                }
+                Object parsedResult = CodeParserExecutor.executeParser(editContent, codeGenType);
+                File savedDir = CodeFileSaverExecutor.executeSaver(parsedResult, codeGenType, appId);
+                log.info("模型输出了完整代码，保存成功，路径为：{}", savedDir.getAbsolutePath());
+                return true;
+            }
+            Map<String, String> savedFiles = CodeFileSaverExecutor.readSavedFiles(codeGenType, appId);
+            Map<String, String> patchedFiles = CodePatchApplier.applyPatches(savedFiles,
+                    CodeFileSaverExecutor.getCodeFileNames(codeGenType), patches);
+            File savedDir = CodeFileSaverExecutor.saveFiles(patchedFiles, codeGenType, appId);
+            log.info("增量修改应用成功，修改块 {} 个，路径为：{}", patches.size(), savedDir.getAbsolutePath());
+            return true;
+        } catch (Exception e) {
+            log.error("增量修改应用失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 判断应用是否已有保存的代码（存在 index.html）
+     */
+    private boolean hasSavedCode(CodeGenTypeEnum codeGenType, Long appId) {
+        return CodeFileSaverExecutor.readSavedFiles(codeGenType, appId).containsKey("index.html");
+    }
+
     /**
      * 将 TokenStream 转换为标准 Flux<String>，并封装各类事件为统一 JSON 消息
      * <p>
-     * 支持三类事件实时推送：
+     * 支持四类事件实时推送：
      * 1. AI 文本输出（AiResponseMessage）
      * 2. 工具调用请求（ToolRequestMessage）
-     * 3. 工具执行结果（ToolExecutedMessage）
+     * 3. 写入文件的内容增量（ToolStreamingMessage），文件内容边生成边写入工作区
+     * 4. 工具执行结果（ToolExecutedMessage）
      * 最终在 onComplete 时触发 Vue 项目构建。
      * </p>
      *
@@ -156,31 +283,55 @@ public class AiCodeGeneratorFacade {
      * @return Flux<String> 每个元素为 JSON 字符串，前端可按类型区分处理
      */
     private Flux<String> processTokenStream(TokenStream tokenStream, Long appId) {
+        StreamingFileWriter streamingFileWriter = new StreamingFileWriter(projectWorkspaceManager, appId);
         return Flux.create(sink -> tokenStream
                 // 1. 接收模型生成的文本片段（如 "正在创建..."）
                 .onPartialResponse((String partialResponse) -> {
                     AiResponseMessage aiResponseMessage = new AiResponseMessage(partialResponse);
                     sink.next(JSONUtil.toJsonStr(aiResponseMessage));
                 })
-                // 2. 接收模型发起的工具调用请求（如 write_file("App.vue", "...")）
+                // 2. 接收模型发起的工具调用请求（如 write_file("App.vue", "...")），写入文件的内容边生成边写入
                 .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
                     ToolRequestMessage toolRequestMessage = new ToolRequestMessage(toolExecutionRequest);
                     sink.next(JSONUtil.toJsonStr(toolRequestMessage));
+                    ToolStreamingMessage toolStreamingMessage = streamingFileWriter.onPartialRequest(index, toolExecutionRequest);
+                    if (toolStreamingMessage != null) {
+                        sink.next(JSONUtil.toJsonStr(toolStreamingMessage));
+                    }
                 })
-                // 3. 接收工具执行后的返回结果（如 {"status": "success"}）
+                // 3. 接收工具执行后的返回结果（如 {"status": "success"}），并校验流式写入的文件内容
                 .onToolExecuted((ToolExecution toolExecution) -> {
+                    streamingFileWriter.onToolExecuted(toolExecution);
                     ToolExecutedMessage toolExecutedMessage = new ToolExecutedMessage(toolExecution);
                     sink.next(JSONUtil.toJsonStr(toolExecutedMessage));
                 })
-                // 4. 整个对话完成，执行 Vue 项目构建（同步阻塞）
+                // 4. 整个对话完成，将工作区写回新版本并构建（同步阻塞），构建完成后再发布，预览始终看到完整的构建产物
+                //    简单项目直接生成免构建的预览产物，发布后再在后台由该版本派生新版本正式构建，不改动已发布的版本
                 .onCompleteResponse((ChatResponse response) -> {
-                    String projectPath = AppConstant.CODE_OUTPUT_ROOT_DIR + "/vue_project_" + appId;
-                    vueProjectBuilder.buildProject(projectPath);
+                    toolLoopSupervisor.endTurn(appId);
+                    streamingFileWriter.rollbackPending();
+                    projectWorkspaceManager.flush(appId);
+                    boolean packed = vueNoBuildPackager.packIfEligible(projectWorkspaceManager.getProjectRoot(appId));
+                    if (!packed && !vueBuildScheduler.buildAndWait(appId, projectWorkspaceManager.getProjectRoot(appId).toString())) {
+                        // 构建失败时沿用上一次的构建产物，预览不会变成 404
+                        projectWorkspaceManager.carryDistForward(appId);
+                    }
+                    projectWorkspaceManager.publishVersion(appId);
+                    if (packed) {
+                        String dirName = projectWorkspaceManager.getProjectDirName(appId);
+                        Thread.startVirtualThread(() -> vueBuildScheduler.buildCurrentVersion(appId, dirName, null));
+                    }
                     sink.complete();
                 })
                 // 5. 异常处理
                 .onError((Throwable error) -> {
                     error.printStackTrace();
+                    toolLoopSupervisor.endTurn(appId);
+                    // 回滚未执行完成的流式写入，保留出错前已经执行的工具写入的文件
+                    streamingFileWriter.rollbackPending();
+                    // 本轮没有构建，沿用上一次的构建产物后再发布，预览不会变成 404
+                    projectWorkspaceManager.carryDistForward(appId);
+                    projectWorkspaceManager.publishVersion(appId);
                     sink.error(error);
                 })
                 // 启动流式监听
@@ -0,0 +1,293 @@
+package com.ye.yeaicodemother.core.blob;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.ye.yeaicodemother.constant.AppConstant;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址的文件存储
+ * <p>
+ * 生成的项目之间有大量内容完全相同的文件（脚手架、锁文件、公共组件等）。
+ * 写入项目文件时先按内容的 SHA-256 存入 objects/{前 2 位}/{哈希}，再把目标路径硬链接到该对象，
+ * 已存在的内容只需创建一次链接，节省磁盘空间和页缓存。
+ * 目标文件始终通过 临时链接 + 原子重命名 替换，不会原地改写，因此不会影响链接到同一对象的其他项目。
+ * 所有写入项目目录的代码都必须整体替换文件，不能原地追加或截断写入。
+ * 不支持硬链接（如跨文件系统）时退化为普通的 临时文件 + 原子重命名 写入；
+ * 单个文件链接失败（对象硬链接数达到上限、无权限等）时只对该文件退化为复制。
+ * </p>
+ */
+@Slf4j
+public class ContentBlobStore {
+
+    /**
+     * 超过该大小的文件不做去重，直接复制
+     */
+    private static final long MAX_BLOB_BYTES = 16L * 1024 * 1024;
+
+    private static final ContentBlobStore DEFAULT = new ContentBlobStore(Paths.get(AppConstant.CODE_BLOB_ROOT_DIR));
+
+    private final Path objectsDir;
+
+    private final Path tempDir;
+
+    /**
+     * 文件系统不支持硬链接时的错误描述（EXDEV）
+     */
+    private static final String CROSS_DEVICE_REASON = "cross-device";
+
+    /**
+     * 对象的硬链接数达到文件系统上限时的错误描述（EMLINK）
+     */
+    private static final String TOO_MANY_LINKS_REASON = "Too many links";
+
+    /**
+     * 当前环境是否支持硬链接，确认不支持（不支持的文件系统或跨设备）后不再尝试
+     */
+    private volatile boolean linkSupported = true;
+
+    public ContentBlobStore(Path root) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        this.objectsDir = normalizedRoot.resolve("objects");
+        this.tempDir = normalizedRoot.resolve("tmp");
+    }
+
+    /**
+     * 获取默认的存储实例（位于 {@link AppConstant#CODE_BLOB_ROOT_DIR}）
+     */
+    public static ContentBlobStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 写入文本文件
+     *
+     * @param target  目标文件
+     * @param content 文件内容
+     */
+    public void writeString(Path target, String content) throws IOException {
+        write(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写入文件：内容已存在时只创建硬链接
+     *
+     * @param target  目标文件
+     * @param content 文件内容
+     */
+    public void write(Path target, byte[] content) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        if (linkSupported) {
+            String hash = DigestUtil.sha256Hex(content);
+            try {
+                linkToTarget(ensureBlob(hash, content), target);
+                return;
+            } catch (NoSuchFileException e) {
+                // 对象刚好被清理，重新写入后再链接一次
+                linkToTarget(ensureBlob(hash, content), target);
+                return;
+            } catch (UnsupportedOperationException e) {
+                disableLinking(e.getMessage());
+            } catch (FileSystemException e) {
+                if (!handleLinkFailure(e, hash, content, target)) {
+                    return;
+                }
+            }
+        }
+        Path tempFile = Files.createTempFile(parent, ".blob-", ".tmp");
+        try {
+            Files.write(tempFile, content);
+            moveAtomically(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 复制单个文件（经过去重）
+     *
+     * @param source 源文件
+     * @param target 目标文件
+     */
+    public void copyFile(Path source, Path target) throws IOException {
+        if (Files.size(source) > MAX_BLOB_BYTES) {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        write(target, Files.readAllBytes(source));
+    }
+
+    /**
+     * 内容有变化时才复制单个文件（经过去重）
+     * <p>
+     * 目标文件与源文件是同一个 inode，或已经链接到源文件内容对应的对象时视为未变化，不做任何写入。
+     * </p>
+     *
+     * @param source 源文件
+     * @param target 目标文件（可以不存在）
+     * @return 是否写入了目标文件
+     */
+    public boolean copyFileIfChanged(Path source, Path target) throws IOException {
+        boolean targetExists = Files.isRegularFile(target);
+        if (targetExists && Files.isSameFile(source, target)) {
+            return false;
+        }
+        if (!linkSupported || Files.size(source) > MAX_BLOB_BYTES) {
+            copyFile(source, target);
+            return true;
+        }
+        byte[] content = Files.readAllBytes(source);
+        Path blob = blobPathOf(DigestUtil.sha256Hex(content));
+        if (targetExists && Files.exists(blob) && Files.isSameFile(blob, target)) {
+            return false;
+        }
+        write(target, content);
+        return true;
+    }
+
+    /**
+     * 复制目录下的全部文件（经过去重），目标目录中已有的其他文件保持不变
+     *
+     * @param sourceDir 源目录
+     * @param targetDir 目标目录
+     */
+    public void copyDirectory(Path sourceDir, Path targetDir) throws IOException {
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    copyFile(file, targetDir.resolve(sourceDir.relativize(file).toString()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 清理不再被任何项目文件引用的对象（硬链接数为 1）
+     *
+     * @return 清理的对象数量
+     */
+    public int gc() {
+        if (!Files.isDirectory(objectsDir)) {
+            return 0;
+        }
+        int removed = 0;
+        try (Stream<Path> blobs = Files.walk(objectsDir)) {
+            for (Path blob : (Iterable<Path>) blobs.filter(Files::isRegularFile)::iterator) {
+                try {
+                    Object linkCount = Files.getAttribute(blob, "unix:nlink");
+                    if (linkCount instanceof Integer count && count <= 1) {
+                        Files.deleteIfExists(blob);
+                        removed++;
+                    }
+                } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                    log.warn("当前文件系统无法获取硬链接数，跳过对象清理");
+                    return removed;
+                } catch (IOException e) {
+                    log.warn("清理对象失败: {}, 错误: {}", blob, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("扫描对象目录失败: {}", objectsDir, e);
+        }
+        return removed;
+    }
+
+    /**
+     * 处理单个文件的链接失败
+     * <p>
+     * 跨设备时全局关闭去重；对象硬链接数达到上限时换用新的对象（已有链接仍指向旧对象，不受影响）再链接一次；
+     * 其他错误（如无权限）只让该文件退化为复制。
+     * </p>
+     *
+     * @return 是否需要退化为复制写入
+     */
+    private boolean handleLinkFailure(FileSystemException e, String hash, byte[] content, Path target) throws IOException {
+        String reason = e.getReason() != null ? e.getReason() : "";
+        if (reason.contains(CROSS_DEVICE_REASON)) {
+            disableLinking(e.getMessage());
+            return true;
+        }
+        if (reason.contains(TOO_MANY_LINKS_REASON)) {
+            log.info("对象硬链接数已达上限，换用新的对象: {}", hash);
+            try {
+                linkToTarget(writeBlob(hash, content), target);
+                return false;
+            } catch (FileSystemException retryError) {
+                log.warn("换用新对象后仍无法链接，复制写入: {}, 错误: {}", target, retryError.getMessage());
+                return true;
+            }
+        }
+        log.warn("链接对象失败，复制写入: {}, 错误: {}", target, e.getMessage());
+        return true;
+    }
+
+    private void disableLinking(String message) {
+        linkSupported = false;
+        log.warn("当前文件系统不支持硬链接，文件去重已关闭: {}", message);
+    }
+
+    /**
+     * 确保内容对应的对象存在
+     */
+    private Path ensureBlob(String hash, byte[] content) throws IOException {
+        Path blob = blobPathOf(hash);
+        if (Files.exists(blob)) {
+            return blob;
+        }
+        return writeBlob(hash, content);
+    }
+
+    /**
+     * 写入对象（已存在时以新的 inode 原子替换）
+     */
+    private Path writeBlob(String hash, byte[] content) throws IOException {
+        Path blob = blobPathOf(hash);
+        Files.createDirectories(blob.getParent());
+        Files.createDirectories(tempDir);
+        Path tempFile = Files.createTempFile(tempDir, hash.substring(0, 8), ".tmp");
+        try {
+            Files.write(tempFile, content);
+            // 并发写入相同内容时后写入的覆盖先写入的，内容相同，不影响已有链接
+            moveAtomically(tempFile, blob);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return blob;
+    }
+
+    private Path blobPathOf(String hash) {
+        return objectsDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * 先在目标目录创建临时硬链接，再原子重命名为目标文件
+     */
+    private void linkToTarget(Path blob, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Path tempLink = parent.resolve(".blob-" + IdUtil.fastSimpleUUID() + ".tmp");
+        try {
+            Files.createLink(tempLink, blob);
+            moveAtomically(tempLink, target);
+        } finally {
+            Files.deleteIfExists(tempLink);
+        }
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
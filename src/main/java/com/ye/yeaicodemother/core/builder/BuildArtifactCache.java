@@ -0,0 +1,268 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.ye.yeaicodemother.config.VueBuildProperties;
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 跨应用的构建产物缓存
+ * <p>
+ * 模板生成或重新生成的应用经常得到完全相同的源码，没有必要重复构建。
+ * 本类以 源码哈希（{@link BuildManifest#hashSources}，已包含 package.json 与锁文件）+ 工具链版本（Node 版本）为键，
+ * 在 {cacheDir}/{key}/dist 保存构建成功的 dist；命中时经 {@link ContentBlobStore} 以硬链接把 dist 放回项目目录，跳过整个构建。
+ * 条目在临时目录中写好后原子重命名，不会读到不完整的条目；总大小超过磁盘预算时按最近访问时间淘汰（LRU）。
+ * 指标：vue.build.artifact.cache.requests（result 标签为 hit / miss）、vue.build.artifact.cache.size。
+ * </p>
+ */
+@Slf4j
+@Component
+public class BuildArtifactCache {
+
+    private static final String DIST_DIR_NAME = "dist";
+
+    /**
+     * 条目完成标记，内容为条目大小（字节），修改时间为最近访问时间
+     */
+    private static final String ENTRY_MARKER = ".entry";
+
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    /**
+     * 缓存格式版本，格式或源码哈希的范围变化时使旧条目失效
+     * <p>
+     * 2：源码哈希不再跳过子目录中的 build、dist 等目录，旧条目可能对应不同的源码。
+     * </p>
+     */
+    private static final String CACHE_FORMAT_VERSION = "2";
+
+    /**
+     * 残留临时目录的清理时间
+     */
+    private static final Duration TEMP_EXPIRE_TIME = Duration.ofHours(1);
+
+    @Resource
+    private VueBuildProperties vueBuildProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 缓存总大小（字节），淘汰时重新统计
+     */
+    private final AtomicLong cacheSizeBytes = new AtomicLong();
+
+    private volatile String toolchainVersion;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("vue.build.artifact.cache.size", cacheSizeBytes, AtomicLong::get)
+                .description("构建产物缓存占用的磁盘空间")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 缓存命中时把 dist 放回项目目录
+     *
+     * @param sourceHash 源码哈希
+     * @param projectDir 项目根目录
+     * @return 是否命中
+     */
+    public boolean restore(String sourceHash, Path projectDir) {
+        if (!vueBuildProperties.isArtifactCacheEnabled()) {
+            return false;
+        }
+        Path entryDir = getEntryDir(sourceHash);
+        Path marker = entryDir.resolve(ENTRY_MARKER);
+        if (!Files.isRegularFile(marker)) {
+            recordRequest("miss");
+            return false;
+        }
+        Path tempDist = projectDir.resolve(TEMP_PREFIX + DIST_DIR_NAME + "-" + IdUtil.fastSimpleUUID());
+        try {
+            Files.createDirectories(tempDist);
+            ContentBlobStore.getDefault().copyDirectory(entryDir.resolve(DIST_DIR_NAME), tempDist);
+            if (!Files.isRegularFile(marker)) {
+                throw new IOException("条目已被淘汰");
+            }
+            Path dist = projectDir.resolve(DIST_DIR_NAME);
+            FileUtil.del(dist.toFile());
+            Files.move(tempDist, dist, StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(marker, FileTime.from(Instant.now()));
+            recordRequest("hit");
+            log.info("构建产物缓存命中: {} -> {}", entryDir.getFileName(), projectDir);
+            return true;
+        } catch (IOException e) {
+            // 条目可能正在被淘汰
+            log.warn("恢复构建产物缓存失败，改为重新构建: {}, 错误: {}", entryDir.getFileName(), e.getMessage());
+            recordRequest("miss");
+            return false;
+        } finally {
+            if (Files.exists(tempDist)) {
+                FileUtil.del(tempDist.toFile());
+            }
+        }
+    }
+
+    /**
+     * 构建成功后保存 dist
+     *
+     * @param sourceHash 源码哈希
+     * @param projectDir 项目根目录（dist 已生成）
+     */
+    public void store(String sourceHash, Path projectDir) {
+        if (!vueBuildProperties.isArtifactCacheEnabled()) {
+            return;
+        }
+        Path entryDir = getEntryDir(sourceHash);
+        if (Files.isRegularFile(entryDir.resolve(ENTRY_MARKER))) {
+            return;
+        }
+        Path tempDir = entryDir.resolveSibling(TEMP_PREFIX + IdUtil.fastSimpleUUID());
+        try {
+            Path dist = projectDir.resolve(DIST_DIR_NAME);
+            Files.createDirectories(tempDir.resolve(DIST_DIR_NAME));
+            ContentBlobStore.getDefault().copyDirectory(dist, tempDir.resolve(DIST_DIR_NAME));
+            Files.writeString(tempDir.resolve(ENTRY_MARKER), String.valueOf(FileUtil.size(dist.toFile())));
+            Files.move(tempDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+            log.info("已缓存构建产物: {}", entryDir.getFileName());
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            // 其他构建同时写入了相同的条目
+            log.debug("构建产物缓存条目已存在: {}", entryDir.getFileName());
+        } catch (IOException e) {
+            log.warn("缓存构建产物失败: {}, 错误: {}", projectDir, e.getMessage());
+        } finally {
+            if (Files.exists(tempDir)) {
+                FileUtil.del(tempDir.toFile());
+            }
+        }
+        evict();
+    }
+
+    /**
+     * 总大小超过预算时按最近访问时间淘汰条目，并清理残留的临时目录
+     */
+    private synchronized void evict() {
+        Path cacheRoot = getCacheRoot();
+        List<CacheEntry> entries = new ArrayList<>();
+        long totalBytes = 0;
+        Instant tempExpireBefore = Instant.now().minus(TEMP_EXPIRE_TIME);
+        try (Stream<Path> children = Files.list(cacheRoot)) {
+            for (Path child : children.toList()) {
+                if (child.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                    BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                    if (attrs.lastModifiedTime().toInstant().isBefore(tempExpireBefore)) {
+                        FileUtil.del(child.toFile());
+                    }
+                    continue;
+                }
+                Path marker = child.resolve(ENTRY_MARKER);
+                if (!Files.isRegularFile(marker)) {
+                    continue;
+                }
+                long size = Long.parseLong(Files.readString(marker).trim());
+                entries.add(new CacheEntry(child, size, Files.getLastModifiedTime(marker).toMillis()));
+                totalBytes += size;
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("统计构建产物缓存失败: {}", e.getMessage());
+            return;
+        }
+        long maxBytes = vueBuildProperties.getArtifactCacheMaxSizeMb() * 1024L * 1024L;
+        entries.sort(Comparator.comparingLong(CacheEntry::lastAccessMillis));
+        for (CacheEntry entry : entries) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            // 先删除标记，使条目立即失效，再删除内容
+            FileUtil.del(entry.path().resolve(ENTRY_MARKER).toFile());
+            FileUtil.del(entry.path().toFile());
+            totalBytes -= entry.sizeBytes();
+            log.info("淘汰构建产物缓存: {}", entry.path().getFileName());
+        }
+        cacheSizeBytes.set(totalBytes);
+    }
+
+    /**
+     * 缓存键：格式版本 + 工具链版本 + 源码哈希
+     */
+    private Path getEntryDir(String sourceHash) {
+        String key = DigestUtil.sha256Hex(CACHE_FORMAT_VERSION + "\0" + getToolchainVersion() + "\0" + sourceHash);
+        return getCacheRoot().resolve(key);
+    }
+
+    private Path getCacheRoot() {
+        Path cacheRoot = Paths.get(vueBuildProperties.getArtifactCacheDir()).toAbsolutePath().normalize();
+        FileUtil.mkdir(cacheRoot.toFile());
+        return cacheRoot;
+    }
+
+    /**
+     * 当前 Node 版本（首次使用时检测），无法检测时为 unknown
+     */
+    private String getToolchainVersion() {
+        String version = toolchainVersion;
+        if (version != null) {
+            return version;
+        }
+        version = "unknown";
+        try {
+            Process process = new ProcessBuilder(vueBuildProperties.getNodeCommand(), "--version")
+                    .redirectErrorStream(true)
+                    .start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                if (process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0 && line != null) {
+                    version = "node-" + line.trim();
+                }
+            } finally {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            log.warn("检测 Node 版本失败: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // 中断时不缓存检测结果
+            return version;
+        }
+        toolchainVersion = version;
+        return version;
+    }
+
+    private void recordRequest(String result) {
+        Counter.builder("vue.build.artifact.cache.requests")
+                .description("构建产物缓存请求次数")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record CacheEntry(Path path, long sizeBytes, long lastAccessMillis) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.ye.yeaicodemother.core.builder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 单次构建的输出日志
+ * <p>
+ * 构建命令的输出由后台线程持续读取并写入本类，只保留最近的若干行（环形缓冲），
+ * 既避免子进程因管道写满而阻塞，也能在构建失败时附带日志末尾，或通过 {@link #stream()} 实时推送给前端。
+ * </p>
+ */
+public class BuildLog {
+
+    /**
+     * 保留的最大行数
+     */
+    private static final int MAX_LINES = 2000;
+
+    /**
+     * 单行最大字符数，超出部分截断
+     */
+    private static final int MAX_LINE_CHARS = 2000;
+
+    private final Deque<String> lines = new ArrayDeque<>();
+
+    /**
+     * 实时推送：新订阅者先收到缓冲中的最近若干行，再接收后续输出
+     */
+    private final Sinks.Many<String> sink = Sinks.many().replay().limit(MAX_LINES);
+
+    private boolean completed;
+
+    /**
+     * 追加一行输出
+     *
+     * @param line 输出行
+     */
+    public synchronized void append(String line) {
+        if (completed) {
+            return;
+        }
+        if (line.length() > MAX_LINE_CHARS) {
+            line = line.substring(0, MAX_LINE_CHARS) + "...";
+        }
+        if (lines.size() >= MAX_LINES) {
+            lines.removeFirst();
+        }
+        lines.addLast(line);
+        sink.tryEmitNext(line);
+    }
+
+    /**
+     * 构建结束，结束所有实时推送
+     */
+    public synchronized void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        sink.tryEmitComplete();
+    }
+
+    /**
+     * 获取最近的若干行输出
+     *
+     * @param maxLines 最大行数
+     * @return 以换行分隔的输出
+     */
+    public synchronized String tail(int maxLines) {
+        List<String> tailLines = new ArrayList<>(lines);
+        return String.join("\n", tailLines.subList(Math.max(0, tailLines.size() - maxLines), tailLines.size()));
+    }
+
+    /**
+     * 实时日志流：先回放缓冲中的输出，构建结束时完成
+     */
+    public Flux<String> stream() {
+        return sink.asFlux();
+    }
+}
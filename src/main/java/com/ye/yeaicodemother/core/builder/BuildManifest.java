@@ -0,0 +1,186 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import com.ye.yeaicodemother.utils.TempNameUtils;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 构建清单
+ * <p>
+ * 每次构建成功后在项目根目录写入 {@value #FILE_NAME}，记录源码和依赖声明的内容哈希。
+ * 再次构建时源码哈希不变且 dist 仍在，则整个构建可以跳过；只有依赖声明不变时，则跳过依赖安装。
+ * 项目目录中的文件可能与其他版本共享 inode，清单同样以 临时文件 + 原子重命名 的方式整体替换。
+ * </p>
+ */
+@Data
+@Slf4j
+public class BuildManifest {
+
+    /**
+     * 清单文件名
+     */
+    public static final String FILE_NAME = ".build-manifest.json";
+
+    private static final String PACKAGE_JSON = "package.json";
+
+    private static final String PACKAGE_LOCK_JSON = "package-lock.json";
+
+    /**
+     * 计算源码哈希时跳过的顶层目录：依赖和构建产物。子目录中同名的目录（如 src/build）属于源码
+     */
+    private static final Set<String> EXCLUDED_TOP_LEVEL_DIRS = Set.of("node_modules", "dist");
+
+    /**
+     * 源码哈希（不含依赖目录和构建产物）
+     */
+    private String sourceHash;
+
+    /**
+     * 依赖声明哈希（package.json 与 package-lock.json）
+     */
+    private String dependencyHash;
+
+    /**
+     * 构建完成时间（毫秒时间戳）
+     */
+    private Long buildTime;
+
+    /**
+     * 读取项目的构建清单
+     *
+     * @param projectDir 项目根目录
+     * @return 构建清单，不存在或无法解析时返回 null
+     */
+    public static BuildManifest read(Path projectDir) {
+        Path manifestFile = projectDir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(manifestFile)) {
+            return null;
+        }
+        try {
+            return JSONUtil.toBean(Files.readString(manifestFile), BuildManifest.class);
+        } catch (Exception e) {
+            log.warn("读取构建清单失败: {}, 错误: {}", manifestFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入构建清单（临时文件 + 原子重命名）
+     *
+     * @param projectDir 项目根目录
+     */
+    public void write(Path projectDir) throws IOException {
+        Path manifestFile = projectDir.resolve(FILE_NAME);
+        Path tempFile = projectDir.resolve(FILE_NAME + "-" + IdUtil.fastSimpleUUID() + ".tmp");
+        try {
+            Files.writeString(tempFile, JSONUtil.toJsonStr(this));
+            Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 删除构建清单（开始重新构建前调用，避免构建失败后残留的 dist 被误认为有效）
+     *
+     * @param projectDir 项目根目录
+     */
+    public static void delete(Path projectDir) {
+        try {
+            Files.deleteIfExists(projectDir.resolve(FILE_NAME));
+        } catch (IOException e) {
+            log.warn("删除构建清单失败: {}, 错误: {}", projectDir, e.getMessage());
+        }
+    }
+
+    /**
+     * 计算源码哈希：按相对路径排序后依次摘要 路径 + 文件内容，跳过顶层的 node_modules、dist，清单本身和临时文件
+     * <p>
+     * 哈希同时作为构建产物缓存的键，除上述内容外的任何文件都可能影响构建结果，必须计入。
+     * </p>
+     *
+     * @param projectDir 项目根目录
+     * @return 十六进制 SHA-256
+     */
+    public static String hashSources(Path projectDir) throws IOException {
+        Path root = projectDir.toRealPath();
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(root)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String name = dir.getFileName().toString();
+                if (TempNameUtils.isTemporaryName(name)
+                        || dir.getParent().equals(root) && EXCLUDED_TOP_LEVEL_DIRS.contains(name)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                if (attrs.isRegularFile() && !name.startsWith(FILE_NAME) && !TempNameUtils.isTemporaryName(name)) {
+                    files.add(root.relativize(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(null);
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        for (Path relativePath : files) {
+            digest.update(relativePath.toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = new DigestInputStream(Files.newInputStream(root.resolve(relativePath)), digest)) {
+                while (in.read(buffer) != -1) {
+                    // 读取即摘要
+                }
+            }
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 计算依赖声明哈希：package.json 与 package-lock.json（若存在）的内容
+     *
+     * @param projectDir 项目根目录（须包含 package.json）
+     * @return 十六进制 SHA-256
+     */
+    public static String hashDependencies(Path projectDir) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(Files.readAllBytes(projectDir.resolve(PACKAGE_JSON)));
+        Path lockFile = projectDir.resolve(PACKAGE_LOCK_JSON);
+        if (Files.isRegularFile(lockFile)) {
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(lockFile));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.ye.yeaicodemother.config.DependencyStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vue 项目共享依赖存储
+ * <p>
+ * 生成的项目大多依赖同几个包，每个项目单独 npm install 既慢又依赖网络。
+ * 本类以 package.json（及 package-lock.json）的 SHA-256 作为键，在共享目录 {storeDir}/{hash} 中保留一份安装好的 node_modules，
+ * 项目的 node_modules 以符号链接指向它；未命中时先用本地 npm 缓存离线安装，失败再联网安装，
+ * 安装在临时目录中完成后原子重命名为正式目录，不会产生半装好的条目。
+ * 共享的 node_modules 被多个项目同时使用，构建时不能写入其中：Vite 的 cacheDir 和 node_modules/.cache 下的工具缓存
+ * 都改为指向项目自己的 {@link #BUILD_CACHE_DIR_NAME} 目录（见 {@link #resolveBuildCacheDir(Path)}）。
+ * 指标：
+ * - vue.dependency.store.requests：请求次数（result 标签为 hit / miss / failure）
+ * - vue.dependency.install：未命中时的安装耗时（mode 标签为 offline / online，outcome 标签为 success / failure）
+ * </p>
+ */
+@Slf4j
+@Component
+public class DependencyStore {
+
+    private static final String NODE_MODULES = "node_modules";
+
+    private static final String PACKAGE_JSON = "package.json";
+
+    private static final String PACKAGE_LOCK_JSON = "package-lock.json";
+
+    /**
+     * 条目安装完成的标记文件
+     */
+    private static final String INSTALLED_MARKER = ".installed";
+
+    /**
+     * 项目内的构建缓存目录名称，以临时文件前缀命名，不参与扫描、克隆、源码哈希和下载
+     */
+    static final String BUILD_CACHE_DIR_NAME = ".tmp-build-cache";
+
+    @Resource
+    private DependencyStoreProperties dependencyStoreProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 依赖哈希 -> 安装锁，同一组依赖只安装一次
+     */
+    private final Map<String, ReentrantLock> installLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 共享依赖已安装时直接链接，不触发安装（用于新项目初始化）
+     *
+     * @param projectDir 项目根目录
+     * @return 是否已链接到共享依赖
+     */
+    public boolean linkIfPresent(Path projectDir) {
+        if (!dependencyStoreProperties.isEnabled()) {
+            return false;
+        }
+        try {
+            Path entryDir = getEntryDir(projectDir);
+            if (!Files.exists(entryDir.resolve(INSTALLED_MARKER))) {
+                return false;
+            }
+            linkNodeModules(projectDir, entryDir);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("链接共享依赖失败: {}, 错误: {}", projectDir, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 把项目的 node_modules 链接到共享依赖，未命中时先安装到共享目录
+     * <p>
+     * 返回 false 时项目的 node_modules 不会指向共享目录，调用方可以安全地在项目中单独安装。
+     * </p>
+     *
+     * @param projectDir 项目根目录（须包含 package.json）
+     * @param installer  依赖安装方式
+     * @return 是否已链接到共享依赖
+     */
+    public boolean link(Path projectDir, DependencyInstaller installer) {
+        if (!dependencyStoreProperties.isEnabled()) {
+            unlinkShared(projectDir);
+            return false;
+        }
+        try {
+            Path entryDir = getEntryDir(projectDir);
+            if (Files.exists(entryDir.resolve(INSTALLED_MARKER))) {
+                recordRequest("hit");
+            } else if (install(projectDir, entryDir, installer)) {
+                recordRequest("miss");
+            } else {
+                recordRequest("failure");
+                unlinkShared(projectDir);
+                return false;
+            }
+            linkNodeModules(projectDir, entryDir);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("使用共享依赖失败，改为单独安装: {}, 错误: {}", projectDir, e.getMessage());
+            recordRequest("failure");
+            unlinkShared(projectDir);
+            return false;
+        }
+    }
+
+    /**
+     * 在临时目录中安装依赖，成功后原子重命名为共享条目
+     */
+    private boolean install(Path projectDir, Path entryDir, DependencyInstaller installer) throws IOException {
+        ReentrantLock lock = installLocks.computeIfAbsent(entryDir.getFileName().toString(), key -> new ReentrantLock());
+        lock.lock();
+        try {
+            // 等待期间其他线程可能已经安装完成
+            if (Files.exists(entryDir.resolve(INSTALLED_MARKER))) {
+                return true;
+            }
+            Path tempDir = entryDir.resolveSibling(".tmp-" + IdUtil.fastSimpleUUID());
+            Files.createDirectories(tempDir);
+            try {
+                Files.copy(projectDir.resolve(PACKAGE_JSON), tempDir.resolve(PACKAGE_JSON));
+                Path lockFile = projectDir.resolve(PACKAGE_LOCK_JSON);
+                if (Files.isRegularFile(lockFile)) {
+                    Files.copy(lockFile, tempDir.resolve(PACKAGE_LOCK_JSON));
+                }
+                log.info("共享依赖未命中，开始安装: {}", entryDir.getFileName());
+                // 优先使用本地缓存离线安装，缓存中缺少依赖包时再联网安装（同时补全缓存）
+                if (!timedInstall(installer, tempDir, true) && !timedInstall(installer, tempDir, false)) {
+                    return false;
+                }
+                Files.writeString(tempDir.resolve(INSTALLED_MARKER), entryDir.getFileName().toString());
+                // 清理上次中断遗留的不完整条目
+                FileUtil.del(entryDir.toFile());
+                Files.move(tempDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+                log.info("共享依赖安装完成: {}", entryDir.getFileName());
+                return true;
+            } finally {
+                if (Files.exists(tempDir)) {
+                    FileUtil.del(tempDir.toFile());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean timedInstall(DependencyInstaller installer, Path dir, boolean offline) {
+        long start = System.nanoTime();
+        boolean success = installer.install(dir.toFile(), offline);
+        Timer.builder("vue.dependency.install")
+                .description("共享依赖安装耗时")
+                .tag("mode", offline ? "offline" : "online")
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return success;
+    }
+
+    /**
+     * 以 临时链接 + 原子重命名 的方式把 node_modules 指向共享条目
+     */
+    private void linkNodeModules(Path projectDir, Path entryDir) throws IOException {
+        Path nodeModules = projectDir.resolve(NODE_MODULES);
+        Path sharedNodeModules = entryDir.resolve(NODE_MODULES);
+        if (Files.isSymbolicLink(nodeModules) && Files.readSymbolicLink(nodeModules).equals(sharedNodeModules)) {
+            return;
+        }
+        if (Files.isDirectory(nodeModules, LinkOption.NOFOLLOW_LINKS)) {
+            // 之前单独安装的依赖，已不再需要
+            FileUtil.del(nodeModules.toFile());
+        }
+        Path tempLink = projectDir.resolve("." + NODE_MODULES + "-" + IdUtil.fastSimpleUUID());
+        try {
+            Files.createSymbolicLink(tempLink, sharedNodeModules);
+            Files.move(tempLink, nodeModules, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempLink);
+        }
+    }
+
+    /**
+     * 删除指向共享目录的 node_modules 链接，避免单独安装时把依赖装进共享目录
+     */
+    private void unlinkShared(Path projectDir) {
+        Path nodeModules = projectDir.resolve(NODE_MODULES);
+        try {
+            if (Files.isSymbolicLink(nodeModules)) {
+                Files.delete(nodeModules);
+            }
+        } catch (IOException e) {
+            log.warn("删除共享依赖链接失败: {}, 错误: {}", nodeModules, e.getMessage());
+        }
+    }
+
+    /**
+     * 项目的构建缓存目录，代替 Vite 默认的 node_modules/.vite 和工具默认的 node_modules/.cache
+     *
+     * @param projectDir 项目根目录
+     * @return 构建缓存目录（可能尚不存在）
+     */
+    static Path resolveBuildCacheDir(Path projectDir) {
+        return projectDir.resolve(BUILD_CACHE_DIR_NAME);
+    }
+
+    /**
+     * 共享条目目录：{storeDir}/{依赖声明哈希}
+     */
+    private Path getEntryDir(Path projectDir) throws IOException {
+        String hash = BuildManifest.hashDependencies(projectDir);
+        return Paths.get(dependencyStoreProperties.getStoreDir()).toAbsolutePath().normalize().resolve(hash);
+    }
+
+    private void recordRequest(String result) {
+        Counter.builder("vue.dependency.store.requests")
+                .description("共享依赖请求次数")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 依赖安装方式
+     */
+    @FunctionalInterface
+    public interface DependencyInstaller {
+
+        /**
+         * 在目录中安装依赖
+         *
+         * @param dir     包含 package.json 的目录
+         * @param offline 是否只使用本地缓存
+         * @return 是否安装成功
+         */
+        boolean install(File dir, boolean offline);
+    }
+}
@@ -0,0 +1,230 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个常驻 Vite 构建进程
+ * <p>
+ * 通过 stdin/stdout 以 JSON 行与 build-worker.mjs 通信，进程的 stderr（Vite 构建输出）写入当前构建的日志。
+ * 同一时间只执行一个请求，由 {@link ViteWorkerPool} 保证。
+ * </p>
+ */
+@Slf4j
+class ViteWorker implements Closeable {
+
+    /**
+     * 构建结束时 build-worker.mjs 写入 stderr 的标记行前缀，后接请求 ID
+     */
+    private static final String OUTPUT_END_MARKER = "\u0000vite-worker-end:";
+
+    /**
+     * 等待构建输出读取完成的最长时间（毫秒）
+     */
+    private static final long OUTPUT_DRAIN_TIMEOUT_MILLIS = 2000;
+
+    private final Process process;
+
+    private final BufferedWriter requestWriter;
+
+    private final BlockingQueue<JSONObject> responses = new LinkedBlockingQueue<>();
+
+    /**
+     * 输出已读取完成的请求 ID
+     */
+    private final BlockingQueue<Long> drainedRequests = new LinkedBlockingQueue<>();
+
+    /**
+     * 当前构建的日志，空闲时为 null
+     */
+    private volatile BuildLog currentLog;
+
+    /**
+     * 是否已被关闭；进程被强制终止后不会立即退出，关闭后不能再归还到空闲队列
+     */
+    private volatile boolean closed;
+
+    private long nextRequestId;
+
+    private int buildCount;
+
+    private ViteWorker(Process process) {
+        this.process = process;
+        this.requestWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        Thread.ofVirtual().name("vite-worker-stdout").start(this::readResponses);
+        Thread.ofVirtual().name("vite-worker-stderr").start(this::readOutput);
+    }
+
+    /**
+     * 启动构建进程
+     *
+     * @param nodeCommand Node 可执行文件
+     * @param script      build-worker.mjs 路径
+     */
+    static ViteWorker start(String nodeCommand, Path script) throws IOException {
+        Process process = new ProcessBuilder(nodeCommand, script.toString())
+                .directory(script.getParent().toFile())
+                .start();
+        return new ViteWorker(process);
+    }
+
+    /**
+     * 健康检查
+     *
+     * @param timeoutSeconds 等待响应的最长时间（秒）
+     * @return 进程是否能正常响应
+     */
+    boolean ping(int timeoutSeconds) {
+        JSONObject request = new JSONObject();
+        request.set("type", "ping");
+        JSONObject response = call(request, timeoutSeconds);
+        return response != null && response.getBool("ok", false);
+    }
+
+    /**
+     * 在进程内构建项目
+     *
+     * @param projectRoot    项目根目录
+     * @param outDir         构建输出目录
+     * @param buildLog       构建日志
+     * @param timeoutSeconds 最长构建时间（秒），超时后终止进程
+     * @return 构建结果；进程异常退出或无响应时返回 {@link ViteWorkerPool.BuildResult#UNAVAILABLE}
+     */
+    ViteWorkerPool.BuildResult build(String projectRoot, String outDir, BuildLog buildLog, int timeoutSeconds) {
+        buildCount++;
+        currentLog = buildLog;
+        try {
+            JSONObject request = new JSONObject();
+            request.set("type", "build");
+            request.set("root", projectRoot);
+            request.set("outDir", outDir);
+            request.set("cacheDir", DependencyStore.resolveBuildCacheDir(Path.of(projectRoot)).toString());
+            JSONObject response = call(request, timeoutSeconds);
+            if (response == null) {
+                if (isAlive()) {
+                    buildLog.append(String.format("构建超时（%d秒），已终止构建进程", timeoutSeconds));
+                    close();
+                    return ViteWorkerPool.BuildResult.FAILED;
+                }
+                return ViteWorkerPool.BuildResult.UNAVAILABLE;
+            }
+            awaitOutputDrained(response.getLong("id", -1L));
+            if (response.getBool("ok", false)) {
+                return ViteWorkerPool.BuildResult.SUCCESS;
+            }
+            buildLog.append("构建失败: " + response.getStr("error"));
+            return ViteWorkerPool.BuildResult.FAILED;
+        } finally {
+            currentLog = null;
+        }
+    }
+
+    /**
+     * 发送请求并等待对应的响应
+     *
+     * @return 响应；超时或进程已退出时返回 null
+     */
+    private JSONObject call(JSONObject request, int timeoutSeconds) {
+        long requestId = ++nextRequestId;
+        request.set("id", requestId);
+        try {
+            requestWriter.write(request.toString());
+            requestWriter.newLine();
+            requestWriter.flush();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (System.nanoTime() < deadline) {
+                JSONObject response = responses.poll(1, TimeUnit.SECONDS);
+                if (response == null) {
+                    if (!isAlive()) {
+                        return null;
+                    }
+                    continue;
+                }
+                // 丢弃之前超时请求的迟到响应
+                if (requestId == response.getLong("id", -1L)) {
+                    return response;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            log.warn("向构建进程发送请求失败: {}", e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 响应与输出由两个线程分别读取，等待本次构建的输出全部写入日志后再结束，避免输出串到下一次构建
+     */
+    private void awaitOutputDrained(long requestId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OUTPUT_DRAIN_TIMEOUT_MILLIS);
+        try {
+            while (true) {
+                Long drained = drainedRequests.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (drained == null || drained == requestId) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readResponses() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (JSONUtil.isTypeJSONObject(line)) {
+                    responses.offer(JSONUtil.parseObj(line));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("构建进程输出已关闭: {}", e.getMessage());
+        }
+    }
+
+    private void readOutput() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(OUTPUT_END_MARKER)) {
+                    drainedRequests.offer(Long.parseLong(line.substring(OUTPUT_END_MARKER.length()).trim()));
+                    continue;
+                }
+                BuildLog buildLog = currentLog;
+                if (buildLog != null) {
+                    buildLog.append(line);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("构建进程输出已关闭: {}", e.getMessage());
+        }
+    }
+
+    int getBuildCount() {
+        return buildCount;
+    }
+
+    boolean isAlive() {
+        return !closed && process.isAlive();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+}
@@ -0,0 +1,234 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.ye.yeaicodemother.config.VueBuildProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 常驻 Vite 构建进程池
+ * <p>
+ * 每次 npm run build 都要启动 npm 和 Node、重新加载 Vite 与 Rollup，小项目的构建时间大半花在这里。
+ * 本类维护少量常驻的 Node 进程（classpath:vite-worker/build-worker.mjs），在进程内调用 Vite 的 build API，
+ * 使用共享依赖的项目解析到同一份 Vite，模块只加载一次。
+ * 1. 取出空闲进程前先做健康检查，无响应的进程直接回收；
+ * 2. 每个进程执行 {@code maxBuildsPerWorker} 次构建后回收重建；
+ * 3. 未启用、Node 不可用、进程都在忙或进程异常退出时返回 {@link BuildResult#UNAVAILABLE}，由调用方改为启动 npm run build。
+ * 指标：vue.build.worker.builds（result 标签）、vue.build.worker.live。
+ * </p>
+ */
+@Slf4j
+@Component
+public class ViteWorkerPool {
+
+    private static final String WORKER_SCRIPT = "vite-worker/build-worker.mjs";
+
+    /**
+     * 健康检查等待时间（秒）
+     */
+    private static final int PING_TIMEOUT_SECONDS = 5;
+
+    /**
+     * 可由常驻进程执行的构建脚本
+     */
+    private static final String VITE_BUILD_SCRIPT = "vite build";
+
+    @Resource
+    private VueBuildProperties vueBuildProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentLinkedDeque<ViteWorker> idleWorkers = new ConcurrentLinkedDeque<>();
+
+    /**
+     * 存活的进程数（空闲 + 构建中）
+     */
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+
+    private volatile Path workerScript;
+
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("vue.build.worker.live", liveWorkers, AtomicInteger::get)
+                .description("存活的常驻 Vite 构建进程数")
+                .register(meterRegistry);
+        if (!vueBuildProperties.isWorkerPoolEnabled()) {
+            return;
+        }
+        try {
+            Path workerDir = Paths.get(vueBuildProperties.getWorkerDir()).toAbsolutePath().normalize();
+            Files.createDirectories(workerDir);
+            Path script = workerDir.resolve(Paths.get(WORKER_SCRIPT).getFileName());
+            try (InputStream in = new ClassPathResource(WORKER_SCRIPT).getInputStream()) {
+                Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+            }
+            workerScript = script;
+            log.info("常驻 Vite 构建进程已启用，进程数上限: {}，每个进程最多构建 {} 次",
+                    vueBuildProperties.getWorkerPoolSize(), vueBuildProperties.getMaxBuildsPerWorker());
+        } catch (IOException e) {
+            log.warn("释放构建进程脚本失败，构建将直接启动 npm: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        closed = true;
+        ViteWorker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            retire(worker);
+        }
+    }
+
+    /**
+     * 判断项目能否由常驻进程构建（构建脚本就是 vite build）
+     *
+     * @param projectDir 项目根目录
+     */
+    public boolean supports(File projectDir) {
+        return workerScript != null && !closed && isViteBuildScript(projectDir);
+    }
+
+    /**
+     * 判断项目的构建脚本是否就是 vite build（可以直接调用 Vite 并指定输出目录）
+     *
+     * @param projectDir 项目根目录
+     */
+    public static boolean isViteBuildScript(File projectDir) {
+        try {
+            JSONObject packageJson = JSONUtil.parseObj(Files.readString(projectDir.toPath().resolve("package.json")));
+            JSONObject scripts = packageJson.getJSONObject("scripts");
+            return scripts != null && VITE_BUILD_SCRIPT.equals(scripts.getStr("build", "").trim());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 使用常驻进程构建项目
+     *
+     * @param projectDir     项目根目录（依赖已就绪）
+     * @param outDir         构建输出目录
+     * @param buildLog       构建日志
+     * @param timeoutSeconds 最长构建时间（秒）
+     * @return 构建结果
+     */
+    public BuildResult build(File projectDir, File outDir, BuildLog buildLog, int timeoutSeconds) {
+        if (!supports(projectDir)) {
+            return BuildResult.UNAVAILABLE;
+        }
+        ViteWorker worker = acquire();
+        if (worker == null) {
+            recordBuild(BuildResult.UNAVAILABLE);
+            return BuildResult.UNAVAILABLE;
+        }
+        BuildResult result = BuildResult.UNAVAILABLE;
+        try {
+            log.info("使用常驻构建进程执行 vite build：{}", projectDir.getAbsolutePath());
+            buildLog.append("> vite build（常驻构建进程）");
+            result = worker.build(projectDir.getAbsolutePath(), outDir.getAbsolutePath(), buildLog, timeoutSeconds);
+            return result;
+        } finally {
+            recordBuild(result);
+            release(worker);
+        }
+    }
+
+    /**
+     * 取出一个健康的空闲进程，没有时在上限内新建
+     *
+     * @return 构建进程；已达上限或启动失败时返回 null
+     */
+    private ViteWorker acquire() {
+        ViteWorker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            if (worker.ping(PING_TIMEOUT_SECONDS)) {
+                return worker;
+            }
+            log.warn("构建进程健康检查失败，回收");
+            retire(worker);
+        }
+        if (liveWorkers.incrementAndGet() > vueBuildProperties.getWorkerPoolSize()) {
+            liveWorkers.decrementAndGet();
+            return null;
+        }
+        try {
+            worker = ViteWorker.start(vueBuildProperties.getNodeCommand(), workerScript);
+            log.info("已启动常驻构建进程，当前进程数: {}", liveWorkers.get());
+            return worker;
+        } catch (IOException e) {
+            liveWorkers.decrementAndGet();
+            log.warn("启动构建进程失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 归还进程：异常退出或达到构建次数上限的进程回收，其余放回空闲队列
+     */
+    private void release(ViteWorker worker) {
+        if (closed || !worker.isAlive() || worker.getBuildCount() >= vueBuildProperties.getMaxBuildsPerWorker()) {
+            retire(worker);
+            return;
+        }
+        idleWorkers.push(worker);
+        // destroy 与归还并发时，确保不遗留进程
+        if (closed && idleWorkers.remove(worker)) {
+            retire(worker);
+        }
+    }
+
+    private void retire(ViteWorker worker) {
+        worker.close();
+        liveWorkers.decrementAndGet();
+    }
+
+    private void recordBuild(BuildResult result) {
+        Counter.builder("vue.build.worker.builds")
+                .description("常驻 Vite 构建进程的构建次数")
+                .tag("result", result.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 常驻进程的构建结果
+     */
+    public enum BuildResult {
+
+        /**
+         * 构建成功
+         */
+        SUCCESS,
+
+        /**
+         * 构建失败（代码错误或超时），重新启动 npm 构建也无济于事
+         */
+        FAILED,
+
+        /**
+         * 常驻进程不可用，调用方应改为启动 npm run build
+         */
+        UNAVAILABLE
+    }
+}
@@ -0,0 +1,392 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ye.yeaicodemother.config.VueBuildProperties;
+import com.ye.yeaicodemother.core.staticfile.StaticFileCache;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
+import com.ye.yeaicodemother.model.enums.BuildStatusEnum;
+import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import com.ye.yeaicodemother.model.vo.AppBuildStatusVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Vue 项目构建调度器
+ * <p>
+ * 所有构建（对话结束、部署、工作流节点）都提交到同一个有界线程池执行，避免同时运行过多 npm 进程压垮机器：
+ * 1. 全局并发数按 CPU 核数和内存估算，等待队列有上限，队列满时直接拒绝；
+ * 2. 同一项目目录已在排队或构建中时，新的请求直接复用该次构建的结果；同一应用已在构建当前版本时，新的请求等待该次构建；
+ * 3. 构建前获取按应用划分的 Redisson 分布式锁，集群中同一应用同一时间只有一个节点在构建；
+ * 4. 记录每个应用最近一次构建的状态、耗时和输出日志，供前端查询或实时订阅。
+ * 指标：vue.build.duration（outcome 标签）、vue.build.queue.size。
+ * </p>
+ */
+@Slf4j
+@Component
+public class VueBuildScheduler {
+
+    private static final String BUILD_LOCK_PREFIX = "vue:build:lock:";
+
+    /**
+     * 构建失败时附带的日志行数
+     */
+    private static final int FAILURE_TAIL_LINES = 20;
+
+    @Resource
+    private VueProjectBuilder vueProjectBuilder;
+
+    @Resource
+    private VueBuildProperties vueBuildProperties;
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private StaticFileCache staticFileCache;
+
+    @Resource
+    private OutputVersionStore outputVersionStore;
+
+    /**
+     * 项目目录 -> 排队中或构建中的任务
+     */
+    private final Map<String, BuildJob> activeJobs = new ConcurrentHashMap<>();
+
+    /**
+     * 生成目录名称（每个应用一个） -> 进行中的当前版本构建，结果为包含最新 dist 的版本目录
+     */
+    private final Map<String, CompletableFuture<Path>> currentVersionBuilds = new ConcurrentHashMap<>();
+
+    /**
+     * appId -> 最近一次构建状态
+     */
+    private final Cache<Long, AppBuildStatusVO> buildStatuses = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    /**
+     * appId -> 最近一次构建的输出日志
+     */
+    private final Cache<Long, BuildLog> buildLogs = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private ThreadPoolExecutor buildExecutor;
+
+    @PostConstruct
+    public void init() {
+        int concurrency = resolveConcurrency();
+        buildExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(vueBuildProperties.getQueueCapacity()),
+                Thread.ofPlatform().name("vue-build-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("vue.build.queue.size", buildExecutor, executor -> executor.getQueue().size())
+                .description("等待中的 Vue 项目构建数")
+                .register(meterRegistry);
+        log.info("Vue 项目构建调度器已启动，最大并发构建数: {}，队列容量: {}", concurrency, vueBuildProperties.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (buildExecutor != null) {
+            buildExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交构建任务，同一项目已在排队或构建中时复用该任务
+     *
+     * @param appId       应用 ID（可以为空，为空时不记录构建状态）
+     * @param projectPath 项目根目录
+     * @return 构建结果
+     */
+    public CompletableFuture<Boolean> submit(Long appId, String projectPath) {
+        String jobKey = Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        BuildJob newJob = new BuildJob(appId, jobKey);
+        BuildJob job = activeJobs.putIfAbsent(jobKey, newJob);
+        if (job != null) {
+            log.info("项目已在排队或构建中，复用该次构建: {}", jobKey);
+            return job.future;
+        }
+        job = newJob;
+        if (appId != null) {
+            buildLogs.put(appId, job.buildLog);
+        }
+        updateStatus(job, BuildStatusEnum.QUEUED, null);
+        try {
+            BuildJob submittedJob = job;
+            buildExecutor.execute(() -> run(submittedJob));
+        } catch (RejectedExecutionException e) {
+            log.warn("构建队列已满，拒绝构建: {}", jobKey);
+            finish(job, false, "构建队列已满，请稍后重试");
+        }
+        return job.future;
+    }
+
+    /**
+     * 提交构建任务并等待结果
+     *
+     * @param appId       应用 ID（可以为空）
+     * @param projectPath 项目根目录
+     * @return 是否构建成功
+     */
+    public boolean buildAndWait(Long appId, String projectPath) {
+        try {
+            return submit(appId, projectPath).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("等待构建结果失败: {}", projectPath, e);
+            return false;
+        }
+    }
+
+    /**
+     * 构建应用的当前版本，已发布的版本只读，不在其中构建
+     * <p>
+     * 当前版本的构建产物已与源码一致时直接使用；否则由当前版本派生出新版本，在新版本中构建，
+     * 成功后仅当期间没有新的发布时才发布该版本，未发布的版本会被丢弃。
+     * 每次调用都会派生出不同的版本目录，按项目目录去重无法合并，因此同一应用已在构建当前版本时直接等待该次构建（如部署等待对话结束后触发的构建）。
+     * </p>
+     *
+     * @param appId   应用 ID
+     * @param dirName 生成目录名称，如 vue_project_1
+     * @param onBuilt 构建成功后的回调，入参为包含最新 dist 的版本目录（可以为空）
+     * @return 是否构建成功
+     */
+    public boolean buildCurrentVersion(Long appId, String dirName, Consumer<Path> onBuilt) {
+        CompletableFuture<Path> newBuild = new CompletableFuture<>();
+        CompletableFuture<Path> build = currentVersionBuilds.putIfAbsent(dirName, newBuild);
+        if (build == null) {
+            build = newBuild;
+            try {
+                newBuild.complete(buildVersion(appId, dirName));
+            } catch (RuntimeException e) {
+                newBuild.completeExceptionally(e);
+            } finally {
+                currentVersionBuilds.remove(dirName, newBuild);
+            }
+        } else {
+            log.info("应用已在构建当前版本，等待该次构建: {}", dirName);
+        }
+        Path builtDir;
+        try {
+            builtDir = build.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("构建当前版本失败: {}", dirName, e.getCause());
+            return false;
+        }
+        if (builtDir == null) {
+            return false;
+        }
+        if (onBuilt != null) {
+            onBuilt.accept(builtDir);
+        }
+        return true;
+    }
+
+    /**
+     * 在由当前版本派生出的新版本中构建并发布
+     *
+     * @return 包含最新 dist 的版本目录；构建失败时返回 null
+     */
+    private Path buildVersion(Long appId, String dirName) {
+        OutputVersionStore versionStore = outputVersionStore;
+        Path current = versionStore.resolveCurrent(dirName);
+        if (vueProjectBuilder.isUpToDate(current)) {
+            return current;
+        }
+        Path versionDir = null;
+        boolean published = false;
+        try {
+            versionDir = versionStore.beginVersion(dirName);
+            if (!buildAndWait(appId, versionDir.toString())) {
+                return null;
+            }
+            published = versionStore.publishIfCurrent(dirName, versionDir, current);
+            if (published) {
+                return versionDir;
+            }
+            // 构建期间已有新版本发布，本次构建的版本随即丢弃，改用当前版本（生成时已沿用上一次的 dist）
+            Path latest = versionStore.resolveCurrent(dirName);
+            return Files.isDirectory(latest.resolve("dist")) ? latest : null;
+        } catch (IOException e) {
+            log.error("创建构建版本失败: {}", dirName, e);
+            return null;
+        } finally {
+            if (versionDir != null && !published) {
+                versionStore.discard(dirName, versionDir);
+            }
+        }
+    }
+
+    /**
+     * 获取应用最近一次构建的状态
+     *
+     * @param appId 应用 ID
+     * @return 构建状态，本节点没有构建记录时返回 null
+     */
+    public AppBuildStatusVO getBuildStatus(Long appId) {
+        return buildStatuses.getIfPresent(appId);
+    }
+
+    /**
+     * 获取应用最近一次构建的输出日志
+     *
+     * @param appId 应用 ID
+     * @return 构建日志，本节点没有构建记录时返回 null
+     */
+    public BuildLog getBuildLog(Long appId) {
+        return buildLogs.getIfPresent(appId);
+    }
+
+    private void run(BuildJob job) {
+        job.startNanos = System.nanoTime();
+        job.startTime = LocalDateTime.now();
+        updateStatus(job, BuildStatusEnum.RUNNING, null);
+        // 按应用划分的集群构建锁（看门狗自动续期）；Redis 不可用时只在本节点去重
+        String lockKey = BUILD_LOCK_PREFIX + (job.appId != null ? job.appId : DigestUtil.md5Hex(job.projectPath));
+        RLock lock = null;
+        boolean locked = false;
+        try {
+            try {
+                lock = redissonClient.getLock(lockKey);
+                locked = lock.tryLock(vueBuildProperties.getLockWaitSeconds(), TimeUnit.SECONDS);
+                if (!locked) {
+                    log.warn("等待集群构建锁超时: {}", lockKey);
+                    finish(job, false, "等待其他节点完成构建超时");
+                    return;
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("获取集群构建锁失败，仅在本节点去重: {}, 错误: {}", lockKey, e.getMessage());
+            }
+            boolean success = vueProjectBuilder.buildProject(job.projectPath, job.buildLog);
+            finish(job, success, success ? null : "构建失败，输出末尾：\n" + job.buildLog.tail(FAILURE_TAIL_LINES));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, false, "构建被中断");
+        } catch (Exception e) {
+            log.error("构建 Vue 项目时发生异常: {}", job.projectPath, e);
+            finish(job, false, e.getMessage());
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void finish(BuildJob job, boolean success, String message) {
+        activeJobs.remove(job.projectPath, job);
+        if (job.startNanos > 0) {
+            Timer.builder("vue.build.duration")
+                    .description("Vue 项目构建耗时")
+                    .tag("outcome", success ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - job.startNanos, TimeUnit.NANOSECONDS);
+        }
+        if (message != null) {
+            job.buildLog.append(message);
+        }
+        job.buildLog.complete();
+        // 构建会替换当前版本中的 dist（失败时也可能已删除），失效预览的内存缓存
+        if (job.appId != null) {
+            staticFileCache.invalidate(CodeGenTypeEnum.VUE_PROJECT.getValue() + "_" + job.appId);
+        }
+        updateStatus(job, success ? BuildStatusEnum.SUCCESS : BuildStatusEnum.FAILED, message);
+        job.future.complete(success);
+    }
+
+    private void updateStatus(BuildJob job, BuildStatusEnum status, String message) {
+        if (job.appId == null) {
+            return;
+        }
+        AppBuildStatusVO statusVO = new AppBuildStatusVO();
+        statusVO.setAppId(job.appId);
+        statusVO.setStatus(status.getValue());
+        statusVO.setQueuedTime(job.queuedTime);
+        statusVO.setStartTime(job.startTime);
+        statusVO.setMessage(message);
+        if (status == BuildStatusEnum.SUCCESS || status == BuildStatusEnum.FAILED) {
+            statusVO.setEndTime(LocalDateTime.now());
+            if (job.startNanos > 0) {
+                statusVO.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - job.startNanos));
+            }
+        }
+        buildStatuses.put(job.appId, statusVO);
+    }
+
+    /**
+     * 按 CPU 核数（每个构建约占一半核心）和物理内存估算并发数
+     */
+    private int resolveConcurrency() {
+        if (vueBuildProperties.getMaxConcurrentBuilds() > 0) {
+            return vueBuildProperties.getMaxConcurrentBuilds();
+        }
+        int byCpu = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int byMemory = byCpu;
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean sunOsBean) {
+            long totalMb = sunOsBean.getTotalMemorySize() / (1024 * 1024);
+            byMemory = (int) Math.max(1, totalMb / Math.max(1, vueBuildProperties.getMemoryPerBuildMb()));
+        }
+        return Math.min(byCpu, byMemory);
+    }
+
+    /**
+     * 单个构建任务
+     */
+    private static class BuildJob {
+
+        private final Long appId;
+
+        private final String projectPath;
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private final BuildLog buildLog = new BuildLog();
+
+        private final LocalDateTime queuedTime = LocalDateTime.now();
+
+        private volatile LocalDateTime startTime;
+
+        private volatile long startNanos;
+
+        private BuildJob(Long appId, String projectPath) {
+            this.appId = appId;
+            this.projectPath = projectPath;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.ye.yeaicodemother.config.VueNoBuildProperties;
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Vue 项目免构建打包
+ * <p>
+ * 很多生成的 Vue 项目只用到 vue 和 vue-router，完全可以不经过 npm 构建直接在浏览器中运行。
+ * 对满足条件的项目，本类把 src、public 原样放进 dist，并改写入口 index.html：
+ * 通过 import map 从 CDN 加载白名单依赖的 ESM 版本，由 vue3-sfc-loader 在浏览器中编译 .vue 文件，预览无需等待构建。
+ * 条件（任一不满足则返回 false，调用方按正常流程构建）：
+ * 1. dependencies 都在白名单内，devDependencies 只有构建工具；
+ * 2. index.html 以 {@code <script type="module" src="/src/xxx.js">} 作为入口；
+ * 3. 源码中没有 TypeScript、CSS 预处理器，没有使用 import.meta，导入的包都在白名单内且不带子路径。
+ * 生成的 dist 没有构建清单，之后的正式构建不会被跳过，会用真正的构建产物替换它。
+ * </p>
+ */
+@Slf4j
+@Component
+public class VueNoBuildPackager {
+
+    private static final String BOOTSTRAP_TEMPLATE = "vue-nobuild/bootstrap.js";
+
+    private static final String DIST_DIR_NAME = "dist";
+
+    private static final String SRC_DIR_NAME = "src";
+
+    private static final String PUBLIC_DIR_NAME = "public";
+
+    private static final String INDEX_HTML = "index.html";
+
+    /**
+     * 入口脚本标签，捕获入口路径（如 /src/main.js）
+     */
+    private static final Pattern ENTRY_SCRIPT_PATTERN =
+            Pattern.compile("<script\\s+type=\"module\"\\s+src=\"\\.?(/src/[^\"]+\\.js)\"\\s*>\\s*</script>");
+
+    /**
+     * 单文件组件中的 lang 属性
+     */
+    private static final Pattern LANG_PATTERN = Pattern.compile("<(?:script|style)\\b[^>]*\\blang=[\"']([^\"']+)[\"']");
+
+    /**
+     * 静态导入、动态导入和 export ... from 的模块路径
+     */
+    private static final Pattern IMPORT_PATTERN =
+            Pattern.compile("(?:\\bfrom\\s*|\\bimport\\s*\\(?\\s*)[\"']([^\"']+)[\"']");
+
+    /**
+     * 浏览器中无法直接运行的源码类型
+     */
+    private static final Set<String> UNSUPPORTED_EXTENSIONS = Set.of(".ts", ".tsx", ".jsx", ".scss", ".sass", ".less", ".styl");
+
+    /**
+     * 单文件组件中 vue3-sfc-loader 可以直接处理的 lang
+     */
+    private static final Set<String> SUPPORTED_LANGS = Set.of("js", "css");
+
+    @Resource
+    private VueNoBuildProperties vueNoBuildProperties;
+
+    private String bootstrapTemplate;
+
+    @PostConstruct
+    public void init() {
+        try (InputStream in = new ClassPathResource(BOOTSTRAP_TEMPLATE).getInputStream()) {
+            bootstrapTemplate = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("加载免构建入口模板失败，免构建预览不可用: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 项目满足条件时生成免构建的 dist
+     *
+     * @param projectRoot 项目根目录
+     * @return 是否已生成免构建的 dist（false 表示需要正常构建）
+     */
+    public boolean packIfEligible(Path projectRoot) {
+        if (!vueNoBuildProperties.isEnabled() || bootstrapTemplate == null) {
+            return false;
+        }
+        try {
+            String entry = resolveEntry(projectRoot);
+            if (entry == null) {
+                return false;
+            }
+            pack(projectRoot, entry);
+            log.info("已生成免构建预览：{}", projectRoot);
+            return true;
+        } catch (IOException e) {
+            log.warn("生成免构建预览失败，改为正常构建: {}, 错误: {}", projectRoot, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 检查项目能否免构建运行
+     *
+     * @return 入口脚本路径（如 /src/main.js），不满足条件时返回 null
+     */
+    private String resolveEntry(Path projectRoot) throws IOException {
+        Path packageJsonFile = projectRoot.resolve("package.json");
+        Path indexHtmlFile = projectRoot.resolve(INDEX_HTML);
+        Path srcDir = projectRoot.resolve(SRC_DIR_NAME);
+        if (!Files.isRegularFile(packageJsonFile) || !Files.isRegularFile(indexHtmlFile) || !Files.isDirectory(srcDir)) {
+            return null;
+        }
+        // 1. 依赖白名单
+        JSONObject packageJson = JSONUtil.parseObj(Files.readString(packageJsonFile));
+        Set<String> allowedImports = vueNoBuildProperties.getImports().keySet();
+        if (!isSubset(packageJson.getJSONObject("dependencies"), allowedImports)
+                || !isSubset(packageJson.getJSONObject("devDependencies"), vueNoBuildProperties.getAllowedDevDependencies())) {
+            log.debug("依赖不在白名单内，需要构建: {}", projectRoot);
+            return null;
+        }
+        // 2. 入口脚本
+        Matcher entryMatcher = ENTRY_SCRIPT_PATTERN.matcher(Files.readString(indexHtmlFile));
+        if (!entryMatcher.find() || !Files.isRegularFile(projectRoot.resolve(entryMatcher.group(1).substring(1)))) {
+            log.debug("未找到入口脚本，需要构建: {}", projectRoot);
+            return null;
+        }
+        // 3. 源码
+        for (Path file : listFiles(srcDir)) {
+            String name = file.getFileName().toString();
+            String extension = name.contains(".") ? name.substring(name.lastIndexOf('.')) : "";
+            if (UNSUPPORTED_EXTENSIONS.contains(extension)) {
+                log.debug("包含需要编译的源码 {}，需要构建: {}", name, projectRoot);
+                return null;
+            }
+            if (!".js".equals(extension) && !".vue".equals(extension)) {
+                continue;
+            }
+            String content = Files.readString(file);
+            if (content.contains("import.meta") || !isBrowserReady(content, allowedImports)) {
+                log.debug("源码 {} 无法直接在浏览器中运行，需要构建: {}", name, projectRoot);
+                return null;
+            }
+        }
+        return entryMatcher.group(1);
+    }
+
+    /**
+     * 检查单个源码文件：lang 只能是 js / css，导入的包只能是白名单中的包名本身
+     */
+    private boolean isBrowserReady(String content, Set<String> allowedImports) {
+        Matcher langMatcher = LANG_PATTERN.matcher(content);
+        while (langMatcher.find()) {
+            if (!SUPPORTED_LANGS.contains(langMatcher.group(1))) {
+                return false;
+            }
+        }
+        Matcher importMatcher = IMPORT_PATTERN.matcher(content);
+        while (importMatcher.find()) {
+            String specifier = importMatcher.group(1);
+            boolean local = specifier.startsWith(".") || specifier.startsWith("/") || specifier.startsWith("@/");
+            if (!local && !allowedImports.contains(specifier)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成 dist：在临时目录中准备好后原子重命名为 dist
+     */
+    private void pack(Path projectRoot, String entry) throws IOException {
+        ContentBlobStore blobStore = ContentBlobStore.getDefault();
+        Path tempDir = projectRoot.resolve(".tmp-nobuild-" + IdUtil.fastSimpleUUID());
+        try {
+            Files.createDirectories(tempDir);
+            Path publicDir = projectRoot.resolve(PUBLIC_DIR_NAME);
+            if (Files.isDirectory(publicDir)) {
+                blobStore.copyDirectory(publicDir, tempDir);
+            }
+            Path srcDir = projectRoot.resolve(SRC_DIR_NAME);
+            blobStore.copyDirectory(srcDir, tempDir.resolve(SRC_DIR_NAME));
+            List<String> sourceFiles = listFiles(srcDir).stream()
+                    .map(file -> "/" + projectRoot.relativize(file).toString().replace('\\', '/'))
+                    .sorted()
+                    .toList();
+            String indexHtml = Files.readString(projectRoot.resolve(INDEX_HTML));
+            blobStore.writeString(tempDir.resolve(INDEX_HTML), rewriteIndexHtml(indexHtml, entry, sourceFiles));
+            Path distDir = projectRoot.resolve(DIST_DIR_NAME);
+            FileUtil.del(distDir.toFile());
+            Files.move(tempDir, distDir, StandardCopyOption.ATOMIC_MOVE);
+            // 免构建产物不是真正的构建结果，删除清单，确保之后的正式构建不会被跳过
+            BuildManifest.delete(projectRoot);
+        } finally {
+            if (Files.exists(tempDir)) {
+                FileUtil.del(tempDir.toFile());
+            }
+        }
+    }
+
+    /**
+     * 去掉原入口脚本，在 body 末尾加入 import map 和免构建入口
+     */
+    private String rewriteIndexHtml(String indexHtml, String entry, List<String> sourceFiles) {
+        Map<String, String> imports = vueNoBuildProperties.getImports();
+        StringBuilder moduleImports = new StringBuilder();
+        List<String> moduleCacheEntries = new ArrayList<>();
+        int index = 0;
+        for (String name : imports.keySet()) {
+            String alias = "__module" + index++;
+            moduleImports.append("import * as ").append(alias).append(" from ").append(JSONUtil.quote(name)).append(";\n");
+            moduleCacheEntries.add(JSONUtil.quote(name) + ": " + alias);
+        }
+        String bootstrap = bootstrapTemplate
+                .replace("__MODULE_IMPORTS__", moduleImports.toString().trim())
+                .replace("__MODULE_CACHE__", moduleCacheEntries.stream().collect(Collectors.joining(", ", "{ ", " }")))
+                .replace("__SFC_LOADER_URL__", vueNoBuildProperties.getSfcLoaderUrl())
+                .replace("__FILES__", JSONUtil.toJsonStr(sourceFiles))
+                .replace("__ENTRY__", entry);
+        String importMap = JSONUtil.toJsonStr(Map.of("imports", imports));
+        String scripts = "<script type=\"importmap\">" + importMap + "</script>\n"
+                + "<script type=\"module\">\n" + bootstrap + "</script>\n";
+        String html = ENTRY_SCRIPT_PATTERN.matcher(indexHtml).replaceFirst("");
+        int bodyEnd = html.lastIndexOf("</body>");
+        return bodyEnd >= 0 ? html.substring(0, bodyEnd) + scripts + html.substring(bodyEnd) : html + scripts;
+    }
+
+    private boolean isSubset(JSONObject dependencies, Collection<String> allowed) {
+        return dependencies == null || allowed.containsAll(dependencies.keySet());
+    }
+
+    private List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package com.ye.yeaicodemother.core.builder;
 
-import cn.hutool.core.util.RuntimeUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.ye.yeaicodemother.config.DependencyStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Vue 项目构建器
  * <p>
  * 负责对已生成的 Vue 项目目录执行本地构建流程（npm install + npm run build），
- * 验证是否能成功生成可部署的 dist 目录。
+ * 验证是否能成功生成可部署的 dist 目录。源码未变化时根据构建清单（{@link BuildManifest}）跳过构建。
+ * 业务代码应通过 {@link VueBuildScheduler} 提交构建，以限制并发并合并重复的构建请求。
  * </p>
  */
 @Slf4j
@@ -19,95 +35,275 @@ import java.util.concurrent.TimeUnit;
 public class VueProjectBuilder {
 
     /**
-     * 异步启动 Vue 项目构建任务
-     * <p>
-     * 使用虚拟线程（Virtual Thread）在后台执行构建流程，避免阻塞主线程。
-     * 构建结果通过日志记录，不返回给调用方。
-     * </p>
+     * 构建超时时间（3 分钟）
+     */
+    private static final int BUILD_TIMEOUT_SECONDS = 180;
+
+    @Resource
+    private DependencyStore dependencyStore;
+
+    @Resource
+    private ViteWorkerPool viteWorkerPool;
+
+    @Resource
+    private BuildArtifactCache buildArtifactCache;
+
+    @Resource
+    private DependencyStoreProperties dependencyStoreProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 判断项目的构建产物是否与当前源码一致（构建清单中的源码哈希未变化且 dist 存在）
      *
-     * @param projectPath 待构建的 Vue 项目根目录绝对路径（必须已存在且包含 package.json）
+     * @param projectRoot 项目根目录
+     * @return 是否无需重新构建
      */
-    public void buildProjectAsync(String projectPath) {
-        Thread.ofVirtual().name("vue-builder-" + System.currentTimeMillis())
-                .start(() -> {
-                    try {
-                        buildProject(projectPath);
-                    } catch (Exception e) {
-                        log.error("异步构建 Vue 项目时发生异常: {}", e.getMessage(), e);
-                    }
-                });
+    public boolean isUpToDate(Path projectRoot) {
+        BuildManifest previous = BuildManifest.read(projectRoot);
+        if (previous == null || !Files.isDirectory(projectRoot.resolve("dist"))) {
+            return false;
+        }
+        BuildManifest current = computeManifest(projectRoot);
+        return current != null && Objects.equals(previous.getSourceHash(), current.getSourceHash());
     }
 
     /**
      * 同步执行 Vue 项目完整构建流程
+     *
+     * @param projectPath 项目根目录路径（必须为绝对路径）
+     * @return {@code true} 表示构建成功，{@code false} 表示任一环节失败
+     */
+    public boolean buildProject(String projectPath) {
+        return buildProject(projectPath, new BuildLog());
+    }
+
+    /**
+     * 同步执行 Vue 项目完整构建流程，命令输出写入构建日志
      * <p>
      * 流程包括：
      * <ol>
      *   <li>校验项目目录和 package.json 存在；</li>
-     *   <li>执行 {@code npm install} 安装依赖（超时 5 分钟）；</li>
-     *   <li>执行 {@code npm run build} 构建项目（超时 3 分钟）；</li>
-     *   <li>验证 {@code dist} 目录是否生成。</li>
+     *   <li>对比构建清单：源码未变化且 dist 仍在时直接返回成功；</li>
+     *   <li>查询跨应用的构建产物缓存，命中时放回 dist 并返回成功；</li>
+     *   <li>依赖声明未变化且 node_modules 可用时跳过依赖准备，否则链接共享依赖，不可用时执行 {@code npm install}；</li>
+     *   <li>执行 {@code vite build} 构建项目（优先使用常驻构建进程，否则启动 {@code npm run build}，超时 3 分钟）；</li>
+     *   <li>验证 {@code dist} 目录是否生成，并写入新的构建清单。</li>
      * </ol>
      * </p>
      *
      * @param projectPath 项目根目录路径（必须为绝对路径）
+     * @param buildLog    构建日志
      * @return {@code true} 表示构建成功，{@code false} 表示任一环节失败
      */
-    public boolean buildProject(String projectPath) {
+    public boolean buildProject(String projectPath, BuildLog buildLog) {
         File projectDir = new File(projectPath);
         if (!projectDir.exists() || !projectDir.isDirectory()) {
             log.error("项目目录不存在：{}", projectPath);
+            buildLog.append("项目目录不存在");
             return false;
         }
         // 检查是否有 package.json 文件
         File packageJsonFile = new File(projectDir, "package.json");
         if (!packageJsonFile.exists()) {
             log.error("项目目录中没有 package.json 文件：{}", projectPath);
+            buildLog.append("项目目录中没有 package.json 文件");
             return false;
         }
         log.info("开始构建 Vue 项目：{}", projectPath);
-        // 执行 npm install
-        if (!executeNpmInstall(projectDir)) {
+        Path projectRoot = projectDir.toPath();
+        File distDir = new File(projectDir, "dist");
+        BuildManifest previous = BuildManifest.read(projectRoot);
+        BuildManifest current = computeManifest(projectRoot);
+        if (previous != null && current != null && distDir.isDirectory()
+                && Objects.equals(previous.getSourceHash(), current.getSourceHash())) {
+            log.info("源码未变化，跳过构建：{}", projectPath);
+            buildLog.append("源码未变化，跳过构建");
+            recordIncremental("skipped");
+            return true;
+        }
+        BuildManifest.delete(projectRoot);
+        // 其他应用构建过完全相同的源码时直接复用其构建产物
+        if (current != null && buildArtifactCache.restore(current.getSourceHash(), projectRoot)) {
+            buildLog.append("命中构建产物缓存，跳过构建");
+            recordIncremental("cached");
+            writeManifest(projectRoot, current);
+            return true;
+        }
+        String cacheKeyHash = current != null ? current.getSourceHash() : null;
+        // 准备依赖：依赖声明未变化时沿用现有 node_modules，否则优先链接到共享依赖，共享依赖不可用时在项目中单独执行 npm install
+        if (previous != null && current != null && Files.isDirectory(projectRoot.resolve("node_modules"))
+                && Objects.equals(previous.getDependencyHash(), current.getDependencyHash())) {
+            log.info("依赖声明未变化，跳过依赖安装：{}", projectPath);
+            buildLog.append("依赖声明未变化，跳过依赖安装");
+            recordIncremental("install_skipped");
+        } else if (dependencyStore.link(projectDir.toPath(), (dir, offline) -> executeNpmInstall(dir, offline, buildLog))) {
+            log.info("已链接共享依赖，跳过 npm install：{}", projectPath);
+            buildLog.append("已链接共享依赖，跳过 npm install");
+            recordIncremental("full");
+        } else if (!executeNpmInstall(projectDir, false, buildLog)) {
             log.error("npm install 执行失败：{}", projectPath);
             return false;
+        } else {
+            recordIncremental("full");
         }
+        // 单独安装依赖可能生成 package-lock.json，重新计算清单，以构建时实际使用的源码为准
+        current = computeManifest(projectRoot);
         // 执行 npm run build
-        if (!executeNpmBuild(projectDir)) {
+        if (!executeNpmBuild(projectDir, distDir, buildLog)) {
             log.error("npm run build 执行失败：{}", projectPath);
             return false;
         }
         // 验证 dist 目录是否生成
-        File distDir = new File(projectDir, "dist");
         if (!distDir.exists() || !distDir.isDirectory()) {
             log.error("构建完成但 dist 目录未生成：{}", projectPath);
+            buildLog.append("构建完成但 dist 目录未生成");
             return false;
         }
+        writeManifest(projectRoot, current);
+        if (cacheKeyHash != null) {
+            buildArtifactCache.store(cacheKeyHash, projectRoot);
+        }
         log.info("Vue 项目构建成功，dist 目录：{}", projectPath);
         return true;
     }
 
     /**
-     * 执行 npm install 命令
+     * 计算当前源码和依赖声明的哈希，失败时返回 null（按完整构建处理）
+     */
+    private BuildManifest computeManifest(Path projectRoot) {
+        try {
+            BuildManifest manifest = new BuildManifest();
+            manifest.setSourceHash(BuildManifest.hashSources(projectRoot));
+            manifest.setDependencyHash(BuildManifest.hashDependencies(projectRoot));
+            return manifest;
+        } catch (IOException e) {
+            log.warn("计算源码哈希失败，执行完整构建: {}, 错误: {}", projectRoot, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 构建成功后写入构建清单，写入失败只影响下次能否跳过构建
+     */
+    private void writeManifest(Path projectRoot, BuildManifest manifest) {
+        if (manifest == null) {
+            return;
+        }
+        try {
+            manifest.setBuildTime(System.currentTimeMillis());
+            manifest.write(projectRoot);
+        } catch (IOException e) {
+            log.warn("写入构建清单失败: {}, 错误: {}", projectRoot, e.getMessage());
+        }
+    }
+
+    private void recordIncremental(String result) {
+        Counter.builder("vue.build.incremental")
+                .description("Vue 项目构建的增量结果")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 预先把指定目录的依赖安装到共享依赖中（用于预热脚手架依赖）
+     *
+     * @param projectDir 项目根目录（须包含 package.json）
+     * @return 是否已链接到共享依赖
+     */
+    public boolean installDependencies(File projectDir) {
+        BuildLog buildLog = new BuildLog();
+        boolean linked = dependencyStore.link(projectDir.toPath(), (dir, offline) -> executeNpmInstall(dir, offline, buildLog));
+        if (!linked) {
+            log.warn("安装依赖失败，输出末尾：\n{}", buildLog.tail(20));
+        }
+        return linked;
+    }
+
+    /**
+     * 执行 npm install 命令（使用统一的本地缓存目录）
      *
      * @param projectDir 项目根目录
+     * @param offline    是否只使用本地缓存（--offline），否则优先使用缓存、缺失时联网（--prefer-offline）
+     * @param buildLog   构建日志
      * @return 是否成功执行（退出码为 0）
      */
-    private boolean executeNpmInstall(File projectDir) {
-        log.info("执行 npm install...");
-        String command = String.format("%s install", buildCommand());
-        return executeCommand(projectDir, command, 300); // 5分钟超时
+    private boolean executeNpmInstall(File projectDir, boolean offline, BuildLog buildLog) {
+        log.info("执行 npm install{}...", offline ? "（离线）" : "");
+        return executeCommand(projectDir, dependencyStoreProperties.getInstallTimeoutSeconds(), buildLog,
+                buildCommand(), "install", offline ? "--offline" : "--prefer-offline",
+                "--no-audit", "--no-fund", "--cache", dependencyStoreProperties.getNpmCacheDir());
     }
 
     /**
-     * 执行 npm run build 命令
+     * 执行构建：构建脚本为 vite build 时优先交给常驻构建进程，不可用时执行 npm run build 命令
+     * <p>
+     * 构建脚本为 vite build 时先输出到临时目录，成功后再替换 dist，构建期间预览仍可访问旧的 dist（如免构建预览）；
+     * 其他构建脚本直接输出到 dist，构建前先删除旧的 dist。
+     * 旧的 dist 中的文件可能与构建产物缓存共享 inode，两种方式都不会原地改写它们。
+     * </p>
      *
      * @param projectDir 项目根目录
-     * @return 是否成功执行（退出码为 0）
+     * @param distDir    最终的 dist 目录
+     * @param buildLog   构建日志
+     * @return 是否构建成功
      */
-    private boolean executeNpmBuild(File projectDir) {
-        log.info("执行 npm run build...");
-        String command = String.format("%s run build", buildCommand());
-        return executeCommand(projectDir, command, 180); // 3分钟超时
+    private boolean executeNpmBuild(File projectDir, File distDir, BuildLog buildLog) {
+        if (!ViteWorkerPool.isViteBuildScript(projectDir)) {
+            FileUtil.del(distDir);
+            log.info("执行 npm run build...");
+            return executeCommand(projectDir, BUILD_TIMEOUT_SECONDS, buildLog, buildEnvironment(projectDir),
+                    buildCommand(), "run", "build");
+        }
+        File outDir = new File(projectDir, ".dist-build-" + IdUtil.fastSimpleUUID());
+        try {
+            boolean success;
+            ViteWorkerPool.BuildResult result = viteWorkerPool.build(projectDir, outDir, buildLog, BUILD_TIMEOUT_SECONDS);
+            if (result != ViteWorkerPool.BuildResult.UNAVAILABLE) {
+                success = result == ViteWorkerPool.BuildResult.SUCCESS;
+            } else {
+                log.info("执行 npm run build...");
+                success = executeCommand(projectDir, BUILD_TIMEOUT_SECONDS, buildLog, buildEnvironment(projectDir),
+                        buildCommand(), "run", "build", "--", "--outDir", outDir.getAbsolutePath(), "--emptyOutDir");
+            }
+            if (success && outDir.isDirectory()) {
+                replaceDir(outDir.toPath(), distDir.toPath());
+            }
+            return success;
+        } catch (IOException e) {
+            log.error("替换 dist 目录失败: {}, 错误: {}", projectDir, e.getMessage());
+            buildLog.append("替换 dist 目录失败: " + e.getMessage());
+            return false;
+        } finally {
+            FileUtil.del(outDir);
+        }
+    }
+
+    /**
+     * 构建命令的环境变量：node_modules 可能链接到共享依赖，工具缓存（find-cache-dir 读取 CACHE_DIR）写到项目自己的目录
+     * <p>
+     * Vite 命令行不支持指定 cacheDir，Vite 自身的缓存目录只能由常驻构建进程通过构建参数指定。
+     * </p>
+     */
+    private Map<String, String> buildEnvironment(File projectDir) {
+        return Map.of("CACHE_DIR", DependencyStore.resolveBuildCacheDir(projectDir.toPath()).toString());
+    }
+
+    /**
+     * 用新目录替换目标目录：先把旧目录移开再把新目录重命名过去，两次重命名之间的窗口极短
+     */
+    private void replaceDir(Path newDir, Path targetDir) throws IOException {
+        Path oldDir = targetDir.resolveSibling(".dist-old-" + IdUtil.fastSimpleUUID());
+        boolean hasOld = Files.exists(targetDir, LinkOption.NOFOLLOW_LINKS);
+        if (hasOld) {
+            Files.move(targetDir, oldDir, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(newDir, targetDir, StandardCopyOption.ATOMIC_MOVE);
+        if (hasOld) {
+            FileUtil.del(oldDir.toFile());
+        }
     }
 
     /**
@@ -136,38 +332,95 @@ public class VueProjectBuilder {
 
     /**
      * 在指定工作目录下执行系统命令，并设置超时控制
+     * <p>
+     * 标准错误合并到标准输出，由虚拟线程持续读取并写入构建日志，避免输出过多时管道写满导致子进程阻塞。
+     * </p>
+     *
+     * @param workingDir     命令执行的工作目录
+     * @param timeoutSeconds 最大等待时间（秒），超时则强制终止进程
+     * @param buildLog       构建日志
+     * @param commandParts   命令及参数（如 "npm", "install"），参数中可以包含空格
+     * @return {@code true} 表示命令成功执行（退出码为 0），否则返回 {@code false}
+     */
+    private boolean executeCommand(File workingDir, int timeoutSeconds, BuildLog buildLog, String... commandParts) {
+        return executeCommand(workingDir, timeoutSeconds, buildLog, Map.of(), commandParts);
+    }
+
+    /**
+     * 在指定工作目录下执行系统命令，并额外设置环境变量
      *
      * @param workingDir     命令执行的工作目录
-     * @param command        完整命令字符串（如 "npm install"）
      * @param timeoutSeconds 最大等待时间（秒），超时则强制终止进程
+     * @param buildLog       构建日志
+     * @param environment    额外的环境变量
+     * @param commandParts   命令及参数
      * @return {@code true} 表示命令成功执行（退出码为 0），否则返回 {@code false}
      */
-    private boolean executeCommand(File workingDir, String command, int timeoutSeconds) {
+    private boolean executeCommand(File workingDir, int timeoutSeconds, BuildLog buildLog,
+                                   Map<String, String> environment, String... commandParts) {
+        String command = String.join(" ", commandParts);
+        Process process = null;
+        Thread drainer = null;
         try {
             log.info("在目录 {} 中执行命令: {}", workingDir.getAbsolutePath(), command);
-            Process process = RuntimeUtil.exec(
-                    null,
-                    workingDir,
-                    command.split("\\s+") // 命令分割为数组
-            );
+            buildLog.append("> " + command);
+            ProcessBuilder processBuilder = new ProcessBuilder(commandParts)
+                    .directory(workingDir)
+                    .redirectErrorStream(true);
+            processBuilder.environment().putAll(environment);
+            process = processBuilder.start();
+            Process startedProcess = process;
+            drainer = Thread.ofVirtual().name("vue-build-output").start(() -> drainOutput(startedProcess, buildLog));
             // 等待进程完成，设置超时
             boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
             if (!finished) {
                 log.error("命令执行超时（{}秒），强制终止进程", timeoutSeconds);
-                process.destroyForcibly();
+                buildLog.append(String.format("命令执行超时（%d秒），已强制终止", timeoutSeconds));
                 return false;
             }
+            // 进程退出后等待剩余输出读取完成
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
             int exitCode = process.exitValue();
             if (exitCode == 0) {
                 log.info("命令执行成功: {}", command);
                 return true;
             } else {
-                log.error("命令执行失败，退出码: {}", exitCode);
+                log.error("命令执行失败，退出码: {}，输出末尾：\n{}", exitCode, buildLog.tail(20));
+                buildLog.append("命令执行失败，退出码: " + exitCode);
                 return false;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
             log.error("执行命令失败: {}, 错误信息: {}", command, e.getMessage());
+            buildLog.append("执行命令失败: " + e.getMessage());
             return false;
+        } finally {
+            if (process != null && process.isAlive()) {
+                // npm 会启动子进程，一并终止
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+            if (drainer != null) {
+                drainer.interrupt();
+            }
+        }
+    }
+
+    /**
+     * 持续读取进程输出并写入构建日志，直到输出流关闭
+     */
+    private void drainOutput(Process process, BuildLog buildLog) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                buildLog.append(line);
+            }
+        } catch (IOException e) {
+            // 进程被终止时输出流会被关闭
+            log.debug("读取构建输出结束: {}", e.getMessage());
         }
     }
 
@@ -0,0 +1,123 @@
+package com.ye.yeaicodemother.core.context;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.ye.yeaicodemother.core.saver.CodeFileSaverExecutor;
+import com.ye.yeaicodemother.model.entity.ChatHistory;
+import com.ye.yeaicodemother.model.enums.ChatHistoryMessageTypeEnum;
+import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import com.ye.yeaicodemother.service.ChatHistoryService;
+import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 快照式对话上下文构建器（HTML / MULTI_FILE）
+ * <p>
+ * 这两种模式下 AI 每次回复的都是完整页面代码，若按消息窗口保留历史，
+ * 每次追问都会带上多份过期的完整页面。这里在每轮对话前重建对话记忆：
+ * 只保留一份当前已保存文件的快照 + 历史用户修改要求，过往的 AI 代码回复全部丢弃。
+ * </p>
+ */
+@Slf4j
+@Component
+public class SnapshotChatContextBuilder {
+
+    /**
+     * 最多保留的历史用户要求条数
+     */
+    private static final int MAX_INSTRUCTION_COUNT = 10;
+
+    /**
+     * 快照上下文之后的 AI 确认消息（保持 user / ai 消息交替）
+     * <p>
+     * 不约定输出格式：同一份快照既用于完整生成，也用于 SEARCH/REPLACE 增量修改，格式由本轮的系统提示词决定。
+     * </p>
+     */
+    static final String SNAPSHOT_ACK = "好的，我已了解以上最新代码和历史修改要求，接下来会基于这份代码按你的要求进行修改。";
+
+    @Resource
+    private RedisChatMemoryStore redisChatMemoryStore;
+
+    @Resource
+    private ChatHistoryService chatHistoryService;
+
+    /**
+     * 重建应用的对话记忆为 文件快照 + 历史用户要求
+     * <p>
+     * 需要在当前用户消息已写入对话历史之后、调用 AI 服务之前执行。
+     * </p>
+     *
+     * @param appId       应用 ID（即对话记忆 ID）
+     * @param codeGenType 代码生成类型，仅支持 HTML / MULTI_FILE
+     */
+    public void rebuildMemory(Long appId, CodeGenTypeEnum codeGenType) {
+        Map<String, String> snapshotFiles = CodeFileSaverExecutor.readSavedFiles(codeGenType, appId);
+        List<String> instructions = listPreviousInstructions(appId);
+        if (snapshotFiles.isEmpty() && instructions.isEmpty()) {
+            // 首次生成，没有任何上下文
+            redisChatMemoryStore.deleteMessages(appId);
+            return;
+        }
+        String context = buildContext(snapshotFiles, instructions);
+        List<ChatMessage> messages = List.of(UserMessage.from(context), AiMessage.from(SNAPSHOT_ACK));
+        redisChatMemoryStore.updateMessages(appId, messages);
+        log.info("应用 {} 对话记忆已重建为快照上下文，文件 {} 个，历史要求 {} 条", appId, snapshotFiles.size(), instructions.size());
+    }
+
+    /**
+     * 查询历史用户要求（时间正序），排除当前刚保存的这条用户消息
+     */
+    private List<String> listPreviousInstructions(Long appId) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq(ChatHistory::getAppId, appId)
+                .eq(ChatHistory::getMessageType, ChatHistoryMessageTypeEnum.USER.getValue())
+                .orderBy(ChatHistory::getId, false)
+                .limit(1, MAX_INSTRUCTION_COUNT);
+        List<ChatHistory> historyList = chatHistoryService.list(queryWrapper);
+        if (CollUtil.isEmpty(historyList)) {
+            return List.of();
+        }
+        return historyList.reversed().stream().map(ChatHistory::getMessage).toList();
+    }
+
+    /**
+     * 拼接快照上下文
+     */
+    private String buildContext(Map<String, String> snapshotFiles, List<String> instructions) {
+        StringBuilder context = new StringBuilder();
+        if (!instructions.isEmpty()) {
+            context.append("## 历史修改要求（按时间顺序）\n");
+            for (int i = 0; i < instructions.size(); i++) {
+                context.append(i + 1).append(". ").append(instructions.get(i)).append("\n");
+            }
+            context.append("\n");
+        }
+        if (!snapshotFiles.isEmpty()) {
+            context.append("## 当前网站代码（已保存的最新版本）\n");
+            snapshotFiles.forEach((fileName, content) -> context.append(fileName).append("\n")
+                    .append("```").append(getCodeBlockLanguage(fileName)).append("\n")
+                    .append(content).append("\n```\n\n"));
+        }
+        return context.toString();
+    }
+
+    /**
+     * 根据文件名获取代码块语言标识（与代码解析器保持一致）
+     */
+    private String getCodeBlockLanguage(String fileName) {
+        return switch (FileUtil.getSuffix(fileName)) {
+            case "css" -> "css";
+            case "js" -> "javascript";
+            default -> "html";
+        };
+    }
+}
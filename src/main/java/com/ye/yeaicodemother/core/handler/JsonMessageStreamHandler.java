@@ -1,5 +1,6 @@
 package com.ye.yeaicodemother.core.handler;
 
+import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
@@ -25,9 +26,6 @@ import java.util.Set;
 @Component
 public class JsonMessageStreamHandler {
 
-//    @Resource
-//    private VueProjectBuilder vueProjectBuilder;
-
     @Resource
     private ToolManager toolManager;
 
@@ -48,19 +46,19 @@ public class JsonMessageStreamHandler {
         StringBuilder chatHistoryStringBuilder = new StringBuilder();
         // 用于跟踪已经见过的工具ID，判断是否是第一次调用
         Set<String> seenToolIds = new HashSet<>();
+        // 已经流式展示过文件内容的工具ID
+        Set<String> streamedToolIds = new HashSet<>();
         return originFlux
                 .map(chunk -> {
                     // 解析每个 JSON 消息块
-                    return handleJsonMessageChunk(chunk, chatHistoryStringBuilder, seenToolIds);
+                    return handleJsonMessageChunk(chunk, chatHistoryStringBuilder, seenToolIds, streamedToolIds);
                 })
                 .filter(StrUtil::isNotEmpty) // 过滤空字串
                 .doOnComplete(() -> {
                     // 流式响应完成后，添加 AI 消息到对话历史
                     String aiResponse = chatHistoryStringBuilder.toString();
                     chatHistoryService.addChatMessage(appId, aiResponse, ChatHistoryMessageTypeEnum.AI.getValue(), loginUser.getId());
-                    // 异步构造 Vue 项目
-//                    String projectPath = AppConstant.CODE_OUTPUT_ROOT_DIR + "/vue_project_" + appId;
-//                    vueProjectBuilder.buildProjectAsync(projectPath);
+                    // Vue 项目的构建由 AiCodeGeneratorFacade 在生成结束后提交到 VueBuildScheduler
                 })
                 .doOnError(error -> {
                     // 如果AI回复失败，也要记录错误消息
@@ -75,9 +73,11 @@ public class JsonMessageStreamHandler {
      * @param chunk                    当前流中的 JSON 字符串消息块
      * @param chatHistoryStringBuilder 用于聚合最终需持久化的完整 AI 响应内容（含工具交互）
      * @param seenToolIds              已处理过的工具 ID 集合，用于避免重复输出同一工具调用
+     * @param streamedToolIds          已流式展示过文件内容的工具 ID 集合，执行完成后只需补全结尾
      * @return 转换后的可展示字符串（若无需输出则返回空字符串），供前端实时渲染
      */
-    private String handleJsonMessageChunk(String chunk, StringBuilder chatHistoryStringBuilder, Set<String> seenToolIds) {
+    private String handleJsonMessageChunk(String chunk, StringBuilder chatHistoryStringBuilder,
+                                          Set<String> seenToolIds, Set<String> streamedToolIds) {
         // 解析 JSON
         StreamMessage streamMessage = JSONUtil.toBean(chunk, StreamMessage.class);
         StreamMessageTypeEnum typeEnum = StreamMessageTypeEnum.getEnumByValue(streamMessage.getType());
@@ -106,17 +106,33 @@ public class JsonMessageStreamHandler {
                     return "";
                 }
             }
+            case TOOL_STREAMING -> {
+                ToolStreamingMessage toolStreamingMessage = JSONUtil.toBean(chunk, ToolStreamingMessage.class);
+                String delta = StrUtil.nullToEmpty(toolStreamingMessage.getDelta());
+                // 第一次输出时补上文件标题和代码块开头，之后只输出内容增量
+                if (streamedToolIds.add(toolStreamingMessage.getId())) {
+                    BaseTool tool = toolManager.getTool(toolStreamingMessage.getName());
+                    String filePath = toolStreamingMessage.getFilePath();
+                    return String.format("\n\n[工具调用] %s %s\n```%s\n%s",
+                            tool.getDisplayName(), filePath, FileUtil.getSuffix(filePath), delta);
+                }
+                return delta;
+            }
             case TOOL_EXECUTED -> {
                 ToolExecutedMessage toolExecutedMessage = JSONUtil.toBean(chunk, ToolExecutedMessage.class);
                 JSONObject jsonObject = JSONUtil.parseObj(toolExecutedMessage.getArguments());
                 // 根据工具名称获取工具实例
                 String toolName = toolExecutedMessage.getName();
                 BaseTool tool = toolManager.getTool(toolName);
+                // 前端展示完整内容，持久化时只保存文件引用，避免对话历史被重复的文件内容撑大
+                String historyResult = tool.generateToolHistoryResult(jsonObject);
+                chatHistoryStringBuilder.append(String.format("\n\n%s\n\n", historyResult));
+                // 文件内容已经流式展示过，只需闭合代码块
+                if (streamedToolIds.remove(toolExecutedMessage.getId())) {
+                    return "\n```\n\n";
+                }
                 String result = tool.generateToolExecutedResult(jsonObject);
-                // 输出前端和要持久化的内容
-                String output = String.format("\n\n%s\n\n", result);
-                chatHistoryStringBuilder.append(output);
-                return output;
+                return String.format("\n\n%s\n\n", result);
             }
             default -> {
                 log.error("不支持的消息类型: {}", typeEnum);
@@ -0,0 +1,42 @@
+package com.ye.yeaicodemother.core.parser;
+
+import com.ye.yeaicodemother.ai.model.CodePatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 增量修改块解析器
+ * <p>
+ * 解析如下格式的 SEARCH / REPLACE 块（可出现多个）：
+ * <pre>
+ * index.html
+ * &lt;&lt;&lt;&lt;&lt;&lt;&lt; SEARCH
+ * 原始内容
+ * =======
+ * 替换内容
+ * &gt;&gt;&gt;&gt;&gt;&gt;&gt; REPLACE
+ * </pre>
+ * </p>
+ */
+public class CodePatchParser implements CodeParser<List<CodePatch>> {
+
+    private static final Pattern PATCH_PATTERN = Pattern.compile(
+            "([\\w./-]+)\\s*\\n<{7} SEARCH\\n([\\s\\S]*?)\\n?={7}\\n([\\s\\S]*?)\\n?>{7} REPLACE");
+
+    @Override
+    public List<CodePatch> parseCode(String codeContent) {
+        List<CodePatch> patches = new ArrayList<>();
+        if (codeContent == null) {
+            return patches;
+        }
+        // 统一换行符，避免 \r\n 导致匹配失败
+        Matcher matcher = PATCH_PATTERN.matcher(codeContent.replace("\r\n", "\n"));
+        while (matcher.find()) {
+            patches.add(new CodePatch(matcher.group(1).trim(), matcher.group(2), matcher.group(3)));
+        }
+        return patches;
+    }
+}
@@ -0,0 +1,310 @@
+package com.ye.yeaicodemother.core.parser;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 增量 JSON 参数解析器
+ * <p>
+ * 工具调用参数以片段形式流式到达（如 {"relativeFilePath":"src/App.vue","content":"<templ），
+ * 本解析器逐字符解析顶层对象，字符串值在尚未结束时即可读取已解码的部分，
+ * 用于在工具调用完成前识别文件路径并流式输出文件内容。
+ * 只解析顶层的字符串字段，嵌套对象、数组和其他类型的值会被跳过。
+ * </p>
+ */
+public class PartialJsonArgumentsParser {
+
+    private enum State {
+        /**
+         * 等待顶层对象开始
+         */
+        BEFORE_OBJECT,
+        /**
+         * 等待键（或对象结束）
+         */
+        BEFORE_KEY,
+        /**
+         * 正在读取键
+         */
+        IN_KEY,
+        /**
+         * 等待冒号
+         */
+        AFTER_KEY,
+        /**
+         * 等待值
+         */
+        BEFORE_VALUE,
+        /**
+         * 正在读取字符串值
+         */
+        IN_STRING_VALUE,
+        /**
+         * 正在跳过非字符串值（数字、布尔、嵌套对象或数组）
+         */
+        IN_OTHER_VALUE,
+        /**
+         * 等待逗号（或对象结束）
+         */
+        AFTER_VALUE,
+        /**
+         * 顶层对象已结束
+         */
+        DONE
+    }
+
+    private State state = State.BEFORE_OBJECT;
+
+    private final StringBuilder currentKey = new StringBuilder();
+
+    /**
+     * 字段名 -> 已解码的字符串值（可能尚未结束）
+     */
+    private final Map<String, StringBuilder> stringValues = new HashMap<>();
+
+    /**
+     * 已结束的字符串字段
+     */
+    private final Set<String> completedKeys = new HashSet<>();
+
+    /**
+     * 当前正在写入的字符串（键或值）
+     */
+    private StringBuilder currentString;
+
+    /**
+     * 上一个字符是反斜杠
+     */
+    private boolean escaping;
+
+    /**
+     * 正在读取 unicode 转义的十六进制位，-1 表示不在 unicode 转义中
+     */
+    private int unicodeDigits = -1;
+
+    private int unicodeValue;
+
+    /**
+     * 跳过非字符串值时的嵌套深度
+     */
+    private int otherDepth;
+
+    /**
+     * 跳过嵌套值时是否处于字符串中
+     */
+    private boolean otherInString;
+
+    private boolean otherEscaping;
+
+    /**
+     * 输入一个参数片段
+     *
+     * @param fragment 参数片段
+     */
+    public void feed(String fragment) {
+        if (fragment == null) {
+            return;
+        }
+        for (int i = 0; i < fragment.length(); i++) {
+            accept(fragment.charAt(i));
+        }
+    }
+
+    /**
+     * 获取字符串字段当前已解码的内容
+     *
+     * @param key 字段名
+     * @return 已解码内容（字段尚未出现时返回 null）
+     */
+    public String getString(String key) {
+        StringBuilder value = stringValues.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 获取字符串字段已解码内容的长度
+     *
+     * @param key 字段名
+     * @return 长度（字段尚未出现时返回 0）
+     */
+    public int getStringLength(String key) {
+        StringBuilder value = stringValues.get(key);
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * 获取字符串字段从指定位置开始的内容
+     *
+     * @param key   字段名
+     * @param start 起始位置
+     * @return 新增内容
+     */
+    public String getStringFrom(String key, int start) {
+        StringBuilder value = stringValues.get(key);
+        if (value == null || start >= value.length()) {
+            return "";
+        }
+        return value.substring(start);
+    }
+
+    /**
+     * 获取已完整结束的字符串字段
+     *
+     * @param key 字段名
+     * @return 字段值，字段尚未结束时返回 null
+     */
+    public String getCompletedString(String key) {
+        return completedKeys.contains(key) ? getString(key) : null;
+    }
+
+    /**
+     * 顶层对象是否已解析完毕
+     */
+    public boolean isDone() {
+        return state == State.DONE;
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case BEFORE_OBJECT -> {
+                if (c == '{') {
+                    state = State.BEFORE_KEY;
+                }
+            }
+            case BEFORE_KEY -> {
+                if (c == '"') {
+                    currentKey.setLength(0);
+                    currentString = currentKey;
+                    state = State.IN_KEY;
+                } else if (c == '}') {
+                    state = State.DONE;
+                }
+            }
+            case IN_KEY -> {
+                if (acceptStringChar(c)) {
+                    state = State.AFTER_KEY;
+                }
+            }
+            case AFTER_KEY -> {
+                if (c == ':') {
+                    state = State.BEFORE_VALUE;
+                }
+            }
+            case BEFORE_VALUE -> {
+                if (c == '"') {
+                    String key = currentKey.toString();
+                    currentString = new StringBuilder();
+                    stringValues.put(key, currentString);
+                    completedKeys.remove(key);
+                    state = State.IN_STRING_VALUE;
+                } else if (!Character.isWhitespace(c)) {
+                    otherDepth = 0;
+                    otherInString = false;
+                    otherEscaping = false;
+                    state = State.IN_OTHER_VALUE;
+                    acceptOtherChar(c);
+                }
+            }
+            case IN_STRING_VALUE -> {
+                if (acceptStringChar(c)) {
+                    completedKeys.add(currentKey.toString());
+                    state = State.AFTER_VALUE;
+                }
+            }
+            case IN_OTHER_VALUE -> acceptOtherChar(c);
+            case AFTER_VALUE -> {
+                if (c == ',') {
+                    state = State.BEFORE_KEY;
+                } else if (c == '}') {
+                    state = State.DONE;
+                }
+            }
+            case DONE -> {
+                // 忽略顶层对象之后的内容
+            }
+        }
+    }
+
+    /**
+     * 处理字符串中的一个字符（含转义）
+     *
+     * @return 字符串是否结束
+     */
+    private boolean acceptStringChar(char c) {
+        if (unicodeDigits >= 0) {
+            unicodeValue = unicodeValue * 16 + Character.digit(c, 16);
+            if (++unicodeDigits == 4) {
+                currentString.append((char) unicodeValue);
+                unicodeDigits = -1;
+            }
+            return false;
+        }
+        if (escaping) {
+            escaping = false;
+            switch (c) {
+                case 'n' -> currentString.append('\n');
+                case 't' -> currentString.append('\t');
+                case 'r' -> currentString.append('\r');
+                case 'b' -> currentString.append('\b');
+                case 'f' -> currentString.append('\f');
+                case 'u' -> {
+                    unicodeDigits = 0;
+                    unicodeValue = 0;
+                }
+                // \" \\ \/ 等直接输出转义后的字符
+                default -> currentString.append(c);
+            }
+            return false;
+        }
+        if (c == '\\') {
+            escaping = true;
+            return false;
+        }
+        if (c == '"') {
+            return true;
+        }
+        currentString.append(c);
+        return false;
+    }
+
+    /**
+     * 跳过非字符串值中的一个字符
+     */
+    private void acceptOtherChar(char c) {
+        if (otherInString) {
+            if (otherEscaping) {
+                otherEscaping = false;
+            } else if (c == '\\') {
+                otherEscaping = true;
+            } else if (c == '"') {
+                otherInString = false;
+            }
+            return;
+        }
+        switch (c) {
+            case '"' -> otherInString = true;
+            case '{', '[' -> otherDepth++;
+            case '}', ']' -> {
+                if (otherDepth == 0) {
+                    // 顶层对象结束
+                    state = State.DONE;
+                } else {
+                    otherDepth--;
+                    if (otherDepth == 0) {
+                        state = State.AFTER_VALUE;
+                    }
+                }
+            }
+            case ',' -> {
+                if (otherDepth == 0) {
+                    state = State.BEFORE_KEY;
+                }
+            }
+            default -> {
+                // 数字、布尔、null 等字面量，直接跳过
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.ye.yeaicodemother.core.saver;
 
+import cn.hutool.core.io.FileUtil;
 import com.ye.yeaicodemother.ai.model.HtmlCodeResult;
 import com.ye.yeaicodemother.ai.model.MultiFileCodeResult;
+import com.ye.yeaicodemother.constant.AppConstant;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 代码文件保存执行器
@@ -32,4 +38,63 @@ public class CodeFileSaverExecutor {
             default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型: " + codeGenType);
         };
     }
+
+    /**
+     * 获取代码生成类型对应的文件名列表
+     *
+     * @param codeGenType 代码生成类型
+     * @return 文件名列表（按固定顺序）
+     */
+    public static List<String> getCodeFileNames(CodeGenTypeEnum codeGenType) {
+        return switch (codeGenType) {
+            case HTML -> List.of("index.html");
+            case MULTI_FILE -> List.of("index.html", "style.css", "script.js");
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型: " + codeGenType);
+        };
+    }
+
+    /**
+     * 读取已保存的代码文件
+     *
+     * @param codeGenType 代码生成类型
+     * @param appId       应用 ID
+     * @return 文件名 -> 文件内容（按固定顺序，不存在的文件不包含在内）
+     */
+    public static Map<String, String> readSavedFiles(CodeGenTypeEnum codeGenType, Long appId) {
+        String dirPath = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator + codeGenType.getValue() + "_" + appId;
+        Map<String, String> savedFiles = new LinkedHashMap<>();
+        for (String fileName : getCodeFileNames(codeGenType)) {
+            File file = new File(dirPath, fileName);
+            if (file.isFile()) {
+                savedFiles.put(fileName, FileUtil.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+        return savedFiles;
+    }
+
+    /**
+     * 按文件名保存代码文件
+     *
+     * @param files       文件名 -> 文件内容
+     * @param codeGenType 代码生成类型
+     * @param appId       应用 ID
+     * @return 保存的目录
+     */
+    public static File saveFiles(Map<String, String> files, CodeGenTypeEnum codeGenType, Long appId) {
+        return switch (codeGenType) {
+            case HTML -> {
+                HtmlCodeResult result = new HtmlCodeResult();
+                result.setHtmlCode(files.get("index.html"));
+                yield executeSaver(result, codeGenType, appId);
+            }
+            case MULTI_FILE -> {
+                MultiFileCodeResult result = new MultiFileCodeResult();
+                result.setHtmlCode(files.get("index.html"));
+                result.setCssCode(files.get("style.css"));
+                result.setJsCode(files.get("script.js"));
+                yield executeSaver(result, codeGenType, appId);
+            }
+            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型: " + codeGenType);
+        };
+    }
 }
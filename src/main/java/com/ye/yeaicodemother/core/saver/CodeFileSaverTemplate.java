@@ -1,14 +1,18 @@
 package com.ye.yeaicodemother.core.saver;
 
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import com.ye.yeaicodemother.utils.SpringContextUtil;
 
 import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * 抽象代码文件保存器 - 模板方法模式
@@ -27,12 +31,28 @@ public abstract class CodeFileSaverTemplate<T> {
     public final File saveCode(T result, Long appId) {
         // 1. 验证输入
         validateInput(result);
-        // 2. 构建唯一目录
-        String baseDirPath = buildUniqueDir(appId);
-        // 3. 保存文件（具体实现由子类提供）
-        saveFiles(result, baseDirPath);
+        // 2. 构建目录名称，并开始一个新版本（由当前版本克隆而来）
+        String dirName = buildUniqueDir(appId);
+        OutputVersionStore versionStore = SpringContextUtil.getBean(OutputVersionStore.class);
+        Path versionDir;
+        try {
+            versionDir = versionStore.beginVersion(dirName);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "创建生成目录失败: " + e.getMessage());
+        }
+        // 3. 保存文件（具体实现由子类提供），全部写入后再发布为当前版本
+        try {
+            saveFiles(result, versionDir.toString());
+            versionStore.publish(dirName, versionDir);
+        } catch (IOException e) {
+            versionStore.discard(dirName, versionDir);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "发布生成目录失败: " + e.getMessage());
+        } catch (RuntimeException e) {
+            versionStore.discard(dirName, versionDir);
+            throw e;
+        }
         // 4. 返回目录文件对象
-        return new File(baseDirPath);
+        return new File(FILE_SAVE_ROOT_DIR, dirName);
     }
 
     /**
@@ -47,19 +67,16 @@ public abstract class CodeFileSaverTemplate<T> {
     }
 
     /**
-     * 构建唯一目录路径
+     * 构建目录名称（每个应用固定一个，实际内容位于其当前版本中）
      *
-     * @return 目录路径
+     * @return 目录名称
      */
     protected final String buildUniqueDir(Long appId) {
         if (appId == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
         }
         String codeType = getCodeType().getValue();
-        String uniqueDirName = StrUtil.format("{}_{}", codeType, appId);
-        String dirPath = FILE_SAVE_ROOT_DIR + File.separator + uniqueDirName;
-        FileUtil.mkdir(dirPath);
-        return dirPath;
+        return StrUtil.format("{}_{}", codeType, appId);
     }
 
     /**
@@ -71,8 +88,11 @@ public abstract class CodeFileSaverTemplate<T> {
      */
     protected final void writeToFile(String dirPath, String filename, String content) {
         if (StrUtil.isNotBlank(content)) {
-            String filePath = dirPath + File.separator + filename;
-            FileUtil.writeString(content, filePath, StandardCharsets.UTF_8);
+            try {
+                ContentBlobStore.getDefault().writeString(Paths.get(dirPath, filename), content);
+            } catch (IOException e) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "保存文件失败: " + filename);
+            }
         }
     }
 
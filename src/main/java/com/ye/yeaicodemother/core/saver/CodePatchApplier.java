@@ -0,0 +1,119 @@
+package com.ye.yeaicodemother.core.saver;
+
+import com.ye.yeaicodemother.ai.model.CodePatch;
+import com.ye.yeaicodemother.exception.BusinessException;
+import com.ye.yeaicodemother.exception.ErrorCode;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 增量修改应用器
+ * <p>
+ * 将 SEARCH / REPLACE 修改块依次应用到文件内容上，全部成功才返回结果（原子性），
+ * 任一修改块无法定位或匹配到多处（无法确定修改位置）时抛出异常，由调用方回退到完整重新生成。
+ * </p>
+ */
+public class CodePatchApplier {
+
+    /**
+     * 应用修改块
+     *
+     * @param files   原始文件（文件名 -> 内容）
+     * @param patches 修改块列表
+     * @return 修改后的文件（文件名 -> 内容）
+     * @throws BusinessException 目标文件不允许修改、原始内容无法定位或匹配不唯一时抛出
+     */
+    public static Map<String, String> applyPatches(Map<String, String> files, List<String> allowedFileNames,
+                                                   List<CodePatch> patches) {
+        Map<String, String> result = new LinkedHashMap<>(files);
+        for (CodePatch patch : patches) {
+            String fileName = patch.getFileName();
+            if (!allowedFileNames.contains(fileName)) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "不支持修改的文件: " + fileName);
+            }
+            String content = result.getOrDefault(fileName, "");
+            result.put(fileName, applyPatch(content, patch));
+        }
+        return result;
+    }
+
+    /**
+     * 对单个文件应用一个修改块
+     */
+    private static String applyPatch(String content, CodePatch patch) {
+        String search = patch.getSearchContent();
+        String replace = patch.getReplaceContent();
+        // SEARCH 为空：追加到文件末尾
+        if (search == null || search.isBlank()) {
+            return content.isEmpty() ? replace : content + "\n" + replace;
+        }
+        // 1. 精确匹配
+        int index = content.indexOf(search);
+        if (index >= 0) {
+            if (content.indexOf(search, index + 1) >= 0) {
+                throw ambiguousMatch(patch);
+            }
+            return content.substring(0, index) + replace + content.substring(index + search.length());
+        }
+        // 2. 忽略每行首尾空白的匹配（模型经常改变缩进）
+        String patched = applyLineTrimmedPatch(content, search, replace, patch);
+        if (patched != null) {
+            return patched;
+        }
+        throw new BusinessException(ErrorCode.OPERATION_ERROR, "未在 " + patch.getFileName() + " 中找到要替换的内容");
+    }
+
+    /**
+     * 要替换的内容在文件中出现多次，无法确定修改位置
+     */
+    private static BusinessException ambiguousMatch(CodePatch patch) {
+        return new BusinessException(ErrorCode.OPERATION_ERROR, "要替换的内容在 " + patch.getFileName() + " 中出现多次");
+    }
+
+    /**
+     * 按行比较（忽略首尾空白）定位原始内容并替换
+     *
+     * @return 替换后的内容，无法定位时返回 null
+     * @throws BusinessException 匹配到多处时抛出
+     */
+    private static String applyLineTrimmedPatch(String content, String search, String replace, CodePatch patch) {
+        String[] contentLines = content.split("\n", -1);
+        String[] searchLines = search.strip().split("\n", -1);
+        int matchedStart = -1;
+        for (int start = 0; start + searchLines.length <= contentLines.length; start++) {
+            if (!linesMatch(contentLines, start, searchLines)) {
+                continue;
+            }
+            if (matchedStart >= 0) {
+                throw ambiguousMatch(patch);
+            }
+            matchedStart = start;
+        }
+        if (matchedStart < 0) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < matchedStart; i++) {
+            builder.append(contentLines[i]).append("\n");
+        }
+        builder.append(replace);
+        for (int i = matchedStart + searchLines.length; i < contentLines.length; i++) {
+            builder.append("\n").append(contentLines[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 从 start 行开始，内容是否与 SEARCH 逐行匹配（忽略首尾空白）
+     */
+    private static boolean linesMatch(String[] contentLines, int start, String[] searchLines) {
+        for (int i = 0; i < searchLines.length; i++) {
+            if (!contentLines[start + i].strip().equals(searchLines[i].strip())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
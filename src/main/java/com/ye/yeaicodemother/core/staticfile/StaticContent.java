@@ -0,0 +1,10 @@
+package com.ye.yeaicodemother.core.staticfile;
+
+/**
+ * 要返回的静态资源
+ *
+ * @param file    文件元数据
+ * @param content 缓存在内存中的文件内容；为 null 时从磁盘读取 {@link StaticFile#path()}
+ */
+public record StaticContent(StaticFile file, byte[] content) {
+}
@@ -0,0 +1,27 @@
+package com.ye.yeaicodemother.core.staticfile;
+
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+
+/**
+ * 解析后的静态文件
+ *
+ * @param path            实际返回的文件（可能是预压缩的 .br / .gz 文件）
+ * @param size            文件大小（字节）
+ * @param lastModified    修改时间（毫秒时间戳）
+ * @param etag            强 ETag（含引号）
+ * @param mediaType       原始文件的 Content-Type
+ * @param contentEncoding 预压缩文件的编码（br / gzip），原文件为 null
+ * @param varyByEncoding  响应是否随 Accept-Encoding 变化
+ * @param cacheControl    Cache-Control 取值
+ */
+public record StaticFile(Path path,
+                         long size,
+                         long lastModified,
+                         String etag,
+                         MediaType mediaType,
+                         String contentEncoding,
+                         boolean varyByEncoding,
+                         String cacheControl) {
+}
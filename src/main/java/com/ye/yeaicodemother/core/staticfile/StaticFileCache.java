@@ -0,0 +1,278 @@
+package com.ye.yeaicodemother.core.staticfile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ye.yeaicodemother.config.StaticFileCacheProperties;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
+import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 静态资源内存缓存
+ * <p>
+ * 位于 {@link StaticFileResolver} 之前，缓存文件内容、预压缩版本和 ETag，命中时直接从内存返回，不再 stat 或打开文件：
+ * 1. 使用 Caffeine（W-TinyLFU）按字节计重，偶发的大量冷门访问不会挤掉高频文件；
+ * 2. 目录被新版本替换（{@link OutputVersionStore} 发布）、Vue 项目重新构建或应用缓存失效时，按目录失效；
+ *    每个目录维护一个代数，加载期间目录被改写时，加载结果不会被当作新内容返回给之后的请求；
+ * 3. 按目录统计访问次数，每个统计周期访问最多的站点放入单独的热点缓存，不与普通文件竞争空间；
+ * 4. 超过大小上限的文件只缓存元数据，内容仍从磁盘发送（可走 sendfile）。
+ * 指标：static.file.cache.requests（result 标签）、static.file.cache.size、static.file.cache.hot.sites。
+ * </p>
+ */
+@Slf4j
+@Component
+public class StaticFileCache {
+
+    /**
+     * 每个条目的固定开销估算（字节）
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    @Resource
+    private StaticFileResolver staticFileResolver;
+
+    @Resource
+    private StaticFileCacheProperties staticFileCacheProperties;
+
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
+    @Resource
+    private OutputVersionStore outputVersionStore;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * deployKey + 路径 -> 缓存条目
+     */
+    private Cache<String, CachedFile> cache;
+
+    /**
+     * 热点站点的缓存条目
+     */
+    private Cache<String, CachedFile> hotCache;
+
+    /**
+     * 当前的热点站点
+     */
+    private volatile Set<String> hotSites = Set.of();
+
+    /**
+     * deployKey -> 代数，目录每被改写一次加一（只记录发生过改写的目录）
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 当前统计周期内各站点的访问次数
+     */
+    private volatile Map<String, LongAdder> siteHits = new ConcurrentHashMap<>();
+
+    private Counter hitCounter;
+
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        Duration expireAfterWrite = Duration.ofMinutes(staticFileCacheProperties.getExpireAfterWriteMinutes());
+        cache = Caffeine.newBuilder()
+                .maximumWeight(staticFileCacheProperties.getMaxSizeMb() * 1024 * 1024)
+                .weigher((String key, CachedFile value) -> value.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        hotCache = Caffeine.newBuilder()
+                .maximumWeight(staticFileCacheProperties.getHotSiteMaxSizeMb() * 1024 * 1024)
+                .weigher((String key, CachedFile value) -> value.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        hitCounter = Counter.builder("static.file.cache.requests")
+                .description("静态资源内存缓存的访问次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("static.file.cache.requests")
+                .description("静态资源内存缓存的访问次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("static.file.cache.size", this, StaticFileCache::weightedSize)
+                .description("静态资源内存缓存占用的字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("static.file.cache.hot.sites", this, self -> self.hotSites.size())
+                .description("当前的热点站点数")
+                .register(meterRegistry);
+        outputVersionStore.addPublishListener(this::invalidate);
+        appCacheInvalidationManager.registerListener(this::invalidateApp);
+    }
+
+    /**
+     * 获取静态资源，优先从内存返回
+     *
+     * @param deployKey      目录名称，如 vue_project_1
+     * @param resourcePath   目录内的路径（以 / 开头）
+     * @param acceptEncoding 请求的 Accept-Encoding 头，可以为空
+     * @return 静态资源；不存在或越界时返回 null
+     */
+    public StaticContent get(String deployKey, String resourcePath, String acceptEncoding) throws IOException {
+        if (!staticFileCacheProperties.isEnabled()) {
+            StaticFile file = staticFileResolver.resolve(deployKey, resourcePath, acceptEncoding);
+            return file == null ? null : new StaticContent(file, null);
+        }
+        String key = deployKey + resourcePath;
+        Cache<String, CachedFile> target = hotSites.contains(deployKey) ? hotCache : cache;
+        long generation = generationOf(deployKey);
+        CachedFile cached = target.getIfPresent(key);
+        if (cached != null && cached.generation() == generation) {
+            hitCounter.increment();
+            recordSiteHit(deployKey);
+            return cached.select(acceptEncoding);
+        }
+        missCounter.increment();
+        cached = load(deployKey, resourcePath, generation);
+        if (cached == null) {
+            return null;
+        }
+        recordSiteHit(deployKey);
+        // 加载期间目录被改写时不写入缓存，已写入的旧条目也会因代数不一致被忽略
+        if (generationOf(deployKey) == generation) {
+            target.put(key, cached);
+        }
+        return cached.select(acceptEncoding);
+    }
+
+    /**
+     * 失效某个目录的全部缓存
+     *
+     * @param deployKey 目录名称，如 vue_project_1
+     */
+    public void invalidate(String deployKey) {
+        generations.computeIfAbsent(deployKey, key -> new AtomicLong()).incrementAndGet();
+        String prefix = deployKey + "/";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        hotCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("已失效静态资源缓存: {}", deployKey);
+    }
+
+    /**
+     * 失效某个应用各生成类型目录的缓存
+     *
+     * @param appId 应用 ID
+     */
+    public void invalidateApp(Long appId) {
+        for (CodeGenTypeEnum codeGenType : CodeGenTypeEnum.values()) {
+            invalidate(codeGenType.getValue() + "_" + appId);
+        }
+    }
+
+    /**
+     * 按上一统计周期的访问次数重新选出热点站点，并在普通缓存和热点缓存之间迁移条目
+     */
+    public void refreshHotSites() {
+        Map<String, LongAdder> hits = siteHits;
+        siteHits = new ConcurrentHashMap<>();
+        Set<String> newHotSites = hits.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .filter(entry -> entry.getValue() >= staticFileCacheProperties.getHotSiteMinHits())
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(staticFileCacheProperties.getHotSiteCount())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+        Set<String> oldHotSites = hotSites;
+        hotSites = newHotSites;
+        moveEntries(hotCache, cache, key -> !newHotSites.contains(deployKeyOf(key)));
+        moveEntries(cache, hotCache, key -> newHotSites.contains(deployKeyOf(key)));
+        if (!newHotSites.equals(oldHotSites)) {
+            log.info("热点站点已更新: {}", newHotSites);
+        }
+    }
+
+    /**
+     * 读取文件的所有版本，不超过大小上限的同时读入内容
+     */
+    private CachedFile load(String deployKey, String resourcePath, long generation) throws IOException {
+        List<StaticFile> files = staticFileResolver.resolveAll(deployKey, resourcePath);
+        if (files.isEmpty()) {
+            return null;
+        }
+        long maxFileBytes = staticFileCacheProperties.getMaxFileSizeKb() * 1024L;
+        byte[][] contents = new byte[files.size()][];
+        int weight = ENTRY_OVERHEAD_BYTES + deployKey.length() + resourcePath.length();
+        for (int i = 0; i < files.size(); i++) {
+            StaticFile file = files.get(i);
+            if (file.size() <= maxFileBytes) {
+                try {
+                    contents[i] = Files.readAllBytes(file.path());
+                } catch (IOException e) {
+                    // 文件在解析后被替换，不缓存
+                    return null;
+                }
+                weight += contents[i].length;
+            }
+            weight += ENTRY_OVERHEAD_BYTES;
+        }
+        return new CachedFile(generation, files, contents, weight);
+    }
+
+    private long generationOf(String deployKey) {
+        AtomicLong generation = generations.get(deployKey);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private void recordSiteHit(String deployKey) {
+        siteHits.computeIfAbsent(deployKey, key -> new LongAdder()).increment();
+    }
+
+    private void moveEntries(Cache<String, CachedFile> from, Cache<String, CachedFile> to, Predicate<String> filter) {
+        from.asMap().entrySet().removeIf(entry -> {
+            if (!filter.test(entry.getKey())) {
+                return false;
+            }
+            to.put(entry.getKey(), entry.getValue());
+            return true;
+        });
+    }
+
+    private long weightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L)
+                + hotCache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private static String deployKeyOf(String key) {
+        int slash = key.indexOf('/');
+        return slash >= 0 ? key.substring(0, slash) : key;
+    }
+
+    /**
+     * 缓存条目：原文件及其预压缩版本，contents 与 files 一一对应（超过大小上限的为 null）
+     */
+    private record CachedFile(long generation, List<StaticFile> files, byte[][] contents, int weight) {
+
+        StaticContent select(String acceptEncoding) {
+            StaticFile selected = StaticFileResolver.select(files, acceptEncoding);
+            for (int i = 0; i < files.size(); i++) {
+                if (files.get(i) == selected) {
+                    return new StaticContent(selected, contents[i]);
+                }
+            }
+            return new StaticContent(selected, null);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.ye.yeaicodemother.core.staticfile;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 静态文件解析
+ * <p>
+ * 把 /static/{deployKey}/{path} 解析为磁盘上的文件，并给出响应所需的元数据：
+ * 1. 路径规范化后必须位于 {deployKey} 目录内，拒绝 ../ 越界访问；
+ * 2. 强 ETag 取文件内容的 SHA-256，按 路径 + 大小 + 修改时间 缓存，文件未变化时不重复计算；
+ * 3. 浏览器支持时优先返回同目录下预压缩的 .br / .gz 文件；
+ * 4. Content-Type 使用完整的 MIME 映射，文本类型带 UTF-8 编码；
+ * 5. 只有 Vue 项目 dist/assets 下 Vite 输出的带哈希文件名的资源可以长期缓存，其余文件每次向服务器验证（配合 ETag 返回 304）。
+ * </p>
+ */
+@Component
+public class StaticFileResolver {
+
+    /**
+     * Vite 构建输出的带内容哈希的资源，如 dist/assets/index-4f3a9c1b.js（哈希固定 8 位）
+     * <p>
+     * 只匹配构建产物目录，源码中的 src/assets/hero-background.png 等文件名可能不变而内容变化，不能长期缓存。
+     * </p>
+     */
+    private static final Pattern HASHED_ASSET_PATTERN = Pattern.compile("^/?dist/assets/[^/]+-[A-Za-z0-9_-]{8}\\.[A-Za-z0-9]+$");
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    /**
+     * 查找的预压缩编码，按优先级排列
+     */
+    private static final List<String> ENCODINGS = List.of("br", "gzip");
+
+    /**
+     * MediaTypeFactory 未覆盖或需要固定取值的扩展名
+     */
+    private static final Map<String, String> MIME_OVERRIDES = Map.ofEntries(
+            Map.entry("html", "text/html"),
+            Map.entry("js", "application/javascript"),
+            Map.entry("mjs", "application/javascript"),
+            Map.entry("css", "text/css"),
+            Map.entry("json", "application/json"),
+            Map.entry("map", "application/json"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("wasm", "application/wasm"),
+            Map.entry("webmanifest", "application/manifest+json"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("avif", "image/avif"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2"),
+            Map.entry("ttf", "font/ttf"),
+            Map.entry("otf", "font/otf")
+    );
+
+    /**
+     * 需要附带 charset 的非 text/* 类型
+     */
+    private static final Set<String> CHARSET_TYPES = Set.of(
+            "application/javascript", "application/json", "application/manifest+json", "application/xml", "image/svg+xml"
+    );
+
+    /**
+     * 值得压缩、会查找预压缩文件的类型（text/* 之外）
+     */
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "application/javascript", "application/json", "application/manifest+json", "application/xml",
+            "image/svg+xml", "application/wasm", "font/ttf", "font/otf", "image/x-icon"
+    );
+
+    /**
+     * 浏览根目录（生成目录，{deployKey} 即 {type}_{appId}）
+     */
+    private final Path previewRoot;
+
+    /**
+     * 文件路径 -> ETag（附带计算时的大小和修改时间）
+     */
+    private final Cache<String, CachedETag> etagCache = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .build();
+
+    public StaticFileResolver() {
+        this(Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR));
+    }
+
+    StaticFileResolver(Path previewRoot) {
+        this.previewRoot = previewRoot.toAbsolutePath().normalize();
+    }
+
+    /**
+     * 解析静态文件
+     *
+     * @param deployKey      目录名称，如 vue_project_1
+     * @param resourcePath   目录内的路径（以 / 开头）
+     * @param acceptEncoding 请求的 Accept-Encoding 头，可以为空
+     * @return 静态文件；不存在或越界时返回 null
+     */
+    public StaticFile resolve(String deployKey, String resourcePath, String acceptEncoding) throws IOException {
+        return select(resolveAll(deployKey, resourcePath), acceptEncoding);
+    }
+
+    /**
+     * 解析静态文件的所有版本
+     *
+     * @param deployKey    目录名称，如 vue_project_1
+     * @param resourcePath 目录内的路径（以 / 开头）
+     * @return 原文件在前，其后依次为可用的 br、gzip 预压缩文件；不存在或越界时返回空列表
+     */
+    public List<StaticFile> resolveAll(String deployKey, String resourcePath) throws IOException {
+        Path file = resolvePath(deployKey, resourcePath);
+        if (file == null) {
+            return List.of();
+        }
+        BasicFileAttributes attrs = readAttributesIfFile(file);
+        if (attrs == null) {
+            return List.of();
+        }
+        String fileName = file.getFileName().toString();
+        MediaType mediaType = resolveMediaType(fileName);
+        boolean compressible = isCompressible(mediaType);
+        String cacheControl = isViteHashedAsset(deployKey, resourcePath)
+                ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL;
+        List<StaticFile> files = new ArrayList<>(3);
+        files.add(new StaticFile(file, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                getETag(file, attrs), mediaType, null, compressible, cacheControl));
+        if (!compressible) {
+            return files;
+        }
+        // 预压缩版本：br 优先于 gzip
+        for (String encoding : ENCODINGS) {
+            Path variant = file.resolveSibling(fileName + ("br".equals(encoding) ? ".br" : ".gz"));
+            BasicFileAttributes variantAttrs = readAttributesIfFile(variant);
+            // 预压缩文件比原文件旧时说明已过期，忽略
+            if (variantAttrs != null && variantAttrs.lastModifiedTime().compareTo(attrs.lastModifiedTime()) >= 0) {
+                files.add(new StaticFile(variant, variantAttrs.size(), variantAttrs.lastModifiedTime().toMillis(),
+                        getETag(variant, variantAttrs), mediaType, encoding, true, cacheControl));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 是否为 Vue 项目构建产物中带内容哈希的资源，其余文件（包括源码中的 assets）每次都需要重新验证
+     */
+    private boolean isViteHashedAsset(String deployKey, String resourcePath) {
+        return deployKey.startsWith(CodeGenTypeEnum.VUE_PROJECT.getValue() + "_")
+                && HASHED_ASSET_PATTERN.matcher(resourcePath).matches();
+    }
+
+    /**
+     * 按 Accept-Encoding 从 {@link #resolveAll(String, String)} 的结果中选出要返回的版本
+     *
+     * @param files          原文件及其预压缩版本
+     * @param acceptEncoding 请求的 Accept-Encoding 头，可以为空
+     * @return 要返回的文件；列表为空时返回 null
+     */
+    public static StaticFile select(List<StaticFile> files, String acceptEncoding) {
+        if (files.isEmpty()) {
+            return null;
+        }
+        if (acceptEncoding != null) {
+            for (int i = 1; i < files.size(); i++) {
+                if (acceptsEncoding(acceptEncoding, files.get(i).contentEncoding())) {
+                    return files.get(i);
+                }
+            }
+        }
+        return files.get(0);
+    }
+
+    /**
+     * 规范化并校验路径，拒绝越出 {deployKey} 目录的访问
+     */
+    private Path resolvePath(String deployKey, String resourcePath) {
+        if (deployKey.isEmpty() || deployKey.startsWith(".") || deployKey.contains("/") || deployKey.contains("\\")) {
+            return null;
+        }
+        Path baseDir = previewRoot.resolve(deployKey).normalize();
+        if (!previewRoot.equals(baseDir.getParent())) {
+            return null;
+        }
+        String relativePath = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+        Path file = baseDir.resolve(relativePath).normalize();
+        return file.startsWith(baseDir) ? file : null;
+    }
+
+    private BasicFileAttributes readAttributesIfFile(Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return attrs.isRegularFile() ? attrs : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 强 ETag：内容 SHA-256 的前 32 位，文件大小和修改时间不变时复用
+     */
+    private String getETag(Path file, BasicFileAttributes attrs) throws IOException {
+        String key = file.toString();
+        long size = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        CachedETag cached = etagCache.getIfPresent(key);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return cached.etag();
+        }
+        String etag;
+        try {
+            etag = "\"" + DigestUtil.sha256Hex(file.toFile()).substring(0, 32) + "\"";
+        } catch (Exception e) {
+            throw new IOException("计算 ETag 失败: " + file, e);
+        }
+        etagCache.put(key, new CachedETag(size, lastModified, etag));
+        return etag;
+    }
+
+    private MediaType resolveMediaType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase() : "";
+        String override = MIME_OVERRIDES.get(extension);
+        MediaType mediaType = override != null ? MediaType.parseMediaType(override)
+                : MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String type = mediaType.getType() + "/" + mediaType.getSubtype();
+        if ("text".equals(mediaType.getType()) || CHARSET_TYPES.contains(type)) {
+            return new MediaType(mediaType, StandardCharsets.UTF_8);
+        }
+        return mediaType;
+    }
+
+    private boolean isCompressible(MediaType mediaType) {
+        return "text".equals(mediaType.getType())
+                || COMPRESSIBLE_TYPES.contains(mediaType.getType() + "/" + mediaType.getSubtype());
+    }
+
+    /**
+     * 判断 Accept-Encoding 是否接受某种编码（q=0 表示不接受）
+     */
+    private static boolean acceptsEncoding(String acceptEncoding, String encoding) {
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim();
+            if (!name.equalsIgnoreCase(encoding) && !"*".equals(name)) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private record CachedETag(long size, long lastModified, String etag) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.ye.yeaicodemother.core.template;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.ye.yeaicodemother.config.VueProjectTemplateProperties;
+import com.ye.yeaicodemother.core.builder.DependencyStore;
+import com.ye.yeaicodemother.core.builder.VueProjectBuilder;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Vue 项目脚手架管理器
+ * <p>
+ * 新建 Vue 项目时，在第一轮对话前把 classpath:vue-template/{version} 下的脚手架写入 vue_project_{appId}，
+ * 并把 node_modules 链接到预先安装好的共享依赖（{@link DependencyStore}），模型只需生成页面和组件。
+ * 脚手架依赖在应用启动后于后台预热，尚未准备好时新项目不做链接，构建时再准备依赖。
+ * </p>
+ */
+@Slf4j
+@Component
+public class VueProjectTemplateManager {
+
+    private static final String TEMPLATE_LOCATION = "vue-template/";
+
+    @Resource
+    private VueProjectTemplateProperties templateProperties;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Resource
+    private VueProjectBuilder vueProjectBuilder;
+
+    @Resource
+    private DependencyStore dependencyStore;
+
+    /**
+     * 脚手架文件：相对路径 -> 文件内容
+     */
+    private Map<String, String> templateFiles = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        if (!templateProperties.isEnabled()) {
+            return;
+        }
+        try {
+            templateFiles = loadTemplateFiles(templateProperties.getVersion());
+        } catch (IOException e) {
+            log.error("加载 Vue 项目脚手架失败，版本: {}", templateProperties.getVersion(), e);
+            return;
+        }
+        log.info("加载 Vue 项目脚手架 {}，共 {} 个文件", templateProperties.getVersion(), templateFiles.size());
+        // 后台预热脚手架的共享依赖，避免阻塞启动
+        Thread.ofVirtual().name("vue-template-store").start(this::prepareDependencies);
+    }
+
+    /**
+     * 项目尚未初始化（没有 package.json）时写入脚手架
+     *
+     * @param appId 应用 ID
+     * @return 是否写入了脚手架
+     */
+    public boolean seedIfAbsent(Long appId) {
+        if (templateFiles.isEmpty()) {
+            return false;
+        }
+        try {
+            boolean seeded = projectWorkspaceManager.execute(appId, workspace -> {
+                if (workspace.isFile("package.json")) {
+                    return false;
+                }
+                for (Map.Entry<String, String> entry : templateFiles.entrySet()) {
+                    workspace.write(entry.getKey(), entry.getValue());
+                }
+                return true;
+            });
+            if (!seeded) {
+                return false;
+            }
+            projectWorkspaceManager.flush(appId);
+            Path projectRoot = projectWorkspaceManager.getProjectRoot(appId);
+            if (!dependencyStore.linkIfPresent(projectRoot)) {
+                log.info("脚手架共享依赖尚未准备好，构建时再准备依赖: {}", projectRoot);
+            }
+            log.info("已为新项目写入 Vue 脚手架 {}, appId: {}", templateProperties.getVersion(), appId);
+            return true;
+        } catch (IOException e) {
+            log.error("写入 Vue 脚手架失败, appId: {}", appId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 在临时目录中写入脚手架的 package.json 并安装到共享依赖，已安装过的直接命中
+     */
+    private void prepareDependencies() {
+        String packageJson = templateFiles.get("package.json");
+        if (packageJson == null) {
+            return;
+        }
+        Path tempDir = null;
+        try {
+            tempDir = Files.createTempDirectory("vue-template-" + templateProperties.getVersion());
+            Files.writeString(tempDir.resolve("package.json"), packageJson, StandardCharsets.UTF_8);
+            if (vueProjectBuilder.installDependencies(tempDir.toFile())) {
+                log.info("Vue 脚手架共享依赖已就绪，版本: {}", templateProperties.getVersion());
+            } else {
+                log.error("Vue 脚手架共享依赖准备失败，版本: {}", templateProperties.getVersion());
+            }
+        } catch (IOException e) {
+            log.error("准备 Vue 脚手架共享依赖失败，版本: {}", templateProperties.getVersion(), e);
+        } finally {
+            if (tempDir != null) {
+                // 只包含 package.json 和指向共享依赖的链接，删除时不会跟随链接
+                FileUtil.del(tempDir.toFile());
+            }
+        }
+    }
+
+    /**
+     * 从 classpath 加载指定版本的脚手架文件（兼容 jar 包内的资源）
+     */
+    private Map<String, String> loadTemplateFiles(String version) throws IOException {
+        String baseLocation = TEMPLATE_LOCATION + version + "/";
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<String, String> files = new TreeMap<>();
+        for (org.springframework.core.io.Resource resource : resolver.getResources("classpath*:" + baseLocation + "**/*")) {
+            if (!resource.isReadable()) {
+                // 目录
+                continue;
+            }
+            String url = resource.getURL().toString();
+            int index = url.lastIndexOf(baseLocation);
+            if (index < 0 || url.endsWith("/")) {
+                continue;
+            }
+            try (InputStream inputStream = resource.getInputStream()) {
+                files.put(url.substring(index + baseLocation.length()), IoUtil.read(inputStream, StandardCharsets.UTF_8));
+            }
+        }
+        return files;
+    }
+}
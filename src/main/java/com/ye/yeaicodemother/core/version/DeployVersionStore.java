@@ -0,0 +1,145 @@
+package com.ye.yeaicodemother.core.version;
+
+import cn.hutool.core.io.FileUtil;
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 部署目录版本存储
+ * <p>
+ * 部署同样使用版本目录 + 符号链接（见 {@link OutputVersionStore}），访问者始终看到某个完整的版本：
+ * 1. 新版本由当前线上版本硬链接克隆而来，再与源目录逐个文件比对，只写入内容变化的文件、删除源目录中已不存在的文件，
+ *    重新部署的磁盘写入量与改动量成正比；
+ * 2. 同步完成后原子切换 {deployKey} 符号链接，失败时丢弃新版本，线上版本不受影响；
+ * 3. 保留最近的若干版本，可以立即回滚到上一个版本。
+ * 已有的实体部署目录在首次重新部署时迁移为第一个版本。
+ * </p>
+ * <p>
+ * 部署目录由 nginx 直接对外提供：需要允许跟随符号链接（默认即允许），并禁止访问保留的历史版本：
+ * <pre>
+ * location ^~ /.versions/ {
+ *     deny all;
+ * }
+ * </pre>
+ * </p>
+ */
+@Slf4j
+public class DeployVersionStore {
+
+    private final OutputVersionStore versionStore;
+
+    private final ContentBlobStore blobStore;
+
+    public DeployVersionStore(Path deployRoot, ContentBlobStore blobStore) {
+        this(new OutputVersionStore(deployRoot), blobStore);
+    }
+
+    DeployVersionStore(OutputVersionStore versionStore, ContentBlobStore blobStore) {
+        this.versionStore = versionStore;
+        this.blobStore = blobStore;
+    }
+
+    /**
+     * 部署：把源目录同步到新版本并原子发布
+     *
+     * @param deployKey 部署标识
+     * @param sourceDir 要部署的目录
+     * @return 同步统计
+     */
+    public DeployStats deploy(String deployKey, Path sourceDir) throws IOException {
+        Path versionDir = versionStore.beginVersion(deployKey);
+        try {
+            DeployStats stats = sync(sourceDir, versionDir);
+            versionStore.publish(deployKey, versionDir);
+            log.info("部署完成: {}，写入 {} 个文件，复用 {} 个文件，删除 {} 个文件",
+                    deployKey, stats.written(), stats.unchanged(), stats.deleted());
+            return stats;
+        } catch (IOException | RuntimeException e) {
+            versionStore.discard(deployKey, versionDir);
+            throw e;
+        }
+    }
+
+    /**
+     * 回滚到上一个部署版本
+     *
+     * @param deployKey 部署标识
+     * @return 是否已回滚（没有更早的版本时返回 false）
+     */
+    public boolean rollback(String deployKey) throws IOException {
+        return versionStore.rollback(deployKey) != null;
+    }
+
+    /**
+     * 使目标目录与源目录一致：内容变化的文件经过去重写入，未变化的保留克隆出的硬链接，多余的文件删除
+     */
+    private DeployStats sync(Path sourceDir, Path targetDir) throws IOException {
+        Set<Path> sourceFiles = new HashSet<>();
+        int[] counts = new int[3];
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path target = targetDir.resolve(sourceDir.relativize(dir).toString());
+                if (Files.exists(target, LinkOption.NOFOLLOW_LINKS) && !Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                    // 原来的文件变成了同名目录
+                    Files.delete(target);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    Path relativePath = sourceDir.relativize(file);
+                    sourceFiles.add(relativePath);
+                    Path target = targetDir.resolve(relativePath.toString());
+                    if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                        // 原来的目录变成了同名文件
+                        FileUtil.del(target.toFile());
+                    }
+                    counts[blobStore.copyFileIfChanged(file, target) ? 0 : 1]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Files.walkFileTree(targetDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!sourceFiles.contains(targetDir.relativize(file))) {
+                    Files.delete(file);
+                    counts[2]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (!dir.equals(targetDir)) {
+                    try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                        if (!children.iterator().hasNext()) {
+                            Files.delete(dir);
+                        }
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return new DeployStats(counts[0], counts[1], counts[2]);
+    }
+
+    /**
+     * 部署同步统计
+     *
+     * @param written   写入（新增或内容变化）的文件数
+     * @param unchanged 内容未变化、直接复用上一版本的文件数
+     * @param deleted   删除的文件数
+     */
+    public record DeployStats(int written, int unchanged, int deleted) {
+    }
+}
@@ -0,0 +1,438 @@
+package com.ye.yeaicodemother.core.version;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.ye.yeaicodemother.utils.TempNameUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 生成目录版本存储
+ * <p>
+ * 每次生成都写入一个新的版本目录 .versions/{type}_{appId}/v{n}，新版本由上一个版本硬链接克隆而来，
+ * 生成完成后把 {type}_{appId} 这个符号链接原子地切换到新版本（current 指针）。
+ * 预览、构建和下载读取的始终是某个完整的版本，不会看到生成到一半的文件，也不需要与生成过程互斥。
+ * 克隆出的文件与旧版本共享 inode，因此写入版本目录的代码必须整体替换文件（如 {@link com.ye.yeaicodemother.core.blob.ContentBlobStore}），不能原地改写。
+ * 需要遍历目录的读取方应先通过 {@link #resolveCurrent(String)} 取得当前版本的真实路径。
+ * 平台不支持符号链接时退化为直接在 {type}_{appId} 目录中原地生成。
+ * </p>
+ */
+@Slf4j
+public class OutputVersionStore {
+
+    /**
+     * 保留的最近版本数量（不含当前版本）
+     */
+    private static final int DEFAULT_RETAINED_VERSIONS = 5;
+
+    /**
+     * 版本创建后至少保留的时间，避免删除仍在被构建或下载读取的旧版本
+     */
+    private static final Duration DEFAULT_MIN_RETAIN_TIME = Duration.ofMinutes(30);
+
+    private static final String VERSIONS_DIR_NAME = ".versions";
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("v(\\d+)");
+
+    /**
+     * 克隆时跳过的目录（构建产物，每个版本单独构建）
+     */
+    private static final String DIST_DIR_NAME = "dist";
+
+    /**
+     * 克隆时跳过的依赖目录：指向共享依赖的符号链接原样复制，单独安装的实体目录不逐个文件链接，由构建时重新准备
+     */
+    private static final String NODE_MODULES_DIR_NAME = "node_modules";
+
+    /**
+     * 锁分段数量，同一目录的版本操作串行执行
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path outputRoot;
+
+    private final Path versionsRoot;
+
+    private final int retainedVersions;
+
+    private final Duration minRetainTime;
+
+    /**
+     * 使用 ReentrantLock 而不是 synchronized：持锁期间会克隆目录、切换符号链接，synchronized 会钉住虚拟线程的载体线程
+     */
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * 发布监听器（入参为生成目录名称），用于失效按目录缓存的内容
+     */
+    private final List<Consumer<String>> publishListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 当前平台是否支持符号链接，首次失败后退化为原地生成
+     */
+    private volatile boolean symlinkSupported = true;
+
+    public OutputVersionStore(Path outputRoot) {
+        this(outputRoot, DEFAULT_RETAINED_VERSIONS, DEFAULT_MIN_RETAIN_TIME);
+    }
+
+    OutputVersionStore(Path outputRoot, int retainedVersions, Duration minRetainTime) {
+        this.outputRoot = outputRoot.toAbsolutePath().normalize();
+        this.versionsRoot = this.outputRoot.resolve(VERSIONS_DIR_NAME);
+        this.retainedVersions = retainedVersions;
+        this.minRetainTime = minRetainTime;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 注册发布监听器，目录内容被新版本替换（或原地生成完成）后调用
+     *
+     * @param listener 入参为生成目录名称，如 vue_project_1
+     */
+    public void addPublishListener(Consumer<String> listener) {
+        publishListeners.add(listener);
+    }
+
+    /**
+     * 获取当前版本的真实目录
+     *
+     * @param dirName 生成目录名称，如 vue_project_1
+     * @return 当前版本目录；尚未生成时返回 {type}_{appId} 路径本身（可能不存在）
+     */
+    public Path resolveCurrent(String dirName) {
+        Path pointer = outputRoot.resolve(dirName);
+        if (Files.isSymbolicLink(pointer)) {
+            try {
+                return pointer.toRealPath();
+            } catch (IOException e) {
+                log.warn("当前版本指针已失效: {}, 错误: {}", pointer, e.getMessage());
+            }
+        }
+        return pointer;
+    }
+
+    /**
+     * 开始一个新版本：分配版本号，并以硬链接克隆当前版本的内容
+     *
+     * @param dirName 生成目录名称
+     * @return 新版本目录，生成过程只写入该目录
+     */
+    public Path beginVersion(String dirName) throws IOException {
+        ReentrantLock lock = lockFor(dirName);
+        lock.lock();
+        try {
+            Path pointer = outputRoot.resolve(dirName);
+            if (!symlinkSupported || !migrateLegacyDir(dirName)) {
+                Files.createDirectories(pointer);
+                return pointer;
+            }
+            Path versionDir = allocateVersionDir(versionsRoot.resolve(dirName));
+            if (Files.isSymbolicLink(pointer)) {
+                cloneTree(pointer.toRealPath(), versionDir);
+            }
+            log.debug("开始生成新版本: {}", versionDir);
+            return versionDir;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 发布版本：原子地把 current 指针切换到该版本，并清理过期的旧版本
+     *
+     * @param dirName    生成目录名称
+     * @param versionDir {@link #beginVersion(String)} 返回的版本目录
+     */
+    public void publish(String dirName, Path versionDir) throws IOException {
+        Path pointer = outputRoot.resolve(dirName);
+        if (versionDir.equals(pointer)) {
+            // 原地生成，无需切换
+            notifyPublished(dirName);
+            return;
+        }
+        ReentrantLock lock = lockFor(dirName);
+        lock.lock();
+        try {
+            Path tempLink = outputRoot.resolve("." + dirName + "-" + IdUtil.fastSimpleUUID() + ".tmp");
+            try {
+                Files.createSymbolicLink(tempLink, outputRoot.relativize(versionDir));
+                Files.move(tempLink, pointer, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempLink);
+            }
+            log.info("已发布新版本: {} -> {}", dirName, versionDir.getFileName());
+            pruneVersions(dirName, versionDir);
+        } finally {
+            lock.unlock();
+        }
+        notifyPublished(dirName);
+    }
+
+    /**
+     * 仅当 current 指针仍指向 expectedCurrent 时发布版本
+     * <p>
+     * 用于由已发布版本派生出的后台构建：构建期间已有新一轮生成发布时放弃本次结果，不覆盖更新的版本。
+     * </p>
+     *
+     * @param dirName         生成目录名称
+     * @param versionDir      待发布的版本目录
+     * @param expectedCurrent 开始派生时的当前版本目录
+     * @return 是否已发布
+     */
+    public boolean publishIfCurrent(String dirName, Path versionDir, Path expectedCurrent) throws IOException {
+        ReentrantLock lock = lockFor(dirName);
+        lock.lock();
+        try {
+            if (!resolveCurrent(dirName).equals(expectedCurrent)) {
+                log.info("当前版本已变化，放弃发布: {} -> {}", dirName, versionDir.getFileName());
+                return false;
+            }
+            publish(dirName, versionDir);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 回滚：把 current 指针切换回上一个版本（版本号小于当前版本的最大版本）
+     *
+     * @param dirName 生成目录名称
+     * @return 切换到的版本目录；没有可回滚的版本时返回 null
+     */
+    public Path rollback(String dirName) throws IOException {
+        ReentrantLock lock = lockFor(dirName);
+        lock.lock();
+        try {
+            Path pointer = outputRoot.resolve(dirName);
+            if (!Files.isSymbolicLink(pointer)) {
+                return null;
+            }
+            Matcher currentMatcher = VERSION_PATTERN.matcher(pointer.toRealPath().getFileName().toString());
+            if (!currentMatcher.matches()) {
+                return null;
+            }
+            long currentNumber = Long.parseLong(currentMatcher.group(1));
+            VersionDir previous = listVersions(versionsRoot.resolve(dirName)).stream()
+                    .filter(version -> version.number() < currentNumber)
+                    .max(Comparator.comparingLong(VersionDir::number))
+                    .orElse(null);
+            if (previous == null) {
+                return null;
+            }
+            publish(dirName, previous.path());
+            log.info("已回滚版本: {} -> {}", dirName, previous.path().getFileName());
+            return previous.path();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把当前版本中的某个子目录沿用到未发布的版本（硬链接克隆），替换版本中已有的同名目录
+     * <p>
+     * 用于本轮生成出错或构建失败时保留上一次的构建产物，发布后预览不会因缺少 dist 而无法访问。
+     * </p>
+     *
+     * @param dirName    生成目录名称
+     * @param versionDir 未发布的版本目录
+     * @param childName  子目录名称，如 dist
+     * @return 是否已沿用（当前版本中没有该目录时返回 false）
+     */
+    public boolean carryForward(String dirName, Path versionDir, String childName) throws IOException {
+        Path current = resolveCurrent(dirName);
+        if (current.equals(outputRoot.resolve(dirName)) || versionDir.equals(current)) {
+            // 原地生成，没有可沿用的其他版本
+            return false;
+        }
+        Path source = current.resolve(childName);
+        if (!Files.isDirectory(source)) {
+            return false;
+        }
+        Path target = versionDir.resolve(childName);
+        FileUtil.del(target.toFile());
+        cloneTree(source, target);
+        log.info("已沿用上一版本的 {}: {} -> {}", childName, current.getFileName(), versionDir.getFileName());
+        return true;
+    }
+
+    /**
+     * 丢弃未发布的版本（生成失败时调用）
+     *
+     * @param dirName    生成目录名称
+     * @param versionDir 版本目录
+     */
+    public void discard(String dirName, Path versionDir) {
+        if (versionDir.equals(outputRoot.resolve(dirName)) || versionDir.equals(resolveCurrent(dirName))) {
+            return;
+        }
+        FileUtil.del(versionDir.toFile());
+        log.info("已丢弃未发布的版本: {}", versionDir);
+    }
+
+    /**
+     * 通知发布监听器，单个监听器失败不影响其他监听器
+     */
+    private void notifyPublished(String dirName) {
+        for (Consumer<String> listener : publishListeners) {
+            try {
+                listener.accept(dirName);
+            } catch (Exception e) {
+                log.error("发布监听器执行失败: {}", dirName, e);
+            }
+        }
+    }
+
+    /**
+     * 把旧的实体目录迁移为第一个版本
+     *
+     * @return 是否可以使用版本目录（false 表示退化为原地生成）
+     */
+    private boolean migrateLegacyDir(String dirName) throws IOException {
+        Path pointer = outputRoot.resolve(dirName);
+        if (Files.isSymbolicLink(pointer)) {
+            return true;
+        }
+        Path versionsDir = versionsRoot.resolve(dirName);
+        Files.createDirectories(versionsDir);
+        if (!Files.isDirectory(pointer)) {
+            return true;
+        }
+        Path firstVersion = allocateVersionDir(versionsDir);
+        Files.delete(firstVersion);
+        Files.move(pointer, firstVersion, StandardCopyOption.ATOMIC_MOVE);
+        try {
+            Files.createSymbolicLink(pointer, outputRoot.relativize(firstVersion));
+            log.info("已将生成目录迁移为版本目录: {} -> {}", dirName, firstVersion.getFileName());
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.move(firstVersion, pointer, StandardCopyOption.ATOMIC_MOVE);
+            symlinkSupported = false;
+            log.warn("当前平台不支持符号链接，生成目录将原地更新: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 分配下一个版本号并创建版本目录
+     */
+    private Path allocateVersionDir(Path versionsDir) throws IOException {
+        long next = listVersions(versionsDir).stream().mapToLong(VersionDir::number).max().orElse(0) + 1;
+        while (true) {
+            Path versionDir = versionsDir.resolve("v" + next);
+            try {
+                return Files.createDirectory(versionDir);
+            } catch (FileAlreadyExistsException e) {
+                next++;
+            }
+        }
+    }
+
+    /**
+     * 保留当前版本和最近的若干版本，其余创建时间超过保留时长的版本删除
+     */
+    private void pruneVersions(String dirName, Path currentVersion) {
+        try {
+            List<VersionDir> versions = listVersions(versionsRoot.resolve(dirName));
+            versions.sort(Comparator.comparingLong(VersionDir::number).reversed());
+            Instant expireBefore = Instant.now().minus(minRetainTime);
+            int kept = 0;
+            for (VersionDir version : versions) {
+                if (version.path().equals(currentVersion)) {
+                    continue;
+                }
+                if (kept < retainedVersions) {
+                    kept++;
+                    continue;
+                }
+                BasicFileAttributes attrs = Files.readAttributes(version.path(), BasicFileAttributes.class);
+                if (attrs.creationTime().toInstant().isBefore(expireBefore)) {
+                    FileUtil.del(version.path().toFile());
+                    log.debug("已清理旧版本: {}", version.path());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理旧版本失败: {}, 错误: {}", dirName, e.getMessage());
+        }
+    }
+
+    private List<VersionDir> listVersions(Path versionsDir) throws IOException {
+        List<VersionDir> versions = new ArrayList<>();
+        if (!Files.isDirectory(versionsDir)) {
+            return versions;
+        }
+        try (Stream<Path> children = Files.list(versionsDir)) {
+            children.forEach(child -> {
+                Matcher matcher = VERSION_PATTERN.matcher(child.getFileName().toString());
+                if (matcher.matches()) {
+                    versions.add(new VersionDir(Long.parseLong(matcher.group(1)), child));
+                }
+            });
+        }
+        return versions;
+    }
+
+    /**
+     * 以硬链接克隆目录：目录重建，符号链接原样复制，普通文件创建硬链接（失败时复制），跳过构建产物
+     */
+    private void cloneTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.getParent() != null && dir.getParent().equals(source)) {
+                    String name = dir.getFileName().toString();
+                    if (DIST_DIR_NAME.equals(name) || NODE_MODULES_DIR_NAME.equals(name)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                // 构建、打包过程中残留的临时目录（如 .dist-build-xxx）不属于版本内容
+                if (!dir.equals(source) && TempNameUtils.isTemporaryName(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (TempNameUtils.isTemporaryName(file.getFileName().toString())) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path targetFile = target.resolve(source.relativize(file).toString());
+                if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(targetFile, Files.readSymbolicLink(file));
+                } else if (attrs.isRegularFile()) {
+                    try {
+                        Files.createLink(targetFile, file);
+                    } catch (IOException | UnsupportedOperationException e) {
+                        Files.copy(file, targetFile, StandardCopyOption.COPY_ATTRIBUTES);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private ReentrantLock lockFor(String dirName) {
+        return locks[Math.floorMod(dirName.hashCode(), LOCK_STRIPES)];
+    }
+
+    private record VersionDir(long number, Path path) {
+    }
+}
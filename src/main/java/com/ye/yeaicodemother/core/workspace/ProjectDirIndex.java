@@ -0,0 +1,176 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import com.ye.yeaicodemother.core.builder.BuildManifest;
+import com.ye.yeaicodemother.utils.TempNameUtils;
+
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 项目目录索引
+ * <p>
+ * 以树结构维护工作区内的全部文件，由 {@link ProjectWorkspace} 在写入、删除文件时原地更新；
+ * 每个目录节点缓存自己渲染好的目录结构文本，文件变化时只让变化路径上的祖先节点重新渲染，
+ * 避免每次读取目录都遍历磁盘并排序。
+ * </p>
+ */
+public class ProjectDirIndex {
+
+    /**
+     * 目录结构中不展示的文件和目录
+     * <p>
+     * 顶层的构建产物目录（dist、build 等）在工作区扫描时已跳过，不会进入索引；
+     * 子目录中同名的目录（如 src/build）属于源码，需要展示。
+     * </p>
+     */
+    private static final Set<String> IGNORED_NAMES = Set.of(
+            "node_modules", ".git", ".DS_Store", ".env", BuildManifest.FILE_NAME
+    );
+
+    /**
+     * 目录结构中不展示的文件扩展名
+     */
+    private static final Set<String> IGNORED_EXTENSIONS = Set.of(
+            ".log", ".tmp", ".cache", ".lock"
+    );
+
+    private final DirNode root = new DirNode(null);
+
+    /**
+     * 添加文件
+     *
+     * @param path 以 / 分隔的相对路径
+     */
+    public void addFile(String path) {
+        String[] segments = path.split("/");
+        DirNode node = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            DirNode parent = node;
+            node = parent.dirs.computeIfAbsent(segments[i], name -> new DirNode(parent));
+        }
+        if (node.files.add(segments[segments.length - 1])) {
+            node.invalidate();
+        }
+    }
+
+    /**
+     * 删除文件，目录变为空时一并移除
+     *
+     * @param path 以 / 分隔的相对路径
+     */
+    public void removeFile(String path) {
+        String[] segments = path.split("/");
+        DirNode node = findDir(segments, segments.length - 1);
+        if (node == null || !node.files.remove(segments[segments.length - 1])) {
+            return;
+        }
+        node.invalidate();
+        // 自底向上移除空目录
+        for (int i = segments.length - 2; i >= 0 && node.parent != null && node.isEmpty(); i--) {
+            node.parent.dirs.remove(segments[i]);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * 判断目录是否存在（索引中至少包含一个文件）
+     *
+     * @param path 以 / 分隔的相对路径，空字符串表示根目录
+     */
+    public boolean isDirectory(String path) {
+        if (path.isEmpty()) {
+            return true;
+        }
+        String[] segments = path.split("/");
+        return findDir(segments, segments.length) != null;
+    }
+
+    /**
+     * 渲染目录结构：子目录以 / 结尾，每一层缩进两个空格，先目录后文件，按名称排序
+     *
+     * @param path 以 / 分隔的相对路径，空字符串表示根目录
+     * @return 目录结构文本，目录不存在时返回 null
+     */
+    public String render(String path) {
+        if (path.isEmpty()) {
+            return root.render();
+        }
+        String[] segments = path.split("/");
+        DirNode node = findDir(segments, segments.length);
+        return node == null ? null : node.render();
+    }
+
+    private DirNode findDir(String[] segments, int length) {
+        DirNode node = root;
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.dirs.get(segments[i]);
+        }
+        return node;
+    }
+
+    private static boolean shouldIgnore(String name) {
+        if (IGNORED_NAMES.contains(name) || TempNameUtils.isTemporaryName(name)) {
+            return true;
+        }
+        return IGNORED_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    /**
+     * 目录节点
+     */
+    private static class DirNode {
+
+        private final DirNode parent;
+
+        private final TreeMap<String, DirNode> dirs = new TreeMap<>();
+
+        private final TreeSet<String> files = new TreeSet<>();
+
+        /**
+         * 渲染结果缓存，null 表示需要重新渲染
+         */
+        private String rendered;
+
+        private DirNode(DirNode parent) {
+            this.parent = parent;
+        }
+
+        private boolean isEmpty() {
+            return dirs.isEmpty() && files.isEmpty();
+        }
+
+        /**
+         * 让当前节点及所有祖先节点的渲染缓存失效
+         */
+        private void invalidate() {
+            for (DirNode node = this; node != null; node = node.parent) {
+                node.rendered = null;
+            }
+        }
+
+        private String render() {
+            if (rendered != null) {
+                return rendered;
+            }
+            StringBuilder builder = new StringBuilder();
+            dirs.forEach((name, child) -> {
+                if (shouldIgnore(name)) {
+                    return;
+                }
+                builder.append(name).append("/\n");
+                String childRendered = child.render();
+                if (!childRendered.isEmpty()) {
+                    builder.append(childRendered.indent(2));
+                }
+            });
+            for (String name : files) {
+                if (!shouldIgnore(name)) {
+                    builder.append(name).append('\n');
+                }
+            }
+            rendered = builder.toString();
+            return rendered;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import com.ye.yeaicodemother.utils.TempNameUtils;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * 单个应用的 Vue 项目内存工作区
+ * <p>
+ * 打开时只扫描项目的文件路径（跳过 node_modules、dist 等目录），文件内容在首次读取时才加载；
+ * 写入和删除先记录在内存中并标记为脏，调用 {@link #flush()} 时统一写回磁盘。
+ * 本类不是线程安全的，由 {@link ProjectWorkspaceManager} 按应用加锁后访问。
+ * </p>
+ */
+public class ProjectWorkspace {
+
+    /**
+     * 扫描时在任意层级都整体跳过的目录（依赖、版本库），嵌套的 node_modules 同样不属于项目源码
+     */
+    private static final Set<String> SKIPPED_DIR_NAMES = Set.of("node_modules", ".git");
+
+    /**
+     * 扫描时仅在项目根目录下跳过的目录（构建产物、工具配置等）。子目录中同名的目录（如 src/build）属于源码
+     */
+    private static final Set<String> SKIPPED_TOP_LEVEL_DIR_NAMES = Set.of(
+            "dist", "build", "target", ".mvn", ".idea", ".vscode", "coverage"
+    );
+
+    /**
+     * 每个文件路径在内存中的估算开销（字节）
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    /**
+     * 项目根目录（当前写入的版本目录）
+     */
+    @Getter
+    private Path root;
+
+    /**
+     * 单个文件缓存到内存的最大字节数
+     */
+    private final int maxCachedFileBytes;
+
+    /**
+     * 相对路径（以 / 分隔） -> 文件条目，按路径排序
+     */
+    private final TreeMap<String, WorkspaceFile> files = new TreeMap<>();
+
+    /**
+     * 已删除但尚未写回磁盘的文件
+     */
+    private final Set<String> deletedPaths = new HashSet<>();
+
+    /**
+     * 目录索引，随文件写入、删除原地更新
+     */
+    private final ProjectDirIndex dirIndex = new ProjectDirIndex();
+
+    /**
+     * 本轮对话中的读取记录：读取方式（路径 + 范围） -> 返回内容的哈希
+     */
+    private final Map<String, String> turnReadHashes = new HashMap<>();
+
+    /**
+     * 当前缓存的文件内容字节数
+     */
+    private long cachedBytes;
+
+    /**
+     * 工作区版本号，文件内容发生实际变化（写入不同内容或删除）时递增
+     */
+    @Getter
+    private long version;
+
+    private ProjectWorkspace(Path root, int maxCachedFileBytes) {
+        this.root = root;
+        this.maxCachedFileBytes = maxCachedFileBytes;
+    }
+
+    /**
+     * 打开项目工作区，扫描磁盘上已有的文件路径
+     *
+     * @param root               项目根目录（可以尚不存在）
+     * @param maxCachedFileBytes 单个文件缓存到内存的最大字节数
+     * @return 工作区
+     */
+    public static ProjectWorkspace open(Path root, int maxCachedFileBytes) throws IOException {
+        ProjectWorkspace workspace = new ProjectWorkspace(root, maxCachedFileBytes);
+        if (!Files.isDirectory(root)) {
+            return workspace;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(root)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String name = dir.getFileName().toString();
+                if (isSkippedDirName(name, dir.getParent().equals(root)) || TempNameUtils.isTemporaryName(name)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !TempNameUtils.isTemporaryName(file.getFileName().toString())) {
+                    String path = toRelativePath(root, file);
+                    workspace.files.put(path, new WorkspaceFile());
+                    workspace.dirIndex.addFile(path);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return workspace;
+    }
+
+    /**
+     * 切换工作区对应的磁盘目录，之后的读取和写回都在新目录中进行
+     * <p>
+     * 新目录须是原目录内容的副本（如由上一版本克隆的新版本），且切换前应已写回所有修改。
+     * </p>
+     *
+     * @param newRoot 新的项目根目录
+     */
+    public void rebase(Path newRoot) {
+        this.root = newRoot;
+    }
+
+    /**
+     * 将工具传入的路径规范化为项目内的相对路径
+     *
+     * @param root         项目根目录
+     * @param relativePath 工具传入的路径（相对路径，或项目目录内的绝对路径）
+     * @return 以 / 分隔的相对路径，根目录返回空字符串；路径超出项目目录时返回 null
+     */
+    public static String normalizePath(Path root, String relativePath) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        Path path = normalizedRoot.resolve(relativePath == null ? "" : relativePath.trim()).normalize();
+        if (!path.startsWith(normalizedRoot)) {
+            return null;
+        }
+        return toRelativePath(normalizedRoot, path);
+    }
+
+    private static String toRelativePath(Path root, Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * 判断文件是否存在
+     */
+    public boolean isFile(String path) {
+        if (files.containsKey(path)) {
+            return true;
+        }
+        // 被跳过目录中的文件不在索引内，直接检查磁盘
+        return !deletedPaths.contains(path) && isInSkippedDir(path) && Files.isRegularFile(root.resolve(path));
+    }
+
+    /**
+     * 判断目录是否存在（包含未写回磁盘的文件所在目录）
+     */
+    public boolean isDirectory(String path) {
+        return dirIndex.isDirectory(path) || Files.isDirectory(root.resolve(path));
+    }
+
+    /**
+     * 读取文件内容
+     *
+     * @param path 相对路径
+     * @return 文件内容，文件不存在时返回 null
+     */
+    public String read(String path) throws IOException {
+        WorkspaceFile file = files.get(path);
+        if (file == null) {
+            if (isFile(path)) {
+                return Files.readString(root.resolve(path));
+            }
+            return null;
+        }
+        if (file.content != null) {
+            return file.content;
+        }
+        Path diskPath = root.resolve(path);
+        if (!Files.isRegularFile(diskPath)) {
+            // 磁盘上的文件在工作区打开后被外部删除
+            files.remove(path);
+            dirIndex.removeFile(path);
+            return null;
+        }
+        String content = Files.readString(diskPath);
+        cache(file, content);
+        return content;
+    }
+
+    /**
+     * 写入文件内容（仅写入内存，超出缓存上限的大文件直接写回磁盘）
+     */
+    public void write(String path, String content) throws IOException {
+        // 写入与现有内容完全相同的内容不算作变化（内容未缓存时与磁盘上的内容比较），也无需重写文件
+        if (isUnchanged(path, content)) {
+            return;
+        }
+        WorkspaceFile file = track(path);
+        int size = content.getBytes(StandardCharsets.UTF_8).length;
+        if (size > maxCachedFileBytes) {
+            writeToDisk(path, content);
+            file.dirty = false;
+            return;
+        }
+        holdDirty(file, content, size);
+    }
+
+    /**
+     * 批量写入文件：全部只写入内存，要么全部生效，要么全部不生效
+     * <p>
+     * 先完成所有可能失败的磁盘读取（与现有内容比较），再统一修改内存状态；
+     * 超出缓存上限的大文件也暂存在内存中，不会在批量写入中途写回磁盘，flush 写回后再释放。
+     * </p>
+     *
+     * @param contents 相对路径 -> 文件内容
+     */
+    public void writeAll(Map<String, String> contents) throws IOException {
+        Map<String, String> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            if (!isUnchanged(entry.getKey(), entry.getValue())) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        changed.forEach((path, content) ->
+                holdDirty(track(path), content, content.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    /**
+     * 删除文件（仅记录在内存中）
+     *
+     * @return 文件是否存在
+     */
+    public boolean delete(String path) {
+        if (!isFile(path)) {
+            return false;
+        }
+        WorkspaceFile file = files.remove(path);
+        if (file != null) {
+            uncache(file);
+            dirIndex.removeFile(path);
+        }
+        deletedPaths.add(path);
+        version++;
+        return true;
+    }
+
+    /**
+     * 列出目录下的全部文件（不含被跳过的目录）
+     *
+     * @param dirPath 目录相对路径，空字符串表示项目根目录
+     * @return 按路径排序的文件相对路径（相对于项目根目录）
+     */
+    public List<String> listFiles(String dirPath) {
+        if (dirPath.isEmpty()) {
+            return new ArrayList<>(files.keySet());
+        }
+        String prefix = dirPath + "/";
+        // '/' 的下一个字符是 '0'，得到前缀范围的上界
+        return new ArrayList<>(files.subMap(prefix, dirPath + "0").keySet());
+    }
+
+    /**
+     * 渲染目录结构（不含被跳过的目录和不展示的文件）
+     *
+     * @param dirPath 目录相对路径，空字符串表示项目根目录
+     * @return 目录结构文本，目录不存在时返回 null
+     */
+    public String renderDir(String dirPath) {
+        String rendered = dirIndex.render(dirPath);
+        if (rendered == null && isDirectory(dirPath)) {
+            // 磁盘上的空目录或被跳过的目录
+            return "";
+        }
+        return rendered;
+    }
+
+    /**
+     * 记录本轮对话中的一次读取
+     *
+     * @param readKey     读取方式（路径 + 范围）
+     * @param contentHash 返回内容的哈希
+     * @return 本轮对话中以相同方式读取过且内容未变化时返回 true
+     */
+    public boolean recordRead(String readKey, String contentHash) {
+        return contentHash.equals(turnReadHashes.put(readKey, contentHash));
+    }
+
+    /**
+     * 清空读取记录（新一轮对话开始时调用）
+     */
+    public void clearReadRecords() {
+        turnReadHashes.clear();
+    }
+
+    /**
+     * 是否存在未写回磁盘的修改
+     */
+    public boolean isDirty() {
+        if (!deletedPaths.isEmpty()) {
+            return true;
+        }
+        return files.values().stream().anyMatch(file -> file.dirty);
+    }
+
+    /**
+     * 将未落盘的修改写回磁盘
+     * 每个文件先写入同目录的临时文件再原子替换，构建进程不会读到写了一半的文件
+     */
+    public void flush() throws IOException {
+        for (String path : deletedPaths) {
+            Files.deleteIfExists(root.resolve(path));
+        }
+        deletedPaths.clear();
+        for (Map.Entry<String, WorkspaceFile> entry : files.entrySet()) {
+            WorkspaceFile file = entry.getValue();
+            if (file.dirty) {
+                writeToDisk(entry.getKey(), file.content);
+                file.dirty = false;
+                // 批量写入暂存的大文件写回后不再占用内存
+                if (file.size > maxCachedFileBytes) {
+                    uncache(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 估算工作区占用的内存字节数，用于 LRU 淘汰
+     */
+    public long weight() {
+        return cachedBytes + (long) files.size() * ENTRY_OVERHEAD_BYTES;
+    }
+
+    private void writeToDisk(String path, String content) throws IOException {
+        // 经内容寻址存储写入：已有相同内容时只创建硬链接，目标文件始终原子替换
+        ContentBlobStore.getDefault().writeString(root.resolve(path), content);
+    }
+
+    private boolean isUnchanged(String path, String content) throws IOException {
+        return files.containsKey(path) && content.equals(read(path));
+    }
+
+    /**
+     * 记录一次文件内容变化，返回（必要时新建的）文件条目
+     */
+    private WorkspaceFile track(String path) {
+        version++;
+        deletedPaths.remove(path);
+        WorkspaceFile file = files.computeIfAbsent(path, key -> {
+            dirIndex.addFile(key);
+            return new WorkspaceFile();
+        });
+        uncache(file);
+        return file;
+    }
+
+    private void holdDirty(WorkspaceFile file, String content, int size) {
+        file.content = content;
+        file.size = size;
+        file.dirty = true;
+        cachedBytes += size;
+    }
+
+    private void cache(WorkspaceFile file, String content) {
+        int size = content.getBytes(StandardCharsets.UTF_8).length;
+        if (size > maxCachedFileBytes) {
+            return;
+        }
+        file.content = content;
+        file.size = size;
+        cachedBytes += size;
+    }
+
+    private void uncache(WorkspaceFile file) {
+        if (file.content != null) {
+            cachedBytes -= file.size;
+            file.content = null;
+            file.size = 0;
+        }
+    }
+
+    private boolean isInSkippedDir(String path) {
+        String[] segments = path.split("/");
+        // 最后一段是文件名，只检查其所在的各级目录
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (isSkippedDirName(segments[i], i == 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断目录是否在扫描时跳过
+     *
+     * @param name     目录名称
+     * @param topLevel 是否为项目根目录下的直接子目录
+     */
+    private static boolean isSkippedDirName(String name, boolean topLevel) {
+        return SKIPPED_DIR_NAMES.contains(name) || topLevel && SKIPPED_TOP_LEVEL_DIR_NAMES.contains(name);
+    }
+
+    /**
+     * 工作区中的文件条目
+     */
+    private static class WorkspaceFile {
+
+        /**
+         * 文件内容，null 表示尚未加载或未缓存
+         */
+        private String content;
+
+        /**
+         * 缓存内容的字节数
+         */
+        private int size;
+
+        /**
+         * 是否有未写回磁盘的修改
+         */
+        private boolean dirty;
+    }
+}
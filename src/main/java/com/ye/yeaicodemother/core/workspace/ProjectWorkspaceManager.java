@@ -0,0 +1,369 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ye.yeaicodemother.config.ProjectWorkspaceProperties;
+import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vue 项目内存工作区管理器
+ * <p>
+ * 文件工具（读取、写入、修改、删除、目录读取）共享同一个按 appId 划分的 {@link ProjectWorkspace}，
+ * 工具调用期间的读写都在内存中完成，在对话结束或构建前通过 {@link #flush(Long)} 统一写回 vue_project_{appId} 目录。
+ * 工作区按内容字节数做 LRU 淘汰，被淘汰的工作区如有未落盘的修改，会在后台写回磁盘。
+ * 每轮对话通过 {@link #beginVersion(Long)} 在新的版本目录中进行，对话结束后由 {@link #publishVersion(Long)} 原子发布，
+ * 预览和构建读取的当前版本不会看到生成到一半的文件。
+ * </p>
+ */
+@Component
+@Slf4j
+public class ProjectWorkspaceManager {
+
+    /**
+     * 锁分段数量，同一应用的所有工作区操作串行执行
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    @Resource
+    private ProjectWorkspaceProperties workspaceProperties;
+
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
+    @Resource
+    private OutputVersionStore outputVersionStore;
+
+    /**
+     * 使用 ReentrantLock 而不是 synchronized：写回磁盘期间持有锁，synchronized 会钉住虚拟线程的载体线程
+     */
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * 已被淘汰、等待后台写回磁盘的工作区；写回前再次访问时直接复用，避免读到磁盘上的旧内容
+     */
+    private final Map<Long, ProjectWorkspace> evictedWorkspaces = new ConcurrentHashMap<>();
+
+    /**
+     * 正在生成、尚未发布的版本目录
+     */
+    private final Map<Long, Path> activeVersions = new ConcurrentHashMap<>();
+
+    private Cache<Long, ProjectWorkspace> workspaceCache;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        workspaceCache = Caffeine.newBuilder()
+                .maximumWeight(workspaceProperties.getMaxTotalBytes())
+                .weigher((Long appId, ProjectWorkspace workspace) -> (int) Math.min(Integer.MAX_VALUE, workspace.weight()))
+                .expireAfterAccess(Duration.ofMinutes(workspaceProperties.getExpireAfterAccessMinutes()))
+                // 淘汰监听器在缓存内部同步执行且不持有应用锁，这里只做登记，写回磁盘交给后台的移除监听器
+                .evictionListener((Long appId, ProjectWorkspace workspace, RemovalCause cause) -> {
+                    if (appId != null && workspace != null) {
+                        evictedWorkspaces.put(appId, workspace);
+                    }
+                })
+                .removalListener((Long appId, ProjectWorkspace workspace, RemovalCause cause) -> {
+                    if (appId != null && cause.wasEvicted()) {
+                        log.debug("项目工作区被淘汰，appId: {}, 原因: {}", appId, cause);
+                        flushEvicted(appId);
+                    }
+                })
+                .build();
+        // 应用的缓存失效时（如对话历史被删除或压缩），写回并丢弃本节点的工作区
+        appCacheInvalidationManager.registerListener(this::discard);
+    }
+
+    /**
+     * 获取应用的 Vue 项目目录名称（即当前版本指针）
+     */
+    public String getProjectDirName(Long appId) {
+        return "vue_project_" + appId;
+    }
+
+    /**
+     * 获取应用的 Vue 项目根目录：正在生成时为未发布的版本目录，否则为当前版本目录
+     */
+    public Path getProjectRoot(Long appId) {
+        Path activeVersion = activeVersions.get(appId);
+        if (activeVersion != null) {
+            return activeVersion;
+        }
+        return outputVersionStore.resolveCurrent(getProjectDirName(appId));
+    }
+
+    /**
+     * 将工具传入的路径规范化为项目内的相对路径
+     * <p>
+     * 以固定的 vue_project_{appId} 路径为基准，与当前写入的是哪个版本无关。
+     * </p>
+     *
+     * @return 以 / 分隔的相对路径，路径超出项目目录时返回 null
+     */
+    public String normalizePath(Long appId, String relativePath) {
+        Path projectDir = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, getProjectDirName(appId)).toAbsolutePath().normalize();
+        return ProjectWorkspace.normalizePath(projectDir, relativePath);
+    }
+
+    /**
+     * 开始新一轮生成：由当前版本克隆出新的版本目录，本轮的写入都写回该目录
+     * <p>
+     * 同一应用已有未发布的版本时（如上一轮对话被中断），继续使用该版本。
+     * </p>
+     *
+     * @param appId 应用 ID
+     * @return 本轮写入的版本目录
+     */
+    public Path beginVersion(Long appId) throws IOException {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            Path activeVersion = activeVersions.get(appId);
+            if (activeVersion != null) {
+                return activeVersion;
+            }
+            // 先把上一轮遗留的修改写回当前版本，新版本才能克隆到完整内容
+            flush(appId);
+            Path versionDir = outputVersionStore.beginVersion(getProjectDirName(appId));
+            activeVersions.put(appId, versionDir);
+            ProjectWorkspace workspace = workspaceCache.getIfPresent(appId);
+            if (workspace != null) {
+                workspace.rebase(versionDir);
+            }
+            return versionDir;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 本轮生成结束：写回工作区并把版本目录原子发布为当前版本
+     *
+     * @param appId 应用 ID
+     */
+    public void publishVersion(Long appId) {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            Path versionDir = activeVersions.get(appId);
+            if (versionDir == null) {
+                return;
+            }
+            flush(appId);
+            activeVersions.remove(appId);
+            try {
+                outputVersionStore.publish(getProjectDirName(appId), versionDir);
+            } catch (IOException e) {
+                log.error("发布项目版本失败，appId: {}, 版本: {}", appId, versionDir, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把当前版本的构建产物（dist）沿用到本轮未发布的版本
+     * <p>
+     * 本轮出错或构建失败时在发布前调用：新版本克隆时不含 dist，直接发布会让预览无法访问，
+     * 沿用后预览仍显示上一次成功的构建结果，源码中本轮已写入的修改照常保留。
+     * </p>
+     *
+     * @param appId 应用 ID
+     */
+    public void carryDistForward(Long appId) {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            Path versionDir = activeVersions.get(appId);
+            if (versionDir == null) {
+                return;
+            }
+            outputVersionStore.carryForward(getProjectDirName(appId), versionDir, "dist");
+        } catch (IOException e) {
+            log.error("沿用上一版本的构建产物失败，appId: {}", appId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在应用的工作区上执行操作（同一应用的操作串行执行）
+     *
+     * @param appId  应用 ID
+     * @param action 工作区操作
+     * @return 操作结果
+     */
+    public <T> T execute(Long appId, WorkspaceAction<T> action) throws IOException {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            ProjectWorkspace workspace;
+            try {
+                workspace = getOrOpen(appId);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            T result = action.apply(workspace);
+            // 工作区内容变化后重新登记，刷新 LRU 权重；若操作期间已被淘汰，则立即写回磁盘
+            if (!workspaceCache.asMap().replace(appId, workspace, workspace) && workspace.isDirty()) {
+                evictedWorkspaces.remove(appId, workspace);
+                workspace.flush();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取应用工作区的版本号（文件内容每次实际变化时递增）
+     *
+     * @param appId 应用 ID
+     * @return 版本号
+     */
+    public long getVersion(Long appId) throws IOException {
+        return execute(appId, ProjectWorkspace::getVersion);
+    }
+
+    /**
+     * 将应用工作区中未落盘的修改写回磁盘（对话结束或构建前调用）
+     *
+     * @param appId 应用 ID
+     */
+    public void flush(Long appId) {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            try {
+                ProjectWorkspace evicted = evictedWorkspaces.remove(appId);
+                if (evicted != null && evicted.isDirty()) {
+                    evicted.flush();
+                }
+                ProjectWorkspace workspace = workspaceCache.getIfPresent(appId);
+                if (workspace != null && workspace.isDirty()) {
+                    workspace.flush();
+                    log.info("项目工作区已写回磁盘，appId: {}", appId);
+                }
+            } catch (IOException e) {
+                log.error("项目工作区写回磁盘失败，appId: {}", appId, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 新一轮对话开始，清空工作区中上一轮的读取记录
+     *
+     * @param appId 应用 ID
+     */
+    public void beginTurn(Long appId) {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            ProjectWorkspace workspace = workspaceCache.getIfPresent(appId);
+            if (workspace != null) {
+                workspace.clearReadRecords();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 丢弃应用的工作区，下次访问时重新从磁盘加载
+     * <p>
+     * 丢弃前先写回未落盘的修改；本节点正在生成（有未发布的版本）时跳过，
+     * 避免对话中途触发的失效（如后台的对话压缩）丢掉本轮已经写入工作区的文件。
+     * </p>
+     *
+     * @param appId 应用 ID
+     */
+    public void discard(Long appId) {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            if (activeVersions.containsKey(appId)) {
+                log.debug("应用正在生成，跳过丢弃项目工作区，appId: {}", appId);
+                return;
+            }
+            flush(appId);
+            ProjectWorkspace workspace = workspaceCache.getIfPresent(appId);
+            if (workspace != null && workspace.isDirty()) {
+                log.warn("项目工作区写回失败，暂不丢弃，appId: {}", appId);
+                return;
+            }
+            evictedWorkspaces.remove(appId);
+            workspaceCache.invalidate(appId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProjectWorkspace getOrOpen(Long appId) {
+        return workspaceCache.get(appId, key -> {
+            ProjectWorkspace evicted = evictedWorkspaces.remove(key);
+            if (evicted != null) {
+                return evicted;
+            }
+            try {
+                return ProjectWorkspace.open(getProjectRoot(key), workspaceProperties.getMaxCachedFileBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("打开项目工作区失败: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 写回被淘汰的工作区；写回前若已被重新访问，则由新的访问者接管
+     */
+    private void flushEvicted(Long appId) {
+        ReentrantLock lock = lockFor(appId);
+        lock.lock();
+        try {
+            ProjectWorkspace workspace = evictedWorkspaces.remove(appId);
+            if (workspace == null || !workspace.isDirty()) {
+                return;
+            }
+            try {
+                workspace.flush();
+                log.info("被淘汰的项目工作区已写回磁盘，appId: {}", appId);
+            } catch (IOException e) {
+                log.error("被淘汰的项目工作区写回磁盘失败，appId: {}", appId, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(Long appId) {
+        return locks[Math.floorMod(appId.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * 工作区操作
+     */
+    @FunctionalInterface
+    public interface WorkspaceAction<T> {
+
+        T apply(ProjectWorkspace workspace) throws IOException;
+    }
+}
@@ -0,0 +1,249 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.ye.yeaicodemother.ai.model.message.ToolStreamingMessage;
+import com.ye.yeaicodemother.ai.tools.ToolLoopSupervisor;
+import com.ye.yeaicodemother.core.parser.PartialJsonArgumentsParser;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecution;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 文件流式写入器（每次对话一个实例）
+ * <p>
+ * writeFile 工具的参数以大量片段的形式流式到达，本类通过 {@link PartialJsonArgumentsParser} 增量解析参数，
+ * 在识别出 relativeFilePath 后，把正在生成的 content 边生成边写入项目工作区，并产出推送给前端的增量预览。
+ * 工具真正执行后，以完整参数为准校验最终写入结果；工具执行失败或对话中断时，恢复文件原有内容。
+ * </p>
+ */
+@Slf4j
+public class StreamingFileWriter {
+
+    /**
+     * 支持流式写入的工具名称
+     */
+    private static final String WRITE_FILE_TOOL_NAME = "writeFile";
+
+    private static final String PATH_KEY = "relativeFilePath";
+
+    private static final String CONTENT_KEY = "content";
+
+    /**
+     * 内容每增长多少字符写入一次工作区，避免每个片段都重写整个文件
+     */
+    private static final int WRITE_THRESHOLD_CHARS = 2048;
+
+    private final ProjectWorkspaceManager projectWorkspaceManager;
+
+    private final Long appId;
+
+    /**
+     * 工具调用 ID -> 流式写入会话
+     * <p>
+     * 工具调用序号在模型的每次回复中都从 0 开始，不能跨回复区分工具调用，因此以工具调用 ID 为键。
+     * </p>
+     */
+    private final Map<String, StreamingSession> sessions = new HashMap<>();
+
+    public StreamingFileWriter(ProjectWorkspaceManager projectWorkspaceManager, Long appId) {
+        this.projectWorkspaceManager = projectWorkspaceManager;
+        this.appId = appId;
+    }
+
+    /**
+     * 处理工具调用参数片段
+     *
+     * @param index   工具调用在本次回复中的序号（仅在模型未返回工具调用 ID 时用于区分会话）
+     * @param request 工具调用请求（arguments 为本次新增的参数片段）
+     * @return 推送给前端的文件内容增量，无新增内容时返回 null
+     */
+    public synchronized ToolStreamingMessage onPartialRequest(int index, ToolExecutionRequest request) {
+        if (!WRITE_FILE_TOOL_NAME.equals(request.name())) {
+            return null;
+        }
+        StreamingSession session = sessions.computeIfAbsent(sessionKey(index, request), key -> new StreamingSession());
+        if (session.id == null) {
+            session.id = request.id();
+        }
+        if (session.failed) {
+            return null;
+        }
+        session.parser.feed(request.arguments());
+        // 1. 文件路径完整后才开始写入，记录文件原有内容用于回滚
+        if (session.filePath == null) {
+            String relativeFilePath = session.parser.getCompletedString(PATH_KEY);
+            if (relativeFilePath == null) {
+                return null;
+            }
+            if (!startSession(session, relativeFilePath)) {
+                return null;
+            }
+        }
+        // 2. 按阈值把已生成的内容写入工作区
+        int contentLength = session.parser.getStringLength(CONTENT_KEY);
+        if (contentLength - session.writtenLength >= WRITE_THRESHOLD_CHARS) {
+            writePartial(session);
+        }
+        // 3. 产出前端预览增量
+        if (contentLength <= session.emittedLength) {
+            return null;
+        }
+        String delta = session.parser.getStringFrom(CONTENT_KEY, session.emittedLength);
+        session.emittedLength = contentLength;
+        return new ToolStreamingMessage(session.id, request.name(), session.relativeFilePath, delta);
+    }
+
+    /**
+     * 工具执行完成后，以完整参数为准校验文件内容
+     *
+     * @param toolExecution 工具执行结果
+     */
+    public synchronized void onToolExecuted(ToolExecution toolExecution) {
+        ToolExecutionRequest request = toolExecution.request();
+        StreamingSession session = request.id() == null ? null : sessions.remove(request.id());
+        if (session == null || session.filePath == null) {
+            return;
+        }
+        JSONObject arguments = JSONUtil.parseObj(request.arguments());
+        String expectedContent = arguments.getStr(CONTENT_KEY);
+        String streamedContent = session.parser.getString(CONTENT_KEY);
+        if (!StrUtil.equals(expectedContent, streamedContent)) {
+            log.warn("流式解析的文件内容与完整参数不一致，以完整参数为准, appId: {}, 文件: {}", appId, session.relativeFilePath);
+        }
+        // 以工具本身的执行结果为准：重复调用取缓存的原始结果，被强制结束而未执行的调用视为失败
+        String result = ToolLoopSupervisor.originalResult(toolExecution.result());
+        try {
+            projectWorkspaceManager.execute(appId, workspace -> {
+                if (!StrUtil.startWith(result, "文件写入成功")) {
+                    // 工具未执行或执行失败，恢复文件原有内容
+                    restore(workspace, session);
+                    return null;
+                }
+                if (!StrUtil.equals(workspace.read(session.filePath), expectedContent) && expectedContent != null) {
+                    log.warn("文件最终内容校验失败，重新写入, appId: {}, 文件: {}", appId, session.relativeFilePath);
+                    workspace.write(session.filePath, expectedContent);
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            log.error("校验流式写入的文件失败, appId: {}, 文件: {}", appId, session.relativeFilePath, e);
+        }
+    }
+
+    /**
+     * 回滚所有未执行完成的流式写入（对话出错或中断时调用，须在工作区写回磁盘之前执行）
+     */
+    public synchronized void rollbackPending() {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        try {
+            projectWorkspaceManager.execute(appId, workspace -> {
+                for (StreamingSession session : sessions.values()) {
+                    if (session.filePath != null && session.writtenLength > 0) {
+                        log.info("回滚未完成的流式写入, appId: {}, 文件: {}", appId, session.relativeFilePath);
+                        restore(workspace, session);
+                    }
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            log.error("回滚流式写入失败, appId: {}", appId, e);
+        }
+        sessions.clear();
+    }
+
+    /**
+     * 识别出文件路径后，校验路径并记录文件原有内容
+     *
+     * @return 是否可以开始流式写入
+     */
+    private boolean startSession(StreamingSession session, String relativeFilePath) {
+        String filePath = projectWorkspaceManager.normalizePath(appId, relativeFilePath);
+        if (StrUtil.isEmpty(filePath)) {
+            // 路径不合法，交给工具本身报错
+            session.failed = true;
+            return false;
+        }
+        try {
+            session.originalContent = projectWorkspaceManager.execute(appId, workspace -> workspace.read(filePath));
+        } catch (IOException e) {
+            log.warn("读取文件原有内容失败，不进行流式写入, appId: {}, 文件: {}", appId, relativeFilePath, e);
+            session.failed = true;
+            return false;
+        }
+        session.filePath = filePath;
+        session.relativeFilePath = relativeFilePath;
+        return true;
+    }
+
+    private void writePartial(StreamingSession session) {
+        String content = session.parser.getString(CONTENT_KEY);
+        if (session.originalContent != null && session.originalContent.startsWith(content)) {
+            // 模型正在重写与原文件相同的内容，无需写入半截文件，也不会改变工作区版本
+            session.writtenLength = content.length();
+            return;
+        }
+        try {
+            projectWorkspaceManager.execute(appId, workspace -> {
+                workspace.write(session.filePath, content);
+                return null;
+            });
+            session.writtenLength = content.length();
+        } catch (IOException e) {
+            log.warn("流式写入文件失败，等待工具执行时写入, appId: {}, 文件: {}", appId, session.relativeFilePath, e);
+        }
+    }
+
+    private void restore(ProjectWorkspace workspace, StreamingSession session) throws IOException {
+        if (session.originalContent == null) {
+            workspace.delete(session.filePath);
+        } else {
+            workspace.write(session.filePath, session.originalContent);
+        }
+    }
+
+    /**
+     * 会话键：优先使用工具调用 ID；模型未返回 ID 时退化为序号（这类会话无法与执行结果对应，只会在回滚时处理）
+     */
+    private static String sessionKey(int index, ToolExecutionRequest request) {
+        return request.id() != null ? request.id() : "#" + index;
+    }
+
+    /**
+     * 单个工具调用的流式写入状态
+     */
+    private static class StreamingSession {
+
+        private final PartialJsonArgumentsParser parser = new PartialJsonArgumentsParser();
+
+        private String id;
+
+        private String relativeFilePath;
+
+        private String filePath;
+
+        /**
+         * 文件原有内容，文件原本不存在时为 null
+         */
+        private String originalContent;
+
+        /**
+         * 已写入工作区的内容长度
+         */
+        private int writtenLength;
+
+        /**
+         * 已推送给前端的内容长度
+         */
+        private int emittedLength;
+
+        private boolean failed;
+    }
+}
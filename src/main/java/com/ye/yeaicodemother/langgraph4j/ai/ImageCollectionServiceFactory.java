@@ -1,5 +1,6 @@
 package com.ye.yeaicodemother.langgraph4j.ai;
 
+import com.ye.yeaicodemother.ai.tools.ToolMetricsRecorder;
 import com.ye.yeaicodemother.langgraph4j.tools.ImageSearchTool;
 import com.ye.yeaicodemother.langgraph4j.tools.LogoGeneratorTool;
 import com.ye.yeaicodemother.langgraph4j.tools.MermaidDiagramTool;
@@ -33,6 +34,9 @@ public class ImageCollectionServiceFactory {
     @Resource
     private LogoGeneratorTool logoGeneratorTool;
 
+    @Resource
+    private ToolMetricsRecorder toolMetricsRecorder;
+
     /**
      * 创建图片收集 AI 服务
      */
@@ -40,12 +44,13 @@ public class ImageCollectionServiceFactory {
     public ImageCollectionService createImageCollectionService() {
         return AiServices.builder(ImageCollectionService.class)
                 .chatModel(chatModel)
-                .tools(
+                // 记录图片收集工具的调用指标
+                .tools(toolMetricsRecorder.instrumentTools(
                         imageSearchTool,
                         undrawIllustrationTool,
                         mermaidDiagramTool,
                         logoGeneratorTool
-                )
+                ))
                 .build();
     }
 }
\ No newline at end of file
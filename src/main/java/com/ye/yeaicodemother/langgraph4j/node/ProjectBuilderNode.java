@@ -1,6 +1,6 @@
 package com.ye.yeaicodemother.langgraph4j.node;
 
-import com.ye.yeaicodemother.core.builder.VueProjectBuilder;
+import com.ye.yeaicodemother.core.builder.VueBuildScheduler;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.langgraph4j.state.WorkflowContext;
@@ -27,11 +27,11 @@ public class ProjectBuilderNode {
             // 获取必要的参数
             String generatedCodeDir = context.getGeneratedCodeDir();
             String buildResultDir;
-            // 一定是 Vue 项目类型：使用 VueProjectBuilder 进行构建
+            // 一定是 Vue 项目类型：提交到构建调度器进行构建
             try {
-                VueProjectBuilder vueBuilder = SpringContextUtil.getBean(VueProjectBuilder.class);
-                // 执行 Vue 项目构建（npm install + npm run build）
-                boolean buildSuccess = vueBuilder.buildProject(generatedCodeDir);
+                VueBuildScheduler vueBuildScheduler = SpringContextUtil.getBean(VueBuildScheduler.class);
+                // 执行 Vue 项目构建（准备依赖 + npm run build），工作流上下文中没有应用 ID，按项目目录去重
+                boolean buildSuccess = vueBuildScheduler.buildAndWait(null, generatedCodeDir);
                 if (buildSuccess) {
                     // 构建成功，返回 dist 目录路径
                     buildResultDir = generatedCodeDir + File.separator + "dist";
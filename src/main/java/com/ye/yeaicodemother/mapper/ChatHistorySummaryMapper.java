@@ -0,0 +1,13 @@
+package com.ye.yeaicodemother.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import com.ye.yeaicodemother.model.entity.ChatHistorySummary;
+
+/**
+ * 对话历史摘要 映射层。
+ *
+ * @author <a href="https://github.com/subaru-ye">程序员Ye</a>
+ */
+public interface ChatHistorySummaryMapper extends BaseMapper<ChatHistorySummary> {
+
+}
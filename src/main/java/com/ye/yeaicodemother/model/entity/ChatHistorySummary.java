@@ -0,0 +1,84 @@
+package com.ye.yeaicodemother.model.entity;
+
+import com.mybatisflex.annotation.Column;
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import java.io.Serial;
+
+import com.mybatisflex.core.keygen.KeyGenerators;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 对话历史摘要 实体类。
+ * <p>
+ * 记录某个应用较早对话的滚动摘要，{@code lastHistoryId} 之前（含）的对话历史已被压缩进摘要，
+ * 加载记忆时只需注入摘要 + 之后的原始消息。
+ * </p>
+ *
+ * @author <a href="https://github.com/subaru-ye">程序员Ye</a>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("chat_history_summary")
+public class ChatHistorySummary implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * id
+     */
+    @Id(keyType = KeyType.Generator, value = KeyGenerators.snowFlakeId)
+    private Long id;
+
+    /**
+     * 应用id
+     */
+    @Column("appId")
+    private Long appId;
+
+    /**
+     * 摘要内容
+     */
+    private String summary;
+
+    /**
+     * 摘要覆盖到的最后一条对话历史id
+     */
+    @Column("lastHistoryId")
+    private Long lastHistoryId;
+
+    /**
+     * 本次摘要压缩的消息条数
+     */
+    @Column("messageCount")
+    private Integer messageCount;
+
+    /**
+     * 创建时间
+     */
+    @Column("createTime")
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column("updateTime")
+    private LocalDateTime updateTime;
+
+    /**
+     * 是否删除
+     */
+    @Column(value = "isDelete", isLogicDelete = true)
+    private Integer isDelete;
+
+}
@@ -0,0 +1,50 @@
+package com.ye.yeaicodemother.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 应用最近一次 Vue 项目构建的状态
+ */
+@Data
+public class AppBuildStatusVO implements Serializable {
+
+    /**
+     * 应用 id
+     */
+    private Long appId;
+
+    /**
+     * 构建状态（queued / running / success / failed）
+     */
+    private String status;
+
+    /**
+     * 进入队列时间
+     */
+    private LocalDateTime queuedTime;
+
+    /**
+     * 开始构建时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 构建结束时间
+     */
+    private LocalDateTime endTime;
+
+    /**
+     * 构建耗时（毫秒，不含排队时间）
+     */
+    private Long durationMs;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+
+    private static final long serialVersionUID = 1L;
+}
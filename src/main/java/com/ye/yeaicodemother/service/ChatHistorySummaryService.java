@@ -0,0 +1,50 @@
+package com.ye.yeaicodemother.service;
+
+import com.mybatisflex.core.service.IService;
+import com.ye.yeaicodemother.model.entity.ChatHistorySummary;
+
+/**
+ * 对话历史摘要 服务层。
+ *
+ * @author <a href="https://github.com/subaru-ye">程序员Ye</a>
+ */
+public interface ChatHistorySummaryService extends IService<ChatHistorySummary> {
+
+    /**
+     * 获取应用最新的对话摘要
+     *
+     * @param appId 应用 ID
+     * @return 最新摘要，不存在时返回 null
+     */
+    ChatHistorySummary getLatestSummary(Long appId);
+
+    /**
+     * 异步检查并压缩对话历史
+     * <p>
+     * 在虚拟线程中执行，不阻塞对话请求；同一应用同一时刻最多只有一个压缩任务。
+     * 只对记忆由对话历史加载的 Vue 项目应用调用，HTML / 多文件应用的记忆由文件快照重建，不使用摘要。
+     * </p>
+     *
+     * @param appId 应用 ID
+     */
+    void compactIfNeededAsync(Long appId);
+
+    /**
+     * 检查并压缩对话历史（同步）
+     * <p>
+     * 当摘要 + 未被摘要覆盖的对话历史估算 token 数超过阈值时，
+     * 将较早的消息连同旧摘要交给路由模型生成新摘要，仅保留最近若干条原始消息。
+     * </p>
+     *
+     * @param appId 应用 ID
+     * @return 是否生成了新摘要
+     */
+    boolean compactIfNeeded(Long appId);
+
+    /**
+     * 删除应用关联的全部摘要（物理删除）
+     *
+     * @param appId 应用 ID
+     */
+    void deleteByAppId(Long appId);
+}
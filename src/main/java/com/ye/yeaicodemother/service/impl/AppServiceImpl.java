@@ -10,11 +10,14 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ye.yeaicodemother.ai.AiCodeGenTypeRoutingService;
 import com.ye.yeaicodemother.constant.AppConstant;
 import com.ye.yeaicodemother.core.AiCodeGeneratorFacade;
-import com.ye.yeaicodemother.core.builder.VueProjectBuilder;
+import com.ye.yeaicodemother.core.builder.VueBuildScheduler;
 import com.ye.yeaicodemother.core.handler.StreamHandlerExecutor;
+import com.ye.yeaicodemother.core.version.DeployVersionStore;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.exception.ThrowUtils;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
 import com.ye.yeaicodemother.model.dto.app.AppAddRequest;
 import com.ye.yeaicodemother.model.dto.app.AppQueryRequest;
 import com.ye.yeaicodemother.model.entity.App;
@@ -22,10 +25,12 @@ import com.ye.yeaicodemother.mapper.AppMapper;
 import com.ye.yeaicodemother.model.entity.User;
 import com.ye.yeaicodemother.model.enums.ChatHistoryMessageTypeEnum;
 import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import com.ye.yeaicodemother.model.vo.AppBuildStatusVO;
 import com.ye.yeaicodemother.model.vo.AppVO;
 import com.ye.yeaicodemother.model.vo.UserVO;
 import com.ye.yeaicodemother.service.AppService;
 import com.ye.yeaicodemother.service.ChatHistoryService;
+import com.ye.yeaicodemother.service.ChatHistorySummaryService;
 import com.ye.yeaicodemother.service.ScreenshotService;
 import com.ye.yeaicodemother.service.UserService;
 import jakarta.annotation.Resource;
@@ -60,11 +65,17 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
     @Resource
     private ChatHistoryService chatHistoryService;
 
+    @Resource
+    private ChatHistorySummaryService chatHistorySummaryService;
+
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
     @Resource
     private StreamHandlerExecutor streamHandlerExecutor;
 
     @Resource
-    private VueProjectBuilder vueProjectBuilder;
+    private VueBuildScheduler vueBuildScheduler;
 
     @Resource
     private ScreenshotService screenshotService;
@@ -72,6 +83,12 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
     @Resource
     private AiCodeGenTypeRoutingService aiCodeGenTypeRoutingService;
 
+    @Resource
+    private OutputVersionStore outputVersionStore;
+
+    @Resource
+    private DeployVersionStore deployVersionStore;
+
     /**
      * 与指定 AI 应用进行对话以生成代码（流式响应）
      * <p>
@@ -81,7 +98,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
      * 3. 解析应用预设的代码生成类型（HTML / 多文件 / Vue 项目）；
      * 4. 持久化用户输入消息到聊天历史；
      * 5. 调用统一 AI 代码生成门面服务，获取 SSE 流；
-     * 6. 在流传输过程中/结束后，自动保存 AI 响应到聊天历史。
+     * 6. 在流传输过程中/结束后，自动保存 AI 响应到聊天历史；
+     * 7. 对话完成后异步检查对话历史长度，超过阈值时压缩为摘要。
      * </p>
      *
      * @param appId     应用 ID，标识要交互的 AI 应用实例
@@ -120,7 +138,14 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
         Flux<String> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
 
         // 7. 收集 AI 响应的内容，并且在完成后保存记录到对话历史
-        return streamHandlerExecutor.doExecute(codeStream, chatHistoryService, appId, loginUser, codeGenTypeEnum);
+        // 8. 对话历史落库后，在后台检查是否需要压缩为摘要（不阻塞当前请求）
+        //    只有 Vue 项目的记忆由对话历史加载；HTML / 多文件的记忆由文件快照重建，不使用摘要
+        // 对话记忆保存在 Redis 中，各节点共享，对话完成后无需驱逐其他节点的缓存
+        Flux<String> resultStream = streamHandlerExecutor.doExecute(codeStream, chatHistoryService, appId, loginUser, codeGenTypeEnum);
+        if (codeGenTypeEnum != CodeGenTypeEnum.VUE_PROJECT) {
+            return resultStream;
+        }
+        return resultStream.doOnComplete(() -> chatHistorySummaryService.compactIfNeededAsync(appId));
     }
 
     /**
@@ -155,7 +180,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
         // 5. 获取代码生成类型，构建源目录路径
         String codeGenType = app.getCodeGenType();
         String sourceDirName = codeGenType + "_" + appId;
-        String sourceDirPath = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator + sourceDirName;
+        // 使用当前版本的真实目录，部署期间即使有新的生成也不会读到写入一半的文件
+        String sourceDirPath = outputVersionStore.resolveCurrent(sourceDirName).toString();
 
         // 6. 检查源目录是否存在
         File sourceDir = new File(sourceDirPath);
@@ -163,26 +189,27 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "应用代码不存在，请先生成代码");
         }
 
-        // 7. Vue 项目特殊处理：执行构建
+        // 7. Vue 项目特殊处理：在由当前版本派生的新版本中构建（不改动已发布的版本），构建产物直接部署
         CodeGenTypeEnum codeGenTypeEnum = CodeGenTypeEnum.getEnumByValue(codeGenType);
+        String targetDeployKey = deployKey;
         if (codeGenTypeEnum == CodeGenTypeEnum.VUE_PROJECT) {
-            // Vue 项目需要构建
             log.info("Vue 项目需要构建，开始构建项目：{}", sourceDirPath);
-            boolean buildSuccess = vueProjectBuilder.buildProject(sourceDirPath);
-            ThrowUtils.throwIf(!buildSuccess, ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败，请重试");
-            // 检查 dist 目录是否存在
-            File distDir = new File(sourceDirPath, "dist");
-            ThrowUtils.throwIf(!distDir.exists(), ErrorCode.SYSTEM_ERROR, "Vue 项目构建完成但未生成 dist 目录");
-            // 构建完成后，需要将构建后的文件复制到部署目录
-            sourceDir = distDir;
-        }
-
-        // 8. 复制文件到部署目录
-        String deployDirPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
-        try {
-            FileUtil.copyContent(sourceDir, new File(deployDirPath), true);
-        } catch (Exception e) {
-            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "部署失败：" + e.getMessage());
+            boolean buildSuccess = vueBuildScheduler.buildCurrentVersion(appId, sourceDirName, projectDir -> {
+                // 检查 dist 目录是否存在
+                File distDir = projectDir.resolve("dist").toFile();
+                ThrowUtils.throwIf(!distDir.exists(), ErrorCode.SYSTEM_ERROR, "Vue 项目构建完成但未生成 dist 目录");
+                deployDir(targetDeployKey, distDir);
+            });
+            if (!buildSuccess) {
+                // 附带构建输出末尾，便于定位失败原因
+                AppBuildStatusVO buildStatus = vueBuildScheduler.getBuildStatus(appId);
+                String detail = buildStatus != null && StrUtil.isNotBlank(buildStatus.getMessage())
+                        ? "：" + buildStatus.getMessage() : "";
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败，请重试" + detail);
+            }
+        } else {
+            // 8. 同步到新的部署版本并原子切换，只写入有变化的文件
+            deployDir(targetDeployKey, sourceDir);
         }
 
         // 9. 更新数据库
@@ -202,6 +229,54 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
         return appDeployUrl;
     }
 
+    /**
+     * 同步到新的部署版本并原子切换，只写入有变化的文件
+     */
+    private void deployDir(String deployKey, File sourceDir) {
+        try {
+            deployVersionStore.deploy(deployKey, sourceDir.toPath());
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "部署失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 回滚应用部署到上一个版本
+     *
+     * @param appId     应用 ID
+     * @param loginUser 登录用户
+     * @return 可访问的部署地址
+     */
+    @Override
+    public String rollbackDeploy(Long appId, User loginUser) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NOT_LOGIN_ERROR, "用户未登录");
+        App app = this.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        // 仅本人可以回滚
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限回滚该应用");
+        }
+        String deployKey = app.getDeployKey();
+        ThrowUtils.throwIf(StrUtil.isBlank(deployKey), ErrorCode.OPERATION_ERROR, "应用尚未部署");
+        boolean rolledBack;
+        try {
+            rolledBack = deployVersionStore.rollback(deployKey);
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "回滚失败：" + e.getMessage());
+        }
+        ThrowUtils.throwIf(!rolledBack, ErrorCode.OPERATION_ERROR, "没有可回滚的历史版本");
+        App updateApp = new App();
+        updateApp.setId(appId);
+        updateApp.setDeployedTime(LocalDateTime.now());
+        boolean updateResult = this.updateById(updateApp);
+        ThrowUtils.throwIf(!updateResult, ErrorCode.OPERATION_ERROR, "更新应用部署信息失败");
+        String appDeployUrl = String.format("%s/%s", AppConstant.CODE_DEPLOY_HOST, deployKey);
+        // 回滚后的页面不同，重新生成封面
+        generateAppScreenshotAsync(appId, appDeployUrl);
+        return appDeployUrl;
+    }
+
     /**
      * 异步生成应用截图并更新封面
      *
@@ -296,7 +371,10 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App>  implements AppS
             log.error("删除应用关联对话历史失败: {}", e.getMessage());
         }
         // 删除应用
-        return super.removeById(id);
+        boolean result = super.removeById(id);
+        // 通知所有节点驱逐该应用的本地缓存
+        appCacheInvalidationManager.invalidate(appId, "应用删除");
+        return result;
     }
 
     /**
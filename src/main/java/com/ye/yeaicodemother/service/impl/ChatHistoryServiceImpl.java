@@ -9,10 +9,12 @@ import com.ye.yeaicodemother.constant.UserConstant;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.exception.ThrowUtils;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
 import com.ye.yeaicodemother.model.dto.chathistory.ChatHistoryQueryRequest;
 import com.ye.yeaicodemother.model.entity.App;
 import com.ye.yeaicodemother.model.entity.ChatHistory;
 import com.ye.yeaicodemother.mapper.ChatHistoryMapper;
+import com.ye.yeaicodemother.model.entity.ChatHistorySummary;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
@@ -20,6 +22,8 @@ import com.ye.yeaicodemother.model.entity.User;
 import com.ye.yeaicodemother.model.enums.ChatHistoryMessageTypeEnum;
 import com.ye.yeaicodemother.service.AppService;
 import com.ye.yeaicodemother.service.ChatHistoryService;
+import com.ye.yeaicodemother.service.ChatHistorySummaryService;
+import com.ye.yeaicodemother.utils.ToolTranscriptUtils;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
@@ -41,8 +45,18 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Lazy
     private AppService appService;
 
+    @Resource
+    @Lazy
+    private ChatHistorySummaryService chatHistorySummaryService;
+
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
     /**
      * 加载对话历史到到 AI 聊天记忆（ChatMemory）中，用于恢复上下文
+     * <p>
+     * 若应用已有对话摘要，则先注入摘要，再只加载摘要之后的原始消息。
+     * </p>
      *
      * @param appId        应用 ID，标识要加载历史的会话
      * @param chatMemory   目标聊天记忆容器（如 MessageWindowChatMemory），用于注入历史消息
@@ -52,15 +66,20 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Override
     public int loadChatHistoryToMemory(Long appId, MessageWindowChatMemory chatMemory, int maxCount) {
         try {
+            // 已被摘要覆盖的消息不再加载
+            ChatHistorySummary latestSummary = chatHistorySummaryService.getLatestSummary(appId);
+            long lastHistoryId = latestSummary == null ? 0L : latestSummary.getLastHistoryId();
+
             // 直接构造查询条件，起始点为 1 而不是 0，用于排除最新的用户消息
             // 避免把“当前用户刚发的消息”当作历史上下文重复传给 AI
             QueryWrapper queryWrapper = QueryWrapper.create()
                     .eq(ChatHistory::getAppId, appId)
-                    .orderBy(ChatHistory::getCreateTime, false)
+                    .gt(ChatHistory::getId, lastHistoryId)
+                    .orderBy(ChatHistory::getId, false)
                     .limit(1, maxCount);
 
             List<ChatHistory> historyList = this.list(queryWrapper);
-            if (CollUtil.isEmpty(historyList)) {
+            if (CollUtil.isEmpty(historyList) && latestSummary == null) {
                 return 0;
             }
 
@@ -70,6 +89,13 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
             // 清空现有记忆，防止重复或残留数据干扰
             chatMemory.clear();
 
+            // 摘要作为第一条上下文消息注入
+            // 注意不能使用 SystemMessage：记忆中只保留一条系统消息，会被 AI 服务的系统提示词覆盖
+            if (latestSummary != null) {
+                chatMemory.add(UserMessage.from("【历史对话摘要】以下是本应用更早对话的摘要，请作为上下文参考：\n"
+                        + latestSummary.getSummary()));
+            }
+
             // 按时间顺序添加到记忆中
             int loadedCount = 0;
             for (ChatHistory history : historyList) {
@@ -80,7 +106,8 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
                     chatMemory.add(UserMessage.from(content));
                     loadedCount++;
                 } else if (ChatHistoryMessageTypeEnum.AI.getValue().equals(messageType)) {
-                    chatMemory.add(AiMessage.from(content));
+                    // 存量数据中的完整文件内容替换为文件引用，模型需要时可通过工具读取
+                    chatMemory.add(AiMessage.from(ToolTranscriptUtils.compact(content)));
                     loadedCount++;
                 }
             }
@@ -232,6 +259,10 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .eq("appId", appId);
         this.remove(queryWrapper);
+        // 同步删除对话摘要
+        chatHistorySummaryService.deleteByAppId(appId);
+        // 通知所有节点驱逐该应用缓存的 AI 服务与记忆
+        appCacheInvalidationManager.invalidate(appId, "对话历史删除");
     }
 
 }
@@ -0,0 +1,175 @@
+package com.ye.yeaicodemother.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.resource.ResourceUtil;
+import cn.hutool.core.util.StrUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.ye.yeaicodemother.config.ChatMemoryCompactionProperties;
+import com.ye.yeaicodemother.exception.ErrorCode;
+import com.ye.yeaicodemother.exception.ThrowUtils;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
+import com.ye.yeaicodemother.mapper.ChatHistorySummaryMapper;
+import com.ye.yeaicodemother.model.entity.ChatHistory;
+import com.ye.yeaicodemother.model.entity.ChatHistorySummary;
+import com.ye.yeaicodemother.model.enums.ChatHistoryMessageTypeEnum;
+import com.ye.yeaicodemother.service.ChatHistoryService;
+import com.ye.yeaicodemother.service.ChatHistorySummaryService;
+import com.ye.yeaicodemother.utils.TokenCountUtils;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对话历史摘要 服务层实现。
+ *
+ * @author <a href="https://github.com/subaru-ye">程序员Ye</a>
+ */
+@Service
+@Slf4j
+public class ChatHistorySummaryServiceImpl extends ServiceImpl<ChatHistorySummaryMapper, ChatHistorySummary> implements ChatHistorySummaryService {
+
+    /**
+     * 摘要系统提示词
+     */
+    private static final String SUMMARY_SYSTEM_PROMPT = ResourceUtil.readUtf8Str("prompt/chat-history-summary-system-prompt.txt");
+
+    /**
+     * 路由模型（低成本），用于生成摘要
+     */
+    @Resource(name = "routingChatModel")
+    private ChatModel routingChatModel;
+
+    @Resource
+    @Lazy
+    private ChatHistoryService chatHistoryService;
+
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
+    @Resource
+    private ChatMemoryCompactionProperties compactionProperties;
+
+    /**
+     * 正在压缩中的应用，避免同一应用并发压缩
+     */
+    private final Set<Long> compactingAppIds = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public ChatHistorySummary getLatestSummary(Long appId) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq(ChatHistorySummary::getAppId, appId)
+                .orderBy(ChatHistorySummary::getLastHistoryId, false)
+                .limit(1);
+        return this.getOne(queryWrapper);
+    }
+
+    @Override
+    public void compactIfNeededAsync(Long appId) {
+        if (!compactionProperties.isEnabled() || appId == null || appId <= 0) {
+            return;
+        }
+        if (!compactingAppIds.add(appId)) {
+            log.debug("应用 {} 的对话历史正在压缩中，跳过本次触发", appId);
+            return;
+        }
+        Thread.ofVirtual().name("chat-compaction-" + appId).start(() -> {
+            try {
+                compactIfNeeded(appId);
+            } catch (Exception e) {
+                // 压缩失败不影响对话，下次对话完成后会再次尝试
+                log.error("压缩对话历史失败，appId: {}, error: {}", appId, e.getMessage(), e);
+            } finally {
+                compactingAppIds.remove(appId);
+            }
+        });
+    }
+
+    @Override
+    public boolean compactIfNeeded(Long appId) {
+        // 1. 查询最新摘要以及摘要之后的对话历史（按 ID 正序，与摘要水位线的比较方式一致）
+        ChatHistorySummary latestSummary = getLatestSummary(appId);
+        long lastHistoryId = latestSummary == null ? 0L : latestSummary.getLastHistoryId();
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq(ChatHistory::getAppId, appId)
+                .gt(ChatHistory::getId, lastHistoryId)
+                .orderBy(ChatHistory::getId, true)
+                .limit(compactionProperties.getMaxCompactMessages() + compactionProperties.getKeepRecentMessages());
+        List<ChatHistory> historyList = chatHistoryService.list(queryWrapper);
+        if (CollUtil.isEmpty(historyList) || historyList.size() <= compactionProperties.getKeepRecentMessages()) {
+            return false;
+        }
+
+        // 2. 估算 token 数，未超过阈值则不压缩
+        String previousSummary = latestSummary == null ? "" : latestSummary.getSummary();
+        int totalTokens = TokenCountUtils.estimate(previousSummary);
+        for (ChatHistory history : historyList) {
+            totalTokens += TokenCountUtils.estimate(history.getMessage());
+        }
+        if (totalTokens < compactionProperties.getTokenThreshold()) {
+            return false;
+        }
+
+        // 3. 保留最近的若干条消息，其余的进入摘要
+        List<ChatHistory> toCompact = historyList.subList(0, historyList.size() - compactionProperties.getKeepRecentMessages());
+        String newSummary = summarize(previousSummary, toCompact);
+        if (StrUtil.isBlank(newSummary)) {
+            log.warn("摘要模型返回空内容，放弃本次压缩，appId: {}", appId);
+            return false;
+        }
+
+        // 4. 保存摘要，并让各节点缓存的 AI 服务失效，下次对话时按 摘要 + 最近消息 重建记忆
+        ChatHistorySummary summary = ChatHistorySummary.builder()
+                .appId(appId)
+                .summary(newSummary)
+                .lastHistoryId(toCompact.getLast().getId())
+                .messageCount(toCompact.size())
+                .build();
+        boolean saved = this.save(summary);
+        ThrowUtils.throwIf(!saved, ErrorCode.OPERATION_ERROR, "保存对话摘要失败");
+        appCacheInvalidationManager.invalidate(appId, "对话历史压缩");
+        log.info("应用 {} 对话历史压缩完成，压缩消息 {} 条，压缩前估算 {} tokens，摘要 {} tokens",
+                appId, toCompact.size(), totalTokens, TokenCountUtils.estimate(newSummary));
+        return true;
+    }
+
+    /**
+     * 调用路由模型生成新摘要
+     *
+     * @param previousSummary 已有摘要
+     * @param historyList     待压缩的对话历史（时间正序）
+     * @return 新摘要
+     */
+    private String summarize(String previousSummary, List<ChatHistory> historyList) {
+        StringBuilder userContent = new StringBuilder();
+        userContent.append("【已有摘要】\n")
+                .append(StrUtil.blankToDefault(previousSummary, "无"))
+                .append("\n\n【待压缩对话】\n");
+        for (ChatHistory history : historyList) {
+            String role = ChatHistoryMessageTypeEnum.USER.getValue().equals(history.getMessageType()) ? "用户" : "AI";
+            String content = StrUtil.maxLength(history.getMessage(), compactionProperties.getMaxMessageChars());
+            userContent.append(role).append("：").append(content).append("\n\n");
+        }
+        return routingChatModel.chat(
+                SystemMessage.from(SUMMARY_SYSTEM_PROMPT),
+                UserMessage.from(userContent.toString())
+        ).aiMessage().text();
+    }
+
+    @Override
+    public void deleteByAppId(Long appId) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq("appId", appId);
+        this.remove(queryWrapper);
+    }
+}
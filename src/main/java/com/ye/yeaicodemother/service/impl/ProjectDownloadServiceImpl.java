@@ -2,10 +2,12 @@ package com.ye.yeaicodemother.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.ZipUtil;
+import com.ye.yeaicodemother.core.builder.BuildManifest;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.exception.ThrowUtils;
 import com.ye.yeaicodemother.service.ProjectDownloadService;
+import com.ye.yeaicodemother.utils.TempNameUtils;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -33,7 +35,8 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
             "target",
             ".mvn",
             ".idea",
-            ".vscode"
+            ".vscode",
+            BuildManifest.FILE_NAME
     );
 
     /**
@@ -95,7 +98,7 @@ public class ProjectDownloadServiceImpl implements ProjectDownloadService {
         for (Path part : relativePath) {
             String partName = part.toString();
             // 检查是否在忽略名称列表中
-            if (IGNORED_NAMES.contains(partName)) {
+            if (IGNORED_NAMES.contains(partName) || TempNameUtils.isTemporaryName(partName)) {
                 return false;
             }
             // 检查文件扩展名
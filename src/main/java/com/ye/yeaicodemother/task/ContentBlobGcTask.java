@@ -0,0 +1,25 @@
+package com.ye.yeaicodemother.task;
+
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时清理内容寻址存储中不再被引用的对象
+ */
+@Slf4j
+@Component
+public class ContentBlobGcTask {
+
+    /**
+     * 每 6 小时执行一次
+     * 项目目录被删除或文件被覆盖后，对应对象的硬链接数降为 1，即可清理
+     */
+    @Scheduled(fixedRate = 6 * 60 * 60 * 1000) // 6小时
+    public void cleanUnreferencedBlobs() {
+        long start = System.currentTimeMillis();
+        int removed = ContentBlobStore.getDefault().gc();
+        log.info("清理未引用的文件对象 {} 个，耗时 {} ms", removed, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ye.yeaicodemother.task;
+
+import com.ye.yeaicodemother.core.staticfile.StaticFileCache;
+import jakarta.annotation.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时按访问次数重新选出静态资源缓存的热点站点
+ */
+@Component
+public class StaticFileHotSiteTask {
+
+    @Resource
+    private StaticFileCache staticFileCache;
+
+    /**
+     * 每 5 分钟执行一次，统计周期即两次执行之间的时间
+     */
+    @Scheduled(fixedRate = 5 * 60 * 1000) // 5分钟
+    public void refreshHotSites() {
+        staticFileCache.refreshHotSites();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ye.yeaicodemother.utils;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 代码大纲工具类
+ * <p>
+ * 为 .vue / .js / .ts 文件生成结构大纲（区块起止行、导出与顶层声明），
+ * 供【文件读取工具】的大纲模式使用，模型可以先看大纲再按行号范围读取需要的部分。
+ * </p>
+ */
+public class CodeOutlineUtils {
+
+    /**
+     * 支持大纲模式的文件类型
+     */
+    private static final Set<String> SUPPORTED_SUFFIXES = Set.of("vue", "js", "ts", "jsx", "tsx", "mjs");
+
+    /**
+     * Vue 单文件组件的顶层区块起始标签
+     */
+    private static final Pattern SFC_BLOCK_START = Pattern.compile("^<(template|script|style)(\\s[^>]*)?>");
+
+    /**
+     * Vue 单文件组件的顶层区块结束标签
+     */
+    private static final Pattern SFC_BLOCK_END = Pattern.compile("^</(template|script|style)>");
+
+    /**
+     * 导出与顶层声明
+     */
+    private static final Pattern DECLARATION = Pattern.compile(
+            "^(export\\s+(default\\s+)?)?(async\\s+)?(function\\*?|class|const|let|var|interface|type|enum)\\s+([\\w$]+)");
+
+    /**
+     * 其他导出语句（export default {...}、export { a, b } 等）
+     */
+    private static final Pattern OTHER_EXPORT = Pattern.compile("^export\\s+.*");
+
+    /**
+     * Vue 编译宏
+     */
+    private static final Pattern VUE_MACRO = Pattern.compile(
+            "\\b(defineProps|defineEmits|defineExpose|defineModel|defineOptions)\\s*[<(]");
+
+    /**
+     * 判断文件是否支持大纲模式
+     *
+     * @param filePath 文件路径
+     * @return 是否支持
+     */
+    public static boolean isSupported(String filePath) {
+        return SUPPORTED_SUFFIXES.contains(StrUtil.nullToEmpty(FileUtil.getSuffix(filePath)).toLowerCase());
+    }
+
+    /**
+     * 生成文件大纲
+     *
+     * @param filePath 文件路径（用于判断文件类型）
+     * @param content  文件内容
+     * @return 大纲文本，每行形如 "L12-30 <template>" 或 "L35 export function foo"
+     */
+    public static String outline(String filePath, String content) {
+        String[] lines = content.split("\n", -1);
+        List<String> items = new ArrayList<>();
+        boolean isVue = "vue".equalsIgnoreCase(FileUtil.getSuffix(filePath));
+        // 非 Vue 文件整体视为一个脚本区块
+        boolean inScript = !isVue;
+        int blockStart = -1;
+        String blockTag = null;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int lineNo = i + 1;
+            if (isVue) {
+                Matcher startMatcher = SFC_BLOCK_START.matcher(line);
+                if (blockTag == null && startMatcher.find()) {
+                    blockTag = startMatcher.group(1);
+                    blockStart = lineNo;
+                    // 区块起止在同一行（如 <style src="..."></style>）
+                    if (line.contains("</" + blockTag + ">")) {
+                        items.add(String.format("L%d %s", lineNo, line.trim()));
+                        blockTag = null;
+                        continue;
+                    }
+                    // 先占位，结束时补全行号范围
+                    items.add(null);
+                    inScript = "script".equals(blockTag);
+                    continue;
+                }
+                Matcher endMatcher = SFC_BLOCK_END.matcher(line);
+                if (blockTag != null && endMatcher.find() && blockTag.equals(endMatcher.group(1))) {
+                    items.set(items.lastIndexOf(null), String.format("L%d-%d %s",
+                            blockStart, lineNo, lines[blockStart - 1].trim()));
+                    blockTag = null;
+                    inScript = false;
+                    continue;
+                }
+            }
+            if (!inScript) {
+                continue;
+            }
+            // 只记录顶层（无缩进）的声明和导出，避免大纲膨胀
+            if (DECLARATION.matcher(line).find() || OTHER_EXPORT.matcher(line).find()
+                    || VUE_MACRO.matcher(line).find()) {
+                items.add(String.format("  L%d %s", lineNo, summarize(line)));
+            }
+        }
+        // 未闭合的区块
+        if (blockTag != null) {
+            items.set(items.lastIndexOf(null), String.format("L%d-? %s（未闭合）", blockStart, lines[blockStart - 1].trim()));
+        }
+        StringBuilder result = new StringBuilder(String.format("共 %d 行\n", lines.length));
+        items.forEach(item -> result.append(item).append("\n"));
+        return result.toString();
+    }
+
+    /**
+     * 截取声明行的签名部分（去掉行尾的函数体 / 对象起始括号和过长的内容）
+     */
+    private static String summarize(String line) {
+        String summary = line.trim();
+        if (summary.endsWith("{")) {
+            summary = summary.substring(0, summary.length() - 1).trim();
+        }
+        return StrUtil.maxLength(summary, 120);
+    }
+}
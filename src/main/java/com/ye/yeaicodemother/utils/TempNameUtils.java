@@ -0,0 +1,32 @@
+package com.ye.yeaicodemother.utils;
+
+import java.util.List;
+
+/**
+ * 临时文件名称工具类
+ * <p>
+ * 工作区、版本存储、构建和下载都需要识别构建、发布过程中在项目目录内创建的临时文件，统一放在这里避免各模块互相依赖。
+ * </p>
+ */
+public class TempNameUtils {
+
+    /**
+     * 构建、发布过程中在项目目录内创建的临时文件和目录的名称前缀，
+     * 如 .dist-build-xxx、.dist-old-xxx、.tmp-nobuild-xxx、.tmp-dist-xxx、.node_modules-xxx、.blob-xxx.tmp
+     */
+    private static final List<String> TEMP_NAME_PREFIXES = List.of(
+            ".dist-build-", ".dist-old-", ".tmp-", ".node_modules-", ".blob-"
+    );
+
+    /**
+     * 判断是否为构建、发布过程中的临时文件或目录（不属于项目源码，不扫描、不克隆、不参与源码哈希）
+     *
+     * @param name 文件或目录名称
+     */
+    public static boolean isTemporaryName(String name) {
+        if (!name.startsWith(".")) {
+            return false;
+        }
+        return name.endsWith(".tmp") || TEMP_NAME_PREFIXES.stream().anyMatch(name::startsWith);
+    }
+}
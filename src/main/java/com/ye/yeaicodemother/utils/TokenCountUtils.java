@@ -0,0 +1,39 @@
+package com.ye.yeaicodemother.utils;
+
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * Token 数估算工具类
+ * <p>
+ * 仅用于阈值判断，不追求与模型分词器完全一致：
+ * 中日韩字符按 1 个 token 计，其余字符按每 4 个字符 1 个 token 计。
+ * </p>
+ */
+public class TokenCountUtils {
+
+    /**
+     * 估算文本的 token 数
+     *
+     * @param text 文本
+     * @return 估算的 token 数
+     */
+    public static int estimate(String text) {
+        if (StrUtil.isEmpty(text)) {
+            return 0;
+        }
+        int cjkCount = 0;
+        int otherCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            Character.UnicodeScript script = Character.UnicodeScript.of(text.charAt(i));
+            if (script == Character.UnicodeScript.HAN
+                    || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA
+                    || script == Character.UnicodeScript.HANGUL) {
+                cjkCount++;
+            } else {
+                otherCount++;
+            }
+        }
+        return cjkCount + (otherCount + 3) / 4;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ye.yeaicodemother.utils;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 工具调用记录压缩工具类
+ * <p>
+ * 对话历史中只保存文件引用（路径 + 内容哈希 + 大小），不重复保存文件内容，
+ * 模型需要时可通过【文件读取工具】从项目目录读取最新内容。
+ * </p>
+ */
+public class ToolTranscriptUtils {
+
+    /**
+     * 旧格式的文件写入记录：[工具调用] 写入文件 path + 完整代码块
+     */
+    private static final Pattern LEGACY_WRITE_PATTERN = Pattern.compile(
+            "\\[工具调用] 写入文件 (\\S+)\\n```[\\w-]*\\n([\\s\\S]*?)\\n```");
+
+    /**
+     * 旧格式的文件修改记录：[工具调用] 修改文件 path + 替换前 / 替换后代码块
+     */
+    private static final Pattern LEGACY_MODIFY_PATTERN = Pattern.compile(
+            "\\[工具调用] 修改文件 (\\S+)\\s*\\n\\s*替换前：\\s*\\n```\\n([\\s\\S]*?)\\n```\\s*\\n\\s*替换后：\\s*\\n```\\n([\\s\\S]*?)\\n```");
+
+    /**
+     * 计算内容的短哈希（SHA-256 前 12 位）
+     *
+     * @param content 内容
+     * @return 短哈希
+     */
+    public static String shortHash(String content) {
+        return DigestUtil.sha256Hex(StrUtil.nullToEmpty(content)).substring(0, 12);
+    }
+
+    /**
+     * 计算内容的 UTF-8 字节数
+     *
+     * @param content 内容
+     * @return 字节数
+     */
+    public static int byteSize(String content) {
+        return StrUtil.nullToEmpty(content).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * 构建文件内容引用描述
+     *
+     * @param content 文件内容
+     * @return 形如 "sha256:1a2b3c4d5e6f, 1024 字节" 的描述
+     */
+    public static String buildContentReference(String content) {
+        return String.format("sha256:%s, %d 字节", shortHash(content), byteSize(content));
+    }
+
+    /**
+     * 将对话历史中旧格式的完整文件内容替换为文件引用
+     * <p>
+     * 用于加载历史到记忆时压缩存量数据，新数据在写入时已是引用格式。
+     * </p>
+     *
+     * @param transcript 对话历史中的 AI 消息
+     * @return 压缩后的消息
+     */
+    public static String compact(String transcript) {
+        if (StrUtil.isEmpty(transcript) || !transcript.contains("[工具调用]")) {
+            return transcript;
+        }
+        Matcher writeMatcher = LEGACY_WRITE_PATTERN.matcher(transcript);
+        String result = writeMatcher.replaceAll(matchResult -> Matcher.quoteReplacement(
+                String.format("[工具调用] 写入文件 %s（%s）",
+                        matchResult.group(1), buildContentReference(matchResult.group(2)))));
+        Matcher modifyMatcher = LEGACY_MODIFY_PATTERN.matcher(result);
+        return modifyMatcher.replaceAll(matchResult -> Matcher.quoteReplacement(
+                String.format("[工具调用] 修改文件 %s（替换前 %s；替换后 %s）",
+                        matchResult.group(1),
+                        buildContentReference(matchResult.group(2)),
+                        buildContentReference(matchResult.group(3)))));
+    }
+}
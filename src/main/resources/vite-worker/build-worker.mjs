@@ -0,0 +1,111 @@
+// 常驻 Vite 构建进程：从 stdin 逐行读取 JSON 请求，在进程内调用 Vite 的 build API，
+// 结果以 JSON 行写回 stdout；构建输出统一写到 stderr，由 Java 侧写入构建日志。
+//   请求：{"id": 1, "type": "build", "root": "/abs/project", "outDir": "/abs/project/dist", "cacheDir": "/abs/project/.tmp-build-cache"}
+//         或 {"id": 2, "type": "ping"}
+//   响应：{"id": 1, "ok": true} 或 {"id": 1, "ok": false, "error": "..."}
+// 每个构建请求结束时先向 stderr 写入结束标记行，Java 侧据此确认该次构建的输出已全部读取。
+import { createRequire } from 'node:module';
+import { pathToFileURL } from 'node:url';
+import path from 'node:path';
+import fs from 'node:fs';
+import readline from 'node:readline';
+import { format } from 'node:util';
+
+const protocolOut = process.stdout.write.bind(process.stdout);
+const send = (message) => protocolOut(JSON.stringify(message) + '\n');
+
+// 插件或 Vite 自身写到 stdout 的内容不能混入协议，全部转到 stderr
+const toStderr = (...args) => process.stderr.write(format(...args) + '\n');
+console.log = toStderr;
+console.info = toStderr;
+console.warn = toStderr;
+console.error = toStderr;
+console.debug = toStderr;
+process.stdout.write = (chunk, encoding, callback) => process.stderr.write(chunk, encoding, callback);
+
+// vite 入口路径 -> 已加载的模块；共享依赖下的项目解析到同一路径，复用已预热的模块
+const viteModules = new Map();
+
+// 按 Node 的模块查找路径定位项目使用的 vite（不依赖 vite 是否导出 package.json）
+function findVitePackage(require, root) {
+  for (const dir of require.resolve.paths('vite') || []) {
+    const pkgPath = path.join(dir, 'vite', 'package.json');
+    if (fs.existsSync(pkgPath)) {
+      return pkgPath;
+    }
+  }
+  throw new Error('vite is not installed in ' + root);
+}
+
+async function loadVite(root) {
+  const require = createRequire(path.join(root, 'package.json'));
+  const pkgPath = fs.realpathSync(findVitePackage(require, root));
+  const pkg = JSON.parse(fs.readFileSync(pkgPath, 'utf8'));
+  let entry = pkg.exports && pkg.exports['.'] && pkg.exports['.'].import;
+  if (entry && typeof entry === 'object') {
+    entry = entry.default;
+  }
+  const entryPath = entry ? path.join(path.dirname(pkgPath), entry) : require.resolve('vite');
+  let vite = viteModules.get(entryPath);
+  if (!vite) {
+    vite = await import(pathToFileURL(entryPath).href);
+    viteModules.set(entryPath, vite);
+  }
+  return vite;
+}
+
+async function build(root, outDir, cacheDir) {
+  const vite = await loadVite(root);
+  // 配置文件中的相对路径（postcss、tailwind 等）按项目目录解析
+  process.chdir(root);
+  // node_modules 可能链接到多个项目共享的依赖目录，缓存写到项目自己的目录（find-cache-dir 读取 CACHE_DIR）
+  if (cacheDir) {
+    process.env.CACHE_DIR = cacheDir;
+  } else {
+    delete process.env.CACHE_DIR;
+  }
+  await vite.build({
+    root,
+    mode: 'production',
+    logLevel: 'info',
+    clearScreen: false,
+    cacheDir: cacheDir || undefined,
+    build: outDir ? { outDir, emptyOutDir: true } : undefined,
+  });
+}
+
+const OUTPUT_END_MARKER = '\u0000vite-worker-end:';
+
+let queue = Promise.resolve();
+
+const lines = readline.createInterface({ input: process.stdin });
+lines.on('line', (line) => {
+  if (!line.trim()) {
+    return;
+  }
+  let request;
+  try {
+    request = JSON.parse(line);
+  } catch (e) {
+    send({ id: null, ok: false, error: 'invalid request' });
+    return;
+  }
+  // 同一进程内的请求按顺序执行
+  queue = queue.then(async () => {
+    if (request.type === 'ping') {
+      send({ id: request.id, ok: true });
+      return;
+    }
+    let response;
+    try {
+      await build(request.root, request.outDir, request.cacheDir);
+      response = { id: request.id, ok: true };
+    } catch (e) {
+      toStderr(e && e.stack ? e.stack : String(e));
+      response = { id: request.id, ok: false, error: e && e.message ? e.message : String(e) };
+    }
+    process.stderr.write(OUTPUT_END_MARKER + request.id + '\n');
+    send(response);
+  });
+});
+lines.on('close', () => process.exit(0));
@@ -0,0 +1,72 @@
+// 免构建预览入口：由 vue3-sfc-loader 在浏览器中编译 .vue 单文件组件，依赖通过 import map 从 CDN 加载。
+// 以双下划线包围的占位符由 VueNoBuildPackager 替换为依赖导入、模块缓存、vue3-sfc-loader 地址、源码文件列表和入口路径
+__MODULE_IMPORTS__
+import { loadModule } from '__SFC_LOADER_URL__';
+
+// 项目中的全部源码文件（以 / 开头的相对路径），用于解析省略扩展名和目录的导入
+const files = new Set(__FILES__);
+const candidates = (path) => [path, path + '.js', path + '.vue', path + '/index.js', path + '/index.vue'];
+
+function normalize(path) {
+  const segments = [];
+  for (const segment of path.split('/')) {
+    if (segment === '..') {
+      segments.pop();
+    } else if (segment && segment !== '.') {
+      segments.push(segment);
+    }
+  }
+  return '/' + segments.join('/');
+}
+
+function resolveSource(refPath, relPath) {
+  let path;
+  if (relPath.startsWith('@/')) {
+    path = '/src/' + relPath.slice(2);
+  } else if (relPath.startsWith('/')) {
+    path = relPath;
+  } else if (relPath.startsWith('.')) {
+    const base = refPath ? refPath.slice(0, refPath.lastIndexOf('/') + 1) : '/';
+    path = base + relPath;
+  } else {
+    return relPath;
+  }
+  path = normalize(path);
+  return candidates(path).find((candidate) => files.has(candidate)) || path;
+}
+
+const addStyle = (textContent) => {
+  const style = Object.assign(document.createElement('style'), { textContent });
+  document.head.appendChild(style);
+};
+
+const options = {
+  moduleCache: __MODULE_CACHE__,
+  pathResolve: ({ refPath, relPath }) => resolveSource(refPath, relPath),
+  async getFile(path) {
+    const response = await fetch(new URL('.' + path, document.baseURI));
+    if (!response.ok) {
+      throw Object.assign(new Error(response.statusText + ' ' + path), { response });
+    }
+    return { getContentData: (asBinary) => (asBinary ? response.arrayBuffer() : response.text()) };
+  },
+  addStyle,
+  handleModule(type, getContentData, path) {
+    // 返回 undefined 表示交给 vue3-sfc-loader 按默认方式处理
+    if (type === '.css') {
+      return getContentData(false).then((text) => {
+        addStyle(text);
+        return {};
+      });
+    }
+    if (/\.(png|jpe?g|gif|svg|webp|ico)$/.test(type)) {
+      return { default: new URL('.' + path, document.baseURI).href };
+    }
+    return undefined;
+  },
+};
+
+loadModule('__ENTRY__', options).catch((error) => {
+  console.error(error);
+  document.body.insertAdjacentHTML('beforeend', '<pre style="color:#c00">' + String(error) + '</pre>');
+});
@@ -0,0 +1,97 @@
+package com.ye.yeaicodemother;
+
+import com.ye.yeaicodemother.ai.model.CodePatch;
+import com.ye.yeaicodemother.core.parser.CodePatchParser;
+import com.ye.yeaicodemother.core.saver.CodePatchApplier;
+import com.ye.yeaicodemother.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodePatchTest {
+
+    private final CodePatchParser codePatchParser = new CodePatchParser();
+
+    @Test
+    void parseAndApplyPatches() {
+        String editContent = """
+                把标题改成蓝色，并在底部增加版权信息。
+
+                style.css
+                <<<<<<< SEARCH
+                h1 {
+                  color: red;
+                }
+                =======
+                h1 {
+                  color: blue;
+                }
+                >>>>>>> REPLACE
+
+                index.html
+                <<<<<<< SEARCH
+                  </body>
+                =======
+                  <footer>© 2025</footer>
+                  </body>
+                >>>>>>> REPLACE
+                """;
+        List<CodePatch> patches = codePatchParser.parseCode(editContent);
+        assertEquals(2, patches.size());
+        assertEquals("style.css", patches.get(0).getFileName());
+
+        Map<String, String> files = Map.of(
+                "index.html", "<html>\n<body>\n<h1>标题</h1>\n</body>\n</html>",
+                "style.css", "h1 {\n    color: red;\n}"
+        );
+        Map<String, String> patched = CodePatchApplier.applyPatches(files,
+                List.of("index.html", "style.css", "script.js"), patches);
+        assertTrue(patched.get("style.css").contains("color: blue;"));
+        assertFalse(patched.get("style.css").contains("color: red;"));
+        assertTrue(patched.get("index.html").contains("<footer>© 2025</footer>"));
+        assertTrue(patched.get("index.html").endsWith("</html>"));
+    }
+
+    @Test
+    void applyPatchNotFound() {
+        List<CodePatch> patches = List.of(new CodePatch("index.html", "<div>不存在</div>", "<div>新</div>"));
+        Map<String, String> files = Map.of("index.html", "<html></html>");
+        assertThrows(BusinessException.class,
+                () -> CodePatchApplier.applyPatches(files, List.of("index.html"), patches));
+    }
+
+    @Test
+    void applyPatchRejectsAmbiguousMatch() {
+        // 同一段内容出现两次，无法确定修改哪一处，交由调用方回退到完整重新生成
+        List<CodePatch> patches = List.of(new CodePatch("index.html", "<p>占位</p>", "<p>新</p>"));
+        Map<String, String> files = Map.of("index.html", "<div>\n<p>占位</p>\n</div>\n<div>\n<p>占位</p>\n</div>");
+        assertThrows(BusinessException.class,
+                () -> CodePatchApplier.applyPatches(files, List.of("index.html"), patches));
+    }
+
+    @Test
+    void applyPatchRejectsAmbiguousLineTrimmedMatch() {
+        List<CodePatch> patches = List.of(new CodePatch("style.css", "color: red;\n}", "color: blue;\n}"));
+        Map<String, String> files = Map.of("style.css", "h1 {\n    color: red;\n}\nh2 {\n  color: red;\n}");
+        assertThrows(BusinessException.class,
+                () -> CodePatchApplier.applyPatches(files, List.of("style.css"), patches));
+    }
+
+    @Test
+    void applyPatchWithUniqueContext() {
+        List<CodePatch> patches = List.of(new CodePatch("style.css", "h2 {\n  color: red;", "h2 {\n  color: blue;"));
+        Map<String, String> files = Map.of("style.css", "h1 {\n  color: red;\n}\nh2 {\n  color: red;\n}");
+        Map<String, String> patched = CodePatchApplier.applyPatches(files, List.of("style.css"), patches);
+        assertEquals("h1 {\n  color: red;\n}\nh2 {\n  color: blue;\n}", patched.get("style.css"));
+    }
+
+    @Test
+    void applyPatchToUnsupportedFile() {
+        List<CodePatch> patches = List.of(new CodePatch("app.vue", "", "<template></template>"));
+        assertThrows(BusinessException.class,
+                () -> CodePatchApplier.applyPatches(Map.of(), List.of("index.html"), patches));
+    }
+}
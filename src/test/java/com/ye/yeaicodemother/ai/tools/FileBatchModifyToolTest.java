@@ -0,0 +1,96 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import com.ye.yeaicodemother.ai.model.FileEditItem;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspace;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileBatchModifyToolTest {
+
+    private static final Long APP_ID = 1L;
+
+    /**
+     * 单个文件缓存到内存的上限，超过的文件在普通写入时直接写回磁盘
+     */
+    private static final int MAX_CACHED_FILE_BYTES = 64;
+
+    private static final String APP_VUE = "<template>\n  <h1>Hello</h1>\n  <p>World</p>\n</template>";
+
+    private static final String MAIN_JS = "createApp(App).mount('#app')";
+
+    @TempDir
+    Path root;
+
+    private ProjectWorkspace workspace;
+
+    private FileBatchModifyTool tool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/App.vue"), APP_VUE);
+        Files.writeString(root.resolve("src/main.js"), MAIN_JS);
+        workspace = ProjectWorkspace.open(root, MAX_CACHED_FILE_BYTES);
+        ProjectWorkspaceManager projectWorkspaceManager = mock(ProjectWorkspaceManager.class);
+        when(projectWorkspaceManager.normalizePath(anyLong(), anyString()))
+                .thenAnswer(invocation -> ProjectWorkspace.normalizePath(root, invocation.getArgument(1)));
+        when(projectWorkspaceManager.execute(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<ProjectWorkspaceManager.WorkspaceAction<?>>getArgument(1).apply(workspace));
+        tool = new FileBatchModifyTool();
+        ReflectionTestUtils.setField(tool, "projectWorkspaceManager", projectWorkspaceManager);
+    }
+
+    @Test
+    void appliesEditsToSameFileInOrder() throws Exception {
+        String result = tool.modifyFiles(List.of(
+                new FileEditItem("src/App.vue", "Hello", "Hi"),
+                new FileEditItem("src/App.vue", "<h1>Hi</h1>", "<h1>Hi there</h1>"),
+                new FileEditItem("src/main.js", "#app", "#root")), APP_ID);
+
+        assertTrue(result.startsWith("成功应用 3 处修改，涉及 2 个文件"));
+        assertEquals(APP_VUE.replace("Hello", "Hi there"), workspace.read("src/App.vue"));
+        assertEquals(MAIN_JS.replace("#app", "#root"), workspace.read("src/main.js"));
+    }
+
+    @Test
+    void appliesNothingWhenAnyEditFails() throws Exception {
+        String result = tool.modifyFiles(List.of(
+                new FileEditItem("src/App.vue", "Hello", "Hi"),
+                new FileEditItem("src/main.js", "不存在的内容", "x"),
+                new FileEditItem("src/missing.js", "a", "b")), APP_ID);
+
+        assertTrue(result.startsWith("存在无法应用的修改，所有修改均未生效"));
+        assertTrue(result.contains("文件中未找到要替换的内容 - src/main.js"));
+        assertTrue(result.contains("文件不存在或不是文件 - src/missing.js"));
+        assertEquals(APP_VUE, workspace.read("src/App.vue"));
+        assertFalse(workspace.isDirty());
+    }
+
+    @Test
+    void largeFilesAreNotWrittenThroughMidBatch() throws Exception {
+        String padding = "<!-- " + "x".repeat(MAX_CACHED_FILE_BYTES) + " -->";
+        tool.modifyFiles(List.of(
+                new FileEditItem("src/App.vue", "<p>World</p>", "<p>World</p>" + padding),
+                new FileEditItem("src/main.js", "#app", "#root")), APP_ID);
+
+        // 修改后超过缓存上限的文件也只在内存中，磁盘内容保持不变
+        assertEquals(APP_VUE, Files.readString(root.resolve("src/App.vue")));
+        assertTrue(workspace.read("src/App.vue").contains(padding));
+
+        workspace.flush();
+        assertTrue(Files.readString(root.resolve("src/App.vue")).contains(padding));
+        assertEquals(MAIN_JS.replace("#app", "#root"), Files.readString(root.resolve("src/main.js")));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import com.ye.yeaicodemother.ai.model.FileWriteItem;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspace;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileBatchWriteToolTest {
+
+    private static final Long APP_ID = 1L;
+
+    /**
+     * 单个文件缓存到内存的上限，超过的文件在普通写入时直接写回磁盘
+     */
+    private static final int MAX_CACHED_FILE_BYTES = 16;
+
+    @TempDir
+    Path root;
+
+    private ProjectWorkspace workspace;
+
+    private FileBatchWriteTool tool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        workspace = ProjectWorkspace.open(root, MAX_CACHED_FILE_BYTES);
+        ProjectWorkspaceManager projectWorkspaceManager = mock(ProjectWorkspaceManager.class);
+        when(projectWorkspaceManager.normalizePath(anyLong(), anyString()))
+                .thenAnswer(invocation -> ProjectWorkspace.normalizePath(root, invocation.getArgument(1)));
+        when(projectWorkspaceManager.execute(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<ProjectWorkspaceManager.WorkspaceAction<?>>getArgument(1).apply(workspace));
+        tool = new FileBatchWriteTool();
+        ReflectionTestUtils.setField(tool, "projectWorkspaceManager", projectWorkspaceManager);
+    }
+
+    @Test
+    void writesAllFiles() throws Exception {
+        String result = tool.writeFiles(List.of(
+                new FileWriteItem("src/App.vue", "<template/>"),
+                new FileWriteItem("src/main.js", "import 'vue'")), APP_ID);
+
+        assertTrue(result.startsWith("成功写入 2 个文件"));
+        assertEquals("<template/>", workspace.read("src/App.vue"));
+        assertEquals("import 'vue'", workspace.read("src/main.js"));
+    }
+
+    @Test
+    void writesNothingWhenAnyItemIsInvalid() throws Exception {
+        String result = tool.writeFiles(List.of(
+                new FileWriteItem("src/App.vue", "<template/>"),
+                new FileWriteItem("../outside.js", "x"),
+                new FileWriteItem("src/main.js", null)), APP_ID);
+
+        assertTrue(result.startsWith("存在不合法的文件，所有文件均未写入"));
+        assertTrue(result.contains("文件路径不合法 - ../outside.js"));
+        assertTrue(result.contains("文件内容不能为空 - src/main.js"));
+        assertNull(workspace.read("src/App.vue"));
+        assertFalse(workspace.isDirty());
+    }
+
+    @Test
+    void largeFilesAreNotWrittenThroughMidBatch() throws Exception {
+        String large = "x".repeat(MAX_CACHED_FILE_BYTES * 4);
+        tool.writeFiles(List.of(
+                new FileWriteItem("src/big.js", large),
+                new FileWriteItem("src/App.vue", "<template/>")), APP_ID);
+
+        // 批量写入只修改内存，大文件同样等到写回时才落盘
+        assertFalse(Files.exists(root.resolve("src/big.js")));
+        assertEquals(large, workspace.read("src/big.js"));
+
+        workspace.flush();
+        assertEquals(large, Files.readString(root.resolve("src/big.js")));
+        assertEquals("<template/>", Files.readString(root.resolve("src/App.vue")));
+    }
+
+    @Test
+    void laterItemForSamePathWins() throws Exception {
+        tool.writeFiles(List.of(
+                new FileWriteItem("src/App.vue", "<template>1</template>"),
+                new FileWriteItem("./src/App.vue", "<template>2</template>")), APP_ID);
+
+        assertEquals("<template>2</template>", workspace.read("src/App.vue"));
+    }
+}
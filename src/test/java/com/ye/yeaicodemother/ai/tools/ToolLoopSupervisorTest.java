@@ -0,0 +1,132 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import cn.hutool.json.JSONObject;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ToolLoopSupervisorTest {
+
+    private static final Long APP_ID = 1L;
+
+    private static final String WRITE_RESULT = "文件写入成功: src/App.vue";
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private ToolExecutor supervised;
+
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ToolManager toolManager = mock(ToolManager.class);
+        when(toolManager.getTool("writeFile")).thenReturn(new BaseTool() {
+            @Override
+            public String getToolName() {
+                return "writeFile";
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "写入文件";
+            }
+
+            @Override
+            public String generateToolExecutedResult(JSONObject arguments) {
+                return "";
+            }
+        });
+        // 工作区版本始终不变：每次写入的内容都与现有内容相同
+        projectWorkspaceManager = mock(ProjectWorkspaceManager.class);
+        when(projectWorkspaceManager.getVersion(anyLong())).thenReturn(0L);
+        when(projectWorkspaceManager.normalizePath(anyLong(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        ToolLoopSupervisor supervisor = new ToolLoopSupervisor();
+        ReflectionTestUtils.setField(supervisor, "toolManager", toolManager);
+        ReflectionTestUtils.setField(supervisor, "projectWorkspaceManager", projectWorkspaceManager);
+        supervisor.beginTurn(APP_ID);
+        supervised = supervisor.supervise((request, memoryId) -> {
+            executions.incrementAndGet();
+            return WRITE_RESULT;
+        });
+    }
+
+    @Test
+    void duplicateCallReturnsCachedOriginalResult() {
+        assertEquals(WRITE_RESULT, supervised.execute(writeRequest("1"), APP_ID));
+        String duplicate = supervised.execute(writeRequest("2"), APP_ID);
+
+        assertEquals(1, executions.get());
+        assertTrue(duplicate.startsWith("[重复调用]"));
+        // 工具实际的执行结果是缓存的原始结果
+        assertEquals(WRITE_RESULT, ToolLoopSupervisor.originalResult(duplicate));
+    }
+
+    @Test
+    void skippedCallsAfterForcedExitHaveNoOriginalResult() {
+        String result = null;
+        for (int i = 1; i <= 4; i++) {
+            result = supervised.execute(writeRequest(String.valueOf(i)), APP_ID);
+        }
+        // 达到上限的那次调用仍带有原始结果，只是追加了结束提示
+        assertEquals(WRITE_RESULT, ToolLoopSupervisor.originalResult(result).lines().findFirst().orElse(null));
+
+        String skipped = supervised.execute(writeRequest("5"), APP_ID);
+        assertEquals(1, executions.get());
+        assertNull(ToolLoopSupervisor.originalResult(skipped));
+    }
+
+    @Test
+    void refusesEveryCallAfterForcedExit() {
+        for (int i = 1; i <= 4; i++) {
+            supervised.execute(writeRequest(String.valueOf(i)), APP_ID);
+        }
+        // 强制结束后，即使参数不同也不再执行
+        for (int i = 0; i < 3; i++) {
+            String refused = supervised.execute(writeRequest("after-" + i, "<p>" + i + "</p>"), APP_ID);
+            assertNull(ToolLoopSupervisor.originalResult(refused));
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void refusesCallsBeyondPerTurnLimit() throws Exception {
+        // 每次写入都改变了工作区，不会触发无进展检测
+        when(projectWorkspaceManager.getVersion(anyLong())).thenAnswer(invocation -> (long) executions.get());
+        for (int i = 1; i <= ToolLoopSupervisor.MAX_TOOL_CALLS_PER_TURN; i++) {
+            assertEquals(WRITE_RESULT, supervised.execute(writeRequest(String.valueOf(i), "<p>" + i + "</p>"), APP_ID));
+        }
+
+        String refused = supervised.execute(writeRequest("over", "<p>over</p>"), APP_ID);
+        assertEquals(ToolLoopSupervisor.MAX_TOOL_CALLS_PER_TURN, executions.get());
+        assertNull(ToolLoopSupervisor.originalResult(refused));
+    }
+
+    @Test
+    void originalResultKeepsPlainResults() {
+        assertEquals(WRITE_RESULT, ToolLoopSupervisor.originalResult(WRITE_RESULT));
+        assertNull(ToolLoopSupervisor.originalResult(null));
+    }
+
+    private ToolExecutionRequest writeRequest(String id) {
+        return writeRequest(id, "<template/>");
+    }
+
+    private ToolExecutionRequest writeRequest(String id, String content) {
+        return ToolExecutionRequest.builder()
+                .id(id)
+                .name("writeFile")
+                .arguments("{\"relativeFilePath\":\"src/App.vue\",\"content\":\"" + content + "\"}")
+                .build();
+    }
+}
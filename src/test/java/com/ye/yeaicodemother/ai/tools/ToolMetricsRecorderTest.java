@@ -0,0 +1,125 @@
+package com.ye.yeaicodemother.ai.tools;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.ye.yeaicodemother.config.ToolMetricsProperties;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolMetricsRecorderTest {
+
+    private static final Long APP_ID = 1L;
+
+    private static final String ARGUMENTS = "{\"relativeFilePath\":\"src/App.vue\"}";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ToolMetricsProperties properties;
+
+    private ToolMetricsRecorder recorder;
+
+    private final ListAppender<ILoggingEvent> logAppender = new ListAppender<>();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ToolMetricsRecorder.class);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ToolMetricsProperties();
+        recorder = new ToolMetricsRecorder();
+        ReflectionTestUtils.setField(recorder, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(recorder, "toolMetricsProperties", properties);
+        logAppender.start();
+        logger.addAppender(logAppender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logAppender);
+    }
+
+    @Test
+    void recordsOutcomeAndSizesPerTool() {
+        execute("readFile", (request, memoryId) -> "<template/>");
+        execute("writeFile", (request, memoryId) -> "文件写入失败: 磁盘已满");
+        execute("modifyFiles", (request, memoryId) -> "存在无法应用的修改，所有修改均未生效\n1. 修改成功: a.js");
+
+        assertEquals(1, timer("readFile", "success").count());
+        assertEquals(1, timer("writeFile", "failure").count());
+        assertEquals(1, timer("modifyFiles", "failure").count());
+        DistributionSummary argumentBytes = meterRegistry.get("ai.tool.argument.bytes").tag("tool", "readFile").summary();
+        assertEquals(ARGUMENTS.length(), argumentBytes.totalAmount());
+        DistributionSummary resultBytes = meterRegistry.get("ai.tool.result.bytes").tag("tool", "readFile").summary();
+        assertEquals("<template/>".length(), resultBytes.totalAmount());
+        // 默认不带应用标签，避免指标基数随应用数量增长
+        assertNull(meterRegistry.get("ai.tool.execution").timer().getId().getTag("appId"));
+    }
+
+    @Test
+    void recordsExceptionAndRethrows() {
+        ToolExecutor failing = recorder.instrument("readDir", (request, memoryId) -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(IllegalStateException.class, () -> failing.execute(request("readDir"), APP_ID));
+        assertEquals(1, timer("readDir", "exception").count());
+    }
+
+    @Test
+    void addsAppTagWhenEnabled() {
+        properties.setAppTagEnabled(true);
+        execute("readFile", (request, memoryId) -> "ok");
+
+        assertEquals(1, meterRegistry.get("ai.tool.execution").tag("appId", String.valueOf(APP_ID)).timer().count());
+    }
+
+    @Test
+    void logsOnlyCallsOverSlowThreshold() {
+        properties.setSlowCallThresholdMs(50);
+        execute("readFile", (request, memoryId) -> "fast");
+        assertTrue(slowCallLogs().isEmpty());
+
+        execute("writeFile", (request, memoryId) -> {
+            try {
+                Thread.sleep(80);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "文件写入成功: src/App.vue";
+        });
+        assertEquals(1, slowCallLogs().size());
+        assertTrue(slowCallLogs().getFirst().getFormattedMessage().contains("tool=writeFile"));
+    }
+
+    private void execute(String toolName, ToolExecutor delegate) {
+        recorder.instrument(toolName, delegate).execute(request(toolName), APP_ID);
+    }
+
+    private Timer timer(String toolName, String outcome) {
+        return meterRegistry.get("ai.tool.execution").tag("tool", toolName).tag("outcome", outcome).timer();
+    }
+
+    private List<ILoggingEvent> slowCallLogs() {
+        return logAppender.list.stream()
+                .filter(event -> event.getLevel() == Level.WARN && event.getFormattedMessage().startsWith("工具慢调用"))
+                .toList();
+    }
+
+    private static ToolExecutionRequest request(String toolName) {
+        return ToolExecutionRequest.builder().id("call-1").name(toolName).arguments(ARGUMENTS).build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ye.yeaicodemother.controller;
+
+import com.ye.yeaicodemother.core.builder.BuildLog;
+import com.ye.yeaicodemother.core.builder.VueBuildScheduler;
+import com.ye.yeaicodemother.exception.BusinessException;
+import com.ye.yeaicodemother.exception.ErrorCode;
+import com.ye.yeaicodemother.model.entity.App;
+import com.ye.yeaicodemother.model.entity.User;
+import com.ye.yeaicodemother.service.AppService;
+import com.ye.yeaicodemother.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AppControllerBuildLogTest {
+
+    private static final Long APP_ID = 1L;
+
+    private static final Long OWNER_ID = 10L;
+
+    private AppController appController;
+
+    private UserService userService;
+
+    private VueBuildScheduler vueBuildScheduler;
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+
+    @BeforeEach
+    void setUp() {
+        AppService appService = mock(AppService.class);
+        App app = new App();
+        app.setId(APP_ID);
+        app.setUserId(OWNER_ID);
+        when(appService.getById(APP_ID)).thenReturn(app);
+        userService = mock(UserService.class);
+        vueBuildScheduler = mock(VueBuildScheduler.class);
+        appController = new AppController();
+        ReflectionTestUtils.setField(appController, "appService", appService);
+        ReflectionTestUtils.setField(appController, "userService", userService);
+        ReflectionTestUtils.setField(appController, "vueBuildScheduler", vueBuildScheduler);
+    }
+
+    @Test
+    void streamsBufferedLinesThenDone() {
+        loginAs(OWNER_ID);
+        BuildLog buildLog = new BuildLog();
+        buildLog.append("> vite build");
+        buildLog.append("✓ built");
+        buildLog.complete();
+        when(vueBuildScheduler.getBuildLog(APP_ID)).thenReturn(buildLog);
+
+        List<ServerSentEvent<String>> events = appController.streamBuildLog(APP_ID, request)
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertNotNull(events);
+        assertEquals(3, events.size());
+        assertEquals("{\"d\":\"> vite build\"}", events.get(0).data());
+        assertEquals("{\"d\":\"✓ built\"}", events.get(1).data());
+        assertEquals("done", events.get(2).event());
+    }
+
+    @Test
+    void rejectsUsersOtherThanOwner() {
+        loginAs(OWNER_ID + 1);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> appController.streamBuildLog(APP_ID, request));
+        assertEquals(ErrorCode.NO_AUTH_ERROR.getCode(), exception.getCode());
+    }
+
+    @Test
+    void reportsMissingBuild() {
+        loginAs(OWNER_ID);
+        when(vueBuildScheduler.getBuildLog(APP_ID)).thenReturn(null);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> appController.streamBuildLog(APP_ID, request));
+        assertEquals(ErrorCode.NOT_FOUND_ERROR.getCode(), exception.getCode());
+    }
+
+    private void loginAs(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        when(userService.getLoginUser(any())).thenReturn(user);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ye.yeaicodemother.core;
+
+import com.ye.yeaicodemother.ai.AiCodeGeneratorService;
+import com.ye.yeaicodemother.ai.AiCodeGeneratorServiceFactory;
+import com.ye.yeaicodemother.core.context.SnapshotChatContextBuilder;
+import com.ye.yeaicodemother.core.saver.CodeFileSaverExecutor;
+import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * HTML / MULTI_FILE 增量修改流的推送与回退
+ */
+class AiCodeGeneratorFacadeEditStreamTest {
+
+    private static final long APP_ID = 1L;
+
+    private static final String ORIGINAL_HTML = "<html>\n<body>\n<h1>标题</h1>\n</body>\n</html>";
+
+    private AiCodeGeneratorFacade facade;
+
+    private AiCodeGeneratorService aiCodeGeneratorService;
+
+    private SnapshotChatContextBuilder snapshotChatContextBuilder;
+
+    private MockedStatic<CodeFileSaverExecutor> codeFileSaver;
+
+    @BeforeEach
+    void setUp() {
+        aiCodeGeneratorService = mock(AiCodeGeneratorService.class);
+        AiCodeGeneratorServiceFactory factory = mock(AiCodeGeneratorServiceFactory.class);
+        when(factory.getAiCodeGeneratorService(APP_ID, CodeGenTypeEnum.HTML)).thenReturn(aiCodeGeneratorService);
+        snapshotChatContextBuilder = mock(SnapshotChatContextBuilder.class);
+        facade = new AiCodeGeneratorFacade();
+        ReflectionTestUtils.setField(facade, "aiCodeGeneratorServiceFactory", factory);
+        ReflectionTestUtils.setField(facade, "snapshotChatContextBuilder", snapshotChatContextBuilder);
+
+        codeFileSaver = mockStatic(CodeFileSaverExecutor.class, CALLS_REAL_METHODS);
+        codeFileSaver.when(() -> CodeFileSaverExecutor.readSavedFiles(CodeGenTypeEnum.HTML, APP_ID))
+                .thenReturn(Map.of("index.html", ORIGINAL_HTML));
+        codeFileSaver.when(() -> CodeFileSaverExecutor.saveFiles(anyMap(), any(), anyLong())).thenReturn(new File("."));
+        codeFileSaver.when(() -> CodeFileSaverExecutor.executeSaver(any(), any(), anyLong())).thenReturn(new File("."));
+    }
+
+    @AfterEach
+    void tearDown() {
+        codeFileSaver.close();
+    }
+
+    @Test
+    void streamsEditBlocksThenReportsSuccess() {
+        List<String> editChunks = List.of("index.html\n<<<<<<< SEARCH\n<h1>标题</h1>\n",
+                "=======\n<h1>新标题</h1>\n>>>>>>> REPLACE\n");
+        when(aiCodeGeneratorService.generateCodeEditStream(anyString())).thenReturn(Flux.fromIterable(editChunks));
+
+        List<String> output = facade.generateAndSaveCodeStream("改标题", CodeGenTypeEnum.HTML, APP_ID)
+                .collectList().block();
+
+        assertNotNull(output);
+        // 修改块按片段实时推送，末尾追加应用结果
+        assertEquals(editChunks, output.subList(0, editChunks.size()));
+        assertEquals(editChunks.size() + 1, output.size());
+        assertTrue(output.getLast().contains("增量修改已应用"));
+        codeFileSaver.verify(() -> CodeFileSaverExecutor.saveFiles(
+                eq(Map.of("index.html", ORIGINAL_HTML.replace("标题", "新标题"))), eq(CodeGenTypeEnum.HTML), eq(APP_ID)));
+        verify(aiCodeGeneratorService, never()).generateHtmlCodeStream(anyString());
+    }
+
+    @Test
+    void fallsBackToFullRegenerationWhenEditCannotApply() {
+        List<String> editChunks = List.of("index.html\n<<<<<<< SEARCH\n<h2>不存在</h2>\n",
+                "=======\n<h2>新</h2>\n>>>>>>> REPLACE\n");
+        when(aiCodeGeneratorService.generateCodeEditStream(anyString())).thenReturn(Flux.fromIterable(editChunks));
+        when(aiCodeGeneratorService.generateHtmlCodeStream(anyString()))
+                .thenReturn(Flux.just("```html\n<html></html>\n```"));
+
+        List<String> output = facade.generateAndSaveCodeStream("改标题", CodeGenTypeEnum.HTML, APP_ID)
+                .collectList().block();
+
+        assertNotNull(output);
+        assertEquals(editChunks, output.subList(0, editChunks.size()));
+        assertTrue(output.get(editChunks.size()).contains("正在重新生成完整代码"));
+        assertEquals("```html\n<html></html>\n```", output.getLast());
+        codeFileSaver.verify(() -> CodeFileSaverExecutor.saveFiles(anyMap(), any(), anyLong()), never());
+        // 快照在对话开始时和回退前各重建一次
+        verify(snapshotChatContextBuilder, times(2)).rebuildMemory(APP_ID, CodeGenTypeEnum.HTML);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ye.yeaicodemother.core.blob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameContentIsLinkedAndOverwriteDoesNotLeak() throws Exception {
+        ContentBlobStore store = new ContentBlobStore(root.resolve("store"));
+        Path first = root.resolve("vue_project_1/package.json");
+        Path second = root.resolve("vue_project_2/package.json");
+
+        store.writeString(first, "{\"name\":\"demo\"}");
+        store.writeString(second, "{\"name\":\"demo\"}");
+        assertTrue(Files.isSameFile(first, second));
+
+        // 覆盖其中一个文件不影响链接到同一对象的其他文件
+        store.writeString(first, "{\"name\":\"changed\"}");
+        assertEquals("{\"name\":\"changed\"}", Files.readString(first));
+        assertEquals("{\"name\":\"demo\"}", Files.readString(second));
+    }
+
+    @Test
+    void copyDirectoryAndGc() throws Exception {
+        ContentBlobStore store = new ContentBlobStore(root.resolve("store"));
+        Path source = root.resolve("source");
+        store.writeString(source.resolve("index.html"), "<html></html>");
+        store.writeString(source.resolve("assets/app.js"), "console.log(1)");
+
+        Path target = root.resolve("deploy");
+        store.copyDirectory(source, target);
+        assertTrue(Files.isSameFile(source.resolve("assets/app.js"), target.resolve("assets/app.js")));
+
+        // 仍被引用的对象不会被清理
+        assertEquals(0, store.gc());
+        Files.delete(source.resolve("index.html"));
+        Files.delete(target.resolve("index.html"));
+        assertEquals(1, store.gc());
+        assertEquals("console.log(1)", Files.readString(target.resolve("assets/app.js")));
+    }
+}
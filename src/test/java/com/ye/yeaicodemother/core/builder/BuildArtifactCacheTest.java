@@ -0,0 +1,64 @@
+package com.ye.yeaicodemother.core.builder;
+
+import com.ye.yeaicodemother.config.VueBuildProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildArtifactCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BuildArtifactCache buildArtifactCache;
+
+    @BeforeEach
+    void setUp() {
+        VueBuildProperties properties = new VueBuildProperties();
+        properties.setArtifactCacheDir(tempDir.resolve("build_cache").toString());
+        buildArtifactCache = new BuildArtifactCache();
+        ReflectionTestUtils.setField(buildArtifactCache, "vueBuildProperties", properties);
+        ReflectionTestUtils.setField(buildArtifactCache, "meterRegistry", new SimpleMeterRegistry());
+        // 固定工具链版本，不依赖本机的 Node
+        ReflectionTestUtils.setField(buildArtifactCache, "toolchainVersion", "node-test");
+        buildArtifactCache.init();
+    }
+
+    @Test
+    void sourcesDifferingInNestedBuildDirDoNotShareEntry() throws Exception {
+        Path first = createProject("first", "export default 1");
+        Path second = createProject("second", "export default 2");
+        String firstHash = BuildManifest.hashSources(first);
+        String secondHash = BuildManifest.hashSources(second);
+        assertNotEquals(firstHash, secondHash);
+
+        Files.createDirectories(first.resolve("dist"));
+        Files.writeString(first.resolve("dist/index.html"), "first");
+        buildArtifactCache.store(firstHash, first);
+
+        // 源码只在子目录 build 中不同，不能复用另一个项目的构建产物
+        assertFalse(buildArtifactCache.restore(secondHash, second));
+        assertFalse(Files.exists(second.resolve("dist")));
+
+        // 源码完全相同时命中
+        Path copy = createProject("copy", "export default 1");
+        assertTrue(buildArtifactCache.restore(BuildManifest.hashSources(copy), copy));
+        assertEquals("first", Files.readString(copy.resolve("dist/index.html")));
+    }
+
+    private Path createProject(String name, String buildConfig) throws Exception {
+        Path projectDir = tempDir.resolve(name);
+        Files.createDirectories(projectDir.resolve("src/build"));
+        Files.writeString(projectDir.resolve("package.json"), "{}");
+        Files.writeString(projectDir.resolve("src/App.vue"), "<template/>");
+        Files.writeString(projectDir.resolve("src/build/config.js"), buildConfig);
+        return projectDir;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ye.yeaicodemother.core.builder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keepsOnlyRecentLinesAndTruncatesLongLines() {
+        BuildLog buildLog = new BuildLog();
+        for (int i = 1; i <= 2500; i++) {
+            buildLog.append("line" + i);
+        }
+        buildLog.append("x".repeat(5000));
+
+        String tail = buildLog.tail(3);
+        List<String> lines = tail.lines().toList();
+        assertEquals(List.of("line2499", "line2500"), lines.subList(0, 2));
+        assertEquals(2000 + "...".length(), lines.get(2).length());
+        // 超出上限的最早输出被丢弃
+        assertFalse(buildLog.tail(Integer.MAX_VALUE).contains("line500\n"));
+        assertTrue(buildLog.tail(Integer.MAX_VALUE).startsWith("line502\n"));
+    }
+
+    @Test
+    void lateSubscriberReceivesReplayAndCompletion() {
+        BuildLog buildLog = new BuildLog();
+        buildLog.append("> vite build");
+        buildLog.append("✓ built in 1.2s");
+        buildLog.complete();
+        // 结束后的输出被忽略
+        buildLog.append("ignored");
+
+        List<String> streamed = buildLog.stream().collectList().block(Duration.ofSeconds(5));
+        assertEquals(List.of("> vite build", "✓ built in 1.2s"), streamed);
+        assertFalse(buildLog.tail(10).contains("ignored"));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void drainsLargeCommandOutputWithoutBlocking() {
+        BuildLog buildLog = new BuildLog();
+        // 输出远超管道缓冲区（约 64KB），未持续读取时子进程会阻塞直到超时
+        Boolean success = ReflectionTestUtils.invokeMethod(new VueProjectBuilder(), "executeCommand",
+                tempDir.toFile(), 30, buildLog,
+                new String[]{"sh", "-c", "i=0; while [ $i -lt 20000 ]; do echo output-line-$i; i=$((i+1)); done"});
+
+        assertEquals(Boolean.TRUE, success);
+        assertTrue(buildLog.tail(1).endsWith("output-line-19999"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ye.yeaicodemother.core.builder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildManifestTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void sourceHashIgnoresBuildOutputs() throws Exception {
+        Files.writeString(projectDir.resolve("package.json"), "{}");
+        Files.createDirectories(projectDir.resolve("src"));
+        Files.writeString(projectDir.resolve("src/App.vue"), "<template/>");
+        String hash = BuildManifest.hashSources(projectDir);
+
+        // 构建产物、依赖目录和清单本身不影响源码哈希
+        Files.createDirectories(projectDir.resolve("dist"));
+        Files.writeString(projectDir.resolve("dist/index.html"), "built");
+        Files.createDirectories(projectDir.resolve("node_modules/vue"));
+        Files.writeString(projectDir.resolve("node_modules/vue/index.js"), "lib");
+        BuildManifest manifest = new BuildManifest();
+        manifest.setSourceHash(hash);
+        manifest.write(projectDir);
+        assertEquals(hash, BuildManifest.hashSources(projectDir));
+        assertEquals(hash, BuildManifest.read(projectDir).getSourceHash());
+
+        Files.writeString(projectDir.resolve("src/App.vue"), "<template><div/></template>");
+        assertNotEquals(hash, BuildManifest.hashSources(projectDir));
+    }
+
+    @Test
+    void sourceHashIncludesNestedDirsNamedLikeOutputs() throws Exception {
+        Files.writeString(projectDir.resolve("package.json"), "{}");
+        Files.createDirectories(projectDir.resolve("src/build"));
+        Files.writeString(projectDir.resolve("src/build/config.js"), "export default 1");
+        String hash = BuildManifest.hashSources(projectDir);
+
+        // 只有顶层的 dist、node_modules 被跳过，子目录中同名的目录属于源码
+        Files.writeString(projectDir.resolve("src/build/config.js"), "export default 2");
+        assertNotEquals(hash, BuildManifest.hashSources(projectDir));
+        hash = BuildManifest.hashSources(projectDir);
+        Files.createDirectories(projectDir.resolve("src/dist"));
+        Files.writeString(projectDir.resolve("src/dist/data.json"), "[]");
+        assertNotEquals(hash, BuildManifest.hashSources(projectDir));
+
+        // 构建过程中的临时文件和目录不影响哈希
+        hash = BuildManifest.hashSources(projectDir);
+        Files.createDirectories(projectDir.resolve(".dist-build-1"));
+        Files.writeString(projectDir.resolve(".dist-build-1/index.html"), "partial");
+        Files.writeString(projectDir.resolve("src/.App.vue.tmp"), "partial");
+        assertEquals(hash, BuildManifest.hashSources(projectDir));
+    }
+
+    @Test
+    void dependencyHashIncludesLockFile() throws Exception {
+        Files.writeString(projectDir.resolve("package.json"), "{}");
+        String hash = BuildManifest.hashDependencies(projectDir);
+        Files.writeString(projectDir.resolve("package-lock.json"), "{}");
+        assertNotEquals(hash, BuildManifest.hashDependencies(projectDir));
+        BuildManifest.delete(projectDir);
+        assertNull(BuildManifest.read(projectDir));
+    }
+}
@@ -0,0 +1,168 @@
+package com.ye.yeaicodemother.core.builder;
+
+import com.ye.yeaicodemother.config.DependencyStoreProperties;
+import com.ye.yeaicodemother.utils.TempNameUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisabledOnOs(value = OS.WINDOWS, disabledReason = "共享依赖使用符号链接")
+class DependencyStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path storeDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DependencyStore dependencyStore;
+
+    /**
+     * 每次安装调用的离线标记
+     */
+    private final List<Boolean> installCalls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        storeDir = tempDir.resolve("dependency_store");
+        DependencyStoreProperties properties = new DependencyStoreProperties();
+        properties.setStoreDir(storeDir.toString());
+        dependencyStore = new DependencyStore();
+        ReflectionTestUtils.setField(dependencyStore, "dependencyStoreProperties", properties);
+        ReflectionTestUtils.setField(dependencyStore, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void installsOnMissAndLinksOnHit() throws Exception {
+        Path first = createProject("first");
+        Path second = createProject("second");
+
+        assertTrue(dependencyStore.link(first, this::installVite));
+        assertEquals(List.of(true), installCalls);
+        assertEquals(1.0, requests("miss"));
+
+        // 依赖声明相同的项目直接链接到已安装的条目，不再安装
+        assertTrue(dependencyStore.link(second, this::installVite));
+        assertEquals(List.of(true), installCalls);
+        assertEquals(1.0, requests("hit"));
+
+        Path nodeModules = second.resolve("node_modules");
+        assertTrue(Files.isSymbolicLink(nodeModules));
+        assertEquals(Files.readSymbolicLink(first.resolve("node_modules")), Files.readSymbolicLink(nodeModules));
+        assertTrue(Files.readSymbolicLink(nodeModules).startsWith(storeDir.toAbsolutePath().normalize()));
+        assertEquals("vite", Files.readString(nodeModules.resolve("vite/index.js")));
+    }
+
+    @Test
+    void fallsBackToOnlineInstallWhenOfflineInstallFails() throws Exception {
+        Path project = createProject("project");
+
+        assertTrue(dependencyStore.link(project, (dir, offline) -> offline ? recordFailure(true) : installVite(dir, false)));
+        assertEquals(List.of(true, false), installCalls);
+        assertTrue(Files.isSymbolicLink(project.resolve("node_modules")));
+    }
+
+    @Test
+    void leavesNoEntryOrLinkWhenInstallFails() throws Exception {
+        Path project = createProject("project");
+        // 之前链接过的共享依赖，安装失败后不能留着，否则单独安装会把依赖装进共享目录
+        Path staleTarget = Files.createDirectories(tempDir.resolve("stale/node_modules"));
+        Files.createSymbolicLink(project.resolve("node_modules"), staleTarget);
+
+        assertFalse(dependencyStore.link(project, (dir, offline) -> recordFailure(offline)));
+        assertEquals(List.of(true, false), installCalls);
+        assertEquals(1.0, requests("failure"));
+        assertFalse(Files.exists(project.resolve("node_modules"), LinkOption.NOFOLLOW_LINKS));
+        assertEquals(List.of(), listStore());
+    }
+
+    @Test
+    void installsIntoTemporaryDirAndRenamesWhenComplete() throws Exception {
+        Path project = createProject("project");
+        Path entryDir = storeDir.toAbsolutePath().normalize().resolve(BuildManifest.hashDependencies(project));
+
+        assertTrue(dependencyStore.link(project, (dir, offline) -> {
+            // 安装期间正式条目尚不存在，其他项目不会链接到半装好的依赖
+            assertFalse(Files.exists(entryDir));
+            assertEquals(entryDir.getParent(), dir.toPath().getParent());
+            assertTrue(TempNameUtils.isTemporaryName(dir.getName()));
+            return installVite(dir, offline);
+        }));
+        assertTrue(Files.isDirectory(entryDir.resolve("node_modules")));
+        // 临时安装目录已重命名为正式条目
+        assertEquals(List.of(entryDir.getFileName().toString()), listStore());
+    }
+
+    @Test
+    void replacesInstalledNodeModulesWithLink() throws Exception {
+        Path project = createProject("project");
+        Files.createDirectories(project.resolve("node_modules/local"));
+
+        assertTrue(dependencyStore.link(project, this::installVite));
+        assertTrue(Files.isSymbolicLink(project.resolve("node_modules")));
+        // 临时链接已重命名为 node_modules，项目中不留临时文件
+        try (Stream<Path> children = Files.list(project)) {
+            assertEquals(List.of("node_modules", "package.json"),
+                    children.map(child -> child.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    @Test
+    void buildCacheStaysOutsideSharedNodeModules() {
+        Path project = tempDir.resolve("project");
+        Path cacheDir = DependencyStore.resolveBuildCacheDir(project);
+
+        assertEquals(project, cacheDir.getParent());
+        assertTrue(TempNameUtils.isTemporaryName(cacheDir.getFileName().toString()));
+    }
+
+    private boolean installVite(File dir, boolean offline) {
+        installCalls.add(offline);
+        try {
+            Path vite = Files.createDirectories(dir.toPath().resolve("node_modules/vite"));
+            Files.writeString(vite.resolve("index.js"), "vite");
+            return true;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean recordFailure(boolean offline) {
+        installCalls.add(offline);
+        return false;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("vue.dependency.store.requests").tag("result", result).counter().count();
+    }
+
+    private List<String> listStore() throws Exception {
+        if (!Files.isDirectory(storeDir)) {
+            return List.of();
+        }
+        try (Stream<Path> children = Files.list(storeDir)) {
+            return children.map(child -> child.getFileName().toString()).toList();
+        }
+    }
+
+    private Path createProject(String name) throws Exception {
+        Path projectDir = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(projectDir.resolve("package.json"), "{\"dependencies\":{\"vite\":\"^5.0.0\"}}");
+        return projectDir;
+    }
+}
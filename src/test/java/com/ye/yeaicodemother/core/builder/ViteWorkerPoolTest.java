@@ -0,0 +1,168 @@
+package com.ye.yeaicodemother.core.builder;
+
+import com.ye.yeaicodemother.config.VueBuildProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisabledOnOs(value = OS.WINDOWS, disabledReason = "模拟的构建进程是 sh 脚本")
+class ViteWorkerPoolTest {
+
+    /**
+     * 模拟 build-worker.mjs 的协议：项目路径包含 hang 时不响应，包含 crash 时进程退出，其余构建成功并输出进程号
+     */
+    private static final String FAKE_WORKER_SCRIPT = """
+            while IFS= read -r line; do
+              id=$(printf '%s' "$line" | sed -n 's/.*"id":\\([0-9]*\\).*/\\1/p')
+              case "$line" in
+                *'"type":"ping"'*) printf '{"id":%s,"ok":true}\\n' "$id" ;;
+                *hang*) sleep 60 ;;
+                *crash*) exit 1 ;;
+                *)
+                  echo "building in $$" >&2
+                  printf '\\000vite-worker-end:%s\\n' "$id" >&2
+                  printf '{"id":%s,"ok":true}\\n' "$id"
+                  ;;
+              esac
+            done
+            """;
+
+    private static final Pattern WORKER_PID = Pattern.compile("building in (\\d+)");
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private VueBuildProperties properties;
+
+    private ViteWorkerPool viteWorkerPool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new VueBuildProperties();
+        properties.setWorkerDir(tempDir.resolve("vite_worker").toString());
+        properties.setNodeCommand("sh");
+        properties.setWorkerPoolSize(1);
+        properties.setMaxBuildsPerWorker(2);
+        viteWorkerPool = new ViteWorkerPool();
+        ReflectionTestUtils.setField(viteWorkerPool, "vueBuildProperties", properties);
+        ReflectionTestUtils.setField(viteWorkerPool, "meterRegistry", meterRegistry);
+        viteWorkerPool.init();
+        Path fakeScript = tempDir.resolve("fake-worker.sh");
+        Files.writeString(fakeScript, FAKE_WORKER_SCRIPT);
+        ReflectionTestUtils.setField(viteWorkerPool, "workerScript", fakeScript);
+    }
+
+    @AfterEach
+    void tearDown() {
+        viteWorkerPool.destroy();
+    }
+
+    @Test
+    void reusesWorkerUntilBuildLimitThenRestarts() throws Exception {
+        File project = project("app");
+
+        long first = buildAndGetPid(project);
+        long second = buildAndGetPid(project);
+        // 达到每个进程的构建次数上限后回收，下一次构建使用新进程
+        long third = buildAndGetPid(project);
+
+        assertEquals(first, second);
+        assertNotEquals(second, third);
+        assertEquals(1, liveWorkers());
+    }
+
+    @Test
+    void replacesWorkerThatCrashedDuringBuild() throws Exception {
+        BuildLog buildLog = new BuildLog();
+        // 进程异常退出不是代码问题，交给调用方改用 npm run build
+        assertEquals(ViteWorkerPool.BuildResult.UNAVAILABLE,
+                viteWorkerPool.build(project("crash"), outDir(), buildLog, 10));
+        assertEquals(0, liveWorkers());
+
+        buildAndGetPid(project("app"));
+        assertEquals(1, liveWorkers());
+        assertEquals(1.0, builds("unavailable"));
+        assertEquals(1.0, builds("success"));
+    }
+
+    @Test
+    void killsWorkerWhenBuildTimesOut() throws Exception {
+        BuildLog buildLog = new BuildLog();
+        assertEquals(ViteWorkerPool.BuildResult.FAILED,
+                viteWorkerPool.build(project("hang"), outDir(), buildLog, 1));
+        assertTrue(buildLog.tail(5).contains("构建超时（1秒）"));
+        // 超时的进程被终止并回收，不会阻塞后续构建
+        assertEquals(0, liveWorkers());
+
+        buildAndGetPid(project("app"));
+        assertEquals(1.0, builds("failed"));
+    }
+
+    @Test
+    void replacesIdleWorkerThatFailsHealthCheck() throws Exception {
+        File project = project("app");
+        long first = buildAndGetPid(project);
+        Deque<ViteWorker> idleWorkers = idleWorkers();
+        idleWorkers.peek().close();
+
+        long second = buildAndGetPid(project);
+        assertNotEquals(first, second);
+        assertEquals(1, liveWorkers());
+    }
+
+    @Test
+    void reportsUnavailableWhenPoolIsFull() throws Exception {
+        properties.setWorkerPoolSize(0);
+        assertEquals(ViteWorkerPool.BuildResult.UNAVAILABLE,
+                viteWorkerPool.build(project("app"), outDir(), new BuildLog(), 10));
+        assertEquals(0, liveWorkers());
+    }
+
+    private long buildAndGetPid(File project) throws Exception {
+        BuildLog buildLog = new BuildLog();
+        assertEquals(ViteWorkerPool.BuildResult.SUCCESS, viteWorkerPool.build(project, outDir(), buildLog, 10));
+        Matcher matcher = WORKER_PID.matcher(buildLog.tail(10));
+        assertTrue(matcher.find(), buildLog.tail(10));
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private File project(String name) throws Exception {
+        Path projectDir = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(projectDir.resolve("package.json"), "{\"scripts\":{\"build\":\"vite build\"}}");
+        return projectDir.toFile();
+    }
+
+    private File outDir() {
+        return tempDir.resolve("out").toFile();
+    }
+
+    private int liveWorkers() {
+        return ((AtomicInteger) ReflectionTestUtils.getField(viteWorkerPool, "liveWorkers")).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Deque<ViteWorker> idleWorkers() {
+        return (Deque<ViteWorker>) ReflectionTestUtils.getField(viteWorkerPool, "idleWorkers");
+    }
+
+    private double builds(String result) {
+        return meterRegistry.get("vue.build.worker.builds").tag("result", result).counter().count();
+    }
+}
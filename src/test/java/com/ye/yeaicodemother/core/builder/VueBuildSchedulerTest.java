@@ -0,0 +1,220 @@
+package com.ye.yeaicodemother.core.builder;
+
+import com.ye.yeaicodemother.config.VueBuildProperties;
+import com.ye.yeaicodemother.core.staticfile.StaticFileCache;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
+import com.ye.yeaicodemother.model.enums.BuildStatusEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VueBuildSchedulerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 项目目录 -> 构建次数
+     */
+    private final Map<String, AtomicInteger> buildCounts = new ConcurrentHashMap<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final CountDownLatch firstBuildStarted = new CountDownLatch(1);
+
+    private VueBuildScheduler scheduler;
+
+    private OutputVersionStore outputVersionStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 构建阻塞到测试放行，模拟正在进行中的构建
+        VueProjectBuilder vueProjectBuilder = mock(VueProjectBuilder.class);
+        when(vueProjectBuilder.buildProject(anyString(), any())).thenAnswer(invocation -> {
+            buildCounts.computeIfAbsent(invocation.getArgument(0), key -> new AtomicInteger()).incrementAndGet();
+            firstBuildStarted.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        RLock lock = mock(RLock.class);
+        when(lock.tryLock(anyLong(), any())).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.getLock(anyString())).thenReturn(lock);
+        VueBuildProperties properties = new VueBuildProperties();
+        properties.setMaxConcurrentBuilds(1);
+        properties.setQueueCapacity(1);
+
+        scheduler = new VueBuildScheduler();
+        ReflectionTestUtils.setField(scheduler, "vueProjectBuilder", vueProjectBuilder);
+        ReflectionTestUtils.setField(scheduler, "vueBuildProperties", properties);
+        ReflectionTestUtils.setField(scheduler, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "staticFileCache", mock(StaticFileCache.class));
+        outputVersionStore = new OutputVersionStore(tempDir.resolve("code_output"));
+        ReflectionTestUtils.setField(scheduler, "outputVersionStore", outputVersionStore);
+        scheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.destroy();
+    }
+
+    @Test
+    void joinsBuildInFlight() throws Exception {
+        String project = project("running");
+        CompletableFuture<Boolean> first = scheduler.submit(1L, project);
+        assertTrue(firstBuildStarted.await(10, TimeUnit.SECONDS));
+
+        // 同一项目正在构建时复用该次构建
+        CompletableFuture<Boolean> second = scheduler.submit(1L, project);
+        assertSame(first, second);
+
+        release.countDown();
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertEquals(1, buildCounts.get(project).get());
+    }
+
+    @Test
+    void coalescesQueuedBuildsOfSameProject() throws Exception {
+        String running = project("running");
+        String queued = project("queued");
+        CompletableFuture<Boolean> runningFuture = scheduler.submit(1L, running);
+        assertTrue(firstBuildStarted.await(10, TimeUnit.SECONDS));
+
+        // 排队中的同一项目只构建一次，等价的路径写法视为同一项目
+        CompletableFuture<Boolean> first = scheduler.submit(2L, queued);
+        CompletableFuture<Boolean> second = scheduler.submit(2L, queued + "/./");
+        assertSame(first, second);
+
+        release.countDown();
+        assertTrue(runningFuture.get(10, TimeUnit.SECONDS));
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertEquals(1, buildCounts.get(queued).get());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        scheduler.submit(1L, project("running"));
+        assertTrue(firstBuildStarted.await(10, TimeUnit.SECONDS));
+        scheduler.submit(2L, project("queued"));
+
+        // 并发数和队列都已占满
+        CompletableFuture<Boolean> rejected = scheduler.submit(3L, project("rejected"));
+        assertTrue(rejected.isDone());
+        assertFalse(rejected.get());
+        assertEquals(BuildStatusEnum.FAILED.getValue(), scheduler.getBuildStatus(3L).getStatus());
+    }
+
+    @Test
+    void startsNewBuildAfterPreviousCompleted() throws Exception {
+        String project = project("running");
+        release.countDown();
+        assertTrue(scheduler.submit(1L, project).get(10, TimeUnit.SECONDS));
+        assertTrue(scheduler.submit(1L, project).get(10, TimeUnit.SECONDS));
+        assertEquals(2, buildCounts.get(project).get());
+    }
+
+    @Test
+    void joinsCurrentVersionBuildOfSameApp() throws Exception {
+        String dirName = publishSources("vue_project_1");
+        List<Path> builtDirs = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> first = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> first.complete(scheduler.buildCurrentVersion(1L, dirName, builtDirs::add)));
+        assertTrue(firstBuildStarted.await(10, TimeUnit.SECONDS));
+
+        // 第二次调用派生的会是另一个版本目录，不能再启动一次构建，而是等待进行中的构建
+        CompletableFuture<Boolean> second = new CompletableFuture<>();
+        Thread secondCaller = Thread.ofVirtual().start(() -> second.complete(scheduler.buildCurrentVersion(1L, dirName, builtDirs::add)));
+        awaitWaiting(secondCaller);
+
+        release.countDown();
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, buildCounts.values().stream().mapToInt(AtomicInteger::get).sum());
+        // 两个调用方拿到的都是已发布的新版本
+        Path published = outputVersionStore.resolveCurrent(dirName);
+        assertEquals(2, builtDirs.size());
+        for (Path builtDir : builtDirs) {
+            assertEquals(published, builtDir.toRealPath());
+        }
+    }
+
+    @Test
+    void handsCurrentVersionToCallbackWhenNewerVersionWasPublished() throws Exception {
+        String dirName = publishSources("vue_project_1");
+        List<Path> builtDirs = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> result.complete(scheduler.buildCurrentVersion(1L, dirName, builtDirs::add)));
+        assertTrue(firstBuildStarted.await(10, TimeUnit.SECONDS));
+        Path buildingDir = Path.of(buildCounts.keySet().iterator().next());
+
+        // 构建期间新一轮生成已发布（生成时沿用了上一次的 dist）
+        Path newerVersion = outputVersionStore.beginVersion(dirName);
+        Files.createDirectories(newerVersion.resolve("dist"));
+        outputVersionStore.publish(dirName, newerVersion);
+        release.countDown();
+
+        assertTrue(result.get(10, TimeUnit.SECONDS));
+        // 本次构建的版本没有发布、已被丢弃，回调拿到的是当前版本而不是它
+        assertEquals(1, builtDirs.size());
+        assertEquals(outputVersionStore.resolveCurrent(dirName), builtDirs.get(0).toRealPath());
+        assertFalse(Files.exists(buildingDir));
+    }
+
+    @Test
+    void failsWhenNewerVersionHasNoDist() throws Exception {
+        String dirName = publishSources("vue_project_1");
+        List<Path> builtDirs = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> result.complete(scheduler.buildCurrentVersion(1L, dirName, builtDirs::add)));
+        assertTrue(firstBuildStarted.await(10, TimeUnit.SECONDS));
+
+        outputVersionStore.publish(dirName, outputVersionStore.beginVersion(dirName));
+        release.countDown();
+
+        assertFalse(result.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(), builtDirs);
+    }
+
+    private String publishSources(String dirName) throws Exception {
+        Path versionDir = outputVersionStore.beginVersion(dirName);
+        Files.writeString(versionDir.resolve("package.json"), "{}");
+        outputVersionStore.publish(dirName, versionDir);
+        return dirName;
+    }
+
+    private void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    private String project(String name) {
+        return tempDir.resolve(name).toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,217 @@
+package com.ye.yeaicodemother.core.builder;
+
+import cn.hutool.json.JSONUtil;
+import com.ye.yeaicodemother.config.VueNoBuildProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VueNoBuildPackagerTest {
+
+    private static final String INDEX_HTML = """
+            <!DOCTYPE html>
+            <html>
+            <head><title>demo</title></head>
+            <body>
+              <div id="app"></div>
+              <script type="module" src="/src/main.js"></script>
+            </body>
+            </html>
+            """;
+
+    @TempDir
+    Path projectRoot;
+
+    private VueNoBuildProperties properties;
+
+    private VueNoBuildPackager packager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new VueNoBuildProperties();
+        packager = new VueNoBuildPackager();
+        ReflectionTestUtils.setField(packager, "vueNoBuildProperties", properties);
+        packager.init();
+
+        write("package.json", """
+                {"dependencies": {"vue": "^3.4.0", "vue-router": "^4.4.0"},
+                 "devDependencies": {"vite": "^5.0.0", "@vitejs/plugin-vue": "^5.0.0"}}
+                """);
+        write("index.html", INDEX_HTML);
+        write("public/favicon.ico", "icon");
+        write("src/main.js", """
+                import { createApp } from 'vue'
+                import App from './App.vue'
+                import router from '@/router'
+                import './style.css'
+                createApp(App).use(router).mount('#app')
+                """);
+        write("src/App.vue", "<template><router-view/></template>\n<style>.app{}</style>");
+        write("src/router/index.js", """
+                import { createRouter, createWebHashHistory } from 'vue-router'
+                import Home from '../views/Home.vue'
+                export default createRouter({ history: createWebHashHistory(), routes: [{ path: '/', component: Home }] })
+                """);
+        write("src/views/Home.vue", "<template><Card/></template>\n<script>import Card from '../components/Card'\nexport default { components: { Card } }</script>");
+        write("src/components/Card.vue", "<template><div/></template>");
+        write("src/style.css", "body{}");
+    }
+
+    @Test
+    void packsEligibleProjectIntoDist() throws Exception {
+        write(BuildManifest.FILE_NAME, "{}");
+
+        assertTrue(packager.packIfEligible(projectRoot));
+
+        Path dist = projectRoot.resolve("dist");
+        assertEquals("icon", Files.readString(dist.resolve("favicon.ico")));
+        assertTrue(Files.isRegularFile(dist.resolve("src/components/Card.vue")));
+        String indexHtml = Files.readString(dist.resolve("index.html"));
+        // 原入口脚本替换为 import map 和免构建入口
+        assertFalse(indexHtml.contains("src=\"/src/main.js\""));
+        assertTrue(indexHtml.contains("<script type=\"importmap\">"));
+        assertTrue(indexHtml.contains(properties.getImports().get("vue")));
+        assertTrue(indexHtml.contains("loadModule('/src/main.js'"));
+        assertTrue(indexHtml.indexOf("<script type=\"importmap\">") < indexHtml.indexOf("</body>"));
+        // 免构建产物不是真正的构建结果，之后的正式构建不能被跳过
+        assertFalse(Files.exists(projectRoot.resolve(BuildManifest.FILE_NAME)));
+        assertEquals(List.of(), listTemporaryNames());
+    }
+
+    @Test
+    void replacesPreviousDist() throws Exception {
+        write("dist/assets/old.js", "old");
+
+        assertTrue(packager.packIfEligible(projectRoot));
+        assertFalse(Files.exists(projectRoot.resolve("dist/assets/old.js")));
+        assertTrue(Files.isRegularFile(projectRoot.resolve("dist/index.html")));
+    }
+
+    @Test
+    void rejectsDependencyOutsideWhitelist() throws Exception {
+        write("package.json", "{\"dependencies\": {\"vue\": \"^3.4.0\", \"axios\": \"^1.0.0\"}}");
+        assertNotPacked();
+    }
+
+    @Test
+    void rejectsSourcesThatNeedCompiling() throws Exception {
+        write("src/utils.ts", "export const a: number = 1");
+        assertNotPacked();
+    }
+
+    @Test
+    void rejectsPreprocessedStyles() throws Exception {
+        write("src/App.vue", "<template><div/></template>\n<style lang=\"scss\">.a{.b{}}</style>");
+        assertNotPacked();
+    }
+
+    @Test
+    void rejectsImportMetaAndPackageSubpaths() throws Exception {
+        write("src/env.js", "export const base = import.meta.env.BASE_URL");
+        assertNotPacked();
+
+        write("src/env.js", "import { h } from 'vue/dist/vue.esm-bundler.js'");
+        assertNotPacked();
+    }
+
+    @Test
+    void rejectsMissingEntryScript() throws Exception {
+        write("index.html", INDEX_HTML.replace("/src/main.js", "/src/missing.js"));
+        assertNotPacked();
+    }
+
+    @Test
+    void doesNothingWhenDisabled() throws Exception {
+        properties.setEnabled(false);
+        assertNotPacked();
+    }
+
+    @Test
+    void bootstrapHasNoPlaceholdersLeft() throws Exception {
+        assertTrue(packager.packIfEligible(projectRoot));
+        String bootstrap = extractBootstrap();
+
+        for (String placeholder : List.of("__MODULE_IMPORTS__", "__MODULE_CACHE__", "__SFC_LOADER_URL__", "__FILES__", "__ENTRY__")) {
+            assertFalse(bootstrap.contains(placeholder), placeholder);
+        }
+        assertTrue(bootstrap.contains("import { loadModule } from '" + properties.getSfcLoaderUrl() + "'"));
+        // 每个白名单依赖都放进 vue3-sfc-loader 的模块缓存
+        assertTrue(bootstrap.contains("\"vue\": __module"));
+        assertTrue(bootstrap.contains("\"vue-router\": __module"));
+    }
+
+    @Test
+    void bootstrapResolvesImportsAgainstSourceFiles() throws Exception {
+        assumeTrue(nodeAvailable(), "需要 Node 执行 bootstrap.js");
+        assertTrue(packager.packIfEligible(projectRoot));
+        String bootstrap = extractBootstrap();
+        // 只取路径解析部分执行，其余部分依赖浏览器和 CDN
+        String resolver = bootstrap.substring(bootstrap.indexOf("const files"), bootstrap.indexOf("const addStyle"));
+        String script = resolver + "console.log(JSON.stringify(["
+                + "resolveSource('/src/main.js', './App.vue'),"
+                + "resolveSource('/src/main.js', '@/router'),"
+                + "resolveSource('/src/views/Home.vue', '../components/Card'),"
+                + "resolveSource('/src/main.js', './style.css'),"
+                + "resolveSource('/src/main.js', 'vue'),"
+                + "resolveSource('/src/main.js', './missing')"
+                + "]));";
+
+        assertEquals(List.of("/src/App.vue", "/src/router/index.js", "/src/components/Card.vue",
+                        "/src/style.css", "vue", "/src/missing"),
+                JSONUtil.parseArray(runNode(script)).toList(String.class));
+    }
+
+    private void assertNotPacked() {
+        assertFalse(packager.packIfEligible(projectRoot));
+        assertFalse(Files.exists(projectRoot.resolve("dist")));
+    }
+
+    private String extractBootstrap() throws IOException {
+        String indexHtml = Files.readString(projectRoot.resolve("dist/index.html"));
+        int start = indexHtml.indexOf("<script type=\"module\">") + "<script type=\"module\">".length();
+        return indexHtml.substring(start, indexHtml.indexOf("</script>", start));
+    }
+
+    private List<String> listTemporaryNames() throws IOException {
+        try (Stream<Path> children = Files.list(projectRoot)) {
+            return children.map(child -> child.getFileName().toString())
+                    .filter(name -> name.startsWith(".tmp-"))
+                    .toList();
+        }
+    }
+
+    private boolean nodeAvailable() {
+        try {
+            Process process = new ProcessBuilder("node", "--version").redirectErrorStream(true).start();
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String runNode(String script) throws Exception {
+        Process process = new ProcessBuilder("node", "-e", script).redirectErrorStream(true).start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(0, process.exitValue(), output);
+        return output;
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = projectRoot.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
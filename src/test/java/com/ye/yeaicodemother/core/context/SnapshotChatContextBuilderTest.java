@@ -0,0 +1,95 @@
+package com.ye.yeaicodemother.core.context;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.ye.yeaicodemother.core.saver.CodeFileSaverExecutor;
+import com.ye.yeaicodemother.model.entity.ChatHistory;
+import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
+import com.ye.yeaicodemother.service.ChatHistoryService;
+import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SnapshotChatContextBuilderTest {
+
+    private static final long APP_ID = 1L;
+
+    private SnapshotChatContextBuilder builder;
+
+    private RedisChatMemoryStore redisChatMemoryStore;
+
+    private ChatHistoryService chatHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        redisChatMemoryStore = mock(RedisChatMemoryStore.class);
+        chatHistoryService = mock(ChatHistoryService.class);
+        builder = new SnapshotChatContextBuilder();
+        ReflectionTestUtils.setField(builder, "redisChatMemoryStore", redisChatMemoryStore);
+        ReflectionTestUtils.setField(builder, "chatHistoryService", chatHistoryService);
+    }
+
+    @Test
+    void clearsMemoryOnFirstGeneration() {
+        when(chatHistoryService.list(any(QueryWrapper.class))).thenReturn(List.of());
+        try (MockedStatic<CodeFileSaverExecutor> saver = mockStatic(CodeFileSaverExecutor.class)) {
+            saver.when(() -> CodeFileSaverExecutor.readSavedFiles(CodeGenTypeEnum.HTML, APP_ID)).thenReturn(Map.of());
+
+            builder.rebuildMemory(APP_ID, CodeGenTypeEnum.HTML);
+        }
+        verify(redisChatMemoryStore).deleteMessages(APP_ID);
+        verify(redisChatMemoryStore, never()).updateMessages(any(), anyList());
+    }
+
+    @Test
+    void rebuildsMemoryFromSnapshotAndPreviousInstructions() {
+        // 查询结果为按 id 倒序
+        when(chatHistoryService.list(any(QueryWrapper.class))).thenReturn(new ArrayList<>(List.of(
+                ChatHistory.builder().id(3L).message("把背景改成蓝色").build(),
+                ChatHistory.builder().id(1L).message("做一个个人主页").build())));
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("index.html", "<html></html>");
+        files.put("style.css", "body{}");
+        files.put("script.js", "console.log(1)");
+        try (MockedStatic<CodeFileSaverExecutor> saver = mockStatic(CodeFileSaverExecutor.class)) {
+            saver.when(() -> CodeFileSaverExecutor.readSavedFiles(CodeGenTypeEnum.MULTI_FILE, APP_ID)).thenReturn(files);
+
+            builder.rebuildMemory(APP_ID, CodeGenTypeEnum.MULTI_FILE);
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChatMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(redisChatMemoryStore).updateMessages(eq(APP_ID), captor.capture());
+        List<ChatMessage> messages = captor.getValue();
+        assertEquals(2, messages.size());
+        String context = ((UserMessage) messages.get(0)).singleText();
+        // 历史要求按时间正序编号
+        assertTrue(context.indexOf("1. 做一个个人主页") < context.indexOf("2. 把背景改成蓝色"));
+        assertTrue(context.contains("index.html\n```html\n<html></html>\n```"));
+        assertTrue(context.contains("style.css\n```css\nbody{}\n```"));
+        assertTrue(context.contains("script.js\n```javascript\nconsole.log(1)\n```"));
+        assertEquals(SnapshotChatContextBuilder.SNAPSHOT_ACK, ((AiMessage) messages.get(1)).text());
+    }
+
+    @Test
+    void ackDoesNotPrescribeOutputFormat() {
+        // 同一份快照也用于 SEARCH/REPLACE 增量修改，确认消息不能要求输出完整代码
+        assertFalse(SnapshotChatContextBuilder.SNAPSHOT_ACK.contains("完整代码"));
+    }
+}
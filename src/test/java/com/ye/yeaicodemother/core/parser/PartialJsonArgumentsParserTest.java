@@ -0,0 +1,39 @@
+package com.ye.yeaicodemother.core.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialJsonArgumentsParserTest {
+
+    @Test
+    void parseFragmentsIncrementally() {
+        PartialJsonArgumentsParser parser = new PartialJsonArgumentsParser();
+        parser.feed("{\"relativeFilePath\": \"src/Ap");
+        assertNull(parser.getCompletedString("relativeFilePath"));
+        assertEquals("src/Ap", parser.getString("relativeFilePath"));
+
+        parser.feed("p.vue\", \"content\": \"<template>\\n  <div>\\\"");
+        assertEquals("src/App.vue", parser.getCompletedString("relativeFilePath"));
+        assertEquals("<template>\n  <div>\"", parser.getString("content"));
+        assertNull(parser.getCompletedString("content"));
+
+        // unicode 转义被切分在两个片段中
+        parser.feed("\\u4f");
+        parser.feed("60\\u597d</div>");
+        assertEquals("你好</div>", parser.getStringFrom("content", "<template>\n  <div>\"".length()));
+
+        parser.feed("\"}");
+        assertTrue(parser.isDone());
+        assertEquals("<template>\n  <div>\"你好</div>", parser.getCompletedString("content"));
+    }
+
+    @Test
+    void skipNonStringValues() {
+        PartialJsonArgumentsParser parser = new PartialJsonArgumentsParser();
+        parser.feed("{\"startLine\": 12, \"items\": [{\"a\": \"}\"}, [1, 2]], \"outline\": true, \"relativeFilePath\": \"a.js\"}");
+        assertTrue(parser.isDone());
+        assertEquals("a.js", parser.getCompletedString("relativeFilePath"));
+        assertNull(parser.getString("items"));
+    }
+}
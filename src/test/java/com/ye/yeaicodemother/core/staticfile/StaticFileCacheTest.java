@@ -0,0 +1,135 @@
+package com.ye.yeaicodemother.core.staticfile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ye.yeaicodemother.config.StaticFileCacheProperties;
+import com.ye.yeaicodemother.core.version.OutputVersionStore;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaticFileCacheTest {
+
+    private static final String DEPLOY_KEY = "vue_project_1";
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StaticFileCacheProperties properties;
+
+    private StaticFileCache staticFileCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 解析器直接映射到临时目录：{root}/{deployKey}{path}
+        StaticFileResolver staticFileResolver = mock(StaticFileResolver.class);
+        when(staticFileResolver.resolveAll(anyString(), anyString())).thenAnswer(invocation -> {
+            Path file = root.resolve(invocation.<String>getArgument(0) + invocation.<String>getArgument(1));
+            if (!Files.isRegularFile(file)) {
+                return List.of();
+            }
+            return List.of(new StaticFile(file, Files.size(file), Files.getLastModifiedTime(file).toMillis(),
+                    "\"" + Files.size(file) + "\"", MediaType.TEXT_PLAIN, null, false, "no-cache"));
+        });
+        properties = new StaticFileCacheProperties();
+        properties.setMaxSizeMb(1);
+        properties.setMaxFileSizeKb(512);
+
+        staticFileCache = new StaticFileCache();
+        ReflectionTestUtils.setField(staticFileCache, "staticFileResolver", staticFileResolver);
+        ReflectionTestUtils.setField(staticFileCache, "staticFileCacheProperties", properties);
+        ReflectionTestUtils.setField(staticFileCache, "appCacheInvalidationManager", mock(AppCacheInvalidationManager.class));
+        ReflectionTestUtils.setField(staticFileCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(staticFileCache, "outputVersionStore", mock(OutputVersionStore.class));
+        staticFileCache.init();
+    }
+
+    @Test
+    void servesFromMemoryUntilInvalidated() throws Exception {
+        writeFile(DEPLOY_KEY, "/index.html", "v1");
+        assertEquals("v1", contentOf(DEPLOY_KEY, "/index.html"));
+        assertEquals("v1", contentOf(DEPLOY_KEY, "/index.html"));
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+
+        // 目录被改写后，失效前仍返回内存中的内容，失效后重新读取
+        writeFile(DEPLOY_KEY, "/index.html", "v2");
+        assertEquals("v1", contentOf(DEPLOY_KEY, "/index.html"));
+        staticFileCache.invalidate(DEPLOY_KEY);
+        assertEquals("v2", contentOf(DEPLOY_KEY, "/index.html"));
+    }
+
+    @Test
+    void invalidationIsScopedToDirectory() throws Exception {
+        writeFile(DEPLOY_KEY, "/index.html", "app1");
+        writeFile("vue_project_10", "/index.html", "app10");
+        contentOf(DEPLOY_KEY, "/index.html");
+        contentOf("vue_project_10", "/index.html");
+
+        // 按应用失效只影响该应用的目录，vue_project_1 不能误伤 vue_project_10
+        staticFileCache.invalidateApp(1L);
+        double hitsBefore = requests("hit");
+        contentOf(DEPLOY_KEY, "/index.html");
+        contentOf("vue_project_10", "/index.html");
+        assertEquals(hitsBefore + 1, requests("hit"));
+    }
+
+    @Test
+    void evictsByBytesWithinBudget() throws Exception {
+        // 每个文件约 300KB，5 个文件超过 1MB 的预算
+        String content = "x".repeat(300 * 1024);
+        for (int i = 0; i < 5; i++) {
+            writeFile(DEPLOY_KEY, "/assets/" + i + ".js", content);
+            assertEquals(content, contentOf(DEPLOY_KEY, "/assets/" + i + ".js"));
+        }
+        cleanUp();
+
+        double cachedBytes = meterRegistry.get("static.file.cache.size").gauge().value();
+        assertTrue(cachedBytes > 0);
+        assertTrue(cachedBytes <= 1024 * 1024, "缓存占用超过预算: " + cachedBytes);
+    }
+
+    @Test
+    void largeFilesKeepOnlyMetadata() throws Exception {
+        writeFile(DEPLOY_KEY, "/video.mp4", "x".repeat(600 * 1024));
+        StaticContent content = staticFileCache.get(DEPLOY_KEY, "/video.mp4", null);
+        assertNotNull(content);
+        // 超过大小上限的文件不缓存内容，由磁盘发送
+        assertNull(content.content());
+        assertEquals(600 * 1024, content.file().size());
+    }
+
+    private void writeFile(String deployKey, String resourcePath, String content) throws Exception {
+        Path file = root.resolve(deployKey + resourcePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private String contentOf(String deployKey, String resourcePath) throws Exception {
+        StaticContent content = staticFileCache.get(deployKey, resourcePath, null);
+        return content == null ? null : new String(content.content());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("static.file.cache.requests").tag("result", result).counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cleanUp() {
+        ((Cache<String, ?>) ReflectionTestUtils.getField(staticFileCache, "cache")).cleanUp();
+    }
+}
@@ -0,0 +1,124 @@
+package com.ye.yeaicodemother.core.staticfile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticFileResolverTest {
+
+    private static final String DEPLOY_KEY = "vue_project_1";
+
+    private static final String HASHED_ASSET = "/dist/assets/index-4f3a9c1b.js";
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+
+    private StaticFileResolver staticFileResolver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createDirectories(tempDir.resolve("code_output"));
+        staticFileResolver = new StaticFileResolver(root);
+        write(DEPLOY_KEY + "/dist/index.html", "<html></html>");
+        write(DEPLOY_KEY + HASHED_ASSET, "console.log(1)");
+    }
+
+    @Test
+    void rejectsPathsOutsideDeployDir() throws Exception {
+        write("vue_project_2/dist/index.html", "other app");
+        write("../secret.txt", "secret");
+        write(".versions/vue_project_1/v1/dist/index.html", "old version");
+
+        assertNull(staticFileResolver.resolve(DEPLOY_KEY, "/../vue_project_2/dist/index.html", null));
+        assertNull(staticFileResolver.resolve(DEPLOY_KEY, "/dist/../../../secret.txt", null));
+        assertNull(staticFileResolver.resolve("..", "/secret.txt", null));
+        assertNull(staticFileResolver.resolve(".versions", "/vue_project_1/v1/dist/index.html", null));
+        assertNull(staticFileResolver.resolve("vue_project_2/..", "/vue_project_1/dist/index.html", null));
+        // 目录本身不是文件
+        assertNull(staticFileResolver.resolve(DEPLOY_KEY, "/dist", null));
+        // 目录内的 ../ 规范化后仍在目录内，正常返回
+        StaticFile file = staticFileResolver.resolve(DEPLOY_KEY, "/dist/assets/../index.html", null);
+        assertNotNull(file);
+        assertEquals(root.resolve(DEPLOY_KEY + "/dist/index.html").toAbsolutePath().normalize(), file.path());
+    }
+
+    @Test
+    void selectsPrecompressedFileByAcceptEncoding() throws Exception {
+        writeVariants(DEPLOY_KEY + HASHED_ASSET);
+
+        assertEquals("br", encodingOf("gzip, deflate, br"));
+        assertEquals("br", encodingOf("br;q=0.5"));
+        assertEquals("gzip", encodingOf("gzip"));
+        // q=0 表示明确不接受
+        assertEquals("gzip", encodingOf("br;q=0, gzip"));
+        assertEquals("gzip", encodingOf("gzip, *;q=0"));
+        assertEquals("br", encodingOf("gzip;q=0, *"));
+        assertNull(encodingOf("br;q=0, gzip;q=0.0"));
+        assertNull(encodingOf("*;q=0"));
+        assertNull(encodingOf("identity"));
+        assertNull(encodingOf(null));
+    }
+
+    @Test
+    void ignoresStalePrecompressedFiles() throws Exception {
+        writeVariants(DEPLOY_KEY + HASHED_ASSET);
+        Path original = root.resolve(DEPLOY_KEY + HASHED_ASSET);
+        Files.setLastModifiedTime(original, FileTime.fromMillis(Files.getLastModifiedTime(original).toMillis() + 60_000));
+
+        List<StaticFile> files = staticFileResolver.resolveAll(DEPLOY_KEY, HASHED_ASSET);
+        assertEquals(1, files.size());
+        assertNull(staticFileResolver.resolve(DEPLOY_KEY, HASHED_ASSET, "br, gzip").contentEncoding());
+    }
+
+    @Test
+    void onlyViteHashedAssetsAreImmutable() throws Exception {
+        writeVariants(DEPLOY_KEY + HASHED_ASSET);
+        write(DEPLOY_KEY + "/src/assets/hero-abcdefgh.png", "png");
+        write(DEPLOY_KEY + "/dist/assets/logo.png", "png");
+        write("html_1/dist/assets/index-4f3a9c1b.js", "console.log(1)");
+
+        // 预压缩版本与原文件使用相同的缓存策略
+        for (StaticFile file : staticFileResolver.resolveAll(DEPLOY_KEY, HASHED_ASSET)) {
+            assertEquals("public, max-age=31536000, immutable", file.cacheControl());
+        }
+        assertEquals("no-cache", cacheControlOf(DEPLOY_KEY, "/dist/index.html"));
+        // 源码中的资源和不带哈希的构建产物，文件名不变而内容可能变化
+        assertEquals("no-cache", cacheControlOf(DEPLOY_KEY, "/src/assets/hero-abcdefgh.png"));
+        assertEquals("no-cache", cacheControlOf(DEPLOY_KEY, "/dist/assets/logo.png"));
+        // 只有 Vue 项目的 dist/assets 由 Vite 输出
+        assertEquals("no-cache", cacheControlOf("html_1", "/dist/assets/index-4f3a9c1b.js"));
+    }
+
+    private String encodingOf(String acceptEncoding) throws IOException {
+        return staticFileResolver.resolve(DEPLOY_KEY, HASHED_ASSET, acceptEncoding).contentEncoding();
+    }
+
+    private String cacheControlOf(String deployKey, String resourcePath) throws IOException {
+        return staticFileResolver.resolve(deployKey, resourcePath, null).cacheControl();
+    }
+
+    private void writeVariants(String path) throws IOException {
+        FileTime lastModified = Files.getLastModifiedTime(root.resolve(path));
+        for (String suffix : List.of(".br", ".gz")) {
+            Path variant = write(path + suffix, "compressed" + suffix);
+            Files.setLastModifiedTime(variant, lastModified);
+        }
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = root.resolve(path).normalize();
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+}
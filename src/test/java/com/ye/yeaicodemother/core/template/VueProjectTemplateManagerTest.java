@@ -0,0 +1,104 @@
+package com.ye.yeaicodemother.core.template;
+
+import com.ye.yeaicodemother.config.VueProjectTemplateProperties;
+import com.ye.yeaicodemother.core.builder.DependencyStore;
+import com.ye.yeaicodemother.core.builder.VueProjectBuilder;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspace;
+import com.ye.yeaicodemother.core.workspace.ProjectWorkspaceManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VueProjectTemplateManagerTest {
+
+    private static final Long APP_ID = 1L;
+
+    @TempDir
+    Path root;
+
+    private ProjectWorkspace workspace;
+
+    private DependencyStore dependencyStore;
+
+    private VueProjectTemplateProperties templateProperties;
+
+    private VueProjectTemplateManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        workspace = ProjectWorkspace.open(root, 1024 * 1024);
+        ProjectWorkspaceManager projectWorkspaceManager = mock(ProjectWorkspaceManager.class);
+        when(projectWorkspaceManager.execute(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<ProjectWorkspaceManager.WorkspaceAction<?>>getArgument(1).apply(workspace));
+        doAnswer(invocation -> {
+            workspace.flush();
+            return null;
+        }).when(projectWorkspaceManager).flush(anyLong());
+        when(projectWorkspaceManager.getProjectRoot(anyLong())).thenReturn(root);
+        dependencyStore = mock(DependencyStore.class);
+        templateProperties = new VueProjectTemplateProperties();
+
+        manager = new VueProjectTemplateManager();
+        ReflectionTestUtils.setField(manager, "templateProperties", templateProperties);
+        ReflectionTestUtils.setField(manager, "projectWorkspaceManager", projectWorkspaceManager);
+        ReflectionTestUtils.setField(manager, "vueProjectBuilder", mock(VueProjectBuilder.class));
+        ReflectionTestUtils.setField(manager, "dependencyStore", dependencyStore);
+    }
+
+    @Test
+    void loadsTemplateFilesFromClasspath() {
+        Map<String, String> files = ReflectionTestUtils.invokeMethod(manager, "loadTemplateFiles", "v1");
+
+        assertNotNull(files);
+        // 以相对于版本目录的路径为键，包含子目录和点开头的文件
+        assertTrue(files.containsKey("package.json"));
+        assertTrue(files.containsKey("vite.config.js"));
+        assertTrue(files.containsKey("src/main.js"));
+        assertTrue(files.containsKey("src/router/index.js"));
+        assertTrue(files.containsKey(".gitignore"));
+        assertTrue(files.get("package.json").contains("\"vue\""));
+    }
+
+    @Test
+    void seedsNewProjectOnlyOnce() throws Exception {
+        manager.init();
+
+        assertTrue(manager.seedIfAbsent(APP_ID));
+        assertTrue(Files.isRegularFile(root.resolve("package.json")));
+        assertTrue(Files.isRegularFile(root.resolve("src/App.vue")));
+        verify(dependencyStore).linkIfPresent(root);
+
+        // 已有 package.json 的项目不再写入
+        Files.writeString(root.resolve("src/App.vue"), "<template>改过</template>");
+        assertFalse(manager.seedIfAbsent(APP_ID));
+        assertEquals("<template>改过</template>", Files.readString(root.resolve("src/App.vue")));
+    }
+
+    @Test
+    void keepsExistingProjectUntouched() throws Exception {
+        manager.init();
+        workspace.write("package.json", "{\"name\":\"existing\"}");
+
+        assertFalse(manager.seedIfAbsent(APP_ID));
+        assertFalse(workspace.isFile("vite.config.js"));
+        verifyNoInteractions(dependencyStore);
+    }
+
+    @Test
+    void seedsNothingWhenDisabled() {
+        templateProperties.setEnabled(false);
+        manager.init();
+
+        assertFalse(manager.seedIfAbsent(APP_ID));
+        assertFalse(workspace.isFile("package.json"));
+    }
+}
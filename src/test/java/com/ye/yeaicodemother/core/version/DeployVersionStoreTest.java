@@ -0,0 +1,120 @@
+package com.ye.yeaicodemother.core.version;
+
+import com.ye.yeaicodemother.core.blob.ContentBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeployVersionStoreTest {
+
+    private static final String DEPLOY_KEY = "abc123";
+
+    @TempDir
+    Path tempDir;
+
+    private Path deployRoot;
+
+    private Path sourceDir;
+
+    private DeployVersionStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        deployRoot = tempDir.resolve("deploy");
+        sourceDir = tempDir.resolve("dist");
+        Files.createDirectories(sourceDir.resolve("assets"));
+        // 保留 2 个历史版本，不设最短保留时间，便于验证清理
+        store = new DeployVersionStore(new OutputVersionStore(deployRoot, 2, Duration.ZERO),
+                new ContentBlobStore(tempDir.resolve("blobs")));
+    }
+
+    @Test
+    void redeployWritesOnlyChangesAndSwitchesAtomically() throws Exception {
+        Files.writeString(sourceDir.resolve("index.html"), "v1");
+        Files.writeString(sourceDir.resolve("assets/app.js"), "app");
+        Files.writeString(sourceDir.resolve("assets/old.js"), "old");
+        assertEquals(new DeployVersionStore.DeployStats(3, 0, 0), store.deploy(DEPLOY_KEY, sourceDir));
+        Path live = deployRoot.resolve(DEPLOY_KEY);
+        Path first = live.toRealPath();
+
+        Files.writeString(sourceDir.resolve("index.html"), "v2");
+        Files.delete(sourceDir.resolve("assets/old.js"));
+        assertEquals(new DeployVersionStore.DeployStats(1, 1, 1), store.deploy(DEPLOY_KEY, sourceDir));
+
+        assertTrue(Files.isSymbolicLink(live));
+        assertNotEquals(first, live.toRealPath());
+        assertEquals("v2", Files.readString(live.resolve("index.html")));
+        assertFalse(Files.exists(live.resolve("assets/old.js")));
+        // 上一个版本保持原样，未变化的文件与其共享 inode
+        assertEquals("v1", Files.readString(first.resolve("index.html")));
+        assertTrue(Files.exists(first.resolve("assets/old.js")));
+        assertTrue(Files.isSameFile(first.resolve("assets/app.js"), live.resolve("assets/app.js")));
+    }
+
+    @Test
+    void failedDeployKeepsLiveVersion() throws Exception {
+        Files.writeString(sourceDir.resolve("index.html"), "v1");
+        store.deploy(DEPLOY_KEY, sourceDir);
+        Path live = deployRoot.resolve(DEPLOY_KEY).toRealPath();
+
+        assertThrows(NoSuchFileException.class, () -> store.deploy(DEPLOY_KEY, tempDir.resolve("missing")));
+        assertEquals(live, deployRoot.resolve(DEPLOY_KEY).toRealPath());
+        assertEquals("v1", Files.readString(deployRoot.resolve(DEPLOY_KEY).resolve("index.html")));
+        // 失败的版本已丢弃
+        assertEquals(1, countVersions());
+    }
+
+    @Test
+    void rollbackStepsBackUntilFirstVersion() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            Files.writeString(sourceDir.resolve("index.html"), "v" + i);
+            store.deploy(DEPLOY_KEY, sourceDir);
+        }
+        Path indexFile = deployRoot.resolve(DEPLOY_KEY).resolve("index.html");
+
+        assertTrue(store.rollback(DEPLOY_KEY));
+        assertEquals("v2", Files.readString(indexFile));
+        assertTrue(store.rollback(DEPLOY_KEY));
+        assertEquals("v1", Files.readString(indexFile));
+        // 已经是第一个版本
+        assertFalse(store.rollback(DEPLOY_KEY));
+        assertEquals("v1", Files.readString(indexFile));
+
+        // 回滚后重新部署生成更新的版本
+        Files.writeString(sourceDir.resolve("index.html"), "v4");
+        store.deploy(DEPLOY_KEY, sourceDir);
+        assertEquals("v4", Files.readString(indexFile));
+    }
+
+    @Test
+    void rollbackWithoutDeployReturnsFalse() throws Exception {
+        assertFalse(store.rollback(DEPLOY_KEY));
+    }
+
+    @Test
+    void prunesVersionsBeyondRetention() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            Files.writeString(sourceDir.resolve("index.html"), "v" + i);
+            store.deploy(DEPLOY_KEY, sourceDir);
+        }
+        // 当前版本 + 保留的 2 个历史版本
+        assertEquals(3, countVersions());
+        assertEquals("v5", Files.readString(deployRoot.resolve(DEPLOY_KEY).resolve("index.html")));
+        assertTrue(store.rollback(DEPLOY_KEY));
+        assertEquals("v4", Files.readString(deployRoot.resolve(DEPLOY_KEY).resolve("index.html")));
+    }
+
+    private long countVersions() throws Exception {
+        try (Stream<Path> versions = Files.list(deployRoot.resolve(".versions").resolve(DEPLOY_KEY))) {
+            return versions.count();
+        }
+    }
+}
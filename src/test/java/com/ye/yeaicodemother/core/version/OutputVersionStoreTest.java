@@ -0,0 +1,51 @@
+package com.ye.yeaicodemother.core.version;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputVersionStoreTest {
+
+    @TempDir
+    Path outputRoot;
+
+    @Test
+    void newVersionIsInvisibleUntilPublished() throws Exception {
+        // 旧的实体目录迁移为第一个版本
+        Path legacyDir = outputRoot.resolve("html_1");
+        Files.createDirectories(legacyDir);
+        Files.writeString(legacyDir.resolve("index.html"), "v1");
+
+        OutputVersionStore store = new OutputVersionStore(outputRoot);
+        Path versionDir = store.beginVersion("html_1");
+        assertTrue(Files.isSymbolicLink(legacyDir));
+        assertEquals("v1", Files.readString(versionDir.resolve("index.html")));
+
+        // 按整体替换的方式写入新版本，当前版本不受影响
+        Path tempFile = Files.createTempFile(versionDir, ".tmp", null);
+        Files.writeString(tempFile, "v2");
+        Files.move(tempFile, versionDir.resolve("index.html"), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        assertEquals("v1", Files.readString(legacyDir.resolve("index.html")));
+
+        store.publish("html_1", versionDir);
+        assertEquals(versionDir.toRealPath(), store.resolveCurrent("html_1"));
+        assertEquals("v2", Files.readString(legacyDir.resolve("index.html")));
+    }
+
+    @Test
+    void discardKeepsCurrentVersion() throws Exception {
+        OutputVersionStore store = new OutputVersionStore(outputRoot);
+        Path first = store.beginVersion("multi_file_2");
+        Files.writeString(first.resolve("index.html"), "first");
+        store.publish("multi_file_2", first);
+
+        Path second = store.beginVersion("multi_file_2");
+        store.discard("multi_file_2", second);
+        assertFalse(Files.exists(second));
+        assertEquals("first", Files.readString(store.resolveCurrent("multi_file_2").resolve("index.html")));
+    }
+}
@@ -0,0 +1,35 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectDirIndexTest {
+
+    @Test
+    void renderIsUpdatedInPlace() {
+        ProjectDirIndex index = new ProjectDirIndex();
+        index.addFile("package.json");
+        index.addFile("src/App.vue");
+        index.addFile("src/components/Hello.vue");
+        index.addFile("node_modules/vue/index.js");
+        index.addFile("yarn.lock");
+        assertEquals("""
+                src/
+                  components/
+                    Hello.vue
+                  App.vue
+                package.json
+                """, index.render(""));
+
+        index.addFile("src/router/index.js");
+        index.removeFile("src/components/Hello.vue");
+        assertFalse(index.isDirectory("src/components"));
+        assertEquals("""
+                router/
+                  index.js
+                App.vue
+                """, index.render("src"));
+        assertNull(index.render("src/components"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectWorkspaceTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void writeAndDeleteAreFlushedToDisk() throws Exception {
+        Files.createDirectories(root.resolve("src"));
+        Files.createDirectories(root.resolve("node_modules/vue"));
+        Files.writeString(root.resolve("package.json"), "{}");
+        Files.writeString(root.resolve("src/App.vue"), "<template/>");
+        Files.writeString(root.resolve("node_modules/vue/index.js"), "module.exports = {}");
+
+        ProjectWorkspace workspace = ProjectWorkspace.open(root, 1024);
+        // node_modules 不进入索引，但仍可按路径读取
+        assertEquals(List.of("package.json", "src/App.vue"), workspace.listFiles(""));
+        assertEquals("module.exports = {}", workspace.read("node_modules/vue/index.js"));
+
+        workspace.write("src/components/Hello.vue", "<template>hi</template>");
+        assertTrue(workspace.delete("src/App.vue"));
+        assertTrue(workspace.isDirectory("src/components"));
+        assertEquals(List.of("src/components/Hello.vue"), workspace.listFiles("src"));
+        // 写回磁盘前磁盘内容不变
+        assertTrue(workspace.isDirty());
+        assertTrue(Files.exists(root.resolve("src/App.vue")));
+        assertFalse(Files.exists(root.resolve("src/components/Hello.vue")));
+
+        workspace.flush();
+        assertFalse(workspace.isDirty());
+        assertFalse(Files.exists(root.resolve("src/App.vue")));
+        assertEquals("<template>hi</template>", Files.readString(root.resolve("src/components/Hello.vue")));
+    }
+
+    @Test
+    void skipsBuildOutputsOnlyAtTopLevel() throws Exception {
+        Files.createDirectories(root.resolve("dist/assets"));
+        Files.createDirectories(root.resolve("src/build"));
+        Files.createDirectories(root.resolve("src/coverage"));
+        Files.createDirectories(root.resolve("packages/ui/node_modules/lodash"));
+        Files.writeString(root.resolve("dist/assets/index.js"), "built");
+        Files.writeString(root.resolve("src/build/config.js"), "export default {}");
+        Files.writeString(root.resolve("src/coverage/Badge.vue"), "<template/>");
+        Files.writeString(root.resolve("packages/ui/node_modules/lodash/index.js"), "module.exports = {}");
+
+        ProjectWorkspace workspace = ProjectWorkspace.open(root, 1024);
+        // 子目录中的 build / coverage 属于源码，嵌套的 node_modules 仍然跳过
+        assertEquals(List.of("src/build/config.js", "src/coverage/Badge.vue"), workspace.listFiles(""));
+        // 被跳过目录中的文件仍可按路径访问
+        assertTrue(workspace.isFile("dist/assets/index.js"));
+        assertTrue(workspace.isFile("packages/ui/node_modules/lodash/index.js"));
+    }
+
+    @Test
+    void normalizePathRejectsEscapes() {
+        assertNull(ProjectWorkspace.normalizePath(root, "../other/file.js"));
+        assertEquals("", ProjectWorkspace.normalizePath(root, ""));
+        assertEquals("src/App.vue", ProjectWorkspace.normalizePath(root, "./src//App.vue"));
+        assertEquals("src/App.vue", ProjectWorkspace.normalizePath(root, root.resolve("src/App.vue").toString()));
+    }
+
+    @Test
+    void versionChangesOnlyWhenContentChanges() throws Exception {
+        ProjectWorkspace workspace = ProjectWorkspace.open(root, 1024);
+        long initial = workspace.getVersion();
+        workspace.write("src/App.vue", "<template/>");
+        assertEquals(initial + 1, workspace.getVersion());
+        // 重写相同内容不改变版本
+        workspace.write("src/App.vue", "<template/>");
+        assertEquals(initial + 1, workspace.getVersion());
+        workspace.write("src/App.vue", "<template>hi</template>");
+        assertTrue(workspace.delete("src/App.vue"));
+        assertEquals(initial + 3, workspace.getVersion());
+    }
+
+    @Test
+    void rewritingUnchangedDiskContentKeepsVersion() throws Exception {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/App.vue"), "<template/>");
+        ProjectWorkspace workspace = ProjectWorkspace.open(root, 1024);
+        long initial = workspace.getVersion();
+        // 内容尚未加载到内存时，与磁盘上的内容比较
+        workspace.write("src/App.vue", "<template/>");
+        assertEquals(initial, workspace.getVersion());
+        assertFalse(workspace.isDirty());
+    }
+}
@@ -0,0 +1,112 @@
+package com.ye.yeaicodemother.core.workspace;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamingFileWriterTest {
+
+    private static final Long APP_ID = 1L;
+
+    private static final String ORIGINAL = "<template>old</template>";
+
+    /**
+     * 超过写入阈值，保证流式过程中已写入工作区
+     */
+    private static final String STREAMED = "<template>" + "x".repeat(4096) + "</template>";
+
+    @TempDir
+    Path root;
+
+    private ProjectWorkspace workspace;
+
+    private StreamingFileWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/App.vue"), ORIGINAL);
+        workspace = ProjectWorkspace.open(root, 1024 * 1024);
+        ProjectWorkspaceManager projectWorkspaceManager = mock(ProjectWorkspaceManager.class);
+        when(projectWorkspaceManager.normalizePath(anyLong(), anyString()))
+                .thenAnswer(invocation -> ProjectWorkspace.normalizePath(root, invocation.getArgument(1)));
+        when(projectWorkspaceManager.execute(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<ProjectWorkspaceManager.WorkspaceAction<?>>getArgument(1).apply(workspace));
+        writer = new StreamingFileWriter(projectWorkspaceManager, APP_ID);
+    }
+
+    @Test
+    void duplicateCallKeepsContentOfCachedSuccess() throws Exception {
+        String arguments = stream("call-1");
+        writer.onToolExecuted(execution("call-1", arguments,
+                "[重复调用] 该调用（写入文件）与本轮之前的调用完全相同，且项目文件没有变化，以下是之前的结果，请不要重复调用：\n"
+                        + "文件写入成功: src/App.vue"));
+
+        assertEquals(STREAMED, workspace.read("src/App.vue"));
+    }
+
+    @Test
+    void skippedCallAfterForcedExitRestoresOriginal() throws Exception {
+        String arguments = stream("call-1");
+        // 流式过程中已写入工作区
+        assertNotEquals(ORIGINAL, workspace.read("src/App.vue"));
+        writer.onToolExecuted(execution("call-1", arguments,
+                "[已停止执行工具] 检测到工具调用连续多次没有进展，已停止执行工具。不要继续调用工具，请调用退出工具或直接输出最终结果"));
+
+        assertEquals(ORIGINAL, workspace.read("src/App.vue"));
+    }
+
+    @Test
+    void failedWriteRestoresOriginal() throws Exception {
+        String arguments = stream("call-1");
+        writer.onToolExecuted(execution("call-1", arguments, "文件写入失败: 磁盘已满"));
+
+        assertEquals(ORIGINAL, workspace.read("src/App.vue"));
+    }
+
+    @Test
+    void callsWithSameIndexInDifferentResponsesAreSeparateSessions() throws Exception {
+        // 第一次回复中的调用尚未执行，第二次回复的调用序号同样从 0 开始
+        stream("call-1");
+        String arguments = stream("call-2", "src/Other.vue");
+        writer.onToolExecuted(execution("call-2", arguments, "文件写入成功: src/Other.vue"));
+
+        assertEquals(STREAMED, workspace.read("src/Other.vue"));
+        // 第一次回复的调用仍可单独回滚
+        writer.rollbackPending();
+        assertEquals(ORIGINAL, workspace.read("src/App.vue"));
+        assertEquals(STREAMED, workspace.read("src/Other.vue"));
+    }
+
+    /**
+     * 分片推送 writeFile 参数，返回完整参数
+     */
+    private String stream(String id) {
+        return stream(id, "src/App.vue");
+    }
+
+    private String stream(String id, String relativeFilePath) {
+        String arguments = "{\"relativeFilePath\":\"" + relativeFilePath + "\",\"content\":\"" + STREAMED + "\"}";
+        for (int start = 0; start < arguments.length(); start += 512) {
+            String chunk = arguments.substring(start, Math.min(arguments.length(), start + 512));
+            writer.onPartialRequest(0, ToolExecutionRequest.builder().id(id).name("writeFile").arguments(chunk).build());
+        }
+        return arguments;
+    }
+
+    private ToolExecution execution(String id, String arguments, String result) {
+        ToolExecutionRequest request = ToolExecutionRequest.builder().id(id).name("writeFile").arguments(arguments).build();
+        return ToolExecution.builder().request(request).result(result).build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.ye.yeaicodemother.service.impl;
+
+import com.ye.yeaicodemother.constant.AppConstant;
+import com.ye.yeaicodemother.core.version.DeployVersionStore;
+import com.ye.yeaicodemother.exception.BusinessException;
+import com.ye.yeaicodemother.exception.ErrorCode;
+import com.ye.yeaicodemother.model.entity.App;
+import com.ye.yeaicodemother.model.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AppServiceImplRollbackTest {
+
+    private static final long APP_ID = 1L;
+
+    private static final long OWNER_ID = 10L;
+
+    private static final String DEPLOY_KEY = "aB3dEf";
+
+    private AppServiceImpl appService;
+
+    private DeployVersionStore deployVersionStore;
+
+    @BeforeEach
+    void setUp() {
+        deployVersionStore = mock(DeployVersionStore.class);
+        appService = spy(new AppServiceImpl());
+        ReflectionTestUtils.setField(appService, "deployVersionStore", deployVersionStore);
+        doReturn(true).when(appService).updateById(any(App.class));
+        doNothing().when(appService).generateAppScreenshotAsync(anyLong(), anyString());
+    }
+
+    @Test
+    void ownerRollsBackToPreviousVersion() throws Exception {
+        givenApp(DEPLOY_KEY);
+        when(deployVersionStore.rollback(DEPLOY_KEY)).thenReturn(true);
+
+        String deployUrl = appService.rollbackDeploy(APP_ID, user(OWNER_ID));
+
+        assertEquals(AppConstant.CODE_DEPLOY_HOST + "/" + DEPLOY_KEY, deployUrl);
+        // 部署标识不变，只刷新部署时间
+        ArgumentCaptor<App> updated = ArgumentCaptor.forClass(App.class);
+        verify(appService).updateById(updated.capture());
+        assertEquals(APP_ID, updated.getValue().getId());
+        assertNull(updated.getValue().getDeployKey());
+        assertNotNull(updated.getValue().getDeployedTime());
+        // 回滚后的页面不同，重新生成封面
+        verify(appService).generateAppScreenshotAsync(APP_ID, deployUrl);
+    }
+
+    @Test
+    void rejectsUserOtherThanOwner() {
+        givenApp(DEPLOY_KEY);
+
+        assertErrorCode(ErrorCode.NO_AUTH_ERROR, () -> appService.rollbackDeploy(APP_ID, user(OWNER_ID + 1)));
+        verifyNoInteractions(deployVersionStore);
+        verify(appService, never()).updateById(any(App.class));
+    }
+
+    @Test
+    void rejectsMissingOrUndeployedApp() {
+        doReturn(null).when(appService).getById(APP_ID);
+        assertErrorCode(ErrorCode.NOT_FOUND_ERROR, () -> appService.rollbackDeploy(APP_ID, user(OWNER_ID)));
+
+        givenApp(null);
+        assertErrorCode(ErrorCode.OPERATION_ERROR, () -> appService.rollbackDeploy(APP_ID, user(OWNER_ID)));
+        verifyNoInteractions(deployVersionStore);
+    }
+
+    @Test
+    void rejectsInvalidParams() {
+        assertErrorCode(ErrorCode.PARAMS_ERROR, () -> appService.rollbackDeploy(null, user(OWNER_ID)));
+        assertErrorCode(ErrorCode.PARAMS_ERROR, () -> appService.rollbackDeploy(0L, user(OWNER_ID)));
+        assertErrorCode(ErrorCode.NOT_LOGIN_ERROR, () -> appService.rollbackDeploy(APP_ID, null));
+    }
+
+    @Test
+    void failsWithoutHistoryVersion() throws Exception {
+        givenApp(DEPLOY_KEY);
+        when(deployVersionStore.rollback(DEPLOY_KEY)).thenReturn(false);
+
+        assertErrorCode(ErrorCode.OPERATION_ERROR, () -> appService.rollbackDeploy(APP_ID, user(OWNER_ID)));
+        verify(appService, never()).updateById(any(App.class));
+        verify(appService, never()).generateAppScreenshotAsync(anyLong(), anyString());
+    }
+
+    @Test
+    void wrapsStoreFailure() throws Exception {
+        givenApp(DEPLOY_KEY);
+        when(deployVersionStore.rollback(DEPLOY_KEY)).thenThrow(new IOException("磁盘已满"));
+
+        BusinessException e = assertErrorCode(ErrorCode.SYSTEM_ERROR,
+                () -> appService.rollbackDeploy(APP_ID, user(OWNER_ID)));
+        assertTrue(e.getMessage().contains("磁盘已满"));
+        verify(appService, never()).updateById(any(App.class));
+    }
+
+    private void givenApp(String deployKey) {
+        App app = App.builder().id(APP_ID).userId(OWNER_ID).deployKey(deployKey).build();
+        doReturn(app).when(appService).getById(APP_ID);
+    }
+
+    private User user(long id) {
+        return User.builder().id(id).build();
+    }
+
+    private BusinessException assertErrorCode(ErrorCode errorCode, Executable executable) {
+        BusinessException e = assertThrows(BusinessException.class, executable);
+        assertEquals(errorCode.getCode(), e.getCode());
+        return e;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ye.yeaicodemother.service.impl;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.ye.yeaicodemother.model.entity.ChatHistory;
+import com.ye.yeaicodemother.model.entity.ChatHistorySummary;
+import com.ye.yeaicodemother.model.enums.ChatHistoryMessageTypeEnum;
+import com.ye.yeaicodemother.service.ChatHistorySummaryService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChatHistoryServiceImplTest {
+
+    private static final long APP_ID = 1L;
+
+    private ChatHistoryServiceImpl chatHistoryService;
+
+    private ChatHistorySummaryService chatHistorySummaryService;
+
+    private MessageWindowChatMemory chatMemory;
+
+    @BeforeEach
+    void setUp() {
+        chatHistorySummaryService = mock(ChatHistorySummaryService.class);
+        chatHistoryService = spy(new ChatHistoryServiceImpl());
+        ReflectionTestUtils.setField(chatHistoryService, "chatHistorySummaryService", chatHistorySummaryService);
+        chatMemory = MessageWindowChatMemory.builder().maxMessages(20).build();
+    }
+
+    @Test
+    void injectsSummaryBeforeRecentMessages() {
+        when(chatHistorySummaryService.getLatestSummary(APP_ID)).thenReturn(ChatHistorySummary.builder()
+                .appId(APP_ID)
+                .summary("用户要做一个博客网站")
+                .lastHistoryId(10L)
+                .build());
+        // 查询结果为按 id 倒序
+        List<ChatHistory> newestFirst = new ArrayList<>(List.of(
+                history(12L, ChatHistoryMessageTypeEnum.AI, "已添加评论功能"),
+                history(11L, ChatHistoryMessageTypeEnum.USER, "添加评论功能")));
+        doReturn(newestFirst).when(chatHistoryService).list(any(QueryWrapper.class));
+
+        int loaded = chatHistoryService.loadChatHistoryToMemory(APP_ID, chatMemory, 20);
+
+        assertEquals(2, loaded);
+        List<ChatMessage> messages = chatMemory.messages();
+        assertEquals(3, messages.size());
+        assertTrue(((UserMessage) messages.get(0)).singleText().contains("用户要做一个博客网站"));
+        assertEquals("添加评论功能", ((UserMessage) messages.get(1)).singleText());
+        assertEquals("已添加评论功能", ((AiMessage) messages.get(2)).text());
+    }
+
+    @Test
+    void injectsSummaryEvenWithoutNewerMessages() {
+        when(chatHistorySummaryService.getLatestSummary(APP_ID)).thenReturn(ChatHistorySummary.builder()
+                .appId(APP_ID)
+                .summary("用户要做一个博客网站")
+                .lastHistoryId(10L)
+                .build());
+        doReturn(new ArrayList<ChatHistory>()).when(chatHistoryService).list(any(QueryWrapper.class));
+
+        assertEquals(0, chatHistoryService.loadChatHistoryToMemory(APP_ID, chatMemory, 20));
+        assertEquals(1, chatMemory.messages().size());
+    }
+
+    @Test
+    void loadsNothingWithoutSummaryOrHistory() {
+        doReturn(new ArrayList<ChatHistory>()).when(chatHistoryService).list(any(QueryWrapper.class));
+
+        assertEquals(0, chatHistoryService.loadChatHistoryToMemory(APP_ID, chatMemory, 20));
+        assertTrue(chatMemory.messages().isEmpty());
+    }
+
+    private static ChatHistory history(long id, ChatHistoryMessageTypeEnum type, String message) {
+        return ChatHistory.builder()
+                .id(id)
+                .appId(APP_ID)
+                .message(message)
+                .messageType(type.getValue())
+                .build();
+    }
+}
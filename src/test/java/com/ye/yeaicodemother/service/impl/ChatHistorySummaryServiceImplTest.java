@@ -0,0 +1,140 @@
+package com.ye.yeaicodemother.service.impl;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.ye.yeaicodemother.config.ChatMemoryCompactionProperties;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
+import com.ye.yeaicodemother.model.entity.ChatHistory;
+import com.ye.yeaicodemother.model.entity.ChatHistorySummary;
+import com.ye.yeaicodemother.model.enums.ChatHistoryMessageTypeEnum;
+import com.ye.yeaicodemother.service.ChatHistoryService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ChatHistorySummaryServiceImplTest {
+
+    private static final long APP_ID = 1L;
+
+    private ChatHistorySummaryServiceImpl summaryService;
+
+    private ChatHistoryService chatHistoryService;
+
+    private ChatModel routingChatModel;
+
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
+    /**
+     * 最近一次发给摘要模型的用户消息
+     */
+    private final AtomicReference<String> lastPrompt = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        ChatMemoryCompactionProperties properties = new ChatMemoryCompactionProperties();
+        properties.setTokenThreshold(100);
+        properties.setKeepRecentMessages(2);
+        chatHistoryService = mock(ChatHistoryService.class);
+        routingChatModel = mock(ChatModel.class);
+        when(routingChatModel.chat(any(ChatMessage[].class))).thenAnswer(invocation -> {
+            UserMessage userMessage = invocation.getArgument(1);
+            lastPrompt.set(userMessage.singleText());
+            return ChatResponse.builder().aiMessage(AiMessage.from("新摘要")).build();
+        });
+        appCacheInvalidationManager = mock(AppCacheInvalidationManager.class);
+
+        summaryService = spy(new ChatHistorySummaryServiceImpl());
+        ReflectionTestUtils.setField(summaryService, "compactionProperties", properties);
+        ReflectionTestUtils.setField(summaryService, "chatHistoryService", chatHistoryService);
+        ReflectionTestUtils.setField(summaryService, "routingChatModel", routingChatModel);
+        ReflectionTestUtils.setField(summaryService, "appCacheInvalidationManager", appCacheInvalidationManager);
+        doReturn(true).when(summaryService).save(any(ChatHistorySummary.class));
+    }
+
+    @Test
+    void skipsCompactionBelowTokenThreshold() {
+        doReturn(null).when(summaryService).getOne(any(QueryWrapper.class));
+        when(chatHistoryService.list(any(QueryWrapper.class))).thenReturn(histories(1, 5, "短消息"));
+
+        assertFalse(summaryService.compactIfNeeded(APP_ID));
+        verifyNoInteractions(routingChatModel);
+        verify(summaryService, never()).save(any(ChatHistorySummary.class));
+    }
+
+    @Test
+    void skipsCompactionWhenOnlyRecentMessagesRemain() {
+        doReturn(null).when(summaryService).getOne(any(QueryWrapper.class));
+        when(chatHistoryService.list(any(QueryWrapper.class))).thenReturn(histories(1, 2, "长".repeat(200)));
+
+        assertFalse(summaryService.compactIfNeeded(APP_ID));
+        verifyNoInteractions(routingChatModel);
+    }
+
+    @Test
+    void compactsAllButRecentMessagesAndAdvancesWatermark() {
+        ChatHistorySummary previous = ChatHistorySummary.builder()
+                .appId(APP_ID)
+                .summary("旧摘要")
+                .lastHistoryId(10L)
+                .build();
+        doReturn(previous).when(summaryService).getOne(any(QueryWrapper.class));
+        when(chatHistoryService.list(any(QueryWrapper.class))).thenReturn(histories(11, 5, "长".repeat(30)));
+
+        assertTrue(summaryService.compactIfNeeded(APP_ID));
+
+        ArgumentCaptor<ChatHistorySummary> captor = ArgumentCaptor.forClass(ChatHistorySummary.class);
+        verify(summaryService).save(captor.capture());
+        ChatHistorySummary saved = captor.getValue();
+        assertEquals("新摘要", saved.getSummary());
+        // 5 条中保留最近 2 条，水位线推进到第 3 条（id = 13）
+        assertEquals(13L, saved.getLastHistoryId());
+        assertEquals(3, saved.getMessageCount());
+        // 已有摘要参与合并
+        assertTrue(lastPrompt.get().contains("旧摘要"));
+        verify(appCacheInvalidationManager).invalidate(anyLong(), anyString());
+    }
+
+    @Test
+    void keepsPreviousSummaryWhenModelReturnsBlank() {
+        doReturn(null).when(summaryService).getOne(any(QueryWrapper.class));
+        when(chatHistoryService.list(any(QueryWrapper.class))).thenReturn(histories(1, 5, "长".repeat(30)));
+        when(routingChatModel.chat(any(ChatMessage[].class)))
+                .thenReturn(ChatResponse.builder().aiMessage(AiMessage.from(" ")).build());
+
+        assertFalse(summaryService.compactIfNeeded(APP_ID));
+        verify(summaryService, never()).save(any(ChatHistorySummary.class));
+        verifyNoInteractions(appCacheInvalidationManager);
+    }
+
+    /**
+     * 构造 id 连续、用户与 AI 交替的对话历史
+     */
+    private static List<ChatHistory> histories(long firstId, int count, String message) {
+        List<ChatHistory> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ChatHistoryMessageTypeEnum type = i % 2 == 0 ? ChatHistoryMessageTypeEnum.USER : ChatHistoryMessageTypeEnum.AI;
+            list.add(ChatHistory.builder()
+                    .id(firstId + i)
+                    .appId(APP_ID)
+                    .message(message)
+                    .messageType(type.getValue())
+                    .build());
+        }
+        return list;
+    }
+}
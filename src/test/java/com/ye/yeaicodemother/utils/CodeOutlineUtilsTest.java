@@ -0,0 +1,49 @@
+package com.ye.yeaicodemother.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeOutlineUtilsTest {
+
+    @Test
+    void outlineVueFile() {
+        String content = """
+                <template>
+                  <div class="home">{{ title }}</div>
+                </template>
+
+                <script setup>
+                import { ref } from 'vue'
+                const props = defineProps({ title: String })
+                function increment() {
+                  count.value++
+                }
+                </script>
+
+                <style scoped>
+                .home { color: red; }
+                </style>
+                """;
+        String outline = CodeOutlineUtils.outline("src/views/Home.vue", content);
+        assertTrue(outline.contains("L1-3 <template>"));
+        assertTrue(outline.contains("L5-11 <script setup>"));
+        assertTrue(outline.contains("  L7 const props = defineProps({ title: String })"));
+        assertTrue(outline.contains("  L8 function increment()"));
+        assertTrue(outline.contains("L13-15 <style scoped>"));
+        assertFalse(outline.contains("count.value"));
+    }
+
+    @Test
+    void outlineJsFile() {
+        String content = """
+                import { createRouter } from 'vue-router'
+                export const router = createRouter({})
+                export default router
+                """;
+        String outline = CodeOutlineUtils.outline("src/router/index.js", content);
+        assertTrue(outline.contains("  L2 export const router = createRouter({})"));
+        assertTrue(outline.contains("  L3 export default router"));
+        assertFalse(CodeOutlineUtils.isSupported("public/logo.png"));
+    }
+}
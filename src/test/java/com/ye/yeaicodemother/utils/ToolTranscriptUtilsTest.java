@@ -0,0 +1,56 @@
+package com.ye.yeaicodemother.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ToolTranscriptUtilsTest {
+
+    @Test
+    void compactLegacyWriteAndModify() {
+        String transcript = """
+                开始生成项目
+
+                [工具调用] 写入文件 src/App.vue
+                ```vue
+                <template>
+                  <div>Hello</div>
+                </template>
+                ```
+
+
+                [工具调用] 修改文件 src/main.js
+
+                替换前：
+                ```
+                const a = 1
+                ```
+
+                替换后：
+                ```
+                const a = 2
+                ```
+
+                生成完毕
+                """;
+        String compacted = ToolTranscriptUtils.compact(transcript);
+        assertTrue(compacted.contains("[工具调用] 写入文件 src/App.vue（sha256:"));
+        assertTrue(compacted.contains("[工具调用] 修改文件 src/main.js（替换前 sha256:"));
+        assertFalse(compacted.contains("<div>Hello</div>"));
+        assertFalse(compacted.contains("const a = 2"));
+        assertTrue(compacted.contains("生成完毕"));
+    }
+
+    @Test
+    void compactKeepsPlainText() {
+        String transcript = "没有任何工具调用的回复";
+        assertEquals(transcript, ToolTranscriptUtils.compact(transcript));
+    }
+
+    @Test
+    void buildContentReference() {
+        String reference = ToolTranscriptUtils.buildContentReference("你好");
+        assertTrue(reference.startsWith("sha256:"));
+        assertTrue(reference.endsWith("6 字节"));
+    }
+}
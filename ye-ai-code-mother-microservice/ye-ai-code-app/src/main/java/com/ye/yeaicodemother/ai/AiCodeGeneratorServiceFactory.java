@@ -6,6 +6,7 @@ import com.ye.yeaicodemother.ai.guardrail.PromptSafetyInputGuardrail;
 import com.ye.yeaicodemother.ai.tools.*;
 import com.ye.yeaicodemother.exception.BusinessException;
 import com.ye.yeaicodemother.exception.ErrorCode;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
 import com.ye.yeaicodemother.model.enums.CodeGenTypeEnum;
 import com.ye.yeaicodemother.service.ChatHistoryService;
 import com.ye.yeaicodemother.utils.SpringContextUtil;
@@ -15,6 +16,7 @@ import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -41,6 +43,9 @@ public class AiCodeGeneratorServiceFactory {
     @Resource
     private ToolManager toolManager;
 
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
     /**
      * AI 服务实例缓存
      * 缓存策略：
@@ -57,6 +62,14 @@ public class AiCodeGeneratorServiceFactory {
             })
             .build();
 
+    /**
+     * 注册到集群失效总线，其他节点变更应用状态时驱逐本节点的服务实例
+     */
+    @PostConstruct
+    public void registerInvalidationListener() {
+        appCacheInvalidationManager.registerListener(this::invalidateAppCache);
+    }
+
     /**
      * 根据 appId 获取服务（为了兼容老逻辑）
      *
@@ -79,6 +92,18 @@ public class AiCodeGeneratorServiceFactory {
         return serviceCache.get(cacheKey, key -> createAiCodeGeneratorService(appId, codeGenType));
     }
 
+    /**
+     * 使指定应用的全部 AI 服务实例缓存失效（仅当前节点）
+     * 跨节点失效请使用 {@link AppCacheInvalidationManager#invalidate(Long, String)}
+     *
+     * @param appId 应用 id
+     */
+    public void invalidateAppCache(long appId) {
+        String keyPrefix = appId + "_";
+        serviceCache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+        log.info("AI 服务实例缓存已失效，appId: {}", appId);
+    }
+
     /**
      * 创建新的 AI 服务实例
      *
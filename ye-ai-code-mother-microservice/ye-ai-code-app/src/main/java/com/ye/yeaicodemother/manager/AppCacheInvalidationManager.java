@@ -0,0 +1,139 @@
+package com.ye.yeaicodemother.manager;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 应用级缓存失效管理器（集群失效总线）
+ * <p>
+ * 各节点的本地缓存（AI 服务实例、对话记忆等）都以 appId 为维度，
+ * 当某个应用的记忆或对话历史发生变化时，通过 Redis 发布/订阅通知所有节点驱逐该应用的本地缓存，
+ * 从而可以在负载均衡后部署多个应用服务节点，同时保留本地缓存。
+ * </p>
+ */
+@Component
+@Slf4j
+public class AppCacheInvalidationManager {
+
+    /**
+     * 失效消息主题
+     */
+    private static final String INVALIDATION_TOPIC = "app:cache:invalidate";
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    /**
+     * 当前节点标识，用于忽略自己发出的消息
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * 本地缓存失效监听器（入参为 appId）
+     */
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    private RTopic topic;
+
+    private int listenerId = -1;
+
+    @PostConstruct
+    public void init() {
+        topic = redissonClient.getTopic(INVALIDATION_TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+        log.info("应用缓存失效总线已启动，节点: {}", nodeId);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (topic != null && listenerId != -1) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    /**
+     * 注册本地缓存失效监听器
+     *
+     * @param listener 入参为需要失效的 appId
+     */
+    public void registerListener(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 失效所有节点（包括当前节点）中该应用的本地缓存
+     * 适用于应用删除、对话历史删除、对话摘要更新等场景
+     *
+     * @param appId  应用 ID
+     * @param reason 失效原因（仅用于日志）
+     */
+    public void invalidate(Long appId, String reason) {
+        if (appId == null || appId <= 0) {
+            return;
+        }
+        invalidateLocal(appId);
+        publish(appId, reason);
+    }
+
+    /**
+     * 发布失效消息，发布失败不影响主流程
+     */
+    private void publish(Long appId, String reason) {
+        JSONObject message = new JSONObject();
+        message.set("appId", appId);
+        message.set("nodeId", nodeId);
+        message.set("reason", reason);
+        try {
+            topic.publish(message.toString());
+        } catch (Exception e) {
+            log.error("发布应用缓存失效消息失败，appId: {}, 原因: {}", appId, reason, e);
+        }
+    }
+
+    /**
+     * 处理其他节点发来的失效消息
+     */
+    private void onMessage(String message) {
+        try {
+            JSONObject json = JSONUtil.parseObj(message);
+            if (nodeId.equals(json.getStr("nodeId"))) {
+                return;
+            }
+            Long appId = json.getLong("appId");
+            if (appId == null) {
+                return;
+            }
+            log.info("收到应用缓存失效消息，appId: {}, 来源节点: {}, 原因: {}",
+                    appId, json.getStr("nodeId"), json.getStr("reason"));
+            invalidateLocal(appId);
+        } catch (Exception e) {
+            log.error("处理应用缓存失效消息失败: {}", message, e);
+        }
+    }
+
+    /**
+     * 失效当前节点的本地缓存，单个监听器失败不影响其他监听器
+     */
+    private void invalidateLocal(Long appId) {
+        for (Consumer<Long> listener : listeners) {
+            try {
+                listener.accept(appId);
+            } catch (Exception e) {
+                log.error("本地缓存失效失败，appId: {}", appId, e);
+            }
+        }
+    }
+}
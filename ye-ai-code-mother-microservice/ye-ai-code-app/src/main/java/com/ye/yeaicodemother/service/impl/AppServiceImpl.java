@@ -18,6 +18,7 @@ import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.exception.ThrowUtils;
 import com.ye.yeaicodemother.innerservice.InnerScreenshotService;
 import com.ye.yeaicodemother.innerservice.InnerUserService;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
 import com.ye.yeaicodemother.model.dto.app.AppAddRequest;
 import com.ye.yeaicodemother.model.dto.app.AppQueryRequest;
 import com.ye.yeaicodemother.model.entity.App;
@@ -78,6 +79,9 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     @Resource
     private AiCodeGenTypeRoutingServiceFactory aiCodeGenTypeRoutingServiceFactory;
 
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
     @Override
     public Flux<String> chatToGenCode(Long appId, String message, User loginUser) {
         // 1. 参数校验
@@ -101,6 +105,7 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         // 6. 调用 AI 生成代码（流式）
         Flux<String> codeStream = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeGenTypeEnum, appId);
         // 7. 收集 AI 响应的内容，并且在完成后保存记录到对话历史
+        // 对话记忆保存在 Redis 中，各节点共享，对话完成后无需驱逐其他节点的缓存
         return streamHandlerExecutor.doExecute(codeStream, chatHistoryService, appId, loginUser, codeGenTypeEnum);
     }
 
@@ -291,6 +296,9 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
             log.error("删除应用关联的对话历史失败：{}", e.getMessage());
         }
         // 删除应用
-        return super.removeById(id);
+        boolean result = super.removeById(id);
+        // 通知所有节点驱逐该应用的本地缓存
+        appCacheInvalidationManager.invalidate(appId, "应用删除");
+        return result;
     }
 }
@@ -8,6 +8,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.ye.yeaicodemother.constant.UserConstant;
 import com.ye.yeaicodemother.exception.ErrorCode;
 import com.ye.yeaicodemother.exception.ThrowUtils;
+import com.ye.yeaicodemother.manager.AppCacheInvalidationManager;
 import com.ye.yeaicodemother.model.dto.chathistory.ChatHistoryQueryRequest;
 import com.ye.yeaicodemother.model.entity.App;
 import com.ye.yeaicodemother.model.entity.ChatHistory;
@@ -40,6 +41,9 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Lazy
     private AppService appService;
 
+    @Resource
+    private AppCacheInvalidationManager appCacheInvalidationManager;
+
     @Override
     public boolean addChatMessage(Long appId, String message, String messageType, Long userId) {
         // 基础校验
@@ -65,7 +69,10 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .eq("appId", appId);
-        return this.remove(queryWrapper);
+        boolean result = this.remove(queryWrapper);
+        // 通知所有节点驱逐该应用缓存的 AI 服务与记忆
+        appCacheInvalidationManager.invalidate(appId, "对话历史删除");
+        return result;
     }
 
     @Override